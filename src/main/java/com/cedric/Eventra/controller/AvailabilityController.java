@@ -0,0 +1,48 @@
+package com.cedric.Eventra.controller;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.service.AvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@RestController
+@RequestMapping("/api/availability")
+@RequiredArgsConstructor
+public class AvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    /**
+     * Taken slots of a provider, e.g. /api/availability/providers/5?from=2025-07-01&days=7
+     */
+    @GetMapping("/providers/{providerId}")
+    public ResponseEntity<Response> getProviderBusySlots(
+            @PathVariable Long providerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) Integer days) {
+        Response serviceResponse = availabilityService.getProviderBusySlots(providerId, from, days);
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
+    /**
+     * Whether a service can be booked at a time, e.g. /api/availability/services/3?date=2025-07-01&time=14:30
+     */
+    @GetMapping("/services/{serviceId}")
+    public ResponseEntity<Response> checkServiceAvailability(
+            @PathVariable Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime time) {
+        Response serviceResponse = availabilityService.checkServiceAvailability(serviceId, date, time);
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+}
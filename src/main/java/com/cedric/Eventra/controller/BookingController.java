@@ -2,24 +2,31 @@ package com.cedric.Eventra.controller;
 
 
 import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.BulkBookingActionRequestDTO;
 import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.enums.BookingStatus;
 import com.cedric.Eventra.service.BookingService;
 import com.cedric.Eventra.service.booking.command.*;
+import com.cedric.Eventra.service.idempotency.IdempotencyStore;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationContext;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/bookings")
 @RequiredArgsConstructor
 public class BookingController {
 
     private final BookingService bookingService;
-    private final ApplicationContext applicationContext;
+    private final BookingCommandDispatcher bookingCommandDispatcher;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * Endpoint for a customer to create a new booking request.
@@ -27,13 +34,16 @@ public class BookingController {
      *
      * @param bookingDetailsDTO DTO containing booking request details.
      * Crucially, include 'service.id' to identify the OfferedService.
+     * @param idempotencyKey    Optional client-generated key; retries with the same key replay the first response.
      * @return ResponseEntity containing the standard Response object.
      */
     @PostMapping
     @PreAuthorize("isAuthenticated()")// Any authenticated user can create a booking
-    public ResponseEntity<Response> createBooking(@Valid @RequestBody BookingDTO bookingDetailsDTO) {
-        CreateBookingCommand command = applicationContext.getBean(CreateBookingCommand.class).init(bookingDetailsDTO);
-        Response serviceResponse = command.execute();
+    public ResponseEntity<Response> createBooking(
+            @Valid @RequestBody BookingDTO bookingDetailsDTO,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        Response serviceResponse = idempotencyStore.execute(idempotencyKey, "POST /api/bookings", bookingDetailsDTO,
+                () -> bookingCommandDispatcher.dispatch(new CreateBookingCommand(bookingDetailsDTO)));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
@@ -46,8 +56,7 @@ public class BookingController {
     @PutMapping("/{bookingReference}/provider-accept")
     @PreAuthorize("hasAuthority('SERVICE_PROVIDER')")
     public ResponseEntity<Response> providerAcceptBooking(@PathVariable String bookingReference) {
-        AcceptBookingCommand command = applicationContext.getBean(AcceptBookingCommand.class).init(bookingReference);
-        Response serviceResponse = command.execute();
+        Response serviceResponse = bookingCommandDispatcher.dispatch(new AcceptBookingCommand(bookingReference));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
@@ -60,8 +69,23 @@ public class BookingController {
     @PutMapping("/{bookingReference}/provider-reject")
     @PreAuthorize("hasAuthority('SERVICE_PROVIDER')")
     public ResponseEntity<Response> providerRejectBooking(@PathVariable String bookingReference) {
-        RejectBookingCommand command = applicationContext.getBean(RejectBookingCommand.class).init(bookingReference);
-        Response serviceResponse = command.execute();
+        Response serviceResponse = bookingCommandDispatcher.dispatch(new RejectBookingCommand(bookingReference));
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
+    /**
+     * Endpoint for an authenticated service provider to accept, reject or complete many bookings at once.
+     * Runs as one transaction; bookings that cannot take the action are reported in 'bulkResults'
+     * without failing the others.
+     *
+     * @param request The action and up to 100 booking references.
+     * @return ResponseEntity containing the standard Response object with a per-booking outcome.
+     */
+    @PutMapping("/provider-bulk")
+    @PreAuthorize("hasAuthority('SERVICE_PROVIDER')")
+    public ResponseEntity<Response> providerBulkAction(@Valid @RequestBody BulkBookingActionRequestDTO request) {
+        Response serviceResponse = bookingCommandDispatcher.dispatch(
+                new BulkProviderBookingCommand(request.getAction(), request.getBookingReferences()));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
@@ -74,8 +98,7 @@ public class BookingController {
     @PutMapping("/{bookingReference}/customer-cancel")
     @PreAuthorize("isAuthenticated()") // Customer must be authenticated
     public ResponseEntity<Response> customerCancelBooking(@PathVariable String bookingReference) {
-        CustomerCancelBookingCommand command = applicationContext.getBean(CustomerCancelBookingCommand.class).init(bookingReference);
-        Response serviceResponse = command.execute();
+        Response serviceResponse = bookingCommandDispatcher.dispatch(new CustomerCancelBookingCommand(bookingReference));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
@@ -90,8 +113,7 @@ public class BookingController {
     @PreAuthorize("hasAuthority('SERVICE_PROVIDER')")
     public ResponseEntity<Response> providerCancelBooking(@PathVariable String bookingReference,
                                                           @RequestParam(required = false) String reason) {
-        ProviderCancelBookingCommand command = applicationContext.getBean(ProviderCancelBookingCommand.class).init(bookingReference, reason);
-        Response serviceResponse = command.execute();
+        Response serviceResponse = bookingCommandDispatcher.dispatch(new ProviderCancelBookingCommand(bookingReference, reason));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
@@ -106,8 +128,7 @@ public class BookingController {
     @PutMapping("/{bookingReference}/confirm-payment")
     // @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('SYSTEM')") // Example: Or just isAuthenticated() if a user action after payment
     public ResponseEntity<Response> confirmBookingPayment(@PathVariable String bookingReference) {
-        ConfirmBookingPaymentCommand command = applicationContext.getBean(ConfirmBookingPaymentCommand.class).init(bookingReference);
-        Response serviceResponse = command.execute();
+        Response serviceResponse = bookingCommandDispatcher.dispatch(new ConfirmBookingPaymentCommand(bookingReference));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
@@ -120,32 +141,53 @@ public class BookingController {
     @PutMapping("/{bookingReference}/complete")
     @PreAuthorize("hasAuthority('SERVICE_PROVIDER')")
     public ResponseEntity<Response> markBookingAsCompleted(@PathVariable String bookingReference) {
-        MarkBookingAsCompletedCommand command = applicationContext.getBean(MarkBookingAsCompletedCommand.class).init(bookingReference);
-        Response serviceResponse = command.execute();
+        Response serviceResponse = bookingCommandDispatcher.dispatch(new MarkBookingAsCompletedCommand(bookingReference));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
     /**
-     * Endpoint for an authenticated customer to retrieve all of their bookings.
+     * Endpoint for an authenticated customer to retrieve a page of their bookings.
+     * Pass the returned nextCursor as 'cursor' (with the same filters and order) to load the next page.
      *
-     * @return ResponseEntity containing the standard Response object with their list of bookings.
+     * @param status Optional status filter; repeat or comma-separate for several statuses.
+     * @param from Optional first creation day (inclusive), e.g. 2025-06-01.
+     * @param to Optional last creation day (inclusive).
+     * @param order "desc" (newest first, default) or "asc".
+     * @param cursor Optional cursor from the previous page.
+     * @param size Optional page size (default 20, max 100).
+     * @return ResponseEntity containing the standard Response object with a page of bookings.
      */
     @GetMapping("/my-bookings/customer")
     @PreAuthorize("isAuthenticated()") // Assuming any logged-in user might be a customer
-    public ResponseEntity<Response> getMyBookingsAsCustomer() {
-        Response serviceResponse = bookingService.getMyBookingAsCustomer();
+    public ResponseEntity<Response> getMyBookingsAsCustomer(
+            @RequestParam(required = false) List<BookingStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        Response serviceResponse = bookingService.getMyBookingAsCustomer(status, from, to, order, cursor, size);
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
     /**
-     * Endpoint for an authenticated service provider to retrieve all bookings related to their services.
+     * Endpoint for an authenticated service provider to retrieve a page of bookings for their services.
+     * Same paging and filters as the customer list, plus an optional service filter.
      *
-     * @return ResponseEntity containing the standard Response object with relevant bookings.
+     * @param serviceId Optional ID of one of the provider's services.
+     * @return ResponseEntity containing the standard Response object with a page of bookings.
      */
     @GetMapping("/my-bookings/provider")
     @PreAuthorize("hasAuthority('SERVICE_PROVIDER')")
-    public ResponseEntity<Response> getMyBookingsAsProvider() {
-        Response serviceResponse = bookingService.getMyBookingAsProvider();
+    public ResponseEntity<Response> getMyBookingsAsProvider(
+            @RequestParam(required = false) Long serviceId,
+            @RequestParam(required = false) List<BookingStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        Response serviceResponse = bookingService.getMyBookingAsProvider(serviceId, status, from, to, order, cursor, size);
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
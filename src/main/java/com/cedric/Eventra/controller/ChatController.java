@@ -46,17 +46,56 @@ public class ChatController {
     }
 
     /**
-     * Endpoint to retrieve messages for a specific chat room.
+     * Endpoint for the authenticated user's inbox: their chat rooms by latest activity, each with the
+     * other participant, a preview of the last message and the number of unread messages.
+     *
+     * @param cursor Optional nextCursor from the previous page.
+     * @param size Optional page size (default 20, max 50).
+     * @return ResponseEntity containing the Response with a list of ChatInboxEntryDTOs.
+     */
+    @GetMapping("/rooms/inbox")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Response> getMyInbox(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        Response serviceResponse = chatService.getMyInbox(cursor, size);
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
+    /**
+     * Endpoint to mark a chat room as read by the authenticated user, up to a message or up to the
+     * room's last message. Read positions only move forward.
+     *
+     * @param chatRoomId The ID of the chat room.
+     * @param messageId Optional ID of the newest message the user has seen.
+     * @return ResponseEntity containing the Response.
+     */
+    @PostMapping("/rooms/{chatRoomId}/read")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Response> markChatRoomRead(@PathVariable Long chatRoomId,
+                                                     @RequestParam(required = false) Long messageId) {
+        Response serviceResponse = chatService.markChatRoomRead(chatRoomId, messageId);
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
+    /**
+     * Endpoint to retrieve a page of messages for a specific chat room.
      * Authenticated user must be a participant of the chat room.
-     * (Simplified version - no pagination for now)
+     * Without a cursor the newest page is returned; pass the returned nextCursor as
+     * 'before' to load older history, or a message ID as 'after' to load newer messages.
      *
      * @param chatRoomId The ID of the chat room.
-     * @return ResponseEntity containing the Response with a list of ChatMessageDTOs.
+     * @param before Optional message ID; return messages older than this one.
+     * @param after Optional message ID; return messages newer than this one.
+     * @param size Optional page size (default 50, max 100).
+     * @return ResponseEntity containing the Response with a list of ChatMessageDTOs (oldest first).
      */
     @GetMapping("/rooms/{chatRoomId}/messages")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Response> getChatMessagesForRoom(@PathVariable Long chatRoomId) {
-        Response serviceResponse = chatService.getChatMessagesForRoom(chatRoomId);
+    public ResponseEntity<Response> getChatMessagesForRoom(@PathVariable Long chatRoomId,
+                                                           @RequestParam(required = false) Long before,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer size) {
+        Response serviceResponse = chatService.getChatMessagesForRoom(chatRoomId, before, after, size);
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 }
\ No newline at end of file
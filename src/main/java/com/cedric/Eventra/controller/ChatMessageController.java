@@ -2,11 +2,15 @@ package com.cedric.Eventra.controller;
 
 import com.cedric.Eventra.dto.ChatMessageDTO;
 import com.cedric.Eventra.dto.SendMessageRequestDTO;
+import com.cedric.Eventra.dto.TypingRequestDTO;
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException; // Assuming you have this
+import com.cedric.Eventra.security.AuthUser;
 import com.cedric.Eventra.service.ChatService;
 import com.cedric.Eventra.service.UserService; // To fetch User entity from Principal
+import com.cedric.Eventra.service.chat.ChatPresenceService;
+import com.cedric.Eventra.service.chat.ChatRoomMembershipCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
@@ -16,6 +20,8 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser; // For sending errors back to user
 import org.springframework.security.core.Authentication; // For getting authenticated principal
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 
@@ -29,11 +35,15 @@ public class ChatMessageController {
     private final ChatService chatService;
     private final SimpMessagingTemplate messagingTemplate;
     private final UserService userService; // To convert Principal to your User entity
+    private final UserDetailsService userDetailsService;
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final ChatPresenceService chatPresenceService;
 
     /**
      * Handles incoming chat messages sent by clients via WebSocket/STOMP.
      * Client sends to "/app/chat.send".
-     * The message is processed, saved, and then broadcast to subscribers of the specific chat room's topic.
+     * The message is checked and queued for saving, then broadcast to subscribers of the specific chat room's topic
+     * without waiting for the database write.
      *
      * @param messageRequest DTO containing chatRoomId and message content.
      * @param principal      The authenticated user sending the message (populated by JwtStompAuthChannelInterceptor).
@@ -52,9 +62,10 @@ public class ChatMessageController {
 
         User sender;
         try {
-            // Assuming principal.getName() returns the username (e.g., email)
-            // You'll need a method in UserService to fetch User by username/email
-            sender = userService.getUserByEmail(principal.getName()); // Or getUserByEmail
+            // principal.getName() is the email; served from the principal cache filled at STOMP CONNECT,
+            // so sending does not query the users table
+            UserDetails userDetails = userDetailsService.loadUserByUsername(principal.getName());
+            sender = userDetails instanceof AuthUser authUser ? authUser.getUser() : userService.getUserByEmail(principal.getName());
         } catch (Exception e) {
             log.error("Cannot send message: Could not retrieve sender User object for principal '{}' for room {}.", principal.getName(), messageRequest.getChatRoomId(), e);
             // Send error to user's private error queue if configured
@@ -75,6 +86,8 @@ public class ChatMessageController {
             // The destination is typically like "/topic/room/{chatRoomId}".
             String destination = "/topic/room." + messageRequest.getChatRoomId();
             messagingTemplate.convertAndSend(destination, savedMessageDTO);
+            // A sent message ends the sender's typing indicator without waiting for the client to say so
+            chatPresenceService.typing(messageRequest.getChatRoomId(), sender.getId(), false);
 
             log.info("Message from user {} sent to chat room {} and broadcasted to {}", sender.getEmail(), messageRequest.getChatRoomId(), destination);
 
@@ -88,6 +101,32 @@ public class ChatMessageController {
         }
     }
 
+    /**
+     * Typing indicator updates. Client sends to "/app/chat.typing" with typing = true every few seconds while
+     * the user types and typing = false when they stop; ChatPresenceService coalesces them into the room's
+     * presence broadcasts on "/topic/room.{chatRoomId}.presence".
+     *
+     * @param typingRequest DTO containing chatRoomId and whether the user is typing.
+     * @param principal     The authenticated user (populated by JwtStompAuthChannelInterceptor).
+     */
+    @MessageMapping("/chat.typing")
+    public void handleTyping(@Payload @Validated TypingRequestDTO typingRequest, Principal principal) {
+        if (principal == null || principal.getName() == null) {
+            return;
+        }
+        // Served from the principal cache, like the sender lookup above
+        UserDetails userDetails = userDetailsService.loadUserByUsername(principal.getName());
+        if (!(userDetails instanceof AuthUser authUser)) {
+            return;
+        }
+        Long userId = authUser.getUser().getId();
+        if (!chatRoomMembershipCache.isParticipant(typingRequest.getChatRoomId(), userId)) {
+            log.warn("Ignoring typing update from user {} for chat room {} they are not part of.", userId, typingRequest.getChatRoomId());
+            return;
+        }
+        chatPresenceService.typing(typingRequest.getChatRoomId(), userId, typingRequest.isTyping());
+    }
+
     /**
      * Example of a general error handler for exceptions thrown from @MessageMapping methods.
      * This message will be sent to the user's private "/queue/errors" destination.
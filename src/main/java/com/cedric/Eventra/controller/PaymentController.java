@@ -3,6 +3,7 @@ package com.cedric.Eventra.controller;
 import com.cedric.Eventra.dto.Response;
 import com.cedric.Eventra.dto.SimulatedPaymentRequestDTO;
 import com.cedric.Eventra.service.PaymentService;
+import com.cedric.Eventra.service.idempotency.IdempotencyStore;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * Endpoint for a customer to simulate making a payment for their booking.
@@ -23,14 +25,18 @@ public class PaymentController {
      *
      * @param bookingReference The reference of the booking to pay for.
      * @param paymentRequest   DTO containing dummy card details for simulation.
+     * @param idempotencyKey   Optional client-generated key; retries with the same key replay the first response.
      * @return ResponseEntity containing the standard Response object.
      */
     @PostMapping("/booking/{bookingReference}/simulate")
     @PreAuthorize("isAuthenticated()") // Customer must be authenticated
     public ResponseEntity<Response> simulatePaymentForBooking(
             @PathVariable String bookingReference,
-            @Valid @RequestBody SimulatedPaymentRequestDTO paymentRequest) {
-        Response serviceResponse = paymentService.processSimulatedPayment(bookingReference, paymentRequest);
+            @Valid @RequestBody SimulatedPaymentRequestDTO paymentRequest,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        Response serviceResponse = idempotencyStore.execute(idempotencyKey,
+                "POST /api/payments/booking/" + bookingReference + "/simulate", paymentRequest,
+                () -> paymentService.processSimulatedPayment(bookingReference, paymentRequest));
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
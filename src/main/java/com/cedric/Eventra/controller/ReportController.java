@@ -7,6 +7,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -29,6 +30,30 @@ public class ReportController {
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
+    /**
+     * Endpoint for an admin to see how far the booking read model lags behind the bookings table.
+     *
+     * @return ResponseEntity containing the standard Response object with the read model status.
+     */
+    @GetMapping("/admin/booking-read-model")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> getBookingReadModelStatus() {
+        Response serviceResponse = reportService.getBookingReadModelStatus();
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
+    /**
+     * Endpoint for an admin to rebuild the booking read model from the bookings table.
+     *
+     * @return ResponseEntity containing the standard Response object with the rebuilt read model status.
+     */
+    @PostMapping("/admin/booking-read-model/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> rebuildBookingReadModel() {
+        Response serviceResponse = reportService.rebuildBookingReadModel();
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
     // You can add more report endpoints here later
     // e.g., @GetMapping("/provider/bookings-detailed") for a more detailed booking report
 }
\ No newline at end of file
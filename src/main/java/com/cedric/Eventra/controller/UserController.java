@@ -63,6 +63,41 @@ public class UserController {
         }
     }
 
+    /**
+     * Endpoint to find active service providers near a postcode or coordinate, nearest first.
+     * Publicly accessible.
+     *
+     * @param postcode Australian postcode to search around (ignored when latitude and longitude are given).
+     * @param latitude Latitude of the search centre.
+     * @param longitude Longitude of the search centre.
+     * @param radiusKm Search radius in kilometres (default 20, max 200).
+     * @param category Optional service category filter.
+     * @param limit Maximum number of providers returned (default 20, max 100).
+     * @return ResponseEntity containing the standard Response object with the nearby service providers.
+     */
+    @GetMapping("/service-providers/nearby")
+    public ResponseEntity<Response> getServiceProvidersNearby(@RequestParam(value = "postcode", required = false) String postcode,
+                                                              @RequestParam(value = "lat", required = false) Double latitude,
+                                                              @RequestParam(value = "lng", required = false) Double longitude,
+                                                              @RequestParam(value = "radiusKm", required = false) Double radiusKm,
+                                                              @RequestParam(value = "category", required = false) String category,
+                                                              @RequestParam(value = "limit", required = false) Integer limit) {
+        ServiceCategory serviceCategory = null;
+        if (category != null && !category.isBlank()) {
+            try {
+                serviceCategory = ServiceCategory.valueOf(category.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                Response errorResponse = Response.builder()
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message("Invalid service category: " + category)
+                        .build();
+                return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+            }
+        }
+        Response serviceResponse = userService.getServiceProvidersNearby(postcode, latitude, longitude, radiusKm, serviceCategory, limit);
+        return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
+    }
+
     @GetMapping("/service-providers")
     public ResponseEntity<Response> getAllActiveServiceProviders() {
         Response serviceResponse = userService.getAllActiveServiceProviders();
@@ -85,15 +120,20 @@ public class UserController {
 
     // ------------- NEW ENDPOINT -------------
     /**
-     * Endpoint to search for active service providers by service name.
+     * Endpoint to search for active service providers by service name, category, location, postcode
+     * or the name/description of the services they offer. Results are ranked and tolerate prefixes and typos.
      * Publicly accessible.
      *
-     * @param name The service name query to search for.
-     * @return ResponseEntity containing the standard Response object with the list of matching service providers.
+     * @param name The search query.
+     * @param page Zero-based page number (default 0).
+     * @param size Page size (default 20, max 100).
+     * @return ResponseEntity containing the standard Response object with the page of matching service providers.
      */
     @GetMapping("/service-providers/search")
-    public ResponseEntity<Response> searchServiceProvidersByName(@RequestParam("name") String name) {
-        Response serviceResponse = userService.searchServiceProvidersByName(name);
+    public ResponseEntity<Response> searchServiceProvidersByName(@RequestParam("name") String name,
+                                                                 @RequestParam(value = "page", required = false) Integer page,
+                                                                 @RequestParam(value = "size", required = false) Integer size) {
+        Response serviceResponse = userService.searchServiceProvidersByName(name, page, size);
         return new ResponseEntity<>(serviceResponse, HttpStatus.valueOf(serviceResponse.getStatus()));
     }
 
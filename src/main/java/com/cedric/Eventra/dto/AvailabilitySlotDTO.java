@@ -0,0 +1,15 @@
+package com.cedric.Eventra.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class AvailabilitySlotDTO {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Long serviceId;
+    private boolean held; // True while the booking awaits the provider or payment; false once paid
+}
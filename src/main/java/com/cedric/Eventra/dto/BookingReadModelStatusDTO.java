@@ -0,0 +1,18 @@
+package com.cedric.Eventra.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingReadModelStatusDTO {
+    private Long staleBookings;        // Bookings whose read row is missing or behind; 0 when fully caught up
+    private Long lastEventLagMillis;   // Delay between the last booking event and its projection
+    private Long maxEventLagMillis;    // Largest such delay since startup
+    private LocalDateTime lastCatchUpAt;
+    private LocalDateTime lastRebuildAt;
+}
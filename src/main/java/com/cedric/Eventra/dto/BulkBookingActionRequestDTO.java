@@ -0,0 +1,20 @@
+package com.cedric.Eventra.dto;
+
+import com.cedric.Eventra.enums.BulkBookingAction;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkBookingActionRequestDTO {
+
+    @NotNull(message = "Action is required (ACCEPT, REJECT or COMPLETE).")
+    private BulkBookingAction action;
+
+    @NotEmpty(message = "At least one booking reference is required.")
+    @Size(max = 100, message = "At most 100 bookings can be updated at once.")
+    private List<String> bookingReferences;
+}
@@ -0,0 +1,17 @@
+package com.cedric.Eventra.dto;
+
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.BulkBookingOutcome;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkBookingResultDTO {
+    private String bookingReference;
+    private BulkBookingOutcome outcome;
+    private BookingStatus status; // Status after the action; null if the booking was not found or not yours
+    private String message;
+}
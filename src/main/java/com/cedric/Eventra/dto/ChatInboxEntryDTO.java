@@ -0,0 +1,28 @@
+package com.cedric.Eventra.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One room in the caller's inbox: who it is with, the last message and how many messages the caller has not read.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatInboxEntryDTO {
+    private Long chatRoomId;
+    private Long bookingId;
+    private Long otherParticipantId;
+    private String otherParticipantFirstName;
+    private String otherParticipantLastName;
+    private Long lastMessageId;
+    private Long lastMessageSenderId;
+    private String lastMessagePreview; // First 200 characters
+    private LocalDateTime lastMessageAt;
+    private long unreadCount;
+}
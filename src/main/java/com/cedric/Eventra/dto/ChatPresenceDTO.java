@@ -0,0 +1,21 @@
+package com.cedric.Eventra.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Broadcast on /topic/room.{id}.presence: the current state of the participants whose presence or typing
+ * changed since the last update for the room (or of everyone viewing it, on a new subscription and periodically).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatPresenceDTO {
+    private Long chatRoomId;
+    private List<UserPresenceDTO> users;
+}
@@ -17,6 +17,7 @@ public class ChatRoomDTO {
     private Long bookingId;       // Optional
     private LocalDateTime createdAt;
     private LocalDateTime lastMessageAt; // Useful for sorting rooms
-    // The actual last message content can be fetched when the room is opened,
-    // can add it back here later if needed for previews.or y
+    private Long lastMessageId;
+    private Long lastMessageSenderId;
+    private String lastMessagePreview; // First 200 characters; GET /api/v1/chat/rooms/inbox adds unread counts
 }
\ No newline at end of file
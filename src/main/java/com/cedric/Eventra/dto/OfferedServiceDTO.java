@@ -3,6 +3,8 @@ package com.cedric.Eventra.dto;
 import com.cedric.Eventra.enums.ServiceCategory;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +25,9 @@ public class OfferedServiceDTO {
     private String name;
     private BigDecimal price;
     private Boolean available;
+    @Min(value = 15, message = "Duration must be at least 15 minutes.")
+    @Max(value = 1440, message = "Duration cannot exceed one day.")
+    private Integer durationMinutes;
     private UserDTO provider;
     private String location;
     private String imageUrl; // New field for the full, accessible URL of the image
@@ -29,5 +29,5 @@ public class ProviderDashboardSummaryDTO {
     private int totalReviews;
 
     private Map<BookingStatus, Long> bookingStatusCounts;
-    // private Map<Integer, Long> ratingDistribution; // e.g., {5: 10, 4: 5, ...}
+    private Map<Integer, Long> ratingDistribution; // e.g., {5: 10, 4: 5, ...} (ratings rounded to whole stars)
 }
\ No newline at end of file
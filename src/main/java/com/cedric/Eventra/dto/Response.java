@@ -34,6 +34,7 @@ public class Response {
     // Booking data output
     private BookingDTO booking;
     private List<BookingDTO> bookings;
+    private List<BulkBookingResultDTO> bulkResults; // Per-booking outcome of a bulk action
 
     // Room data output
     private OfferedServiceDTO service;
@@ -53,6 +54,7 @@ public class Response {
 
     // Report data output
     private ProviderDashboardSummaryDTO dashboardSummary;
+    private BookingReadModelStatusDTO bookingReadModelStatus; // Projection lag of the booking read model
 
     // ServiceProviderProfile data output (NEWLY ADDED)
     private ServiceProviderProfileDTO serviceProviderProfile;
@@ -62,6 +64,15 @@ public class Response {
     private ChatRoomDTO chatRoom;                // For a single ChatRoomDTO
     private List<ChatRoomDTO> chatRooms;          // For a list of ChatRoomDTOs
     private List<ChatMessageDTO> chatMessages;    // For a list of ChatMessageDTOs
+    private List<ChatInboxEntryDTO> inbox;        // Rooms with last message and unread count
+
+    // Provider availability
+    private List<AvailabilitySlotDTO> availabilitySlots;
+
+    // keyset pagination
+    private String nextCursor;                    // Pass back to fetch the next page
+    private Boolean hasMore;                      // True if another page exists in the requested direction
+    private Long totalResults;                    // Total matches across all pages (ranked search)
 
     private final LocalDateTime timestamp = LocalDateTime.now();
 }
@@ -34,6 +34,9 @@ public class ServiceProviderProfileDTO {
     // From reviews
     private Float averageRating;
     private Integer totalReviews;
+
+    // From proximity search (only set on "nearby" results)
+    private Double distanceKm;
 }
 
 /*
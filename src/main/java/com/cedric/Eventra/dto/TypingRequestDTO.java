@@ -0,0 +1,13 @@
+package com.cedric.Eventra.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class TypingRequestDTO {
+    @NotNull(message = "Chat room ID cannot be null.")
+    private Long chatRoomId;
+
+    // true while the user is typing (resend every few seconds to keep it alive), false when they stop
+    private boolean typing;
+}
@@ -0,0 +1,16 @@
+package com.cedric.Eventra.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPresenceDTO {
+    private Long userId;
+    private boolean online; // Has a live WebSocket session subscribed to the room
+    private boolean typing;
+}
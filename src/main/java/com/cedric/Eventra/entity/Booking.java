@@ -9,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -18,9 +19,35 @@ import java.time.LocalTime;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name="bookings")
+@Table(name="bookings", indexes = {
+        // Provider dashboard aggregates and booking list: per service, by status, ordered/windowed by created_at
+        @Index(name = "idx_bookings_service_status_created", columnList = "service_id, status, created_at"),
+        // Review eligibility: completed bookings of a customer
+        @Index(name = "idx_bookings_user_status", columnList = "user_id, status"),
+        // Customer's booking list, keyset-paginated by creation time
+        @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at, id"),
+        // Lookups by the public booking reference, single and bulk (IN list); references are unique
+        @Index(name = "idx_bookings_reference", columnList = "booking_reference", unique = true),
+        // Lifecycle job: due bookings per status by booked date (reminders, expiry, auto-completion)
+        @Index(name = "idx_bookings_status_date", columnList = "status, preferred_date")
+})
+// Fetch plan for every read that maps or notifies on a booking (list, detail, notification events).
+// user and provider carry an inverse one-to-one profile that Hibernate always loads, so it is joined
+// here too; otherwise each distinct customer/service/provider costs its own select.
+@NamedEntityGraph(name = Booking.PARTICIPANTS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user"),
+                @NamedAttributeNode(value = "offeredService", subgraph = "offeredService")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("serviceProviderProfile")),
+                @NamedSubgraph(name = "offeredService", attributeNodes = @NamedAttributeNode(value = "provider", subgraph = "provider")),
+                @NamedSubgraph(name = "provider", attributeNodes = @NamedAttributeNode("serviceProviderProfile"))
+        })
 public class  Booking {
 
+    public static final String PARTICIPANTS_GRAPH = "Booking.participants";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -51,6 +78,17 @@ public class  Booking {
 
     private LocalDateTime createdAt;
 
+    // When the slot hold of a PENDING or ACCEPTED_AWAITING_PAYMENT booking lapses; null once the slot is firm.
+    // Read by ProviderSlotGuard's overlap check and when the availability calendar is rebuilt
+    private Instant holdExpiresAt;
+
+    // Set once the upcoming-booking reminder went out, so the lifecycle job sends it only once
+    private LocalDateTime reminderSentAt;
+
+    // Bumped on every write; status transitions also compare-and-set on it via BookingRepository
+    @Version
+    private Long version;
+
     @PrePersist
     public void prePersist(){
         createdAt = LocalDateTime.now();
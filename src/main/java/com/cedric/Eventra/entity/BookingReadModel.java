@@ -0,0 +1,81 @@
+package com.cedric.Eventra.entity;
+
+import com.cedric.Eventra.enums.BookingStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Denormalized copy of a booking with the customer, service and provider names it is listed with,
+ * so booking lists, history and the provider dashboard read one table instead of joining
+ * bookings → offered_services → users → service_provider_profiles.
+ *
+ * Maintained by BookingReadModelProjector from the Booking*Event classes; {@code sourceVersion} is the
+ * booking's version when it was copied, so an older event never overwrites a newer row.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "booking_read_model", indexes = {
+        // Customer's booking list and history, keyset-paginated by creation time
+        @Index(name = "idx_brm_customer_created", columnList = "customer_id, created_at, id"),
+        // Provider's booking list across all their services
+        @Index(name = "idx_brm_provider_created", columnList = "provider_id, created_at, id"),
+        // Provider's booking list for one service
+        @Index(name = "idx_brm_service_created", columnList = "service_id, created_at, id"),
+        // Provider dashboard aggregates by status
+        @Index(name = "idx_brm_provider_status", columnList = "provider_id, status, created_at")
+})
+public class BookingReadModel {
+
+    // Same id as the booking it copies
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long sourceVersion;
+
+    private String bookingReference;
+    private String requestName;
+
+    @Column(length = 1000)
+    private String description;
+
+    private String location;
+    private LocalDate preferredDate;
+    private LocalTime preferredTime;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    private BigDecimal price;
+    private LocalDateTime createdAt;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+    private String customerFirstName;
+    private String customerLastName;
+    private String customerEmail;
+
+    @Column(name = "service_id")
+    private Long serviceId;
+    private String serviceName;
+
+    @Column(name = "provider_id")
+    private Long providerId;
+    private String providerFirstName;
+    private String providerLastName;
+    // ServiceProviderProfile.serviceName, the provider's business name
+    private String providerBusinessName;
+
+    private LocalDateTime projectedAt;
+}
@@ -5,20 +5,22 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // Keyset pagination of room history: WHERE chat_room_id = ? ORDER BY timestamp, id
+        @Index(name = "idx_chat_messages_room_ts_id", columnList = "chat_room_id, timestamp, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessage {
 
+    // Assigned by ChatMessageIdAllocator when the message is sent, before it is written (write-behind)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,7 +35,7 @@ public class ChatMessage {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
 
+    // Send time, set by ChatServiceImpl; the row itself may be written a little later
     @Column(nullable = false, updatable = false)
-    @CreationTimestamp
     private LocalDateTime timestamp;
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.cedric.Eventra.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One node's claim that a user has a live session in a chat room. The node renews its rows while the
+ * sessions last and deletes them when the user leaves; the rows of a node that died lapse at leaseUntil.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "chat_presence_leases", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_presence_leases_room_user_owner", columnNames = {"chat_room_id", "user_id", "owner"})
+})
+public class ChatPresenceLease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "chat_room_id", nullable = false)
+    private Long chatRoomId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime leaseUntil;
+}
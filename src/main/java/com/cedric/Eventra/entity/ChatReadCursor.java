@@ -0,0 +1,43 @@
+package com.cedric.Eventra.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far one participant has read a chat room: the (timestamp, id) of the newest message they have seen,
+ * in the same order as room history. Messages from others after that position are unread.
+ * No row means nothing has been read yet.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "chat_read_cursors", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_read_cursors_room_user", columnNames = {"chat_room_id", "user_id"})
+})
+public class ChatReadCursor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_room_id", nullable = false)
+    private ChatRoom chatRoom;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDateTime lastReadAt;
+
+    @Column(nullable = false)
+    private Long lastReadMessageId;
+}
@@ -1,5 +1,6 @@
 package com.cedric.Eventra.entity;
 
+import com.cedric.Eventra.service.chat.ChatRoomMembershipListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,13 +12,20 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms", indexes = {
+        // Inbox: a user's rooms by latest activity, keyset-paginated on (last_message_at, id)
+        @Index(name = "idx_chat_rooms_p1_last_message", columnList = "participant1_id, last_message_at, id"),
+        @Index(name = "idx_chat_rooms_p2_last_message", columnList = "participant2_id, last_message_at, id")
+})
+@EntityListeners(ChatRoomMembershipListener.class)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatRoom {
 
+    public static final int LAST_MESSAGE_PREVIEW_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,9 +46,19 @@ public class ChatRoom {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
-    @Column(name = "last_message_at") // Manually update this when a new message is added
+    @Column(name = "last_message_at") // Moved forward by ChatMessageWriteBehind as messages are written
     private LocalDateTime lastMessageAt;
 
+    // Newest written message, copied here with lastMessageAt so the inbox needs no per-room message lookup
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_sender_id")
+    private Long lastMessageSenderId;
+
+    @Column(name = "last_message_preview", length = LAST_MESSAGE_PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
     // Default equals and hashCode (based on ID) is usually fine for JPA entities.
     // Uniqueness of rooms for a pair of participants will be handled in service logic.
 }
\ No newline at end of file
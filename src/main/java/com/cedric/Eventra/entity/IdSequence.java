@@ -0,0 +1,26 @@
+package com.cedric.Eventra.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Next unreserved value of an application-assigned id sequence; one row per sequence name.
+ * Nodes reserve ids in blocks by moving nextValue forward, then hand them out from memory.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "id_sequences")
+public class IdSequence {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long nextValue;
+}
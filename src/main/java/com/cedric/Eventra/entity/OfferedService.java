@@ -1,6 +1,8 @@
 package com.cedric.Eventra.entity;
 
 import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.service.readmodel.BookingReadModelListener;
+import com.cedric.Eventra.service.search.ProviderSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,6 +12,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners({ProviderSearchIndexListener.class, BookingReadModelListener.class})
 @Data
 @Table(name = "offered_services")
 @Builder
@@ -26,6 +29,9 @@ public class OfferedService {
     private BigDecimal price;
     private Boolean available;
 
+    // Length of one booking of this service; used to size the provider's calendar slot
+    private Integer durationMinutes;
+
     @ManyToOne
     @JoinColumn(name="provider_id")
     private User provider;
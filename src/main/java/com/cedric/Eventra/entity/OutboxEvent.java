@@ -0,0 +1,80 @@
+package com.cedric.Eventra.entity;
+
+import com.cedric.Eventra.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A booking event waiting to be turned into notifications, written in the same transaction as the
+ * booking change it describes (see BookingOutbox) and deleted once BookingOutboxRelay has delivered it.
+ *
+ * Only the booking ids are stored; the relay reloads the bookings with their participants when it
+ * delivers. {@code availableAt} is when the row may next be claimed: claiming pushes it out by the claim
+ * timeout, so a row claimed by a node that dies becomes visible again. Rows that keep failing are parked
+ * with {@code failedAt} set and are no longer claimed.
+ *
+ * The booking ids are also kept one per row in outbox_event_bookings, indexed by booking, so the relay can
+ * hold a row back while an earlier row for one of its bookings is still in the table.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "outbox_events", indexes = {
+        // Relay claim: oldest due rows first
+        @Index(name = "idx_outbox_due", columnList = "failed_at, available_at, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType eventType;
+
+    // Comma-separated; batch events from the lifecycle job carry a whole chunk
+    @Lob
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String bookingIds;
+
+    @ElementCollection
+    @CollectionTable(name = "outbox_event_bookings", joinColumns = @JoinColumn(name = "event_id"), indexes = {
+            // Relay fence: earlier rows for a booking
+            @Index(name = "idx_outbox_event_bookings_booking", columnList = "booking_id, event_id")
+    })
+    @Column(name = "booking_id", nullable = false)
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Set<Long> bookingIdIndex = new HashSet<>();
+
+    @Column(length = 1000)
+    private String detail;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+}
@@ -2,6 +2,8 @@ package com.cedric.Eventra.entity;
 
 import com.cedric.Eventra.enums.ServiceCategory;
 import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.service.readmodel.BookingReadModelListener;
+import com.cedric.Eventra.service.search.ProviderSearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +17,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@EntityListeners({ProviderSearchIndexListener.class, BookingReadModelListener.class})
 @Data
 @Table(name = "service_provider_profiles")
 @AllArgsConstructor
@@ -33,8 +36,40 @@ public class ServiceProviderProfile {
     @OneToMany(mappedBy = "provider", cascade = CascadeType.ALL)
     private List<Review> reviews;
 
+    // Rating aggregates below are only written through ProviderRatingAggregator's atomic delta updates
+    // (updatable = false keeps a stale entity save from overwriting concurrent deltas)
+    @Column(updatable = false)
     private Float averageRating;
 
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long reviewCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Double ratingSum = 0.0;
+
+    // Per-star histogram, ratings rounded to the nearest whole star
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long oneStarCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long twoStarCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long threeStarCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long fourStarCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long fiveStarCount = 0L;
+
     @Enumerated(EnumType.STRING)
     private ServiceCategory serviceCategory;
 
@@ -1,6 +1,8 @@
 package com.cedric.Eventra.entity;
 
 import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.service.readmodel.BookingReadModelListener;
+import com.cedric.Eventra.service.search.ProviderSearchIndexListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -13,6 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@EntityListeners({ProviderSearchIndexListener.class, BookingReadModelListener.class})
 @Data
 @Table(name = "users")
 @AllArgsConstructor
@@ -1,5 +1,11 @@
 package com.cedric.Eventra.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum BookingStatus {
     PENDING,                      // Initial request from customer
     ACCEPTED_AWAITING_PAYMENT,  // Provider has accepted, waiting for customer payment
@@ -7,5 +13,31 @@ public enum BookingStatus {
     REJECTED,                     // Provider rejected the request
     CANCELLED,                    // Cancelled by customer or provider
     COMPLETED,                    // Service has been rendered
-    PAYMENT_FAILED                // Optional: If payment attempt fails
+    PAYMENT_FAILED,               // Optional: If payment attempt fails
+    EXPIRED;                      // Booked date passed while still unanswered or unpaid
+
+    /**
+     * The booking lifecycle: every status change must be an edge of this table.
+     * REJECTED, CANCELLED, COMPLETED and EXPIRED are terminal.
+     */
+    private static final Map<BookingStatus, Set<BookingStatus>> TRANSITIONS = new EnumMap<>(BookingStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(ACCEPTED_AWAITING_PAYMENT, REJECTED, CANCELLED, EXPIRED));
+        TRANSITIONS.put(ACCEPTED_AWAITING_PAYMENT, EnumSet.of(CONFIRMED, PAYMENT_FAILED, CANCELLED, EXPIRED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(COMPLETED, CANCELLED));
+        TRANSITIONS.put(PAYMENT_FAILED, EnumSet.of(CANCELLED));
+        TRANSITIONS.put(REJECTED, EnumSet.noneOf(BookingStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(BookingStatus.class));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(BookingStatus.class));
+        TRANSITIONS.put(EXPIRED, EnumSet.noneOf(BookingStatus.class));
+    }
+
+    public boolean canTransitionTo(BookingStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    public Set<BookingStatus> allowedTransitions() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
 }
@@ -0,0 +1,30 @@
+package com.cedric.Eventra.enums;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Status changes a provider can apply to many bookings at once, with the status each one moves from.
+ */
+public enum BulkBookingAction {
+    ACCEPT(BookingStatus.ACCEPTED_AWAITING_PAYMENT, EnumSet.of(BookingStatus.PENDING)),
+    REJECT(BookingStatus.REJECTED, EnumSet.of(BookingStatus.PENDING)),
+    COMPLETE(BookingStatus.COMPLETED, EnumSet.of(BookingStatus.CONFIRMED));
+
+    private final BookingStatus targetStatus;
+    private final Set<BookingStatus> allowedFrom;
+
+    BulkBookingAction(BookingStatus targetStatus, Set<BookingStatus> allowedFrom) {
+        this.targetStatus = targetStatus;
+        this.allowedFrom = Collections.unmodifiableSet(allowedFrom);
+    }
+
+    public BookingStatus targetStatus() {
+        return targetStatus;
+    }
+
+    public Set<BookingStatus> allowedFrom() {
+        return allowedFrom;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cedric.Eventra.enums;
+
+public enum BulkBookingOutcome {
+    APPLIED,        // Status changed
+    NOT_FOUND,      // No booking with this reference
+    FORBIDDEN,      // Booking belongs to another provider
+    INVALID_STATE,  // Booking is not in a status this action applies to
+    SLOT_TAKEN      // Accept refused, another booking now holds the requested slot
+}
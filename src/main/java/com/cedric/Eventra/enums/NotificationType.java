@@ -11,6 +11,7 @@ public enum NotificationType {
     BOOKING_CANCELLED_BY_PROVIDER,
     BOOKING_UPCOMING_REMINDER,
     BOOKING_COMPLETED,
+    BOOKING_EXPIRED,
 
     // User account related
     WELCOME_MESSAGE,
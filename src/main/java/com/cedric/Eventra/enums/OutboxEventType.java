@@ -0,0 +1,18 @@
+package com.cedric.Eventra.enums;
+
+/**
+ * Booking events recorded in the outbox; one per Booking*Event class that triggers notifications.
+ */
+public enum OutboxEventType {
+    BOOKING_CREATED,
+    BOOKING_ACCEPTED,
+    BOOKING_REJECTED,
+    BOOKING_CONFIRMED,
+    BOOKING_CANCELLED_BY_CUSTOMER,
+    BOOKING_CANCELLED_BY_PROVIDER,  // detail: the provider's reason
+    BOOKING_COMPLETED,
+    BOOKING_REMINDERS_DUE,
+    BOOKINGS_EXPIRED,
+    BOOKINGS_AUTO_COMPLETED,
+    BOOKINGS_UPDATED_BY_PROVIDER    // detail: the BookingStatus they were moved to
+}
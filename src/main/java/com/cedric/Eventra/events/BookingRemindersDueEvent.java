@@ -0,0 +1,22 @@
+package com.cedric.Eventra.events;
+
+import com.cedric.Eventra.entity.Booking;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Confirmed bookings coming up soon, reminded in one chunk by the lifecycle job.
+ */
+public class BookingRemindersDueEvent extends ApplicationEvent {
+    private final List<Booking> bookings;
+
+    public BookingRemindersDueEvent(Object source, List<Booking> bookings) {
+        super(source);
+        this.bookings = List.copyOf(bookings);
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+}
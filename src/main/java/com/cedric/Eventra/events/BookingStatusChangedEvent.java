@@ -0,0 +1,28 @@
+package com.cedric.Eventra.events;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.enums.BookingStatus;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by BookingStateMachine for every status transition it applies, including those (such as
+ * PAYMENT_FAILED) that have no event of their own. Carries the booking as stored after the change.
+ */
+public class BookingStatusChangedEvent extends ApplicationEvent {
+    private final Booking booking;
+    private final BookingStatus previousStatus;
+
+    public BookingStatusChangedEvent(Object source, Booking booking, BookingStatus previousStatus) {
+        super(source);
+        this.booking = booking;
+        this.previousStatus = previousStatus;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public BookingStatus getPreviousStatus() {
+        return previousStatus;
+    }
+}
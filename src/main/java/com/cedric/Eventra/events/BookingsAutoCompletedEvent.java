@@ -0,0 +1,22 @@
+package com.cedric.Eventra.events;
+
+import com.cedric.Eventra.entity.Booking;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Confirmed bookings the lifecycle job completed in one chunk after their booked date.
+ */
+public class BookingsAutoCompletedEvent extends ApplicationEvent {
+    private final List<Booking> bookings;
+
+    public BookingsAutoCompletedEvent(Object source, List<Booking> bookings) {
+        super(source);
+        this.bookings = List.copyOf(bookings);
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+}
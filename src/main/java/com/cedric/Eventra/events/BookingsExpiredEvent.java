@@ -0,0 +1,22 @@
+package com.cedric.Eventra.events;
+
+import com.cedric.Eventra.entity.Booking;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Bookings the lifecycle job expired in one chunk (booked date passed while unanswered or unpaid).
+ */
+public class BookingsExpiredEvent extends ApplicationEvent {
+    private final List<Booking> bookings;
+
+    public BookingsExpiredEvent(Object source, List<Booking> bookings) {
+        super(source);
+        this.bookings = List.copyOf(bookings);
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+}
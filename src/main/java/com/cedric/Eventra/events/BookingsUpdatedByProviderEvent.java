@@ -0,0 +1,29 @@
+package com.cedric.Eventra.events;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.enums.BookingStatus;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Bookings a provider moved to {@code newStatus} in one bulk action.
+ */
+public class BookingsUpdatedByProviderEvent extends ApplicationEvent {
+    private final BookingStatus newStatus;
+    private final List<Booking> bookings;
+
+    public BookingsUpdatedByProviderEvent(Object source, BookingStatus newStatus, List<Booking> bookings) {
+        super(source);
+        this.newStatus = newStatus;
+        this.bookings = List.copyOf(bookings);
+    }
+
+    public BookingStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+}
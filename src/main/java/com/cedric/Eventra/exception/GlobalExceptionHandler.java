@@ -2,6 +2,7 @@ package com.cedric.Eventra.exception;
 
 import com.cedric.Eventra.dto.Response;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -97,4 +98,43 @@ public class GlobalExceptionHandler {
                 .build();
         return new ResponseEntity<Response>(response, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<Response> handleBookingConflictException(BookingConflictException ex){
+        Response response = Response.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<Response>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<Response> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex){
+        Response response = Response.builder()
+                .status(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<Response>(response, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<Response> handleIdempotentRequestInProgressException(IdempotentRequestInProgressException ex){
+        Response response = Response.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<Response>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * A save of a stale versioned entity (e.g. a Booking changed by another request in between).
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Response> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex){
+        Response response = Response.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message("The resource was modified by another request. Please reload and try again.")
+                .build();
+        return new ResponseEntity<Response>(response, HttpStatus.CONFLICT);
+    }
 }
@@ -10,6 +10,7 @@ import com.cedric.Eventra.repository.OfferedServiceRepository;
 import com.cedric.Eventra.repository.ReviewRepository; // Import ReviewRepository
 import com.cedric.Eventra.repository.ServiceProviderProfileRepository; // Make sure this is injected
 import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.review.ProviderRatingAggregator;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import lombok.RequiredArgsConstructor;
@@ -46,6 +47,7 @@ public class DataInitializer implements CommandLineRunner {
     private final PasswordEncoder passwordEncoder;
     private final ReviewRepository reviewRepository; // Added
     private final ServiceProviderProfileRepository serviceProviderProfileRepository; // Added
+    private final ProviderRatingAggregator providerRatingAggregator; // Running rating aggregates
 
     @Value("${file.upload-dir.profile-pictures}")
     private String profilePicturesTargetDir;
@@ -331,37 +333,11 @@ public class DataInitializer implements CommandLineRunner {
                         .createdAt(LocalDateTime.now().minusDays(random.nextInt(30))) // Reviews from the past 30 days
                         .build();
                 reviewRepository.save(review);
+                providerRatingAggregator.reviewAdded(providerProfile.getUserId(), rating);
                 log.debug("   - Created review by {} for service '{}' (Provider: {}) with rating {}",
                         reviewer.getEmail(), serviceToReview.getName(), providerUser.getEmail(), rating);
             }
-            // Update average rating for the provider after creating all their reviews
-            updateProviderAverageRating(providerProfile.getUserId());
         }
         log.info("Review creation finished.");
     }
-
-    // Helper method to update average rating (similar to one in ReviewServiceImpl)
-    private void updateProviderAverageRating(Long providerProfileId) {
-        ServiceProviderProfile providerProfile = serviceProviderProfileRepository.findByUserId(providerProfileId)
-                .orElse(null);
-
-        if (providerProfile == null) {
-            log.warn("Attempted to update average rating for non-existent provider profile ID during init: {}", providerProfileId);
-            return;
-        }
-
-        List<Review> reviews = reviewRepository.findByProviderOrderByCreatedAtDesc(providerProfile);
-        if (reviews.isEmpty()) {
-            providerProfile.setAverageRating(0.0f);
-        } else {
-            double average = reviews.stream()
-                    .mapToDouble(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-            // Round to one decimal place
-            providerProfile.setAverageRating((float) (Math.round(average * 10.0) / 10.0));
-        }
-        serviceProviderProfileRepository.save(providerProfile); // Save the updated profile
-        log.info("Updated average rating for provider ID {} to: {}", providerProfileId, providerProfile.getAverageRating());
-    }
 }
\ No newline at end of file
@@ -0,0 +1,282 @@
+package com.cedric.Eventra.mapper;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.ChatMessageDTO;
+import com.cedric.Eventra.dto.ChatRoomDTO;
+import com.cedric.Eventra.dto.NotificationDTO;
+import com.cedric.Eventra.dto.OfferedServiceDTO;
+import com.cedric.Eventra.dto.PaymentDTO;
+import com.cedric.Eventra.dto.ReviewDTO;
+import com.cedric.Eventra.dto.ServiceProviderProfileDTO;
+import com.cedric.Eventra.dto.UserDTO;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.BookingReadModel;
+import com.cedric.Eventra.entity.ChatMessage;
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.Notification;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.Payment;
+import com.cedric.Eventra.entity.Review;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Explicit entity-to-DTO mappers used on read paths instead of the reflective ModelMapper.
+ *
+ * Each method copies exactly the properties ModelMapper's STANDARD matching used to populate, so
+ * API output is unchanged; callers still apply their own enrichment (image URLs, review counts, etc.).
+ * The password hash is deliberately not copied to UserDTO (it is @JsonIgnore'd there anyway).
+ * All methods are null-safe and return null for a null source.
+ */
+@Component
+public class EntityDtoMapper {
+
+    public UserDTO toUserDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setEmail(user.getEmail());
+        dto.setFirstName(user.getFirstName());
+        dto.setLastName(user.getLastName());
+        dto.setPhoneNumber(user.getPhoneNumber());
+        dto.setRole(user.getRole());
+        dto.setIsActive(user.getIsActive());
+        dto.setCreatedAt(user.getCreatedAt());
+        dto.setServiceProviderProfile(toServiceProviderProfileDTO(user.getServiceProviderProfile()));
+        return dto;
+    }
+
+    public List<UserDTO> toUserDTOs(List<User> users) {
+        List<UserDTO> dtos = new ArrayList<>(users.size());
+        for (User user : users) {
+            dtos.add(toUserDTO(user));
+        }
+        return dtos;
+    }
+
+    public ServiceProviderProfileDTO toServiceProviderProfileDTO(ServiceProviderProfile profile) {
+        if (profile == null) {
+            return null;
+        }
+        ServiceProviderProfileDTO dto = new ServiceProviderProfileDTO();
+        dto.setLocation(profile.getLocation());
+        dto.setPostcode(profile.getPostcode());
+        dto.setServiceCategory(profile.getServiceCategory());
+        dto.setServiceName(profile.getServiceName());
+        dto.setAbn(profile.getABN());
+        dto.setAverageRating(profile.getAverageRating());
+        User user = profile.getUser();
+        if (user != null) {
+            dto.setUserEmail(user.getEmail());
+            dto.setUserFirstName(user.getFirstName());
+            dto.setUserLastName(user.getLastName());
+        }
+        return dto;
+    }
+
+    public OfferedServiceDTO toOfferedServiceDTO(OfferedService service) {
+        if (service == null) {
+            return null;
+        }
+        OfferedServiceDTO dto = new OfferedServiceDTO();
+        dto.setId(service.getId());
+        dto.setDescription(service.getDescription());
+        dto.setName(service.getName());
+        dto.setPrice(service.getPrice());
+        dto.setAvailable(service.getAvailable());
+        dto.setDurationMinutes(service.getDurationMinutes());
+        dto.setProvider(toUserDTO(service.getProvider()));
+        dto.setLocation(service.getLocation());
+        return dto;
+    }
+
+    /**
+     * Copies the client-editable fields of an OfferedServiceDTO onto a new entity.
+     * The provider, id and image are left for the caller to set.
+     */
+    public OfferedService toOfferedService(OfferedServiceDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        OfferedService service = new OfferedService();
+        service.setDescription(dto.getDescription());
+        service.setName(dto.getName());
+        service.setPrice(dto.getPrice());
+        service.setAvailable(dto.getAvailable());
+        service.setDurationMinutes(dto.getDurationMinutes());
+        service.setLocation(dto.getLocation());
+        return service;
+    }
+
+    public BookingDTO toBookingDTO(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        BookingDTO dto = new BookingDTO();
+        dto.setId(booking.getId());
+        dto.setRequestName(booking.getRequestName());
+        dto.setDescription(booking.getDescription());
+        dto.setLocation(booking.getLocation());
+        dto.setPreferredDate(booking.getPreferredDate());
+        dto.setPreferredTime(booking.getPreferredTime());
+        dto.setBookingReference(booking.getBookingReference());
+        dto.setUser(toUserDTO(booking.getUser()));
+        dto.setService(toOfferedServiceDTO(booking.getOfferedService()));
+        dto.setStatus(booking.getStatus());
+        dto.setCreatedAt(booking.getCreatedAt());
+        dto.setPrice(booking.getPrice());
+        return dto;
+    }
+
+    public List<BookingDTO> toBookingDTOs(List<Booking> bookings) {
+        List<BookingDTO> dtos = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            dtos.add(toBookingDTO(booking));
+        }
+        return dtos;
+    }
+
+    /**
+     * Booking list entry from the denormalized read row: the customer, service and provider carry only the
+     * ids and names stored there (the provider's business name as its profile's serviceName).
+     */
+    public BookingDTO toBookingDTO(BookingReadModel row) {
+        if (row == null) {
+            return null;
+        }
+        BookingDTO dto = new BookingDTO();
+        dto.setId(row.getId());
+        dto.setRequestName(row.getRequestName());
+        dto.setDescription(row.getDescription());
+        dto.setLocation(row.getLocation());
+        dto.setPreferredDate(row.getPreferredDate());
+        dto.setPreferredTime(row.getPreferredTime());
+        dto.setBookingReference(row.getBookingReference());
+        dto.setStatus(row.getStatus());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setPrice(row.getPrice());
+
+        UserDTO customer = new UserDTO();
+        customer.setId(row.getCustomerId());
+        customer.setFirstName(row.getCustomerFirstName());
+        customer.setLastName(row.getCustomerLastName());
+        customer.setEmail(row.getCustomerEmail());
+        dto.setUser(customer);
+
+        UserDTO provider = new UserDTO();
+        provider.setId(row.getProviderId());
+        provider.setFirstName(row.getProviderFirstName());
+        provider.setLastName(row.getProviderLastName());
+        if (row.getProviderBusinessName() != null) {
+            ServiceProviderProfileDTO profile = new ServiceProviderProfileDTO();
+            profile.setServiceName(row.getProviderBusinessName());
+            provider.setServiceProviderProfile(profile);
+        }
+        OfferedServiceDTO service = new OfferedServiceDTO();
+        service.setId(row.getServiceId());
+        service.setName(row.getServiceName());
+        service.setProvider(provider);
+        dto.setService(service);
+        return dto;
+    }
+
+    public List<BookingDTO> toBookingDTOsFromReadModel(List<BookingReadModel> rows) {
+        List<BookingDTO> dtos = new ArrayList<>(rows.size());
+        for (BookingReadModel row : rows) {
+            dtos.add(toBookingDTO(row));
+        }
+        return dtos;
+    }
+
+    /**
+     * Core review fields only; reviewer and provider details are added by ReviewServiceImpl where needed.
+     */
+    public ReviewDTO toReviewDTO(Review review) {
+        if (review == null) {
+            return null;
+        }
+        ReviewDTO dto = new ReviewDTO();
+        dto.setId(review.getId());
+        dto.setRating(review.getRating());
+        dto.setComment(review.getComment());
+        if (review.getOfferedService() != null) {
+            dto.setOfferedServiceId(review.getOfferedService().getId());
+        }
+        dto.setCreatedAt(review.getCreatedAt());
+        return dto;
+    }
+
+    public NotificationDTO toNotificationDTO(Notification notification) {
+        if (notification == null) {
+            return null;
+        }
+        NotificationDTO dto = new NotificationDTO();
+        dto.setId(notification.getId());
+        dto.setSubject(notification.getSubject());
+        dto.setRecipientUser(toUserDTO(notification.getRecipientUser()));
+        dto.setBody(notification.getBody());
+        dto.setBookingReference(notification.getBookingReference());
+        dto.setNotificationType(notification.getNotificationType());
+        dto.setCreatedAt(notification.getCreatedAt());
+        return dto;
+    }
+
+    public PaymentDTO toPaymentDTO(Payment payment) {
+        if (payment == null) {
+            return null;
+        }
+        PaymentDTO dto = new PaymentDTO();
+        dto.setId(payment.getId());
+        dto.setTransactionId(payment.getTransactionId());
+        dto.setAmount(payment.getAmount());
+        dto.setPaymentDate(payment.getPaymentDate());
+        dto.setPaymentStatus(payment.getPaymentStatus());
+        dto.setBookingReference(payment.getBookingReference());
+        dto.setFailureReason(payment.getFailureReason());
+        // Payment has no booking association; clients have always received the reference nested here too
+        if (payment.getBookingReference() != null) {
+            BookingDTO booking = new BookingDTO();
+            booking.setBookingReference(payment.getBookingReference());
+            dto.setBooking(booking);
+        }
+        return dto;
+    }
+
+    public ChatRoomDTO toChatRoomDTO(ChatRoom chatRoom) {
+        if (chatRoom == null) {
+            return null;
+        }
+        ChatRoomDTO dto = new ChatRoomDTO();
+        dto.setId(chatRoom.getId());
+        dto.setParticipant1(toUserDTO(chatRoom.getParticipant1()));
+        dto.setParticipant2(toUserDTO(chatRoom.getParticipant2()));
+        if (chatRoom.getBooking() != null) {
+            dto.setBookingId(chatRoom.getBooking().getId());
+        }
+        dto.setCreatedAt(chatRoom.getCreatedAt());
+        dto.setLastMessageAt(chatRoom.getLastMessageAt());
+        dto.setLastMessageId(chatRoom.getLastMessageId());
+        dto.setLastMessageSenderId(chatRoom.getLastMessageSenderId());
+        dto.setLastMessagePreview(chatRoom.getLastMessagePreview());
+        return dto;
+    }
+
+    public ChatMessageDTO toChatMessageDTO(ChatMessage chatMessage) {
+        if (chatMessage == null) {
+            return null;
+        }
+        ChatMessageDTO dto = new ChatMessageDTO();
+        dto.setId(chatMessage.getId());
+        dto.setChatRoomId(chatMessage.getChatRoom().getId());
+        dto.setSender(toUserDTO(chatMessage.getSender()));
+        dto.setContent(chatMessage.getContent());
+        dto.setTimestamp(chatMessage.getTimestamp());
+        return dto;
+    }
+}
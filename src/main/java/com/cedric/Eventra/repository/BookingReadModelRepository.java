@@ -0,0 +1,84 @@
+package com.cedric.Eventra.repository;
+
+import com.cedric.Eventra.entity.BookingReadModel;
+import com.cedric.Eventra.enums.BookingStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingReadModelRepository extends JpaRepository<BookingReadModel, Long>, JpaSpecificationExecutor<BookingReadModel> {
+
+    List<BookingReadModel> findByCustomerId(Long customerId);
+
+    /**
+     * Aggregates a provider's bookings per status in a single grouped query:
+     * lifetime count and price sum, plus the same two figures for bookings created since {@code since}.
+     * Returns at most one row per BookingStatus, regardless of booking volume.
+     */
+    @Query("SELECT r.status AS status, " +
+            "COUNT(r) AS bookingCount, " +
+            "COALESCE(SUM(r.price), 0) AS totalPrice, " +
+            "SUM(CASE WHEN r.createdAt >= :since THEN 1 ELSE 0 END) AS recentBookingCount, " +
+            "COALESCE(SUM(CASE WHEN r.createdAt >= :since THEN r.price END), 0) AS recentTotalPrice " +
+            "FROM BookingReadModel r WHERE r.providerId = :providerId " +
+            "GROUP BY r.status")
+    List<StatusAggregate> aggregateByStatusForProvider(@Param("providerId") Long providerId,
+                                                       @Param("since") LocalDateTime since);
+
+    /**
+     * IDs of bookings after {@code afterId} whose read row is missing or older than the booking.
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.id > :afterId AND NOT EXISTS " +
+            "(SELECT r.id FROM BookingReadModel r WHERE r.id = b.id AND r.sourceVersion >= b.version) " +
+            "ORDER BY b.id")
+    List<Long> findStaleBookingIds(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Projection lag: bookings whose read row is missing or older than the booking.
+     */
+    @Query("SELECT COUNT(b) FROM Booking b WHERE NOT EXISTS " +
+            "(SELECT r.id FROM BookingReadModel r WHERE r.id = b.id AND r.sourceVersion >= b.version)")
+    long countStale();
+
+    @Modifying
+    @Query("DELETE FROM BookingReadModel r WHERE NOT EXISTS (SELECT b.id FROM Booking b WHERE b.id = r.id)")
+    int deleteOrphans();
+
+    @Modifying
+    @Query("UPDATE BookingReadModel r SET r.customerFirstName = :firstName, r.customerLastName = :lastName, " +
+            "r.customerEmail = :email WHERE r.customerId = :userId")
+    int renameCustomer(@Param("userId") Long userId, @Param("firstName") String firstName,
+                       @Param("lastName") String lastName, @Param("email") String email);
+
+    @Modifying
+    @Query("UPDATE BookingReadModel r SET r.providerFirstName = :firstName, r.providerLastName = :lastName " +
+            "WHERE r.providerId = :userId")
+    int renameProvider(@Param("userId") Long userId, @Param("firstName") String firstName,
+                       @Param("lastName") String lastName);
+
+    @Modifying
+    @Query("UPDATE BookingReadModel r SET r.providerBusinessName = :businessName WHERE r.providerId = :providerId")
+    int renameProviderBusiness(@Param("providerId") Long providerId, @Param("businessName") String businessName);
+
+    @Modifying
+    @Query("UPDATE BookingReadModel r SET r.serviceName = :name WHERE r.serviceId = :serviceId")
+    int renameService(@Param("serviceId") Long serviceId, @Param("name") String name);
+
+    /**
+     * Projection for {@link #aggregateByStatusForProvider}.
+     */
+    interface StatusAggregate {
+        BookingStatus getStatus();
+        Long getBookingCount();
+        BigDecimal getTotalPrice();
+        Long getRecentBookingCount();
+        BigDecimal getRecentTotalPrice();
+    }
+}
@@ -2,24 +2,174 @@ package com.cedric.Eventra.repository;
 
 import com.cedric.Eventra.entity.Booking;
 import com.cedric.Eventra.enums.BookingStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.awt.print.Book;
+import jakarta.persistence.LockModeType;
+
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findByUserId(Long userId);
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
 
+    @EntityGraph(Booking.PARTICIPANTS_GRAPH)
     Optional<Booking> findByBookingReference(String bookingReference);
 
+    /**
+     * Loads and write-locks a set of bookings in one IN query, for bulk actions that then change them
+     * through dirty checking. Only the booking rows are locked; the participants are joined for the response.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(Booking.PARTICIPANTS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.bookingReference IN :references")
+    List<Booking> findAllForUpdateByBookingReferenceIn(@Param("references") Collection<String> references);
+
     List<Booking> findByOfferedService_Provider_Id(Long providerId);
 
     List<Booking> findByOfferedServiceId(Long serviceId);
 
     List<Booking> findByStatus(BookingStatus status);
+
+    /**
+     * Compare-and-set status transition: moves the booking to {@code to} only if it is still in {@code from},
+     * bumping the version so concurrent entity saves fail their optimistic check. The slot hold expiry for
+     * the new status is written in the same statement.
+     * Returns 1 if this caller won the transition, 0 if the status had already changed.
+     * The persistence context is flushed before and cleared after, so reload the booking afterwards.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :to, b.holdExpiresAt = :holdExpiresAt, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.status = :from")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("from") BookingStatus from,
+                            @Param("to") BookingStatus to,
+                            @Param("holdExpiresAt") Instant holdExpiresAt);
+
+    /**
+     * Current committed row, read with a shared lock so a retry after a lost compare-and-set
+     * sees the winner's status rather than the transaction's snapshot. The participants are joined in
+     * the same statement because this reload is what the booking events carry to the notification handlers.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @EntityGraph(Booking.PARTICIPANTS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findCurrentById(@Param("id") Long id);
+
+    /**
+     * Locks up to {@code limit} bookings in one of {@code statuses} whose booked date is before {@code before}.
+     * Served by the (status, preferred_date) index; callers transition the locked rows in the same
+     * transaction, so each call drains the range and no offset or cursor is needed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM Booking b WHERE b.status IN :statuses AND b.preferredDate < :before")
+    List<Long> lockIdsDueBefore(@Param("statuses") Collection<BookingStatus> statuses,
+                                @Param("before") LocalDate before,
+                                Limit limit);
+
+    /**
+     * Locks up to {@code limit} bookings in {@code status}, booked on a date in [from, to), that have not been reminded yet.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.preferredDate >= :from " +
+            "AND b.preferredDate < :to AND b.reminderSentAt IS NULL")
+    List<Long> lockIdsDueForReminder(@Param("status") BookingStatus status,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     Limit limit);
+
+    /**
+     * Bulk status transition for the lifecycle job; rows no longer in one of {@code from} are skipped.
+     * Bumps the version like {@link #compareAndSetStatus} so stale entity saves fail.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :to, b.version = b.version + 1 WHERE b.id IN :ids AND b.status IN :from")
+    int transitionAll(@Param("ids") Collection<Long> ids,
+                      @Param("from") Collection<BookingStatus> from,
+                      @Param("to") BookingStatus to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.reminderSentAt = :sentAt WHERE b.id IN :ids")
+    int markReminderSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @EntityGraph(Booking.PARTICIPANTS_GRAPH)
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Bookings in id order, for walking the whole table in chunks (read model rebuild).
+     */
+    @EntityGraph(Booking.PARTICIPANTS_GRAPH)
+    List<Booking> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * IDs of a customer's bookings in the given status with any service of the provider.
+     * Uses the FK columns directly (no joins to users), so it is served by the (user_id, status) index
+     * plus an offered_services primary-key lookup per candidate row.
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.user.id = :userId AND b.status = :status " +
+            "AND b.offeredService.provider.id = :providerId")
+    List<Long> findIdsByUserAndProviderAndStatus(@Param("userId") Long userId,
+                                                 @Param("providerId") Long providerId,
+                                                 @Param("status") BookingStatus status,
+                                                 Limit limit);
+
+    /**
+     * Review eligibility: does the customer have a booking in the given status with the provider?
+     */
+    default boolean existsByUserAndProviderAndStatus(Long userId, Long providerId, BookingStatus status) {
+        return !findIdsByUserAndProviderAndStatus(userId, providerId, status, Limit.of(1)).isEmpty();
+    }
+
+    /**
+     * Open bookings from {@code fromDate} on, with what is needed to place them in the provider's calendar.
+     */
+    @Query("SELECT b.bookingReference AS bookingReference, s.provider.id AS providerId, s.id AS serviceId, " +
+            "s.durationMinutes AS durationMinutes, b.preferredDate AS preferredDate, b.preferredTime AS preferredTime, " +
+            "b.status AS status, b.holdExpiresAt AS holdExpiresAt " +
+            "FROM Booking b JOIN b.offeredService s " +
+            "WHERE b.status IN :statuses AND b.preferredDate >= :fromDate")
+    List<CalendarRow> findCalendarRows(@Param("statuses") Collection<BookingStatus> statuses,
+                                       @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * The provider's bookings in the given statuses dated between the two days whose hold has not lapsed
+     * (a null hold expiry is a firm slot), other than {@code excludeReference}. Used by ProviderSlotGuard.
+     */
+    @Query("SELECT b.bookingReference AS bookingReference, s.provider.id AS providerId, s.id AS serviceId, " +
+            "s.durationMinutes AS durationMinutes, b.preferredDate AS preferredDate, b.preferredTime AS preferredTime, " +
+            "b.status AS status, b.holdExpiresAt AS holdExpiresAt " +
+            "FROM Booking b JOIN b.offeredService s " +
+            "WHERE s.provider.id = :providerId AND b.status IN :statuses " +
+            "AND b.preferredDate BETWEEN :fromDate AND :toDate " +
+            "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt > :now) AND b.bookingReference <> :excludeReference")
+    List<CalendarRow> findProviderSlotRows(@Param("providerId") Long providerId,
+                                           @Param("statuses") Collection<BookingStatus> statuses,
+                                           @Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate,
+                                           @Param("now") Instant now,
+                                           @Param("excludeReference") String excludeReference);
+
+    /**
+     * Projection for {@link #findCalendarRows}.
+     */
+    interface CalendarRow {
+        String getBookingReference();
+        Long getProviderId();
+        Long getServiceId();
+        Integer getDurationMinutes();
+        LocalDate getPreferredDate();
+        LocalTime getPreferredTime();
+        BookingStatus getStatus();
+        Instant getHoldExpiresAt();
+    }
 }
@@ -0,0 +1,55 @@
+package com.cedric.Eventra.repository;
+
+import com.cedric.Eventra.entity.BookingReadModel;
+import com.cedric.Eventra.enums.BookingStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Composable filters for the booking list endpoints (see BookingReadModelRepository#findBy).
+ * Each filter is a plain column predicate on the booking_read_model table, so the
+ * (customer_id | provider_id | service_id, created_at, id) indexes serve both the filtering and the ordering.
+ * The status and creation-time filters use columns bookings shares, so they apply to Booking as well.
+ */
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<BookingReadModel> forCustomer(Long customerId) {
+        return (root, query, cb) -> cb.equal(root.get("customerId"), customerId);
+    }
+
+    public static Specification<BookingReadModel> forProvider(Long providerId) {
+        return (root, query, cb) -> cb.equal(root.get("providerId"), providerId);
+    }
+
+    public static Specification<BookingReadModel> forService(Long serviceId) {
+        return (root, query, cb) -> cb.equal(root.get("serviceId"), serviceId);
+    }
+
+    public static <T> Specification<T> statusIn(Collection<BookingStatus> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static <T> Specification<T> createdOnOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static <T> Specification<T> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    /**
+     * Keyset condition: rows strictly after (createdAt, id) in the list's order.
+     */
+    public static <T> Specification<T> afterCursor(LocalDateTime createdAt, Long id, boolean ascending) {
+        return (root, query, cb) -> ascending
+                ? cb.or(cb.greaterThan(root.get("createdAt"), createdAt),
+                        cb.and(cb.equal(root.get("createdAt"), createdAt), cb.greaterThan(root.get("id"), id)))
+                : cb.or(cb.lessThan(root.get("createdAt"), createdAt),
+                        cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+}
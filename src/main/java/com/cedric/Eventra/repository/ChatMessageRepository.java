@@ -2,9 +2,13 @@ package com.cedric.Eventra.repository;
 
 import com.cedric.Eventra.entity.ChatMessage;
 import com.cedric.Eventra.entity.ChatRoom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,12 +16,65 @@ import java.util.Optional;
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
     /**
-     * Finds all messages for a given chat room, ordered by timestamp ascending (oldest first).
-     * For a simplified version, we are not using pagination here.
-     * @param chatRoom The chat room.
-     * @return A list of chat messages.
+     * Finds the newest page of messages in a chat room (newest first).
+     * Backed by the (chat_room_id, timestamp, id) index, so only the requested page is read.
+     * @param chatRoomId The chat room ID.
+     * @param pageable Used only for the limit (page 0, size = page size).
+     * @return A list of chat messages, newest first.
+     */
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.chatRoom.id = :chatRoomId " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findLatestInRoom(@Param("chatRoomId") Long chatRoomId, Pageable pageable);
+
+    /**
+     * Keyset page of messages older than the cursor message (newest first).
+     * @param chatRoomId The chat room ID.
+     * @param cursorTimestamp Timestamp of the cursor message.
+     * @param cursorId ID of the cursor message.
+     * @param pageable Used only for the limit.
+     * @return A list of chat messages, newest first.
+     */
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.chatRoom.id = :chatRoomId " +
+            "AND (m.timestamp < :cursorTimestamp OR (m.timestamp = :cursorTimestamp AND m.id < :cursorId)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findInRoomBefore(@Param("chatRoomId") Long chatRoomId,
+                                       @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
+
+    /**
+     * Keyset page of messages newer than the cursor message (oldest first).
+     * @param chatRoomId The chat room ID.
+     * @param cursorTimestamp Timestamp of the cursor message.
+     * @param cursorId ID of the cursor message.
+     * @param pageable Used only for the limit.
+     * @return A list of chat messages, oldest first.
+     */
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.chatRoom.id = :chatRoomId " +
+            "AND (m.timestamp > :cursorTimestamp OR (m.timestamp = :cursorTimestamp AND m.id > :cursorId)) " +
+            "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findInRoomAfter(@Param("chatRoomId") Long chatRoomId,
+                                      @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+
+    /**
+     * Finds a message by ID, restricted to the given chat room (used to resolve pagination cursors).
+     * @param id The message ID.
+     * @param chatRoomId The chat room ID.
+     * @return An Optional containing the ChatMessage if it belongs to the room.
+     */
+    Optional<ChatMessage> findByIdAndChatRoomId(Long id, Long chatRoomId);
+
+    /**
+     * Highest message id written so far; seeds the chat message id sequence the first time it is used.
+     * @return The highest id, or 0 when there are no messages.
      */
-    List<ChatMessage> findByChatRoomOrderByTimestampAsc(ChatRoom chatRoom);
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM ChatMessage m")
+    long findMaxId();
 
     /**
      * Optional: Find the most recent message for a chat room.
@@ -25,4 +82,4 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
      * @return An Optional containing the last ChatMessage if it exists.
      */
     Optional<ChatMessage> findTopByChatRoomOrderByTimestampDesc(ChatRoom chatRoom);
-}
\ No newline at end of file
+}
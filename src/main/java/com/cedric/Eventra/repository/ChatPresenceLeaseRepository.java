@@ -0,0 +1,40 @@
+package com.cedric.Eventra.repository;
+
+import com.cedric.Eventra.entity.ChatPresenceLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface ChatPresenceLeaseRepository extends JpaRepository<ChatPresenceLease, Long> {
+
+    /**
+     * Whether a node other than {@code owner} still has a live session of the user in the room.
+     */
+    @Query("SELECT COUNT(l) > 0 FROM ChatPresenceLease l WHERE l.chatRoomId = :chatRoomId AND l.userId = :userId " +
+            "AND l.owner <> :owner AND l.leaseUntil > :now")
+    boolean existsElsewhere(@Param("chatRoomId") Long chatRoomId,
+                            @Param("userId") Long userId,
+                            @Param("owner") String owner,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Extends every lease of {@code owner} in one statement.
+     */
+    @Modifying
+    @Query("UPDATE ChatPresenceLease l SET l.leaseUntil = :leaseUntil WHERE l.owner = :owner")
+    int renewAll(@Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("DELETE FROM ChatPresenceLease l WHERE l.chatRoomId = :chatRoomId AND l.userId = :userId AND l.owner = :owner")
+    int deleteLease(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId, @Param("owner") String owner);
+
+    /**
+     * Removes the leases of nodes that stopped renewing them.
+     */
+    @Modifying
+    @Query("DELETE FROM ChatPresenceLease l WHERE l.leaseUntil < :now")
+    int deleteLapsed(@Param("now") LocalDateTime now);
+}
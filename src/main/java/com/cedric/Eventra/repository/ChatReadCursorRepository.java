@@ -0,0 +1,29 @@
+package com.cedric.Eventra.repository;
+
+import com.cedric.Eventra.entity.ChatReadCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ChatReadCursorRepository extends JpaRepository<ChatReadCursor, Long> {
+
+    /**
+     * Moves the participant's read position forward to the given message; never backwards, so a client
+     * acknowledging an older message (or two devices racing) cannot mark messages unread again.
+     * @return 0 if there is no cursor row yet or it is already at or past the message
+     */
+    @Modifying
+    @Query("UPDATE ChatReadCursor rc SET rc.lastReadAt = :readAt, rc.lastReadMessageId = :messageId " +
+            "WHERE rc.chatRoom.id = :chatRoomId AND rc.user.id = :userId " +
+            "AND (rc.lastReadAt < :readAt OR (rc.lastReadAt = :readAt AND rc.lastReadMessageId < :messageId))")
+    int advance(@Param("chatRoomId") Long chatRoomId,
+                @Param("userId") Long userId,
+                @Param("readAt") LocalDateTime readAt,
+                @Param("messageId") Long messageId);
+
+    Optional<ChatReadCursor> findByChatRoomIdAndUserId(Long chatRoomId, Long userId);
+}
@@ -3,10 +3,12 @@ package com.cedric.Eventra.repository;
 import com.cedric.Eventra.entity.ChatRoom;
 import com.cedric.Eventra.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +23,103 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     // Fetches rooms for a user, ordered by most recent activity
     List<ChatRoom> findByParticipant1OrParticipant2OrderByLastMessageAtDesc(User participant1, User participant2);
 
+    /**
+     * Participant ids of a room, without loading the room or its users (checked on every message sent).
+     */
+    @Query("SELECT cr.participant1.id AS participant1Id, cr.participant2.id AS participant2Id " +
+            "FROM ChatRoom cr WHERE cr.id = :chatRoomId")
+    Optional<ParticipantIds> findParticipantIds(@Param("chatRoomId") Long chatRoomId);
+
+    /**
+     * Makes the given message the room's last message (lastMessageAt, id, sender, preview) if it is newer, in
+     * history order, than the one recorded; never backwards, so out-of-order flushes are harmless.
+     */
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET cr.lastMessageAt = :sentAt, cr.lastMessageId = :messageId, " +
+            "cr.lastMessageSenderId = :senderId, cr.lastMessagePreview = :preview " +
+            "WHERE cr.id = :chatRoomId AND (cr.lastMessageAt IS NULL OR cr.lastMessageAt < :sentAt " +
+            "OR (cr.lastMessageAt = :sentAt AND (cr.lastMessageId IS NULL OR cr.lastMessageId < :messageId)))")
+    int advanceLastMessage(@Param("chatRoomId") Long chatRoomId,
+                           @Param("sentAt") LocalDateTime sentAt,
+                           @Param("messageId") Long messageId,
+                           @Param("senderId") Long senderId,
+                           @Param("preview") String preview);
+
+    // The two sides of a user's inbox, each read in order from its own (participantN_id, last_message_at, id)
+    // index and cut at the page size; a room with the user on both sides is only taken from the first
+    String INBOX_SIDE = "SELECT cr.id AS chatRoomId, cr.lastMessageAt AS lastMessageAt FROM ChatRoom cr ";
+    String INBOX_AS_PARTICIPANT1 = "WHERE cr.participant1.id = :userId ";
+    String INBOX_AS_PARTICIPANT2 = "WHERE cr.participant2.id = :userId AND cr.participant1.id <> :userId ";
+    String INBOX_AFTER_CURSOR =
+            "AND (cr.lastMessageAt < :cursorLastMessageAt OR (cr.lastMessageAt = :cursorLastMessageAt AND cr.id < :cursorId)) ";
+    String INBOX_SIDE_ORDER = "ORDER BY cr.lastMessageAt DESC, cr.id DESC LIMIT :limit";
+
+    // Joins the merged page back to its rooms; FROM and ORDER BY are added around the sides
+    String INBOX_SELECT = "SELECT cr.id AS chatRoomId, cr.booking.id AS bookingId, " +
+            "p1.id AS participant1Id, p1.firstName AS participant1FirstName, p1.lastName AS participant1LastName, " +
+            "p2.id AS participant2Id, p2.firstName AS participant2FirstName, p2.lastName AS participant2LastName, " +
+            "cr.lastMessageId AS lastMessageId, cr.lastMessageSenderId AS lastMessageSenderId, " +
+            "cr.lastMessagePreview AS lastMessagePreview, cr.lastMessageAt AS lastMessageAt, " +
+            // Others' messages after the read cursor, counted on the (chat_room_id, timestamp, id) index
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom.id = cr.id AND m.sender.id <> :userId " +
+            "AND (rc.id IS NULL OR m.timestamp > rc.lastReadAt " +
+            "OR (m.timestamp = rc.lastReadAt AND m.id > rc.lastReadMessageId))) AS unreadCount FROM (";
+
+    String INBOX_JOIN_ORDER = ") page JOIN ChatRoom cr ON cr.id = page.chatRoomId " +
+            "JOIN cr.participant1 p1 JOIN cr.participant2 p2 " +
+            "LEFT JOIN ChatReadCursor rc ON rc.chatRoom.id = cr.id AND rc.user.id = :userId " +
+            "ORDER BY page.lastMessageAt DESC, page.chatRoomId DESC LIMIT :limit";
+
+    /**
+     * First page of a user's inbox: their rooms by latest activity, each with the other participant,
+     * the last message and the user's unread count, in one query. The rooms where the user is participant 1
+     * and those where they are participant 2 are each cut at {@code limit} on their own index, then merged.
+     * @param userId The user whose inbox it is.
+     * @param limit Page size.
+     */
+    @Query(INBOX_SELECT +
+            "(" + INBOX_SIDE + INBOX_AS_PARTICIPANT1 + INBOX_SIDE_ORDER + ") UNION ALL " +
+            "(" + INBOX_SIDE + INBOX_AS_PARTICIPANT2 + INBOX_SIDE_ORDER + ")" +
+            INBOX_JOIN_ORDER)
+    List<InboxRow> findInbox(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Keyset page of a user's inbox after the cursor room (same order as {@link #findInbox}).
+     * @param userId The user whose inbox it is.
+     * @param cursorLastMessageAt lastMessageAt of the cursor room.
+     * @param cursorId ID of the cursor room.
+     * @param limit Page size.
+     */
+    @Query(INBOX_SELECT +
+            "(" + INBOX_SIDE + INBOX_AS_PARTICIPANT1 + INBOX_AFTER_CURSOR + INBOX_SIDE_ORDER + ") UNION ALL " +
+            "(" + INBOX_SIDE + INBOX_AS_PARTICIPANT2 + INBOX_AFTER_CURSOR + INBOX_SIDE_ORDER + ")" +
+            INBOX_JOIN_ORDER)
+    List<InboxRow> findInboxAfter(@Param("userId") Long userId,
+                                  @Param("cursorLastMessageAt") LocalDateTime cursorLastMessageAt,
+                                  @Param("cursorId") Long cursorId,
+                                  @Param("limit") int limit);
+
     // If have a booking link and need to find a chat room by it
     Optional<ChatRoom> findByBookingId(Long bookingId);
+
+    interface InboxRow {
+        Long getChatRoomId();
+        Long getBookingId();
+        Long getParticipant1Id();
+        String getParticipant1FirstName();
+        String getParticipant1LastName();
+        Long getParticipant2Id();
+        String getParticipant2FirstName();
+        String getParticipant2LastName();
+        Long getLastMessageId();
+        Long getLastMessageSenderId();
+        String getLastMessagePreview();
+        LocalDateTime getLastMessageAt();
+        Long getUnreadCount();
+    }
+
+    interface ParticipantIds {
+        Long getParticipant1Id();
+        Long getParticipant2Id();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.cedric.Eventra.repository;
+
+import com.cedric.Eventra.entity.IdSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    /**
+     * Reads the sequence row under a write lock, so two nodes reserving a block never get the same range.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM IdSequence s WHERE s.name = :name")
+    Optional<IdSequence> lockByName(@Param("name") String name);
+}
@@ -5,6 +5,7 @@ import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.ServiceCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -16,4 +17,23 @@ public interface OfferedServiceRepository extends JpaRepository<OfferedService,
     // NEW: Find services offered by providers in a specific category
     @Query("SELECT s FROM OfferedService s WHERE s.provider.serviceProviderProfile.serviceCategory = :category")
     List<OfferedService> findByProviderCategory(com.cedric.Eventra.enums.ServiceCategory category);
+
+    // IDs of a provider's services, used to filter bookings on the service_id index
+    @Query("SELECT s.id FROM OfferedService s WHERE s.provider.id = :providerId")
+    List<Long> findIdsByProviderId(@Param("providerId") Long providerId);
+
+    // Longest service duration of a provider, bounding how far back an overlapping booking can start
+    @Query("SELECT MAX(s.durationMinutes) FROM OfferedService s WHERE s.provider.id = :providerId")
+    Integer findMaxDurationMinutesByProviderId(@Param("providerId") Long providerId);
+
+    // Searchable service text for every offered service, used to build the provider search index
+    @Query("SELECT s.provider.id AS providerId, s.id AS serviceId, s.name AS name, s.description AS description FROM OfferedService s")
+    List<SearchDocumentRow> findSearchDocumentRows();
+
+    interface SearchDocumentRow {
+        Long getProviderId();
+        Long getServiceId();
+        String getName();
+        String getDescription();
+    }
 }
@@ -0,0 +1,54 @@
+package com.cedric.Eventra.repository;
+
+import com.cedric.Eventra.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks up to {@code limit} due rows, oldest first. Rows another node has locked are skipped
+     * (SKIP LOCKED), so relays on several nodes claim disjoint batches instead of queueing on each other.
+     *
+     * A row is not due while an earlier row for one of its bookings is still pending, whether claimed or
+     * waiting for a retry, so a booking's events are delivered one at a time in the order they were recorded.
+     * It follows that no two rows of a batch share a booking. Parked rows do not hold anything back: nothing
+     * requeues them, so a parked row is skipped and its bookings' later events go out after it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.failedAt IS NULL AND o.availableAt <= :now"
+            + " AND NOT EXISTS (SELECT 1 FROM OutboxEvent p JOIN p.bookingIdIndex b"
+            + " WHERE p.id < o.id AND p.failedAt IS NULL AND b MEMBER OF o.bookingIdIndex)"
+            + " ORDER BY o.id")
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Delivered: the row is removed in the same transaction as the notifications it produced.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.id = :id")
+    int acknowledge(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.availableAt = :retryAt, o.lastError = :error WHERE o.id = :id")
+    int scheduleRetry(@Param("id") Long id, @Param("retryAt") LocalDateTime retryAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.failedAt = :failedAt, o.lastError = :error WHERE o.id = :id")
+    int markFailed(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt, @Param("error") String error);
+
+    long countByFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+}
@@ -4,8 +4,11 @@ import com.cedric.Eventra.entity.Review;
 import com.cedric.Eventra.entity.ServiceProviderProfile;
 import com.cedric.Eventra.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,4 +32,31 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      * Useful if you want to limit one review per user per provider (unless reviews are per booking).
      */
     boolean existsByReviewerAndProvider(User reviewer, ServiceProviderProfile provider);
-}
\ No newline at end of file
+
+    /**
+     * Recomputes one provider's rating aggregates from the reviews table; empty if it has no rated reviews.
+     * The star buckets match ProviderRatingAggregator (rating rounded half-up, clamped to 1..5).
+     */
+    @Query("SELECT r.provider.userId AS providerId, COUNT(r) AS reviewCount, COALESCE(SUM(r.rating), 0) AS ratingSum, " +
+            "SUM(CASE WHEN r.rating < 1.5 THEN 1 ELSE 0 END) AS oneStarCount, " +
+            "SUM(CASE WHEN r.rating >= 1.5 AND r.rating < 2.5 THEN 1 ELSE 0 END) AS twoStarCount, " +
+            "SUM(CASE WHEN r.rating >= 2.5 AND r.rating < 3.5 THEN 1 ELSE 0 END) AS threeStarCount, " +
+            "SUM(CASE WHEN r.rating >= 3.5 AND r.rating < 4.5 THEN 1 ELSE 0 END) AS fourStarCount, " +
+            "SUM(CASE WHEN r.rating >= 4.5 THEN 1 ELSE 0 END) AS fiveStarCount " +
+            "FROM Review r WHERE r.rating IS NOT NULL AND r.provider.userId = :providerId " +
+            "GROUP BY r.provider.userId")
+    List<ServiceProviderProfileRepository.RatingAggregate> computeRatingAggregates(@Param("providerId") Long providerId);
+
+    /**
+     * Same as computeRatingAggregates, for a batch of providers: one row per given provider that has rated reviews.
+     */
+    @Query("SELECT r.provider.userId AS providerId, COUNT(r) AS reviewCount, COALESCE(SUM(r.rating), 0) AS ratingSum, " +
+            "SUM(CASE WHEN r.rating < 1.5 THEN 1 ELSE 0 END) AS oneStarCount, " +
+            "SUM(CASE WHEN r.rating >= 1.5 AND r.rating < 2.5 THEN 1 ELSE 0 END) AS twoStarCount, " +
+            "SUM(CASE WHEN r.rating >= 2.5 AND r.rating < 3.5 THEN 1 ELSE 0 END) AS threeStarCount, " +
+            "SUM(CASE WHEN r.rating >= 3.5 AND r.rating < 4.5 THEN 1 ELSE 0 END) AS fourStarCount, " +
+            "SUM(CASE WHEN r.rating >= 4.5 THEN 1 ELSE 0 END) AS fiveStarCount " +
+            "FROM Review r WHERE r.rating IS NOT NULL AND r.provider.userId IN :providerIds " +
+            "GROUP BY r.provider.userId")
+    List<ServiceProviderProfileRepository.RatingAggregate> computeRatingAggregatesFor(@Param("providerIds") Collection<Long> providerIds);
+}
@@ -2,8 +2,14 @@ package com.cedric.Eventra.repository;
 
 import com.cedric.Eventra.entity.ServiceProviderProfile;
 import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -11,7 +17,8 @@ import java.util.Optional;
 
 public interface ServiceProviderProfileRepository extends JpaRepository<ServiceProviderProfile, Long> {
 
-    // For fetching profile using user ID (since profile is 1-to-1 with User)
+    // For fetching profile using user ID (since profile is 1-to-1 with User); the user is joined, not selected separately
+    @EntityGraph(attributePaths = "user")
     Optional<ServiceProviderProfile> findByUserId(Long userId);
 
     // Optional: for checking profile existence
@@ -19,7 +26,98 @@ public interface ServiceProviderProfileRepository extends JpaRepository<ServiceP
 
     List<ServiceProviderProfile> findByServiceCategory(ServiceCategory category);
 
-    // New method for searching by service name (case-insensitive, partial match)
-    @Query("SELECT sp FROM ServiceProviderProfile sp WHERE LOWER(sp.serviceName) LIKE LOWER(CONCAT('%', :serviceName, '%')) AND sp.user.isActive = true AND sp.user.role = 'SERVICE_PROVIDER'")
-    List<ServiceProviderProfile> findByServiceNameContainingIgnoreCaseAndUserIsActiveTrueAndUserRoleServiceProvider(@Param("serviceName") String serviceName);
+    /**
+     * Searchable profile fields for every provider, used to build the provider search index.
+     */
+    @Query("SELECT p.userId AS providerId, p.serviceName AS serviceName, p.serviceCategory AS serviceCategory, " +
+            "p.location AS location, p.postcode AS postcode, u.isActive AS isActive, u.role AS role " +
+            "FROM ServiceProviderProfile p JOIN p.user u")
+    List<SearchDocumentRow> findSearchDocumentRows();
+
+    /**
+     * Applies a rating delta to a provider's running aggregates in a single UPDATE, so concurrent
+     * review writers never lose each other's changes. averageRating is assigned first and computed
+     * from the old values plus the deltas, which gives the same result whether the database evaluates
+     * SET assignments left-to-right (MySQL) or against the original row (standard SQL).
+     * @return number of profiles updated (0 if the provider does not exist)
+     */
+    @Modifying
+    @Query("UPDATE ServiceProviderProfile p SET " +
+            "p.averageRating = CASE WHEN p.reviewCount + :countDelta > 0 " +
+            "THEN (p.ratingSum + :sumDelta) / (p.reviewCount + :countDelta) ELSE 0 END, " +
+            "p.reviewCount = p.reviewCount + :countDelta, " +
+            "p.ratingSum = p.ratingSum + :sumDelta, " +
+            "p.oneStarCount = p.oneStarCount + :oneStarDelta, " +
+            "p.twoStarCount = p.twoStarCount + :twoStarDelta, " +
+            "p.threeStarCount = p.threeStarCount + :threeStarDelta, " +
+            "p.fourStarCount = p.fourStarCount + :fourStarDelta, " +
+            "p.fiveStarCount = p.fiveStarCount + :fiveStarDelta " +
+            "WHERE p.userId = :providerId")
+    int applyRatingDelta(@Param("providerId") Long providerId,
+                         @Param("countDelta") long countDelta,
+                         @Param("sumDelta") double sumDelta,
+                         @Param("oneStarDelta") long oneStarDelta,
+                         @Param("twoStarDelta") long twoStarDelta,
+                         @Param("threeStarDelta") long threeStarDelta,
+                         @Param("fourStarDelta") long fourStarDelta,
+                         @Param("fiveStarDelta") long fiveStarDelta);
+
+    /**
+     * Overwrites a provider's rating aggregates with recomputed values (used by reconciliation).
+     */
+    @Modifying
+    @Query("UPDATE ServiceProviderProfile p SET " +
+            "p.averageRating = :averageRating, p.reviewCount = :reviewCount, p.ratingSum = :ratingSum, " +
+            "p.oneStarCount = :oneStarCount, p.twoStarCount = :twoStarCount, p.threeStarCount = :threeStarCount, " +
+            "p.fourStarCount = :fourStarCount, p.fiveStarCount = :fiveStarCount " +
+            "WHERE p.userId = :providerId")
+    int overwriteRatingAggregates(@Param("providerId") Long providerId,
+                                  @Param("averageRating") Float averageRating,
+                                  @Param("reviewCount") long reviewCount,
+                                  @Param("ratingSum") double ratingSum,
+                                  @Param("oneStarCount") long oneStarCount,
+                                  @Param("twoStarCount") long twoStarCount,
+                                  @Param("threeStarCount") long threeStarCount,
+                                  @Param("fourStarCount") long fourStarCount,
+                                  @Param("fiveStarCount") long fiveStarCount);
+
+    /**
+     * Locks a provider's profile row so rating deltas wait while it is being reconciled.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.userId FROM ServiceProviderProfile p WHERE p.userId = :providerId")
+    Optional<Long> lockForRatingUpdate(@Param("providerId") Long providerId);
+
+    /**
+     * Stored rating aggregates for a page of providers, keyed after {@code afterProviderId}.
+     */
+    @Query("SELECT p.userId AS providerId, p.reviewCount AS reviewCount, p.ratingSum AS ratingSum, " +
+            "p.oneStarCount AS oneStarCount, p.twoStarCount AS twoStarCount, p.threeStarCount AS threeStarCount, " +
+            "p.fourStarCount AS fourStarCount, p.fiveStarCount AS fiveStarCount " +
+            "FROM ServiceProviderProfile p WHERE p.userId > :afterProviderId ORDER BY p.userId")
+    List<RatingAggregate> findStoredRatingAggregates(@Param("afterProviderId") Long afterProviderId, Pageable pageable);
+
+    interface SearchDocumentRow {
+        Long getProviderId();
+        String getServiceName();
+        ServiceCategory getServiceCategory();
+        String getLocation();
+        String getPostcode();
+        Boolean getIsActive();
+        UserRole getRole();
+    }
+
+    /**
+     * Rating aggregates as held on the profile, or as recomputed from the reviews table.
+     */
+    interface RatingAggregate {
+        Long getProviderId();
+        Long getReviewCount();
+        Double getRatingSum();
+        Long getOneStarCount();
+        Long getTwoStarCount();
+        Long getThreeStarCount();
+        Long getFourStarCount();
+        Long getFiveStarCount();
+    }
 }
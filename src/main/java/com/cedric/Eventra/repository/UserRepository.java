@@ -2,7 +2,11 @@ package com.cedric.Eventra.repository;
 
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.UserRole;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
 import java.util.List;
@@ -17,5 +21,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Added method to fetch users by role (both active and inactive)
     List<User> findByRole(UserRole role);
 
+    // Row lock held until commit; serialises slot checks for one provider across instances (ProviderSlotGuard)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
+
 
 }
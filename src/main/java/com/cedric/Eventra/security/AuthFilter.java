@@ -1,5 +1,6 @@
 package com.cedric.Eventra.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,10 +31,12 @@ public class AuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         String token = getTokenFromRequest(request);
         if(token != null){
-           String email = jwtUtils.getUsernameFromToken(token);
+            // Signature is verified once here (or served from the verified-claims cache)
+            Claims claims = jwtUtils.getVerifiedClaims(token);
+            String email = claims.getSubject();
             UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
 
-            if(StringUtils.hasText(email) && jwtUtils.isTokenValid(token, userDetails)){
+            if(StringUtils.hasText(email) && jwtUtils.isTokenValid(claims, userDetails)){
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
                 );
@@ -16,13 +16,18 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(()-> new NotFoundException("User Email Not Found!"));
+        // Served from the principal cache; the DB is only hit on a miss or after eviction
+        return principalCache.get(username, email -> {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(()-> new NotFoundException("User Email Not Found!"));
 
-        return AuthUser.builder()
-                .user(user)
-                .build();
+            return AuthUser.builder()
+                    .user(user)
+                    .build();
+        });
     }
 }
@@ -1,5 +1,8 @@
 package com.cedric.Eventra.security; // Or your designated security package
 
+import com.cedric.Eventra.service.chat.ChatPresenceService;
+import com.cedric.Eventra.service.chat.ChatRoomMembershipCache;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException; // Correct import for JJWT's SignatureException
@@ -8,11 +11,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -20,7 +26,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.security.Principal;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
@@ -29,6 +38,13 @@ public class JwtStompAuthChannelInterceptor implements ChannelInterceptor {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService; // Your CustomUserDetailsService implements this
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final ChatPresenceService chatPresenceService;
+
+    // Room topics, including per-room sub-topics such as /topic/room.42.presence
+    private static final Pattern ROOM_TOPIC = Pattern.compile("^/topic/room\\.(\\d+)(\\..+)?$");
+    // Clients may only SEND to @MessageMapping handlers (WebSocketConfig's application destination prefix)
+    private static final String APPLICATION_PREFIX = "/app/";
 
     @Override
     public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
@@ -60,7 +76,8 @@ public class JwtStompAuthChannelInterceptor implements ChannelInterceptor {
             if (bearerToken != null) {
                 String username = null;
                 try {
-                    username = jwtUtils.getUsernameFromToken(bearerToken); // Extracts email
+                    Claims claims = jwtUtils.getVerifiedClaims(bearerToken); // Verified once, reused below
+                    username = claims.getSubject(); // Extracts email
 
                     if (StringUtils.hasText(username)) {
                         // It's generally good practice not to set Authentication in SecurityContextHolder
@@ -70,7 +87,7 @@ public class JwtStompAuthChannelInterceptor implements ChannelInterceptor {
 
                         UserDetails userDetails = userDetailsService.loadUserByUsername(username); // Throws UsernameNotFoundException
 
-                        if (jwtUtils.isTokenValid(bearerToken, userDetails)) {
+                        if (jwtUtils.isTokenValid(claims, userDetails)) {
                             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                     userDetails, null, userDetails.getAuthorities());
 
@@ -109,9 +126,106 @@ public class JwtStompAuthChannelInterceptor implements ChannelInterceptor {
             // If no token was provided, or if token validation failed and we didn't throw an exception,
             // the connection proceeds without an authenticated user set on the accessor.
             // Subsequent @MessageMapping security or subscriptions might then fail if they require authentication.
+        } else if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscription(accessor);
+        } else if (accessor != null && StompCommand.SEND.equals(accessor.getCommand())) {
+            authorizeSend(accessor);
         }
         return message; // Always return the message, possibly with accessor.setUser(auth) updated.
     }
 
-    // postSend, afterSendCompletion, afterSendFailed can be overridden for more detailed logging or handling if needed.
+    /**
+     * Lets a session subscribe only to its own user destinations and to the topics of rooms its user takes
+     * part in. Participants come from ChatRoomMembershipCache and the user from the session's CONNECT-time
+     * principal, so no query runs for a room already cached. A rejected SUBSCRIBE is answered with an ERROR frame.
+     */
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            throw new MessageDeliveryException("SUBSCRIBE without a destination.");
+        }
+        if (destination.startsWith("/user/")) {
+            return; // Resolved to this session's own queues by the user destination handler
+        }
+        Matcher roomTopic = ROOM_TOPIC.matcher(destination);
+        if (!roomTopic.matches()) {
+            log.warn("Rejected STOMP SUBSCRIBE to unknown destination {}", destination);
+            throw new MessageDeliveryException("Subscribing to " + destination + " is not allowed.");
+        }
+        Principal principal = accessor.getUser();
+        if (principal == null) {
+            throw new MessageDeliveryException("Authentication required to subscribe to " + destination + ".");
+        }
+        Long chatRoomId = Long.valueOf(roomTopic.group(1));
+        Long userId = userIdOf(principal);
+        if (!chatRoomMembershipCache.isParticipant(chatRoomId, userId)) {
+            log.warn("User {} attempted to subscribe to {} of a chat room they are not part of.", userId, destination);
+            throw new MessageDeliveryException("You are not authorized to subscribe to " + destination + ".");
+        }
+    }
+
+    /**
+     * Lets an authenticated session SEND only to application destinations, where the @MessageMapping
+     * handlers check room participation. A SEND straight to a broker destination (/topic/room.42,
+     * /topic/room.42.presence, /user/...) would otherwise be relayed to every subscriber unchecked.
+     */
+    private void authorizeSend(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(APPLICATION_PREFIX)) {
+            log.warn("Rejected STOMP SEND to broker destination {}", destination);
+            throw new MessageDeliveryException("Sending to " + destination + " is not allowed.");
+        }
+        if (accessor.getUser() == null) {
+            throw new MessageDeliveryException("Authentication required to send to " + destination + ".");
+        }
+    }
+
+    // The AuthUser put on the session at CONNECT; otherwise through the principal cache
+    private Long userIdOf(Principal principal) {
+        if (principal instanceof Authentication authentication && authentication.getPrincipal() instanceof AuthUser authUser) {
+            return authUser.getUser().getId();
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(principal.getName());
+        if (userDetails instanceof AuthUser authUser) {
+            return authUser.getUser().getId();
+        }
+        throw new MessageDeliveryException("Unknown user " + principal.getName() + ".");
+    }
+
+    /**
+     * Reports accepted frames to ChatPresenceService: CONNECT, room SUBSCRIBE/UNSUBSCRIBE and DISCONNECT
+     * change presence, anything else (client heartbeats included) only keeps the session alive.
+     */
+    @Override
+    public void postSend(@NonNull Message<?> message, @NonNull MessageChannel channel, boolean sent) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (!sent || sessionId == null) {
+            return;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        StompCommand command = accessor != null ? accessor.getCommand() : null;
+        try {
+            if (StompCommand.CONNECT.equals(command) || StompCommand.STOMP.equals(command)) {
+                if (accessor.getUser() != null) {
+                    chatPresenceService.connected(sessionId, userIdOf(accessor.getUser()));
+                }
+            } else if (StompCommand.SUBSCRIBE.equals(command)) {
+                Matcher roomTopic = accessor.getDestination() != null ? ROOM_TOPIC.matcher(accessor.getDestination()) : null;
+                if (roomTopic != null && roomTopic.matches()) {
+                    chatPresenceService.subscribed(sessionId, accessor.getSubscriptionId(), Long.valueOf(roomTopic.group(1)));
+                } else {
+                    chatPresenceService.touched(sessionId);
+                }
+            } else if (StompCommand.UNSUBSCRIBE.equals(command)) {
+                chatPresenceService.unsubscribed(sessionId, accessor.getSubscriptionId());
+            } else if (StompCommand.DISCONNECT.equals(command)) {
+                chatPresenceService.disconnected(sessionId);
+            } else {
+                chatPresenceService.touched(sessionId);
+            }
+        } catch (RuntimeException e) {
+            // Presence is best effort and must never fail the frame itself
+            log.warn("Could not update chat presence for session {}: {}", sessionId, e.getMessage());
+        }
+    }
 }
\ No newline at end of file
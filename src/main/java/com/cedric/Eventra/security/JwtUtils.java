@@ -1,8 +1,11 @@
 package com.cedric.Eventra.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,23 +14,35 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
 
 @Service
 @Slf4j
 public class JwtUtils {
 
     private static final long EXPIRATION_TIME_IN_MILSEC = 180 * 60L * 60L * 24L * 30L * 6L; // this will expire in 6 months
-    private SecretKey key;
+    private final SecretKey key;
 
-    @Value("${secretJwtString}")
-    private String secretJwtString;
+    // Immutable and thread-safe, so one instance is shared by every request
+    private final JwtParser parser;
 
-    @PostConstruct
-    private void init(){
+    // Verified claims keyed by a SHA-256 hash of the token; an entry never outlives the token's own expiry
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JwtUtils(@Value("${secretJwtString}") String secretJwtString,
+                    @Value("${security.jwt.claims-cache.ttl:10m}") Duration claimsCacheTtl,
+                    @Value("${security.jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize) {
         byte[] keyByte = secretJwtString.getBytes(StandardCharsets.UTF_8);
         this.key = new SecretKeySpec(keyByte, "HmacSHA256");
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new ClaimsExpiry(claimsCacheTtl.toNanos()))
+                .build();
     }
 
     public String generateToken(String email){
@@ -39,22 +54,68 @@ public class JwtUtils {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token){
-        return extractClaims(token, Claims::getSubject);
+    /**
+     * Returns the verified claims of a token, checking the signature at most once per cache lifetime.
+     * Throws the usual JJWT exceptions (expired, malformed, bad signature) when the token is not valid.
+     */
+    public Claims getVerifiedClaims(String token){
+        String tokenHash = hash(token);
+        Claims claims = verifiedClaims.getIfPresent(tokenHash);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            verifiedClaims.put(tokenHash, claims);
+        }
+        return claims;
     }
 
-    private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction){
-        return claimsTFunction.apply(Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload());
+    public String getUsernameFromToken(String token){
+        return getVerifiedClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails){
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(getVerifiedClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails){
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
-    private boolean isTokenExpired(String token){
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    private boolean isTokenExpired(Claims claims){
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
+    private static String hash(String token){
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Expires each entry after the configured TTL or when the token itself expires, whichever comes first
+    private record ClaimsExpiry(long maxTtlNanos) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
 
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package com.cedric.Eventra.security;
+
+import com.cedric.Eventra.service.cache.CacheEvictions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/*
+Bounded, time-limited cache of authenticated principals keyed by email.
+
+AuthFilter and the STOMP interceptor resolve the user through CustomUserDetailsService on every
+request; this keeps the users table off that path. Entries expire after the configured TTL and are
+evicted explicitly whenever the user's account details, active flag or existence change.
+The cached User is shared between requests, so code that modifies a user must load a fresh entity
+instead of mutating the cached one.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final Cache<String, AuthUser> cache;
+
+    public PrincipalCache(@Value("${security.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public AuthUser get(String email, Function<String, AuthUser> loader) {
+        return cache.get(email, loader);
+    }
+
+    /**
+     * Evicts the principal after an account change; a null email (no such user) is ignored.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        CacheEvictions.evictNowAndAfterCompletion(cache, email);
+        log.debug("Evicted cached principal for {}", email);
+    }
+}
@@ -59,6 +59,7 @@ public class SecurityFilter {
                         // Allow access to public services
                         .requestMatchers("/api/services/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/users/service-providers/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/availability/**").permitAll()
 
                         // Role-based access
                         .requestMatchers("/api/admin/**").hasAuthority("ADMIN")
@@ -0,0 +1,27 @@
+package com.cedric.Eventra.service;
+
+import com.cedric.Eventra.dto.Response;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface AvailabilityService {
+
+    /**
+     * Lists the provider's taken time slots over a range of days.
+     * @param providerId The provider's user ID.
+     * @param from First day of the range.
+     * @param days Number of days, from {@code from} inclusive.
+     * @return Response object containing the taken slots, in start order.
+     */
+    Response getProviderBusySlots(Long providerId, LocalDate from, Integer days);
+
+    /**
+     * Checks whether a booking of the service at the given date and time would fit the provider's calendar.
+     * @param serviceId The offered service to book.
+     * @param date Preferred date.
+     * @param time Preferred time; null books the whole day.
+     * @return Response object with status 200 if the slot is free, or 409 with the overlapping slots.
+     */
+    Response checkServiceAvailability(Long serviceId, LocalDate date, LocalTime time);
+}
@@ -0,0 +1,87 @@
+package com.cedric.Eventra.service;
+
+import com.cedric.Eventra.dto.AvailabilitySlotDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private static final int DEFAULT_DAYS = 7;
+    private static final int MAX_DAYS = 62;
+
+    private final ProviderAvailabilityCalendar availabilityCalendar;
+    private final OfferedServiceRepository offeredServiceRepository;
+
+    @Override
+    public Response getProviderBusySlots(Long providerId, LocalDate from, Integer days) {
+        LocalDate firstDay = from != null ? from : LocalDate.now();
+        int dayCount = days == null || days < 1 ? DEFAULT_DAYS : Math.min(days, MAX_DAYS);
+
+        List<AvailabilitySlotDTO> slots = availabilityCalendar
+                .slotsBetween(providerId, firstDay.atStartOfDay(), firstDay.plusDays(dayCount).atStartOfDay())
+                .stream()
+                .map(this::toSlotDTO)
+                .toList();
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message(slots.isEmpty() ? "Provider has no bookings in this period." : "Provider's booked slots retrieved successfully.")
+                .availabilitySlots(slots)
+                .build();
+    }
+
+    @Override
+    public Response checkServiceAvailability(Long serviceId, LocalDate date, LocalTime time) {
+        if (date == null) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("A date is required to check availability.")
+                    .build();
+        }
+        OfferedService service = offeredServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new NotFoundException("Offered service not found with ID: " + serviceId));
+
+        ProviderAvailabilityCalendar.Slot requested = availabilityCalendar.slotFor(null, service, date, time, null).orElseThrow();
+        List<AvailabilitySlotDTO> conflicts = availabilityCalendar
+                .slotsBetween(service.getProvider().getId(), requested.start(), requested.end())
+                .stream()
+                .map(this::toSlotDTO)
+                .toList();
+
+        if (!conflicts.isEmpty()) {
+            return Response.builder()
+                    .status(HttpStatus.CONFLICT.value())
+                    .message("The provider is already booked at the requested time.")
+                    .availabilitySlots(conflicts)
+                    .build();
+        }
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("The requested time is available.")
+                .availabilitySlots(List.of(toSlotDTO(requested)))
+                .build();
+    }
+
+    private AvailabilitySlotDTO toSlotDTO(ProviderAvailabilityCalendar.Slot slot) {
+        return AvailabilitySlotDTO.builder()
+                .start(slot.start())
+                .end(slot.end())
+                .serviceId(slot.serviceId())
+                .held(slot.isHold())
+                .build();
+    }
+}
@@ -1,44 +1,163 @@
 package com.cedric.Eventra.service;
 
 import com.cedric.Eventra.entity.BookingReference;
+import com.cedric.Eventra.entity.IdSequence;
 import com.cedric.Eventra.repository.BookingReferenceRepository;
-import lombok.RequiredArgsConstructor;
+import com.cedric.Eventra.repository.IdSequenceRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Random;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Generates 10-character booking references that are unique without asking the database.
+ *
+ * Layout: 1 node character + 9 characters encoding a per-node, strictly increasing value
+ * (seconds since 2025-01-01 shifted left by {@value #SEQUENCE_BITS} bits, plus a sequence).
+ * The value is advanced with a CAS loop, so there is no locking and no Random instance per call.
+ * Bursts above 2^14 references per second simply borrow from the next second.
+ *
+ * So that a restarted node never reissues a value, the node keeps a high-water mark in id_sequences
+ * (one row per node character) and reserves reserve-ahead worth of values past the clock at a time: one
+ * short locking transaction per reservation, plain memory in between. A starting node continues above the
+ * mark; if the mark is further ahead of the clock than one reservation (the clock was set back, or the node
+ * restarted right after a burst borrowed from future seconds), it refuses to issue until the clock catches up.
+ */
 @Service
-@RequiredArgsConstructor
 public class BookingCodeGenerator {
 
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ123456789".toCharArray();
+    private static final int BASE = ALPHABET.length;
+    private static final int REFERENCE_LENGTH = 10;
+    private static final int VALUE_LENGTH = REFERENCE_LENGTH - 1;
+
+    static final int SEQUENCE_BITS = 14;
+    private static final long EPOCH_SECONDS = 1735689600L; // 2025-01-01T00:00:00Z
+    private static final long MAX_VALUE = maxValueFor(VALUE_LENGTH);
+    static final String SEQUENCE_PREFIX = "booking_reference_";
+
     private final BookingReferenceRepository bookingReferenceRepository;
+    private final IdSequenceRepository idSequenceRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final char nodePrefix;
+    private final String sequenceName;
+    private final boolean recordInTable;
+    private final long reserveAhead;
+    private final Clock clock;
+    private final AtomicLong lastValue = new AtomicLong();
 
-    // auto generate unique reference number
-    private String generateRandomAlphaNumericCode(int length){
-        String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ123456789";
-        Random random = new Random();
-        StringBuilder stringBuilder = new StringBuilder(length);
-        for(int i = 0; i < length; i++){
-            int index = random.nextInt(characters.length());
-            stringBuilder.append(characters.charAt(index));
-        }
+    // Highest value covered by the stored mark; -1 until this node has read it
+    private volatile long reservedUntil = -1;
 
-        return stringBuilder.toString();
+    @Autowired
+    public BookingCodeGenerator(BookingReferenceRepository bookingReferenceRepository,
+                                IdSequenceRepository idSequenceRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${booking.reference.node-id:0}") int nodeId,
+                                @Value("${booking.reference.record-in-table:false}") boolean recordInTable,
+                                @Value("${booking.reference.reserve-ahead:PT10S}") Duration reserveAhead) {
+        this(bookingReferenceRepository, idSequenceRepository, entityManager, transactionManager, nodeId, recordInTable,
+                reserveAhead, Clock.systemUTC());
     }
 
-    public String generateBookingReference(){
-        String bookingReference;
-        // Keep generating until a unique code is found
-        do{
-            bookingReference = generateRandomAlphaNumericCode(10); // generate code of length 10
-        } while(isBookingReferenceExist(bookingReference)); // check if the code already exists
-        saveBookingReferenceToDatabase(bookingReference); // save to database
+    BookingCodeGenerator(BookingReferenceRepository bookingReferenceRepository, IdSequenceRepository idSequenceRepository,
+                         EntityManager entityManager, PlatformTransactionManager transactionManager, int nodeId,
+                         boolean recordInTable, Duration reserveAhead, Clock clock) {
+        if (nodeId < 0 || nodeId >= BASE) {
+            throw new IllegalArgumentException("booking.reference.node-id must be between 0 and " + (BASE - 1));
+        }
+        this.bookingReferenceRepository = bookingReferenceRepository;
+        this.idSequenceRepository = idSequenceRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Reserved in a transaction of its own: the mark stays moved whatever happens to the caller's booking
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodePrefix = ALPHABET[nodeId];
+        this.sequenceName = SEQUENCE_PREFIX + nodePrefix;
+        this.recordInTable = recordInTable;
+        this.reserveAhead = Math.max(1L, reserveAhead.toSeconds()) << SEQUENCE_BITS;
+        this.clock = clock;
+    }
 
+    public String generateBookingReference(){
+        String bookingReference = encode(nextValue());
+        if (recordInTable) {
+            saveBookingReferenceToDatabase(bookingReference); // optional audit trail, no uniqueness lookup needed
+        }
         return bookingReference;
     }
 
-    private boolean isBookingReferenceExist(String bookingReference){
-        return bookingReferenceRepository.findByReferenceNo(bookingReference).isPresent();
+    private long nextValue() {
+        long floor = floor();
+        while (true) {
+            long last = lastValue.get();
+            long next = Math.max(last + 1, floor);
+            if (next > MAX_VALUE) {
+                throw new IllegalStateException("Booking reference space exhausted");
+            }
+            if (next > reservedUntil) {
+                reserve(next);
+                continue;
+            }
+            if (lastValue.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Moves the stored mark past {@code needed} and reserve-ahead past the clock. The first reservation of
+     * the node also raises lastValue to the stored mark, or refuses if the clock is too far behind it.
+     */
+    private synchronized void reserve(long needed) {
+        if (needed <= reservedUntil) {
+            return;
+        }
+        boolean starting = reservedUntil < 0;
+        long floor = floor();
+        reservedUntil = transactionTemplate.execute(status -> {
+            IdSequence mark = idSequenceRepository.lockByName(sequenceName).orElse(null);
+            long issuedUpTo = mark == null ? 0L : mark.getNextValue() - 1;
+            if (starting) {
+                if (issuedUpTo > floor + reserveAhead) {
+                    throw new IllegalStateException("Clock is behind the booking reference high-water mark of node "
+                            + nodePrefix + "; no references are issued until it catches up");
+                }
+                lastValue.accumulateAndGet(issuedUpTo, Math::max);
+            }
+            long until = Math.min(MAX_VALUE, Math.max(Math.max(needed, issuedUpTo), floor) + reserveAhead);
+            if (mark == null) {
+                // A node id is configured on one running instance only, so nobody else creates this row
+                entityManager.persist(IdSequence.builder().name(sequenceName).nextValue(until + 1).build());
+                entityManager.flush();
+            } else {
+                mark.setNextValue(until + 1);
+            }
+            return until;
+        });
+    }
+
+    private long floor() {
+        return (clock.millis() / 1000 - EPOCH_SECONDS) << SEQUENCE_BITS;
+    }
+
+    private String encode(long value) {
+        char[] chars = new char[REFERENCE_LENGTH];
+        chars[0] = nodePrefix;
+        for (int i = REFERENCE_LENGTH - 1; i >= 1; i--) {
+            chars[i] = ALPHABET[(int) (value % BASE)];
+            value /= BASE;
+        }
+        return new String(chars);
     }
 
     private void saveBookingReferenceToDatabase(String bookingReference){
@@ -46,4 +165,12 @@ public class BookingCodeGenerator {
                 .referenceNo(bookingReference).build();
         bookingReferenceRepository.save(newBookingReference);
     }
+
+    private static long maxValueFor(int digits) {
+        long max = 1;
+        for (int i = 0; i < digits; i++) {
+            max *= BASE;
+        }
+        return max - 1;
+    }
 }
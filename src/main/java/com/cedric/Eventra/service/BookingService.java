@@ -3,12 +3,32 @@ package com.cedric.Eventra.service;
 import com.cedric.Eventra.dto.BookingDTO;
 import com.cedric.Eventra.dto.Response;
 import com.cedric.Eventra.entity.BookingReference;
+import com.cedric.Eventra.enums.BookingStatus;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public interface BookingService {
 
-    Response getMyBookingAsCustomer();
+    /**
+     * Keyset-paginated list of the current customer's bookings, newest first by default.
+     * @param statuses Optional status filter; null or empty matches every status.
+     * @param from Optional first creation day (inclusive).
+     * @param to Optional last creation day (inclusive).
+     * @param order "desc" (default) or "asc" by creation time.
+     * @param cursor Optional nextCursor of the previous page.
+     * @param size Optional page size (default 20, max 100).
+     * @return Response object with the page of bookings, nextCursor and hasMore.
+     */
+    Response getMyBookingAsCustomer(List<BookingStatus> statuses, LocalDate from, LocalDate to,
+                                    String order, String cursor, Integer size);
 
-    Response getMyBookingAsProvider();
+    /**
+     * Keyset-paginated list of bookings for the current provider's services; same parameters as
+     * {@link #getMyBookingAsCustomer}, plus an optional filter on one of the provider's services.
+     */
+    Response getMyBookingAsProvider(Long serviceId, List<BookingStatus> statuses, LocalDate from, LocalDate to,
+                                    String order, String cursor, Integer size);
 
     Response getBookingByReference(String bookingReference);
 }
@@ -3,61 +3,63 @@ package com.cedric.Eventra.service;
 import com.cedric.Eventra.dto.BookingDTO;
 import com.cedric.Eventra.dto.Response;
 import com.cedric.Eventra.entity.Booking;
-import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.BookingReadModel;
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.BookingStatus;
 import com.cedric.Eventra.enums.UserRole;
 import com.cedric.Eventra.events.*;
+import com.cedric.Eventra.exception.BadRequestException;
 import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
 import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.BookingSpecifications;
 import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.service.booking.BookingPageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
-import java.util.Collections;
-import java.util.Comparator;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService{
 
+    private static final int DEFAULT_BOOKING_PAGE_SIZE = 20;
+    private static final int MAX_BOOKING_PAGE_SIZE = 100;
+
     private final BookingRepository bookingRepository;
+    private final BookingReadModelRepository bookingReadModelRepository;
     private final UserService userService;
     private final OfferedServiceRepository offeredServiceRepository;
     //private final NotificationService notificationService;
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
     private final BookingCodeGenerator bookingCodeGenerator;
     private final ApplicationEventPublisher eventPublisher; // Added
 
 
     @Override
-    public Response getMyBookingAsCustomer() {
+    @Transactional(readOnly = true)
+    public Response getMyBookingAsCustomer(List<BookingStatus> statuses, LocalDate from, LocalDate to,
+                                           String order, String cursor, Integer size) {
         User customer = userService.getCurrentLoggedInUser();
 
-        List<Booking> bookings = bookingRepository.findByUserId(customer.getId());
-        bookings.sort(Comparator.comparing(Booking::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
-
-        List<BookingDTO> bookingDTOs = bookings.stream()
-                .map(booking -> modelMapper.map(booking, BookingDTO.class))
-                .collect(Collectors.toList());
-
-        return Response.builder()
-                .status(HttpStatus.OK.value())
-                .message(bookingDTOs.isEmpty() ? "You have no bookings." : "Your bookings retrieved successfully.")
-                .bookings(bookingDTOs.isEmpty() ? Collections.emptyList() : bookingDTOs) // Use 'bookings' field
-                .build();
+        return listBookings(BookingSpecifications.forCustomer(customer.getId()), statuses, from, to, order, cursor, size,
+                "You have no bookings.", "Your bookings retrieved successfully.");
     }
 
     @Override
-    public Response getMyBookingAsProvider() {
+    @Transactional(readOnly = true)
+    public Response getMyBookingAsProvider(Long serviceId, List<BookingStatus> statuses, LocalDate from, LocalDate to,
+                                           String order, String cursor, Integer size) {
         User provider = userService.getCurrentLoggedInUser();
 
         if (provider.getRole() != UserRole.SERVICE_PROVIDER) {
@@ -66,17 +68,74 @@ public class BookingServiceImpl implements BookingService{
                     .message("User is not a service provider.").build();
         }
 
-        List<Booking> bookings = bookingRepository.findByOfferedService_Provider_Id(provider.getId());
-        bookings.sort(Comparator.comparing(Booking::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        Specification<BookingReadModel> owner = BookingSpecifications.forProvider(provider.getId());
+        if (serviceId != null) {
+            if (!offeredServiceRepository.findIdsByProviderId(provider.getId()).contains(serviceId)) {
+                return Response.builder()
+                        .status(HttpStatus.FORBIDDEN.value())
+                        .message("You can only list bookings for your own services.").build();
+            }
+            owner = BookingSpecifications.forService(serviceId);
+        }
+
+        return listBookings(owner, statuses, from, to, order, cursor, size,
+                "You have no bookings for your services.", "Provider bookings retrieved successfully.");
+    }
+
+    /**
+     * Lists from the booking read model: one table, filtered and ordered on its owner/created_at indexes.
+     */
+    private Response listBookings(Specification<BookingReadModel> owner, List<BookingStatus> statuses, LocalDate from, LocalDate to,
+                                  String order, String cursor, Integer size, String emptyMessage, String foundMessage) {
+        if (order != null && !order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc")) {
+            throw new BadRequestException("Order must be 'asc' or 'desc'.");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'.");
+        }
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        int pageSize = (size == null || size < 1) ? DEFAULT_BOOKING_PAGE_SIZE : Math.min(size, MAX_BOOKING_PAGE_SIZE);
+
+        Specification<BookingReadModel> spec = owner;
+        if (statuses != null && !statuses.isEmpty()) {
+            spec = spec.and(BookingSpecifications.statusIn(statuses));
+        }
+        if (from != null) {
+            spec = spec.and(BookingSpecifications.createdOnOrAfter(from.atStartOfDay()));
+        }
+        if (to != null) {
+            spec = spec.and(BookingSpecifications.createdBefore(to.plusDays(1).atStartOfDay()));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            BookingPageCursor position = BookingPageCursor.decode(cursor);
+            if (position.ascending() != ascending) {
+                throw new BadRequestException("Cursor was issued for a different sort order.");
+            }
+            spec = spec.and(BookingSpecifications.afterCursor(position.createdAt(), position.id(), ascending));
+        }
 
-        List<BookingDTO> bookingDTOs = bookings.stream()
-                .map(booking -> modelMapper.map(booking, BookingDTO.class))
-                .collect(Collectors.toList());
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // Fetch one extra row to know whether another page exists without a count query
+        List<BookingReadModel> bookings = bookingReadModelRepository.findBy(spec, query -> query
+                .sortBy(Sort.by(direction, "createdAt", "id"))
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = bookings.size() > pageSize;
+        List<BookingReadModel> page = hasMore ? bookings.subList(0, pageSize) : bookings;
+        String nextCursor = null;
+        if (hasMore) {
+            BookingReadModel last = page.get(page.size() - 1);
+            nextCursor = new BookingPageCursor(last.getCreatedAt(), last.getId(), ascending).encode();
+        }
 
+        List<BookingDTO> bookingDTOs = entityDtoMapper.toBookingDTOsFromReadModel(page);
         return Response.builder()
                 .status(HttpStatus.OK.value())
-                .message(bookingDTOs.isEmpty() ? "You have no bookings for your services." : "Provider bookings retrieved successfully.")
-                .bookings(bookingDTOs.isEmpty() ? Collections.emptyList() : bookingDTOs) // Use 'bookings' field
+                .message(bookingDTOs.isEmpty() ? emptyMessage : foundMessage)
+                .bookings(bookingDTOs)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
     }
 
@@ -113,7 +172,7 @@ public class BookingServiceImpl implements BookingService{
         return Response.builder()
                 .status(HttpStatus.OK.value())
                 .message("Booking retrieved successfully.")
-                .booking(modelMapper.map(booking, BookingDTO.class)) // Ensure 'booking' field is in Response DTO
+                .booking(entityDtoMapper.toBookingDTO(booking)) // Ensure 'booking' field is in Response DTO
                 .build();
     }
 }
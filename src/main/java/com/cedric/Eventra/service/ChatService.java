@@ -12,7 +12,23 @@ public interface ChatService {
 
     Response getMyChatRooms();
 
-    Response getChatMessagesForRoom(Long chatRoomId); // No pagination for simplicity
+    /**
+     * The current user's rooms by latest activity, each with the other participant, last message preview
+     * and unread count; keyset-paginated with the returned nextCursor.
+     */
+    Response getMyInbox(String cursor, Integer size);
+
+    /**
+     * Marks the room read up to {@code messageId}, or up to its last message when null.
+     */
+    Response markChatRoomRead(Long chatRoomId, Long messageId);
+
+    /**
+     * Keyset-paginated chat history. At most one of {@code before}/{@code after} may be set;
+     * with neither, the newest page is returned. A cursor message that has not been written yet
+     * (sent moments ago through another node) also gets the newest page. Messages are always returned oldest first.
+     */
+    Response getChatMessagesForRoom(Long chatRoomId, Long before, Long after, Integer size);
 
     ChatMessageDTO saveAndPrepareMessage(SendMessageRequestDTO messageRequest, User sender);
 }
\ No newline at end of file
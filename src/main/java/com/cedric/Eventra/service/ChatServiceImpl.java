@@ -1,9 +1,9 @@
 package com.cedric.Eventra.service;
 
+import com.cedric.Eventra.dto.ChatInboxEntryDTO;
 import com.cedric.Eventra.dto.ChatMessageDTO;
 import com.cedric.Eventra.dto.ChatRoomDTO;
 import com.cedric.Eventra.dto.Response;
-import com.cedric.Eventra.dto.UserDTO; // Assuming this is your standard UserDTO
 import com.cedric.Eventra.dto.CreateChatRoomRequestDTO;
 import com.cedric.Eventra.dto.SendMessageRequestDTO;
 import com.cedric.Eventra.entity.Booking;
@@ -13,20 +13,28 @@ import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.exception.BadRequestException;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
 import com.cedric.Eventra.repository.BookingRepository;
 import com.cedric.Eventra.repository.ChatMessageRepository;
 import com.cedric.Eventra.repository.ChatRoomRepository;
 import com.cedric.Eventra.repository.UserRepository;
 import com.cedric.Eventra.service.ChatService;
 import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.chat.ChatInboxCursor;
+import com.cedric.Eventra.service.chat.ChatMessageIdAllocator;
+import com.cedric.Eventra.service.chat.ChatMessageWriteBehind;
+import com.cedric.Eventra.service.chat.ChatReadCursorStore;
+import com.cedric.Eventra.service.chat.ChatRoomMembershipCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -43,7 +51,16 @@ public class ChatServiceImpl implements ChatService {
     private final UserRepository userRepository;
     private final UserService userService;
     private final BookingRepository bookingRepository; // Optional, if linking chat to booking
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
+    private final ChatMessageIdAllocator chatMessageIdAllocator;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final ChatReadCursorStore chatReadCursorStore;
+
+    private static final int DEFAULT_MESSAGE_PAGE_SIZE = 50;
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+    private static final int DEFAULT_INBOX_PAGE_SIZE = 20;
+    private static final int MAX_INBOX_PAGE_SIZE = 50;
 
     @Override
     @Transactional
@@ -147,7 +164,103 @@ public class ChatServiceImpl implements ChatService {
 
     @Override
     @Transactional(readOnly = true)
-    public Response getChatMessagesForRoom(Long chatRoomId) {
+    public Response getMyInbox(String cursor, Integer size) {
+        User currentUser;
+        try {
+            currentUser = userService.getCurrentLoggedInUser();
+        } catch (Exception e) {
+            return Response.builder().status(HttpStatus.UNAUTHORIZED.value()).message("User not authenticated.").build();
+        }
+
+        int pageSize = (size == null || size < 1) ? DEFAULT_INBOX_PAGE_SIZE : Math.min(size, MAX_INBOX_PAGE_SIZE);
+        // One extra row tells whether another page exists
+        int limit = pageSize + 1;
+        List<ChatRoomRepository.InboxRow> rows;
+        if (cursor != null && !cursor.isBlank()) {
+            ChatInboxCursor position = ChatInboxCursor.decode(cursor);
+            rows = chatRoomRepository.findInboxAfter(currentUser.getId(), position.lastMessageAt(), position.chatRoomId(), limit);
+        } else {
+            rows = chatRoomRepository.findInbox(currentUser.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatInboxEntryDTO> inbox = rows.stream()
+                .limit(pageSize)
+                .map(row -> toInboxEntry(row, currentUser.getId()))
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            ChatInboxEntryDTO last = inbox.get(inbox.size() - 1);
+            nextCursor = new ChatInboxCursor(last.getLastMessageAt(), last.getChatRoomId()).encode();
+        }
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message(inbox.isEmpty() ? "You have no active chat rooms." : "Inbox retrieved successfully.")
+                .inbox(inbox)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private ChatInboxEntryDTO toInboxEntry(ChatRoomRepository.InboxRow row, Long currentUserId) {
+        boolean firstIsMe = row.getParticipant1Id().equals(currentUserId);
+        return ChatInboxEntryDTO.builder()
+                .chatRoomId(row.getChatRoomId())
+                .bookingId(row.getBookingId())
+                .otherParticipantId(firstIsMe ? row.getParticipant2Id() : row.getParticipant1Id())
+                .otherParticipantFirstName(firstIsMe ? row.getParticipant2FirstName() : row.getParticipant1FirstName())
+                .otherParticipantLastName(firstIsMe ? row.getParticipant2LastName() : row.getParticipant1LastName())
+                .lastMessageId(row.getLastMessageId())
+                .lastMessageSenderId(row.getLastMessageSenderId())
+                .lastMessagePreview(row.getLastMessagePreview())
+                .lastMessageAt(row.getLastMessageAt())
+                .unreadCount(row.getUnreadCount() == null ? 0 : row.getUnreadCount())
+                .build();
+    }
+
+    @Override
+    public Response markChatRoomRead(Long chatRoomId, Long messageId) {
+        User currentUser;
+        try {
+            currentUser = userService.getCurrentLoggedInUser();
+        } catch (Exception e) {
+            return Response.builder().status(HttpStatus.UNAUTHORIZED.value()).message("User not authenticated.").build();
+        }
+
+        ChatRoomMembershipCache.Participants participants = chatRoomMembershipCache.participantsOf(chatRoomId)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat room not found with ID: " + chatRoomId));
+        if (!participants.includes(currentUser.getId())) {
+            throw new UnauthorizedException("You are not authorized to read this chat room.");
+        }
+
+        // The message being acknowledged may have been sent moments ago and still be queued
+        chatMessageWriteBehind.flushRoom(chatRoomId);
+        LocalDateTime readAt;
+        Long readMessageId;
+        if (messageId != null) {
+            ChatMessage message = resolveCursor(messageId, chatRoomId);
+            readAt = message.getTimestamp();
+            readMessageId = message.getId();
+        } else {
+            ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Chat room not found with ID: " + chatRoomId));
+            readAt = chatRoom.getLastMessageAt();
+            readMessageId = chatRoom.getLastMessageId();
+        }
+        if (readMessageId != null) {
+            chatReadCursorStore.markRead(chatRoomId, currentUser.getId(), readAt, readMessageId);
+        }
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Chat room marked as read.")
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Response getChatMessagesForRoom(Long chatRoomId, Long before, Long after, Integer size) {
         User currentUser;
         try {
             currentUser = userService.getCurrentLoggedInUser();
@@ -155,6 +268,13 @@ public class ChatServiceImpl implements ChatService {
             return Response.builder().status(HttpStatus.UNAUTHORIZED.value()).message("User not authenticated.").build();
         }
 
+        if (before != null && after != null) {
+            throw new BadRequestException("Only one of 'before' or 'after' may be specified.");
+        }
+
+        // Messages sent moments ago may still be queued; write them so the page includes them
+        chatMessageWriteBehind.flushRoom(chatRoomId);
+
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new ResourceNotFoundException("Chat room not found with ID: " + chatRoomId));
 
@@ -163,84 +283,111 @@ public class ChatServiceImpl implements ChatService {
             throw new UnauthorizedException("You are not authorized to view messages for this chat room.");
         }
 
-        // Fetching all messages, ordered by timestamp (oldest first for typical chat display)
-        List<ChatMessage> messages = chatMessageRepository.findByChatRoomOrderByTimestampAsc(chatRoom);
+        int pageSize = (size == null || size < 1) ? DEFAULT_MESSAGE_PAGE_SIZE : Math.min(size, MAX_MESSAGE_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        Long cursorId = after != null ? after : before;
+        ChatMessage cursor = cursorId != null ? findCursor(cursorId, chatRoomId).orElse(null) : null;
+        // Without a cursor row to page from, the newest page is returned and paged backwards as usual
+        boolean forward = after != null && cursor != null;
+
+        List<ChatMessage> messages;
+        if (cursor == null) {
+            messages = chatMessageRepository.findLatestInRoom(chatRoomId, limit);
+        } else if (forward) {
+            messages = chatMessageRepository.findInRoomAfter(chatRoomId, cursor.getTimestamp(), cursor.getId(), limit);
+        } else {
+            messages = chatMessageRepository.findInRoomBefore(chatRoomId, cursor.getTimestamp(), cursor.getId(), limit);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
         List<ChatMessageDTO> messageDTOs = messages.stream()
+                .limit(pageSize)
                 .map(this::mapToChatMessageDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        // Backward pages come back newest first; flip them for the usual oldest-first chat display
+        if (!forward) {
+            Collections.reverse(messageDTOs);
+        }
+
+        String nextCursor = null;
+        if (hasMore && !messageDTOs.isEmpty()) {
+            // Paging backwards continues from the oldest message, paging forwards from the newest
+            ChatMessageDTO edge = forward ? messageDTOs.get(messageDTOs.size() - 1) : messageDTOs.get(0);
+            nextCursor = String.valueOf(edge.getId());
+        }
 
         return Response.builder()
                 .status(HttpStatus.OK.value())
                 .message("Chat messages retrieved successfully.")
                 .chatMessages(messageDTOs)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
     }
 
+    /**
+     * Empty when no message with this id has been written yet: one broadcast moments ago by another node
+     * can still be in that node's write-behind queue, which flushRoom here cannot reach.
+     * A message that exists in a different room is still rejected.
+     */
+    private Optional<ChatMessage> findCursor(Long messageId, Long chatRoomId) {
+        Optional<ChatMessage> message = chatMessageRepository.findByIdAndChatRoomId(messageId, chatRoomId);
+        if (message.isEmpty() && chatMessageRepository.existsById(messageId)) {
+            throw new BadRequestException("Invalid cursor: message " + messageId + " does not belong to chat room " + chatRoomId);
+        }
+        return message;
+    }
+
+    private ChatMessage resolveCursor(Long messageId, Long chatRoomId) {
+        return chatMessageRepository.findByIdAndChatRoomId(messageId, chatRoomId)
+                .orElseThrow(() -> new BadRequestException("Invalid cursor: message " + messageId + " does not belong to chat room " + chatRoomId));
+    }
+
+    /**
+     * Checks membership against the cached room participants, gives the message its id and send time,
+     * and queues it for writing; the returned DTO is what ChatMessageController broadcasts. The row is
+     * written by ChatMessageWriteBehind shortly after (within chat.write-behind.max-latency-ms), together
+     * with the room's lastMessageAt.
+     */
     @Override
-    @Transactional
     public ChatMessageDTO saveAndPrepareMessage(SendMessageRequestDTO messageRequest, User sender) {
-        ChatRoom chatRoom = chatRoomRepository.findById(messageRequest.getChatRoomId())
-                .orElseThrow(() -> new ResourceNotFoundException("Chat room not found with ID: " + messageRequest.getChatRoomId()));
+        Long chatRoomId = messageRequest.getChatRoomId();
+        ChatRoomMembershipCache.Participants participants = chatRoomMembershipCache.participantsOf(chatRoomId)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat room not found with ID: " + chatRoomId));
 
         if (sender == null) {
             throw new UnauthorizedException("Sender cannot be null to send a message.");
         }
 
-        if (!chatRoom.getParticipant1().getId().equals(sender.getId()) &&
-                !chatRoom.getParticipant2().getId().equals(sender.getId())) {
-            log.warn("User {} attempted to send message to chat room {} they are not part of.", sender.getId(), chatRoom.getId());
+        if (!participants.includes(sender.getId())) {
+            log.warn("User {} attempted to send message to chat room {} they are not part of.", sender.getId(), chatRoomId);
             throw new UnauthorizedException("You are not authorized to send messages to this chat room.");
         }
 
-        ChatMessage chatMessage = ChatMessage.builder()
-                .chatRoom(chatRoom)
-                .sender(sender)
-                .content(messageRequest.getContent())
-                // timestamp is set by @CreationTimestamp
+        ChatMessageWriteBehind.PendingMessage message = new ChatMessageWriteBehind.PendingMessage(
+                chatMessageIdAllocator.nextId(), chatRoomId, sender.getId(), messageRequest.getContent(), LocalDateTime.now());
+        chatMessageWriteBehind.enqueue(message);
+
+        log.info("Message sent by user {} in chat room {}: {}", sender.getId(), chatRoomId, message.content());
+        return ChatMessageDTO.builder()
+                .id(message.id())
+                .chatRoomId(chatRoomId)
+                .sender(entityDtoMapper.toUserDTO(sender))
+                .content(message.content())
+                .timestamp(message.timestamp())
                 .build();
-
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-
-        // Update lastMessageAt for the chat room to the timestamp of the new message
-        chatRoom.setLastMessageAt(savedMessage.getTimestamp());
-        chatRoomRepository.save(chatRoom);
-
-        log.info("Message sent by user {} in chat room {}: {}", sender.getId(), chatRoom.getId(), savedMessage.getContent());
-        return mapToChatMessageDTO(savedMessage);
     }
 
     // --- Helper Mapping Methods ---
 
     private ChatRoomDTO mapToChatRoomDTO(ChatRoom chatRoom) {
-        ChatRoomDTO dto = new ChatRoomDTO();
-        dto.setId(chatRoom.getId());
-        if (chatRoom.getParticipant1() != null) {
-            dto.setParticipant1(modelMapper.map(chatRoom.getParticipant1(), UserDTO.class));
-        }
-        if (chatRoom.getParticipant2() != null) {
-            dto.setParticipant2(modelMapper.map(chatRoom.getParticipant2(), UserDTO.class));
-        }
-        if (chatRoom.getBooking() != null) {
-            dto.setBookingId(chatRoom.getBooking().getId());
-        }
-        dto.setCreatedAt(chatRoom.getCreatedAt());
-        dto.setLastMessageAt(chatRoom.getLastMessageAt());
-
-        // For simplified version, we are not fetching the last message object here.
-        // dto.setLastMessage(null); // Or omit if JsonInclude.Include.NON_NULL is used on ChatRoomDTO
-
-        return dto;
+        return entityDtoMapper.toChatRoomDTO(chatRoom);
     }
 
     private ChatMessageDTO mapToChatMessageDTO(ChatMessage chatMessage) {
-        ChatMessageDTO dto = new ChatMessageDTO();
-        dto.setId(chatMessage.getId());
-        dto.setChatRoomId(chatMessage.getChatRoom().getId());
-        if (chatMessage.getSender() != null) {
-            dto.setSender(modelMapper.map(chatMessage.getSender(), UserDTO.class));
-        }
-        dto.setContent(chatMessage.getContent());
-        dto.setTimestamp(chatMessage.getTimestamp());
-        return dto;
+        return entityDtoMapper.toChatMessageDTO(chatMessage);
     }
 }
\ No newline at end of file
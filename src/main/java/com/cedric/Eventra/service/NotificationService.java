@@ -5,6 +5,9 @@ import com.cedric.Eventra.dto.Response;
 import com.cedric.Eventra.entity.Booking;
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.NotificationType;
+import com.cedric.Eventra.enums.OutboxEventType;
+
+import java.util.List;
 
 public interface NotificationService {
 
@@ -23,6 +26,16 @@ public interface NotificationService {
                                        NotificationType type, String subject,
                                        String body, String bookingReference);
 
+    /**
+     * Creates the notifications for one booking event delivered from the outbox (see BookingOutboxRelay).
+     *
+     * @param type     The booking event.
+     * @param bookings The bookings it concerns, with customer, service and provider loaded.
+     * @param detail   The provider's reason for BOOKING_CANCELLED_BY_PROVIDER,
+     *                 the new BookingStatus for BOOKINGS_UPDATED_BY_PROVIDER.
+     */
+    void notifyBookingEvent(OutboxEventType type, List<Booking> bookings, String detail);
+
     void sendNewBookingRequestNotification(Booking booking);
 
     void sendBookingAcceptedNotification(Booking booking);
@@ -5,23 +5,23 @@ import com.cedric.Eventra.dto.Response;
 import com.cedric.Eventra.entity.Booking;
 import com.cedric.Eventra.entity.Notification;
 import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
 import com.cedric.Eventra.enums.NotificationType;
+import com.cedric.Eventra.enums.OutboxEventType;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
 import com.cedric.Eventra.repository.NotificationRepository;
-import com.cedric.Eventra.events.*; // Import all your event classes
 import com.cedric.Eventra.service.notification.strategy.NotificationContentStrategy; // Import strategy interface
 import com.cedric.Eventra.service.notification.strategy.BookingCancelledByProviderContentStrategy; // Specific import for reason handling
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +34,7 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
     private final Map<String, NotificationContentStrategy> contentStrategies; // Injected by Spring
 
     // Helper to get strategy from the map
@@ -69,16 +69,30 @@ public class NotificationServiceImpl implements NotificationService {
 
         Notification savedNotification = notificationRepository.save(notification);
         log.info("Notification created: id={}, type={}, recipientUserId={}", savedNotification.getId(), type, recipientUser.getId());
-        return modelMapper.map(savedNotification, NotificationDTO.class);
+        return entityDtoMapper.toNotificationDTO(savedNotification);
     }
 
-    // --- Event Listener Methods using Strategies ---
+    // --- Booking event notifications using Strategies ---
 
-    @EventListener
-    @Async
+    @Override
     @Transactional
-    public void handleBookingCreated(BookingCreatedEvent event) {
-        Booking booking = event.getBooking();
+    public void notifyBookingEvent(OutboxEventType type, List<Booking> bookings, String detail) {
+        switch (type) {
+            case BOOKING_CREATED -> bookings.forEach(this::handleBookingCreated);
+            case BOOKING_ACCEPTED -> bookings.forEach(this::handleBookingAccepted);
+            case BOOKING_REJECTED -> bookings.forEach(this::handleBookingRejected);
+            case BOOKING_CONFIRMED -> bookings.forEach(this::handleBookingConfirmed);
+            case BOOKING_CANCELLED_BY_CUSTOMER -> bookings.forEach(this::handleBookingCancelledByCustomer);
+            case BOOKING_CANCELLED_BY_PROVIDER -> bookings.forEach(booking -> handleBookingCancelledByProvider(booking, detail));
+            case BOOKING_COMPLETED -> bookings.forEach(this::handleBookingCompleted);
+            case BOOKING_REMINDERS_DUE -> handleBookingRemindersDue(bookings);
+            case BOOKINGS_EXPIRED -> handleBookingsExpired(bookings);
+            case BOOKINGS_AUTO_COMPLETED -> handleBookingsAutoCompleted(bookings);
+            case BOOKINGS_UPDATED_BY_PROVIDER -> handleBookingsUpdatedByProvider(BookingStatus.valueOf(detail), bookings);
+        }
+    }
+
+    private void handleBookingCreated(Booking booking) {
         log.info("Handling BookingCreatedEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getOfferedService() == null || booking.getOfferedService().getProvider() == null) {
             log.error("Cannot process BookingCreatedEvent, crucial booking details missing. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -93,11 +107,7 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(provider, type, subject, body, booking.getBookingReference());
     }
 
-    @EventListener
-    @Async
-    @Transactional
-    public void handleBookingAccepted(BookingAcceptedEvent event) {
-        Booking booking = event.getBooking();
+    private void handleBookingAccepted(Booking booking) {
         log.info("Handling BookingAcceptedEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getUser() == null) {
             log.error("Cannot process BookingAcceptedEvent, customer or booking details missing. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -112,11 +122,7 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(customer, type, subject, body, booking.getBookingReference());
     }
 
-    @EventListener
-    @Async
-    @Transactional
-    public void handleBookingRejected(BookingRejectedEvent event) {
-        Booking booking = event.getBooking();
+    private void handleBookingRejected(Booking booking) {
         log.info("Handling BookingRejectedEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getUser() == null) {
             log.error("Cannot process BookingRejectedEvent, customer or booking details missing. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -131,11 +137,7 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(customer, type, subject, body, booking.getBookingReference());
     }
 
-    @EventListener
-    @Async
-    @Transactional
-    public void handleBookingConfirmed(BookingConfirmedEvent event) {
-        Booking booking = event.getBooking();
+    private void handleBookingConfirmed(Booking booking) {
         log.info("Handling BookingConfirmedEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getUser() == null || booking.getOfferedService() == null || booking.getOfferedService().getProvider() == null) {
             log.error("Cannot process BookingConfirmedEvent, booking details are incomplete. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -157,11 +159,7 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(provider, type, providerSubject, providerBody, booking.getBookingReference());
     }
 
-    @EventListener
-    @Async
-    @Transactional
-    public void handleBookingCancelledByCustomer(BookingCancelledByCustomerEvent event) {
-        Booking booking = event.getBooking();
+    private void handleBookingCancelledByCustomer(Booking booking) {
         log.info("Handling BookingCancelledByCustomerEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getOfferedService() == null || booking.getOfferedService().getProvider() == null) {
             log.error("Cannot process BookingCancelledByCustomerEvent, booking details incomplete. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -176,11 +174,7 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(provider, type, subject, body, booking.getBookingReference());
     }
 
-    @EventListener
-    @Async
-    @Transactional
-    public void handleBookingCancelledByProvider(BookingCancelledByProviderEvent event) {
-        Booking booking = event.getBooking();
+    private void handleBookingCancelledByProvider(Booking booking, String reason) {
         log.info("Handling BookingCancelledByProviderEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getUser() == null) {
             log.error("Cannot process BookingCancelledByProviderEvent, booking details incomplete. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -190,21 +184,15 @@ public class NotificationServiceImpl implements NotificationService {
         NotificationType type = NotificationType.BOOKING_CANCELLED_BY_PROVIDER;
         NotificationContentStrategy strategy = getStrategy(type);
 
-        // Special handling for strategies needing more context like 'reason'
-        if (strategy instanceof BookingCancelledByProviderContentStrategy) {
-            ((BookingCancelledByProviderContentStrategy) strategy).setContext(event);
-        }
-
         String subject = strategy.generateSubject(booking, customer);
-        String body = strategy.generateBody(booking, customer);
+        // Special handling for strategies needing more context like 'reason'
+        String body = strategy instanceof BookingCancelledByProviderContentStrategy providerCancelledStrategy
+                ? providerCancelledStrategy.generateBody(booking, customer, reason)
+                : strategy.generateBody(booking, customer);
         createNotification(customer, type, subject, body, booking.getBookingReference());
     }
 
-    @EventListener
-    @Async
-    @Transactional
-    public void handleBookingCompleted(BookingCompletedEvent event) {
-        Booking booking = event.getBooking();
+    private void handleBookingCompleted(Booking booking) {
         log.info("Handling BookingCompletedEvent for booking ref: {}", booking.getBookingReference());
         if (booking == null || booking.getUser() == null) {
             log.error("Cannot process BookingCompletedEvent, booking details incomplete. Booking ID: {}", booking != null ? booking.getId() : "null");
@@ -219,6 +207,75 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(customer, type, subject, body, booking.getBookingReference());
     }
 
+    // --- Batch events from the booking lifecycle job and bulk actions: one saveAll per event ---
+
+    private void handleBookingRemindersDue(List<Booking> bookings) {
+        log.info("Handling BookingRemindersDueEvent for {} bookings", bookings.size());
+        NotificationContentStrategy strategy = getStrategy(NotificationType.BOOKING_UPCOMING_REMINDER);
+        List<Notification> notifications = new ArrayList<>(bookings.size() * 2);
+        for (Booking booking : bookings) {
+            addNotification(notifications, booking.getUser(), NotificationType.BOOKING_UPCOMING_REMINDER, strategy, booking);
+            addNotification(notifications, booking.getOfferedService().getProvider(), NotificationType.BOOKING_UPCOMING_REMINDER, strategy, booking);
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    private void handleBookingsExpired(List<Booking> bookings) {
+        log.info("Handling BookingsExpiredEvent for {} bookings", bookings.size());
+        NotificationContentStrategy strategy = getStrategy(NotificationType.BOOKING_EXPIRED);
+        List<Notification> notifications = new ArrayList<>(bookings.size() * 2);
+        for (Booking booking : bookings) {
+            addNotification(notifications, booking.getUser(), NotificationType.BOOKING_EXPIRED, strategy, booking);
+            addNotification(notifications, booking.getOfferedService().getProvider(), NotificationType.BOOKING_EXPIRED, strategy, booking);
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    private void handleBookingsAutoCompleted(List<Booking> bookings) {
+        log.info("Handling BookingsAutoCompletedEvent for {} bookings", bookings.size());
+        NotificationContentStrategy strategy = getStrategy(NotificationType.BOOKING_COMPLETED);
+        List<Notification> notifications = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            addNotification(notifications, booking.getUser(), NotificationType.BOOKING_COMPLETED, strategy, booking);
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    private void handleBookingsUpdatedByProvider(BookingStatus newStatus, List<Booking> bookings) {
+        log.info("Handling BookingsUpdatedByProviderEvent ({}) for {} bookings", newStatus, bookings.size());
+        NotificationType type = switch (newStatus) {
+            case ACCEPTED_AWAITING_PAYMENT -> NotificationType.BOOKING_REQUEST_ACCEPTED;
+            case REJECTED -> NotificationType.BOOKING_REQUEST_REJECTED;
+            case COMPLETED -> NotificationType.BOOKING_COMPLETED;
+            default -> null;
+        };
+        if (type == null) {
+            log.error("No notification type for bulk transition to {}", newStatus);
+            return;
+        }
+        NotificationContentStrategy strategy = getStrategy(type);
+        List<Notification> notifications = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            addNotification(notifications, booking.getUser(), type, strategy, booking);
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    private void addNotification(List<Notification> notifications, User recipient, NotificationType type,
+                                 NotificationContentStrategy strategy, Booking booking) {
+        if (recipient == null) {
+            log.error("Skipping {} notification for booking ref {}, recipient missing.", type, booking.getBookingReference());
+            return;
+        }
+        notifications.add(Notification.builder()
+                .recipientUser(recipient)
+                .notificationType(type)
+                .subject(strategy.generateSubject(booking, recipient))
+                .body(strategy.generateBody(booking, recipient))
+                .bookingReference(booking.getBookingReference())
+                .build());
+    }
+
     // --- Deprecated/Legacy direct call methods (can be removed if interface is updated) ---
     // These are no longer the primary way notifications are triggered for booking events
     @Override
@@ -258,7 +315,7 @@ public class NotificationServiceImpl implements NotificationService {
 
         List<Notification> notifications = notificationRepository.findByRecipientUserOrderByCreatedAtDesc(currentUser);
         List<NotificationDTO> notificationDTOs = notifications.stream()
-                .map(notification -> modelMapper.map(notification, NotificationDTO.class))
+                .map(notification -> entityDtoMapper.toNotificationDTO(notification))
                 .collect(Collectors.toList());
 
         // Make sure your Response DTO has a field like 'notifications' (plural)
@@ -330,7 +387,7 @@ public class NotificationServiceImpl implements NotificationService {
                     .build();
         }
 
-        NotificationDTO notificationDTO = modelMapper.map(notification, NotificationDTO.class);
+        NotificationDTO notificationDTO = entityDtoMapper.toNotificationDTO(notification);
 
         return Response.builder()
                 .status(HttpStatus.OK.value())
@@ -2,13 +2,13 @@ package com.cedric.Eventra.service; // Assuming this is the correct package for
 
 import com.cedric.Eventra.dto.OfferedServiceDTO;
 import com.cedric.Eventra.dto.Response;
-import com.cedric.Eventra.dto.UserDTO; // Make sure UserDTO is imported if mapToOfferedServiceDTO uses it
 import com.cedric.Eventra.entity.OfferedService;
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.UserRole;
 import com.cedric.Eventra.exception.NotFoundException; // Or your ResourceNotFoundException
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
 import com.cedric.Eventra.repository.OfferedServiceRepository;
 import com.cedric.Eventra.repository.UserRepository;
 import com.cedric.Eventra.service.FileStorageService; // Import the FileStorageService
@@ -16,7 +16,6 @@ import com.cedric.Eventra.service.OfferedServiceService;
 import com.cedric.Eventra.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value; // Import @Value
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -36,7 +35,7 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
     private final OfferedServiceRepository offeredServiceRepository;
     private final UserService userService;
     private final UserRepository userRepository; // Keep if used by other methods
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
     private final FileStorageService fileStorageService; // Correctly injected
 
     @Value("${file.upload-dir.service-images}") // Inject the specific subdirectory name
@@ -46,7 +45,7 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
     @Override
     @Transactional
     public Response createOfferedService(OfferedServiceDTO offeredServiceDTO) { // Renamed from creatOfferedeService
-        User provider = userService.getCurrentLoggedInUser();
+        User provider = userService.getCurrentLoggedInUserForUpdate();
         if (provider.getRole() != UserRole.SERVICE_PROVIDER) {
             return Response.builder()
                     .status(HttpStatus.FORBIDDEN.value())
@@ -72,7 +71,7 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
         }
         // REMOVED: The strict check for offeredServiceDTO.getAvailable() being null.
 
-        OfferedService serviceToSave = modelMapper.map(offeredServiceDTO, OfferedService.class);
+        OfferedService serviceToSave = entityDtoMapper.toOfferedService(offeredServiceDTO);
         serviceToSave.setId(null); // Ensure ID is null for creation
         serviceToSave.setProvider(provider);
 
@@ -146,7 +145,7 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
     @Override
     @Transactional
     public Response deleteOfferedService(Long serviceId) {
-        User provider = userService.getCurrentLoggedInUser();
+        User provider = userService.getCurrentLoggedInUserForUpdate();
 
         if (!provider.getIsActive()) { // Ensure provider is active to perform this
             return Response.builder()
@@ -186,7 +185,7 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
     @Override
     @Transactional
     public Response updateOfferedService(Long serviceId, OfferedServiceDTO offeredServiceDTO) { // Added serviceId parameter
-        User provider = userService.getCurrentLoggedInUser();
+        User provider = userService.getCurrentLoggedInUserForUpdate();
         if (!provider.getIsActive()) {
             return Response.builder()
                     .status(HttpStatus.FORBIDDEN.value())
@@ -217,6 +216,10 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
             existingService.setAvailable(offeredServiceDTO.getAvailable());
             updated = true;
         }
+        if (offeredServiceDTO.getDurationMinutes() != null) {
+            existingService.setDurationMinutes(offeredServiceDTO.getDurationMinutes());
+            updated = true;
+        }
         // Location can also be updated
         if (offeredServiceDTO.getLocation() != null) {
             existingService.setLocation(offeredServiceDTO.getLocation());
@@ -310,18 +313,13 @@ public class OfferedServiceServiceImpl implements OfferedServiceService {
 
     // Helper method to map to DTO (ensure it sets imageUrl)
     private OfferedServiceDTO mapToOfferedServiceDTO(OfferedService service) {
-        OfferedServiceDTO dto = modelMapper.map(service, OfferedServiceDTO.class);
+        OfferedServiceDTO dto = entityDtoMapper.toOfferedServiceDTO(service);
         if (StringUtils.hasText(service.getImageFilename())) {
             // Pass the URL path segment that corresponds to serviceImagesSubDir
             // This segment should match what's in your MvcConfig's addResourceHandler
             // e.g., if serviceImagesSubDir is "service-images", the path segment is also "service-images"
             dto.setImageUrl(fileStorageService.getFileUrl(serviceImagesSubDir, service.getImageFilename()));
         }
-        // Ensure provider DTO is mapped
-        if (service.getProvider() != null) {
-            // Assuming UserDTO is the correct type for dto.setProvider
-            dto.setProvider(modelMapper.map(service.getProvider(), UserDTO.class));
-        }
         return dto;
     }
 }
\ No newline at end of file
@@ -2,23 +2,19 @@
 package com.cedric.Eventra.service;
 
 import com.cedric.Eventra.dto.*;
-import com.cedric.Eventra.entity.Booking;
 import com.cedric.Eventra.entity.Payment;
 import com.cedric.Eventra.entity.User;
-import com.cedric.Eventra.enums.BookingStatus;
 import com.cedric.Eventra.enums.PaymentStatus;
 import com.cedric.Eventra.enums.UserRole;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
-import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
 import com.cedric.Eventra.repository.PaymentRepository;
 import com.cedric.Eventra.repository.UserRepository;
-// Import the command
-import com.cedric.Eventra.service.booking.command.ConfirmBookingPaymentCommand;
-// Import ApplicationContext to get command beans
-import org.springframework.context.ApplicationContext;
+import com.cedric.Eventra.security.PrincipalCache;
+import com.cedric.Eventra.service.booking.command.BookingCommandDispatcher;
+import com.cedric.Eventra.service.booking.command.ProcessSimulatedPaymentCommand;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,115 +31,39 @@ import java.util.stream.Collectors;
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final BookingRepository bookingRepository;
     // BookingService is no longer used for confirmBookingPayment directly by this service.
     // private final BookingService bookingService; 
     private final NotificationService notificationService;
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
     private final UserService userService;
     private final UserRepository userRepository;
-    private final ApplicationContext applicationContext; // Added to get command beans
+    private final PrincipalCache principalCache;
+    private final BookingCommandDispatcher bookingCommandDispatcher;
 
+    /**
+     * Not transactional: the handler writes the payment and moves the booking in its own transaction,
+     * which commits while the dispatcher still holds the booking's lock.
+     */
     @Override
-    @Transactional
     public Response processSimulatedPayment(String bookingReference, SimulatedPaymentRequestDTO paymentRequest) {
-        Booking booking = bookingRepository.findByBookingReference(bookingReference)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with reference: " + bookingReference));
-
-        if (booking.getStatus() != BookingStatus.ACCEPTED_AWAITING_PAYMENT) {
-            return Response.builder()
-                    .status(HttpStatus.BAD_REQUEST.value())
-                    .message("Booking is not in the correct state (ACCEPTED_AWAITING_PAYMENT) for payment. Current status: " + booking.getStatus())
-                    .booking(modelMapper.map(booking, com.cedric.Eventra.dto.BookingDTO.class))
-                    .build();
-        }
-
-        boolean paymentSuccessful;
-        String failureReason = null;
-        if (paymentRequest.getDummyCardNumber().endsWith("0000")) {
-            paymentSuccessful = true;
-        } else if (paymentRequest.getDummyCardNumber().endsWith("9999")) {
-            paymentSuccessful = false;
-            failureReason = "Simulated payment decline by bank (test card).";
-        } else {
-            paymentSuccessful = Math.random() < 0.9;
-            if (!paymentSuccessful) {
-                failureReason = "Simulated random payment failure.";
-            }
-        }
-
-        Payment payment = Payment.builder()
-                .user(booking.getUser())
-                .bookingReference(bookingReference)
-                .amount(booking.getPrice())
-                .paymentDate(LocalDateTime.now())
-                .transactionId("SIM-" + UUID.randomUUID().toString().toUpperCase())
-                .build();
-
-        if (paymentSuccessful) {
-            payment.setPaymentStatus(PaymentStatus.SUCCESS);
-            paymentRepository.save(payment);
-            log.info("Simulated payment successful for booking ref: {}. Transaction ID: {}", bookingReference, payment.getTransactionId());
-
-            // Execute ConfirmBookingPaymentCommand
-            ConfirmBookingPaymentCommand command = applicationContext.getBean(ConfirmBookingPaymentCommand.class).init(bookingReference);
-            Response bookingConfirmationResponse = command.execute();
-
-
-            if (bookingConfirmationResponse.getStatus() != HttpStatus.OK.value()) {
-                // Handle case where booking confirmation itself failed, though payment was successful.
-                // This might indicate an issue with the command or state.
-                // You might need to decide on a reconciliation strategy or log a critical error.
-                log.error("Payment was successful for booking ref {} but booking confirmation failed: {}", bookingReference, bookingConfirmationResponse.getMessage());
-                // Potentially reverse payment or mark for manual review
-                return Response.builder()
-                        .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-                        .message("Payment successful, but booking confirmation encountered an issue: " + bookingConfirmationResponse.getMessage())
-                        .payment(modelMapper.map(payment, PaymentDTO.class))
-                        .build();
-            }
-
-            return Response.builder()
-                    .status(HttpStatus.OK.value())
-                    .message("Simulated payment successful. Booking confirmed.")
-                    .payment(modelMapper.map(payment, PaymentDTO.class))
-                    .booking(bookingConfirmationResponse.getBooking())
-                    .build();
-        } else {
-            payment.setPaymentStatus(PaymentStatus.FAILED);
-            payment.setFailureReason(failureReason);
-            paymentRepository.save(payment);
-            log.warn("Simulated payment FAILED for booking ref: {}. Reason: {}", bookingReference, failureReason);
-
-            booking.setStatus(BookingStatus.PAYMENT_FAILED);
-            bookingRepository.save(booking);
-
-            // Potentially publish a PaymentFailedEvent here if other services need to react.
-            // For now, directly calling notificationService as per original structure for non-booking events.
-            // if(notificationService != null) { // Good practice to check if optional service is present
-            //    notificationService.sendPaymentFailedNotification(booking, failureReason); // You'd need to create this method
-            // }
-
-
-            return Response.builder()
-                    .status(HttpStatus.BAD_REQUEST.value())
-                    .message("Simulated payment failed: " + failureReason)
-                    .payment(modelMapper.map(payment, PaymentDTO.class))
-                    .booking(modelMapper.map(booking, com.cedric.Eventra.dto.BookingDTO.class))
-                    .build();
-        }
+        return bookingCommandDispatcher.dispatch(
+                new ProcessSimulatedPaymentCommand(bookingReference, paymentRequest.getDummyCardNumber()));
     }
 
-    // processSimulatedSubscriptionFee method would also need ApplicationContext if it calls commands
+    // processSimulatedSubscriptionFee method would also need the dispatcher if it calls commands
     @Override
     @Transactional
     public Response processSimulatedSubscriptionFee(SimulatedPaymentRequestDTO paymentRequest) {
-        User providerUser;
+        Long providerId;
         try {
-            providerUser = userService.getCurrentLoggedInUser();
+            providerId = userService.getCurrentLoggedInUser().getId();
         } catch (Exception e) {
             return Response.builder().status(HttpStatus.UNAUTHORIZED.value()).message("User not authenticated.").build();
         }
+        // Locked and re-read: the cached principal can show a provider activated through another node as
+        // inactive, and two payments at once must not both find the account inactive
+        User providerUser = userRepository.lockById(providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + providerId));
 
         if (providerUser.getRole() != UserRole.SERVICE_PROVIDER) {
             return Response.builder()
@@ -156,7 +76,7 @@ public class PaymentServiceImpl implements PaymentService {
             return Response.builder()
                     .status(HttpStatus.BAD_REQUEST.value())
                     .message("This service provider account is already active.")
-                    .user(modelMapper.map(providerUser, com.cedric.Eventra.dto.UserDTO.class))
+                    .user(entityDtoMapper.toUserDTO(providerUser))
                     .build();
         }
 
@@ -191,6 +111,7 @@ public class PaymentServiceImpl implements PaymentService {
 
             providerUser.setIsActive(true);
             User updatedProviderUser = userRepository.save(providerUser);
+            principalCache.evict(updatedProviderUser.getEmail());
 
             // if(notificationService != null) {
             //    notificationService.sendSubscriptionActivatedNotification(updatedProviderUser);  // You'd need to create this
@@ -199,8 +120,8 @@ public class PaymentServiceImpl implements PaymentService {
             return Response.builder()
                     .status(HttpStatus.OK.value())
                     .message("Subscription fee paid successfully. Your provider account is now active.")
-                    .payment(modelMapper.map(payment, PaymentDTO.class))
-                    .user(modelMapper.map(updatedProviderUser, com.cedric.Eventra.dto.UserDTO.class))
+                    .payment(entityDtoMapper.toPaymentDTO(payment))
+                    .user(entityDtoMapper.toUserDTO(updatedProviderUser))
                     .build();
         } else {
             payment.setPaymentStatus(PaymentStatus.FAILED);
@@ -215,8 +136,8 @@ public class PaymentServiceImpl implements PaymentService {
             return Response.builder()
                     .status(HttpStatus.BAD_REQUEST.value())
                     .message("Simulated subscription payment failed: " + failureReason)
-                    .payment(modelMapper.map(payment, PaymentDTO.class))
-                    .user(modelMapper.map(providerUser, com.cedric.Eventra.dto.UserDTO.class))
+                    .payment(entityDtoMapper.toPaymentDTO(payment))
+                    .user(entityDtoMapper.toUserDTO(providerUser))
                     .build();
         }
     }
@@ -235,7 +156,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         List<PaymentDTO> paymentDTOs = payments.stream()
-                .map(p -> modelMapper.map(p, PaymentDTO.class))
+                .map(p -> entityDtoMapper.toPaymentDTO(p))
                 .collect(Collectors.toList());
 
         return Response.builder()
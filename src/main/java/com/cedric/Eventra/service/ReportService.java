@@ -9,4 +9,16 @@ public interface ReportService {
      * @return Response object containing the ProviderDashboardSummaryDTO.
      */
     Response getMyProviderDashboardSummary();
+
+    /**
+     * Reports how far the booking read model lags behind the bookings table (admin).
+     * @return Response object containing the BookingReadModelStatusDTO.
+     */
+    Response getBookingReadModelStatus();
+
+    /**
+     * Re-copies every booking into the booking read model (admin).
+     * @return Response object with the number of bookings projected and the resulting status.
+     */
+    Response rebuildBookingReadModel();
 }
\ No newline at end of file
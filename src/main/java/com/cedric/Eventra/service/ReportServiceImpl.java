@@ -2,19 +2,17 @@ package com.cedric.Eventra.service;
 
 import com.cedric.Eventra.dto.ProviderDashboardSummaryDTO;
 import com.cedric.Eventra.dto.Response;
-import com.cedric.Eventra.entity.Booking;
-import com.cedric.Eventra.entity.Review;
 import com.cedric.Eventra.entity.ServiceProviderProfile;
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.BookingStatus;
 import com.cedric.Eventra.enums.UserRole;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException;
-import com.cedric.Eventra.repository.BookingRepository;
-import com.cedric.Eventra.repository.ReviewRepository;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
 import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
 import com.cedric.Eventra.service.ReportService;
 import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.readmodel.BookingReadModelProjector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -24,9 +22,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,11 +32,12 @@ import java.util.stream.Collectors;
 public class ReportServiceImpl implements ReportService {
 
     private final UserService userService;
-    private final BookingRepository bookingRepository;
-    private final ReviewRepository reviewRepository;
+    private final BookingReadModelRepository bookingReadModelRepository;
     private final ServiceProviderProfileRepository serviceProviderProfileRepository; // To get profile details
+    private final BookingReadModelProjector bookingReadModelProjector;
 
     @Override
+    @Transactional(readOnly = true)
     public Response getMyProviderDashboardSummary() {
         User providerUser = userService.getCurrentLoggedInUser();
         if (providerUser.getRole() != UserRole.SERVICE_PROVIDER) {
@@ -51,54 +50,48 @@ public class ReportServiceImpl implements ReportService {
         ServiceProviderProfile providerProfile = serviceProviderProfileRepository.findByUserId(providerUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Service provider profile not found for user ID: " + providerUser.getId()));
 
-        // Fetch all bookings for this provider
-        List<Booking> allBookings = bookingRepository.findByOfferedService_Provider_Id(providerUser.getId());
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
 
-        // Calculate Booking Counts
-        long totalBookingsLifetime = allBookings.size();
-        Map<BookingStatus, Long> bookingStatusCounts = allBookings.stream()
-                .collect(Collectors.groupingBy(Booking::getStatus, Collectors.counting()));
+        // One grouped query on the read model: a row per status with lifetime and last-30-days counts/sums
+        List<BookingReadModelRepository.StatusAggregate> statusAggregates =
+                bookingReadModelRepository.aggregateByStatusForProvider(providerUser.getId(), thirtyDaysAgo);
+
+        Map<BookingStatus, Long> bookingStatusCounts = new EnumMap<>(BookingStatus.class);
+        Map<BookingStatus, BookingReadModelRepository.StatusAggregate> aggregatesByStatus = new EnumMap<>(BookingStatus.class);
+        long totalBookingsLifetime = 0;
+        for (BookingReadModelRepository.StatusAggregate aggregate : statusAggregates) {
+            bookingStatusCounts.put(aggregate.getStatus(), aggregate.getBookingCount());
+            aggregatesByStatus.put(aggregate.getStatus(), aggregate);
+            totalBookingsLifetime += aggregate.getBookingCount();
+        }
 
+        // Calculate Booking Counts
         long pendingBookings = bookingStatusCounts.getOrDefault(BookingStatus.PENDING, 0L);
         long acceptedAwaitingPaymentBookings = bookingStatusCounts.getOrDefault(BookingStatus.ACCEPTED_AWAITING_PAYMENT, 0L);
         long confirmedBookings = bookingStatusCounts.getOrDefault(BookingStatus.CONFIRMED, 0L);
         long cancelledBookingsLifetime = bookingStatusCounts.getOrDefault(BookingStatus.CANCELLED, 0L);
+        long completedBookingsLifetime = bookingStatusCounts.getOrDefault(BookingStatus.COMPLETED, 0L);
 
-        long completedBookingsLifetime = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.COMPLETED)
-                .count();
-        long completedBookingsLast30Days = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.COMPLETED &&
-                        b.getCreatedAt() != null && // Ensure createdAt is not null
-                        b.getCreatedAt().isAfter(thirtyDaysAgo))
-                .count();
+        BookingReadModelRepository.StatusAggregate completed = aggregatesByStatus.get(BookingStatus.COMPLETED);
+        BookingReadModelRepository.StatusAggregate confirmed = aggregatesByStatus.get(BookingStatus.CONFIRMED);
+        long completedBookingsLast30Days = completed != null ? completed.getRecentBookingCount() : 0L;
 
         // Calculate Financial Snapshot
-        BigDecimal potentialRevenueFromConfirmed = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED && b.getPrice() != null)
-                .map(Booking::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalRevenueFromCompletedLifetime = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.COMPLETED && b.getPrice() != null)
-                .map(Booking::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalRevenueFromCompletedLast30Days = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.COMPLETED &&
-                        b.getPrice() != null &&
-                        b.getCreatedAt() != null &&
-                        b.getCreatedAt().isAfter(thirtyDaysAgo))
-                .map(Booking::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal potentialRevenueFromConfirmed = confirmed != null ? confirmed.getTotalPrice() : BigDecimal.ZERO;
+        BigDecimal totalRevenueFromCompletedLifetime = completed != null ? completed.getTotalPrice() : BigDecimal.ZERO;
+        BigDecimal totalRevenueFromCompletedLast30Days = completed != null ? completed.getRecentTotalPrice() : BigDecimal.ZERO;
 
         // Review Snapshot
         // The average rating is already on providerProfile, assuming it's kept up-to-date by ReviewService
         Float currentAverageRating = providerProfile.getAverageRating() != null ? providerProfile.getAverageRating() : 0.0f;
-        // Fetch total reviews count for this provider
-        List<Review> reviews = reviewRepository.findByProviderOrderByCreatedAtDesc(providerProfile);
-        int totalReviews = reviews.size();
+        // Rating distribution and total review count from the profile's running aggregates
+        Map<Integer, Long> ratingDistribution = new LinkedHashMap<>();
+        ratingDistribution.put(5, providerProfile.getFiveStarCount());
+        ratingDistribution.put(4, providerProfile.getFourStarCount());
+        ratingDistribution.put(3, providerProfile.getThreeStarCount());
+        ratingDistribution.put(2, providerProfile.getTwoStarCount());
+        ratingDistribution.put(1, providerProfile.getOneStarCount());
+        int totalReviews = providerProfile.getReviewCount().intValue();
 
 
         ProviderDashboardSummaryDTO summaryDTO = ProviderDashboardSummaryDTO.builder()
@@ -114,7 +107,8 @@ public class ReportServiceImpl implements ReportService {
                 .totalRevenueFromCompletedLifetime(totalRevenueFromCompletedLifetime)
                 .currentAverageRating(currentAverageRating)
                 .totalReviews(totalReviews)
-                .bookingStatusCounts(new EnumMap<>(bookingStatusCounts)) // Ensure EnumMap for consistent ordering if needed
+                .bookingStatusCounts(bookingStatusCounts) // EnumMap for consistent ordering
+                .ratingDistribution(ratingDistribution)
                 .build();
 
         return Response.builder()
@@ -123,4 +117,23 @@ public class ReportServiceImpl implements ReportService {
                 .dashboardSummary(summaryDTO) // Use the new field in Response DTO
                 .build();
     }
-}
\ No newline at end of file
+
+    @Override
+    public Response getBookingReadModelStatus() {
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking read model status retrieved successfully.")
+                .bookingReadModelStatus(bookingReadModelProjector.getStatus())
+                .build();
+    }
+
+    @Override
+    public Response rebuildBookingReadModel() {
+        int projected = bookingReadModelProjector.rebuild();
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking read model rebuilt: " + projected + " bookings projected.")
+                .bookingReadModelStatus(bookingReadModelProjector.getStatus())
+                .build();
+    }
+}
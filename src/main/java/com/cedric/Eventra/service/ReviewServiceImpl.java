@@ -5,19 +5,19 @@ import com.cedric.Eventra.dto.ReviewDTO;
 import com.cedric.Eventra.dto.UserDTO;
 import com.cedric.Eventra.dto.CreateReviewRequestDTO;
 import com.cedric.Eventra.entity.*;
-import com.cedric.Eventra.enums.BookingStatus;
 import com.cedric.Eventra.exception.BadRequestException;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException;
-import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
 import com.cedric.Eventra.repository.OfferedServiceRepository;
 import com.cedric.Eventra.repository.ReviewRepository;
 import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
 import com.cedric.Eventra.service.ReviewService;
 import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.review.ProviderRatingAggregator;
+import com.cedric.Eventra.service.review.ReviewEligibilityCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,9 +35,10 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewRepository reviewRepository;
     private final ServiceProviderProfileRepository serviceProviderProfileRepository;
     private final UserService userService;
-    private final BookingRepository bookingRepository; // To verify eligibility
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
     private final OfferedServiceRepository offeredServiceRepository;
+    private final ProviderRatingAggregator providerRatingAggregator;
+    private final ReviewEligibilityCache reviewEligibilityCache;
 
     @Override
     @Transactional
@@ -49,11 +50,8 @@ public class ReviewServiceImpl implements ReviewService {
 
         // **Eligibility Check (Crucial):**
         // User must have at least one COMPLETED booking with this provider.
-        // Simple check: has the reviewer completed any booking with this provider?
-        boolean isEligible = bookingRepository.findAll().stream() // Note: query DB better for later development
-                .anyMatch(booking -> booking.getUser().getId().equals(reviewer.getId()) &&
-                        booking.getOfferedService().getProvider().getId().equals(providerToReview.getUserId()) && // provider of service
-                        booking.getStatus() == BookingStatus.COMPLETED);
+        // Indexed existence query, cached per (reviewer, provider) and invalidated when a booking completes.
+        boolean isEligible = reviewEligibilityCache.isEligible(reviewer.getId(), providerToReview.getUserId());
 
         // review is not tied to a specific bookingId in request
         if (reviewRepository.existsByReviewerAndProvider(reviewer, providerToReview)) {
@@ -76,13 +74,13 @@ public class ReviewServiceImpl implements ReviewService {
                 .build();
 
         Review savedReview = reviewRepository.save(review);
-        updateProviderAverageRating(providerToReview.getUserId()); // Update average rating
+        providerRatingAggregator.reviewAdded(providerToReview.getUserId(), savedReview.getRating()); // O(1) aggregate update
 
         log.info("User {} created review for provider {}", reviewer.getId(), providerToReview.getUserId());
         return Response.builder()
                 .status(HttpStatus.CREATED.value())
                 .message("Review submitted successfully.")
-                .review(modelMapper.map(savedReview, ReviewDTO.class))
+                .review(entityDtoMapper.toReviewDTO(savedReview))
                 .build();
     }
 
@@ -137,18 +135,19 @@ public class ReviewServiceImpl implements ReviewService {
             throw new BadRequestException("Review update request provider ID does not match the original review's provider.");
         }
 
+        Float previousRating = review.getRating();
         review.setRating(updateReviewRequestDTO.getRating());
         review.setComment(updateReviewRequestDTO.getComment());
         // createdAt should not be updated
 
         Review updatedReview = reviewRepository.save(review);
-        updateProviderAverageRating(review.getProvider().getUserId()); // Update average rating
+        providerRatingAggregator.reviewUpdated(review.getProvider().getUserId(), previousRating, updatedReview.getRating());
 
         log.info("User {} updated review ID {}", reviewer.getId(), reviewId);
         return Response.builder()
                 .status(HttpStatus.OK.value())
                 .message("Review updated successfully.")
-                .review(modelMapper.map(updatedReview, ReviewDTO.class))
+                .review(entityDtoMapper.toReviewDTO(updatedReview))
                 .build();
     }
 
@@ -164,8 +163,9 @@ public class ReviewServiceImpl implements ReviewService {
         }
 
         Long providerProfileId = review.getProvider().getUserId();
+        Float removedRating = review.getRating();
         reviewRepository.delete(review);
-        updateProviderAverageRating(providerProfileId); // Update average rating
+        providerRatingAggregator.reviewRemoved(providerProfileId, removedRating);
 
         log.info("User {} deleted review ID {}", reviewer.getId(), reviewId);
         // In ReviewServiceImpl.java - deleteMyReview method
@@ -177,7 +177,7 @@ public class ReviewServiceImpl implements ReviewService {
 
     // Helper method to map Review entity to ReviewDTO
     private ReviewDTO mapToReviewDTO(Review review) {
-        ReviewDTO dto = modelMapper.map(review, ReviewDTO.class);
+        ReviewDTO dto = entityDtoMapper.toReviewDTO(review);
         if (review.getReviewer() != null) {
             // Assuming UserDTO should be simplified or specific for reviewer context
             UserDTO reviewerDTO = UserDTO.builder()
@@ -202,29 +202,4 @@ public class ReviewServiceImpl implements ReviewService {
         }
         return dto;
     }
-
-    // Method to update the average rating for a provider
-    // This should be @Transactional if called separately, but will join existing transaction if called from another @Transactional method.
-    private void updateProviderAverageRating(Long providerProfileId) {
-        ServiceProviderProfile providerProfile = serviceProviderProfileRepository.findByUserId(providerProfileId)
-                .orElse(null); // Or throw if provider must exist
-
-        if (providerProfile == null) {
-            log.warn("Attempted to update average rating for non-existent provider profile ID: {}", providerProfileId);
-            return;
-        }
-
-        List<Review> reviews = reviewRepository.findByProviderOrderByCreatedAtDesc(providerProfile);
-        if (reviews.isEmpty()) {
-            providerProfile.setAverageRating(0.0f); // Or null
-        } else {
-            double average = reviews.stream()
-                    .mapToDouble(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-            providerProfile.setAverageRating((float) average);
-        }
-        serviceProviderProfileRepository.save(providerProfile); // Save the updated profile
-        log.info("Updated average rating for provider ID {}: {}", providerProfileId, providerProfile.getAverageRating());
-    }
 }
\ No newline at end of file
@@ -8,13 +8,13 @@ import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.UserRole;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
 import com.cedric.Eventra.exception.UnauthorizedException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
 import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
 import com.cedric.Eventra.service.FileStorageService;
 import com.cedric.Eventra.service.ServiceProviderProfileService;
 import com.cedric.Eventra.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -30,7 +30,7 @@ public class ServiceProviderProfileServiceImpl implements ServiceProviderProfile
     private final ServiceProviderProfileRepository profileRepository;
     private final UserService userService;
     private final FileStorageService fileStorageService;
-    private final ModelMapper modelMapper;
+    private final EntityDtoMapper entityDtoMapper;
 
     // Inject subdirectory names from properties to pass to FileStorageService
     @Value("${file.upload-dir.profile-pictures}")
@@ -177,7 +177,7 @@ public class ServiceProviderProfileServiceImpl implements ServiceProviderProfile
 
     // Helper to map ServiceProviderProfile Entity to DTO
     private ServiceProviderProfileDTO mapToDTO(ServiceProviderProfile profile) {
-        ServiceProviderProfileDTO dto = modelMapper.map(profile, ServiceProviderProfileDTO.class);
+        ServiceProviderProfileDTO dto = entityDtoMapper.toServiceProviderProfileDTO(profile);
         // Manually set URLs using FileStorageService
         if (StringUtils.hasText(profile.getProfilePictureFilename())) {
             dto.setProfilePictureUrl(fileStorageService.getFileUrl(profilePicturesSubDir, profile.getProfilePictureFilename()));
@@ -185,21 +185,9 @@ public class ServiceProviderProfileServiceImpl implements ServiceProviderProfile
         if (StringUtils.hasText(profile.getCoverPhotoFilename())) {
             dto.setCoverPhotoUrl(fileStorageService.getFileUrl(coverPhotosSubDir, profile.getCoverPhotoFilename()));
         }
-        // Map user details if not handled by ModelMapper perfectly or if UserDTO needs specific setup
-        if (profile.getUser() != null) {
-            dto.setUserEmail(profile.getUser().getEmail());
-            dto.setUserFirstName(profile.getUser().getFirstName());
-            dto.setUserLastName(profile.getUser().getLastName());
-        }
-        // averageRating and totalReviews are assumed to be on the DTO
-        // If averageRating is calculated on-the-fly it would happen here too.
-        // If persisted, ModelMapper should get it.
-        // For totalReviews, you might need to fetch reviewRepository.countByProvider(profile)
-        if (profile.getReviews() != null) {
-            dto.setTotalReviews(profile.getReviews().size());
-        } else {
-            dto.setTotalReviews(0);
-        }
+        // averageRating and the user's name/email are copied by EntityDtoMapper; totalReviews comes from the
+        // running reviewCount aggregate, so the lazy reviews collection is never initialised
+        dto.setTotalReviews(profile.getReviewCount() != null ? profile.getReviewCount().intValue() : 0);
 
         return dto;
     }
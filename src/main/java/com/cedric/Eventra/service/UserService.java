@@ -19,6 +19,10 @@ public interface UserService {
 
     User getCurrentLoggedInUser();
 
+    // The current user re-read from the database, for write paths that act on isActive or role: the request
+    // principal comes from a per-node cache and can lag a change made through another node
+    User getCurrentLoggedInUserForUpdate();
+
     Response updateOwnAccount(UserDTO userDTO);
 
     Response deleteOwnAccount();
@@ -33,8 +37,12 @@ public interface UserService {
 
     User getUserByEmail(String email);
 
-    // New method for searching by service name
-    Response searchServiceProvidersByName(String serviceName);
+    // Ranked, paginated full-text search over providers and their offered services
+    Response searchServiceProvidersByName(String query, Integer page, Integer size);
+
+    // Active providers near a postcode or coordinate, nearest first, optionally within one category
+    Response getServiceProvidersNearby(String postcode, Double latitude, Double longitude, Double radiusKm,
+                                       ServiceCategory category, Integer limit);
 
     // Admin specific methods
     Response getAllCustomersAdmin();
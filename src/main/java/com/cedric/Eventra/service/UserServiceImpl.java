@@ -1,7 +1,7 @@
 package com.cedric.Eventra.service;
 
 import com.cedric.Eventra.dto.*;
-import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.BookingReadModel;
 import com.cedric.Eventra.entity.ServiceProviderProfile;
 import com.cedric.Eventra.entity.User;
 import com.cedric.Eventra.enums.ServiceCategory;
@@ -9,17 +9,22 @@ import com.cedric.Eventra.enums.UserRole;
 import com.cedric.Eventra.exception.InvalidCredentialException;
 import com.cedric.Eventra.exception.NotFoundException;
 import com.cedric.Eventra.exception.ResourceNotFoundException;
-import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
 import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
 import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.security.AuthUser;
 import com.cedric.Eventra.security.JwtUtils;
+import com.cedric.Eventra.security.PrincipalCache;
 import com.cedric.Eventra.service.factory.ResponseFactory;
+import com.cedric.Eventra.service.geo.PostcodeLocator;
+import com.cedric.Eventra.service.geo.ProviderGeoIndex;
+import com.cedric.Eventra.service.search.ProviderSearchIndex;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,6 +33,8 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,10 +45,21 @@ public class UserServiceImpl implements UserService{
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
-    private final ModelMapper modelMapper;
-    private final BookingRepository bookingRepository;
+    private final EntityDtoMapper entityDtoMapper;
+    private final BookingReadModelRepository bookingReadModelRepository;
     private final ServiceProviderProfileRepository serviceProviderProfileRepository;
     private final ResponseFactory responseFactory;
+    private final PrincipalCache principalCache;
+    private final ProviderSearchIndex providerSearchIndex;
+    private final ProviderGeoIndex providerGeoIndex;
+    private final PostcodeLocator postcodeLocator;
+
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final double DEFAULT_NEARBY_RADIUS_KM = 20.0;
+    private static final double MAX_NEARBY_RADIUS_KM = 200.0;
+    private static final int DEFAULT_NEARBY_LIMIT = 20;
+    private static final int MAX_NEARBY_LIMIT = 100;
 
     @Override
     public Response registerUser(RegistrationRequest request) {
@@ -158,20 +176,35 @@ public class UserServiceImpl implements UserService{
                 .orElseThrow(() -> new NotFoundException("User Not Found"));
 
         log.info("Inside getOwnAccountDetails user email is {}", email);
-        UserDTO userDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO userDTO = entityDtoMapper.toUserDTO(user);
 
         return responseFactory.createSuccessUserResponse("Account details retrieved successfully.", userDTO);
     }
 
     @Override
     public User getCurrentLoggedInUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // AuthFilter already resolved the user for this request, reuse it instead of querying again
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUser authUser && authUser.getUser() != null) {
+            return authUser.getUser();
+        }
+        String email = authentication.getName();
         return userRepository.findByEmail(email).orElseThrow(() -> new NotFoundException("User Not Found"));
     }
 
+    @Override
+    public User getCurrentLoggedInUserForUpdate() {
+        Long userId = getCurrentLoggedInUser().getId();
+        return userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User Not Found"));
+    }
+
     @Override
     public Response updateOwnAccount(UserDTO userDTO) {
-        User existingUser = getCurrentLoggedInUser();
+        User currentUser = getCurrentLoggedInUser();
+        // Load a fresh copy, the request principal is shared through the principal cache
+        User existingUser = userRepository.findById(currentUser.getId())
+                .orElseThrow(() -> new NotFoundException("User Not Found"));
+        String previousEmail = existingUser.getEmail();
         // Logging
         log.info("Inside updateOwnAccount for user {}", existingUser.getEmail());
 
@@ -184,6 +217,8 @@ public class UserServiceImpl implements UserService{
             existingUser.setPassword(passwordEncoder.encode(userDTO.getPassword()));
         }
         userRepository.save(existingUser);
+        principalCache.evict(previousEmail);
+        principalCache.evict(existingUser.getEmail());
 
         return Response.builder()
                 .status(200)
@@ -194,7 +229,8 @@ public class UserServiceImpl implements UserService{
     @Override
     public Response deleteOwnAccount() {
         User user = getCurrentLoggedInUser();
-        userRepository.delete(user);
+        userRepository.deleteById(user.getId());
+        principalCache.evict(user.getEmail());
 
         return Response.builder()
                 .status(200)
@@ -205,9 +241,8 @@ public class UserServiceImpl implements UserService{
     @Override
     public Response getMyBookingHistory() {
         User user = getCurrentLoggedInUser();
-        List<Booking> bookingList = bookingRepository.findByUserId((user.getId()));
-        List<BookingDTO> bookingDTOList = modelMapper.map(bookingList,
-                new TypeToken<List<BookingDTO>>(){}.getType());
+        List<BookingReadModel> bookingList = bookingReadModelRepository.findByCustomerId(user.getId());
+        List<BookingDTO> bookingDTOList = entityDtoMapper.toBookingDTOsFromReadModel(bookingList);
         // Logging
         log.info("Fetched {} bookings for user {}", bookingDTOList.size(), user.getEmail());
         String message = bookingDTOList.isEmpty() ? "No bookings found" : "Success";
@@ -249,7 +284,7 @@ public class UserServiceImpl implements UserService{
         List<UserDTO> providerUserDTOs = profiles.stream()
                 .map(ServiceProviderProfile::getUser) // Get the User from the Profile
                 .filter(user -> user != null && user.getIsActive() && user.getRole() == UserRole.SERVICE_PROVIDER) // Double check role and active status
-                .map(user -> modelMapper.map(user, UserDTO.class)) // Map User entity to UserDTO
+                .map(user -> entityDtoMapper.toUserDTO(user)) // Map User entity to UserDTO
                 .collect(Collectors.toList());
 
         return responseFactory.createSuccessUsersResponse(
@@ -268,7 +303,7 @@ public class UserServiceImpl implements UserService{
         }
 
         List<UserDTO> serviceProviderDTOs = serviceProviderEntities.stream()
-                .map(user -> modelMapper.map(user, UserDTO.class)) // Your UserDTO includes ServiceProviderProfileDTO
+                .map(user -> entityDtoMapper.toUserDTO(user)) // Your UserDTO includes ServiceProviderProfileDTO
                 .collect(Collectors.toList());
 
         return responseFactory.createSuccessUsersResponse("Active service providers retrieved successfully.", serviceProviderDTOs);
@@ -287,7 +322,7 @@ public class UserServiceImpl implements UserService{
             return responseFactory.createNotFoundResponse("User with ID " + providerUserId + " is not a service provider.");
         }
 
-        UserDTO userDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO userDTO = entityDtoMapper.toUserDTO(user);
         return responseFactory.createSuccessUserResponse("Service provider retrieved successfully.", userDTO);
     }
 
@@ -297,7 +332,7 @@ public class UserServiceImpl implements UserService{
     public Response getAllCustomersAdmin() {
         List<User> customerEntities = userRepository.findByRole(UserRole.CUSTOMER);
         List<UserDTO> customerDTOs = customerEntities.stream()
-                .map(user -> modelMapper.map(user, UserDTO.class))
+                .map(user -> entityDtoMapper.toUserDTO(user))
                 .collect(Collectors.toList());
         log.info("Admin fetched all customers. Count: {}", customerDTOs.size());
         return responseFactory.createSuccessUsersResponse("All customers retrieved successfully.", customerDTOs);
@@ -307,7 +342,7 @@ public class UserServiceImpl implements UserService{
     public Response getAllServiceProvidersAdmin() {
         List<User> serviceProviderEntities = userRepository.findByRole(UserRole.SERVICE_PROVIDER);
         List<UserDTO> serviceProviderDTOs = serviceProviderEntities.stream()
-                .map(user -> modelMapper.map(user, UserDTO.class)) // UserDTO includes ServiceProviderProfileDTO
+                .map(user -> entityDtoMapper.toUserDTO(user)) // UserDTO includes ServiceProviderProfileDTO
                 .collect(Collectors.toList());
         log.info("Admin fetched all service providers. Count: {}", serviceProviderDTOs.size());
         return responseFactory.createSuccessUsersResponse("All service providers retrieved successfully (active and inactive).", serviceProviderDTOs);
@@ -333,6 +368,7 @@ public class UserServiceImpl implements UserService{
         // Add any other cleanup logic here (e.g., related bookings, reviews by this user)
 
         userRepository.delete(userToDelete);
+        principalCache.evict(userToDelete.getEmail());
         log.info("Admin deleted user with ID: {}. User email: {}", userId, userToDelete.getEmail());
         return responseFactory.createSuccessResponse("User with ID " + userId + " deleted successfully by admin.");
     }
@@ -345,13 +381,14 @@ public class UserServiceImpl implements UserService{
                 .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
 
         if (user.getIsActive()) {
-            return responseFactory.createSuccessUserResponse("User with ID " + userId + " is already active.", modelMapper.map(user, UserDTO.class));
+            return responseFactory.createSuccessUserResponse("User with ID " + userId + " is already active.", entityDtoMapper.toUserDTO(user));
         }
 
         user.setIsActive(true);
         User savedUser = userRepository.save(user);
+        principalCache.evict(user.getEmail());
         log.info("Admin activated user with ID: {}. User email: {}", userId, user.getEmail());
-        return responseFactory.createSuccessUserResponse("User with ID " + userId + " activated successfully by admin.", modelMapper.map(savedUser, UserDTO.class));
+        return responseFactory.createSuccessUserResponse("User with ID " + userId + " activated successfully by admin.", entityDtoMapper.toUserDTO(savedUser));
     }
 
     @Override
@@ -368,13 +405,14 @@ public class UserServiceImpl implements UserService{
         }
 
         if (!user.getIsActive()) {
-            return responseFactory.createSuccessUserResponse("User with ID " + userId + " is already inactive.", modelMapper.map(user, UserDTO.class));
+            return responseFactory.createSuccessUserResponse("User with ID " + userId + " is already inactive.", entityDtoMapper.toUserDTO(user));
         }
 
         user.setIsActive(false);
         User savedUser = userRepository.save(user);
+        principalCache.evict(user.getEmail());
         log.info("Admin deactivated user with ID: {}. User email: {}", userId, user.getEmail());
-        return responseFactory.createSuccessUserResponse("User with ID " + userId + " deactivated successfully by admin.", modelMapper.map(savedUser, UserDTO.class));
+        return responseFactory.createSuccessUserResponse("User with ID " + userId + " deactivated successfully by admin.", entityDtoMapper.toUserDTO(savedUser));
     }
 
     @Override
@@ -382,41 +420,96 @@ public class UserServiceImpl implements UserService{
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
 
-        UserDTO userDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO userDTO = entityDtoMapper.toUserDTO(user);
         log.info("Admin retrieved user details for ID: {}", userId);
         return responseFactory.createSuccessUserResponse("User details retrieved successfully.", userDTO);
     }
 
     // ------------- NEW METHOD IMPLEMENTATION -------------
     @Override
-    public Response searchServiceProvidersByName(String serviceName) {
-        if (serviceName == null || serviceName.trim().isEmpty()) {
+    public Response searchServiceProvidersByName(String query, Integer page, Integer size) {
+        if (query == null || query.trim().isEmpty()) {
             return responseFactory.createBadRequestResponse("Service name for search cannot be empty.");
         }
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_SEARCH_PAGE_SIZE : size;
+        if (pageNumber < 0 || pageSize < 1) {
+            return responseFactory.createBadRequestResponse("Page must be zero or greater and size must be at least 1.");
+        }
+        pageSize = Math.min(pageSize, MAX_SEARCH_PAGE_SIZE);
 
-        log.info("Searching for service providers with service name containing: {}", serviceName);
+        log.info("Searching for service providers matching: {} (page {}, size {})", query, pageNumber, pageSize);
 
-        // Using the new repository method
-        List<ServiceProviderProfile> profiles = serviceProviderProfileRepository
-                .findByServiceNameContainingIgnoreCaseAndUserIsActiveTrueAndUserRoleServiceProvider(serviceName);
+        ProviderSearchIndex.SearchResult result = providerSearchIndex.search(query, pageNumber, pageSize);
 
-        if (profiles.isEmpty()) {
-            return responseFactory.createSuccessUsersResponse(
-                    "No active service providers found matching the name: " + serviceName,
-                    Collections.emptyList()
-            );
+        // Load the page of providers in one query, then restore the index's ranking order
+        Map<Long, User> usersById = userRepository.findAllById(result.providerIds()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDTO> providerUserDTOs = result.providerIds().stream()
+                .map(usersById::get)
+                // The index only returns active providers, but a change may not have been applied yet
+                .filter(user -> user != null && Boolean.TRUE.equals(user.getIsActive()) && user.getRole() == UserRole.SERVICE_PROVIDER)
+                .map(user -> entityDtoMapper.toUserDTO(user))
+                .collect(Collectors.toList());
+
+        String message = providerUserDTOs.isEmpty()
+                ? "No active service providers found matching: " + query
+                : "Service providers retrieved successfully for: " + query;
+        Response response = responseFactory.createSuccessUsersResponse(message, providerUserDTOs);
+        response.setTotalResults(result.totalResults());
+        response.setHasMore((long) (pageNumber + 1) * pageSize < result.totalResults());
+        return response;
+    }
+
+    @Override
+    public Response getServiceProvidersNearby(String postcode, Double latitude, Double longitude, Double radiusKm,
+                                              ServiceCategory category, Integer limit) {
+        PostcodeLocator.GeoPoint origin;
+        if (latitude != null && longitude != null) {
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                return responseFactory.createBadRequestResponse("Latitude must be within [-90, 90] and longitude within [-180, 180].");
+            }
+            origin = new PostcodeLocator.GeoPoint(latitude, longitude);
+        } else if (postcode != null && !postcode.isBlank()) {
+            origin = postcodeLocator.locate(postcode).orElse(null);
+            if (origin == null) {
+                return responseFactory.createBadRequestResponse("Unknown postcode: " + postcode);
+            }
+        } else {
+            return responseFactory.createBadRequestResponse("Either a postcode or both latitude and longitude are required.");
         }
 
-        // Map the User associated with each profile to UserDTO
-        List<UserDTO> providerUserDTOs = profiles.stream()
-                .map(ServiceProviderProfile::getUser) // Get the User from the Profile
-                // The repository query already filters by isActive and role, but an additional check here won't harm
-                .filter(user -> user != null && user.getIsActive() && user.getRole() == UserRole.SERVICE_PROVIDER)
-                .map(user -> modelMapper.map(user, UserDTO.class)) // Map User entity to UserDTO
-                .collect(Collectors.toList());
+        double radius = radiusKm == null ? DEFAULT_NEARBY_RADIUS_KM : radiusKm;
+        int maxResults = limit == null ? DEFAULT_NEARBY_LIMIT : limit;
+        if (radius <= 0 || maxResults < 1) {
+            return responseFactory.createBadRequestResponse("Radius must be positive and limit must be at least 1.");
+        }
+        radius = Math.min(radius, MAX_NEARBY_RADIUS_KM);
+        maxResults = Math.min(maxResults, MAX_NEARBY_LIMIT);
+
+        List<ProviderGeoIndex.NearbyProvider> nearby = providerGeoIndex.findNearby(origin, radius, category, maxResults);
+
+        Map<Long, User> usersById = userRepository.findAllById(nearby.stream().map(ProviderGeoIndex.NearbyProvider::providerId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDTO> providerUserDTOs = new ArrayList<>(nearby.size());
+        for (ProviderGeoIndex.NearbyProvider match : nearby) {
+            User user = usersById.get(match.providerId());
+            if (user == null || !Boolean.TRUE.equals(user.getIsActive()) || user.getRole() != UserRole.SERVICE_PROVIDER) {
+                continue;
+            }
+            UserDTO userDTO = entityDtoMapper.toUserDTO(user);
+            if (userDTO.getServiceProviderProfile() != null) {
+                userDTO.getServiceProviderProfile().setDistanceKm(Math.round(match.distanceKm() * 10) / 10.0);
+            }
+            providerUserDTOs.add(userDTO);
+        }
 
+        String within = String.format("within %.1f km", radius) + (category != null ? " in category " + category.name() : "");
         return responseFactory.createSuccessUsersResponse(
-                "Service providers retrieved successfully for service name: " + serviceName,
+                providerUserDTOs.isEmpty()
+                        ? "No active service providers found " + within
+                        : "Service providers retrieved successfully " + within,
                 providerUserDTOs
         );
     }
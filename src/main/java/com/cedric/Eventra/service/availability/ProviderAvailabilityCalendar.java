@@ -0,0 +1,287 @@
+package com.cedric.Eventra.service.availability;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory availability calendar of every provider: which time ranges are taken by bookings.
+ *
+ * A booking's slot runs from its preferred date/time for the service's duration (the whole day when no
+ * time was given). New requests take a hold that lapses if the provider does not answer in time; accepting
+ * renews the hold for the payment window and payment makes the slot firm. Rejecting or cancelling
+ * frees it (see BookingStateMachine). Expired holds and past slots are swept in batches.
+ *
+ * Overlap checks are O(log n) per provider and serialise only on that provider's calendar.
+ * Rebuilt from the open bookings on startup, keeping each hold's stored expiry.
+ *
+ * The calendar only knows the bookings this instance has seen, so it is a fast pre-check that turns most
+ * clashes away without touching the database; ProviderSlotGuard makes the binding check in the booking's
+ * transaction. The hold expiry of each booking is stored in bookings.hold_expires_at for that check.
+ */
+@Component
+@Slf4j
+public class ProviderAvailabilityCalendar {
+
+    static final EnumSet<BookingStatus> HOLDING_STATUSES =
+            EnumSet.of(BookingStatus.PENDING, BookingStatus.ACCEPTED_AWAITING_PAYMENT, BookingStatus.CONFIRMED);
+
+    private final BookingRepository bookingRepository;
+    private final Duration requestHoldTtl;
+    private final Duration paymentHoldTtl;
+    private final int defaultSlotMinutes;
+    private final int sweepBatchSize;
+    private final Clock clock;
+
+    private final Map<Long, ProviderCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<String, Long> providerByReference = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProviderAvailabilityCalendar(BookingRepository bookingRepository,
+                                        @Value("${availability.request-hold-ttl:PT48H}") Duration requestHoldTtl,
+                                        @Value("${availability.payment-hold-ttl:PT24H}") Duration paymentHoldTtl,
+                                        @Value("${availability.default-slot-minutes:60}") int defaultSlotMinutes,
+                                        @Value("${availability.sweep-batch-size:500}") int sweepBatchSize) {
+        this(bookingRepository, requestHoldTtl, paymentHoldTtl, defaultSlotMinutes, sweepBatchSize, Clock.systemDefaultZone());
+    }
+
+    ProviderAvailabilityCalendar(BookingRepository bookingRepository, Duration requestHoldTtl, Duration paymentHoldTtl,
+                                 int defaultSlotMinutes, int sweepBatchSize, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.requestHoldTtl = requestHoldTtl;
+        this.paymentHoldTtl = paymentHoldTtl;
+        this.defaultSlotMinutes = defaultSlotMinutes;
+        this.sweepBatchSize = Math.max(1, sweepBatchSize);
+        this.clock = clock;
+    }
+
+    /**
+     * A reserved range of a provider's time. {@code holdExpiresAt} is null once the slot is firm.
+     */
+    public record Slot(String bookingReference, Long serviceId, LocalDateTime start, LocalDateTime end, Instant holdExpiresAt) {
+
+        public boolean isHold() {
+            return holdExpiresAt != null;
+        }
+
+        boolean isExpiredAt(Instant now) {
+            return holdExpiresAt != null && !holdExpiresAt.isAfter(now);
+        }
+    }
+
+    /**
+     * @param held     false if the provider is already booked for an overlapping time
+     * @param conflict the overlapping slot when not held
+     */
+    public record HoldResult(boolean held, Slot conflict) {
+    }
+
+    // --- Booking lifecycle ---
+
+    /**
+     * When a hold taken now for a booking moving to {@code status} lapses; null for a firm (or freed) slot.
+     */
+    public Instant holdExpiryFor(BookingStatus status) {
+        return switch (status) {
+            case PENDING -> clock.instant().plus(requestHoldTtl);
+            case ACCEPTED_AWAITING_PAYMENT -> clock.instant().plus(paymentHoldTtl);
+            default -> null;
+        };
+    }
+
+    /**
+     * Holds the slot of a new booking request and records the hold's expiry on the (unsaved) booking.
+     * If the surrounding transaction rolls back, the hold is dropped.
+     */
+    public HoldResult holdForRequest(Booking booking) {
+        if (booking.getHoldExpiresAt() == null) {
+            booking.setHoldExpiresAt(holdExpiryFor(BookingStatus.PENDING));
+        }
+        HoldResult result = hold(booking, booking.getHoldExpiresAt());
+        if (result.held() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            String bookingReference = booking.getBookingReference();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(bookingReference);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Renews the booking's hold for the payment window (until its stored hold expiry), re-taking the slot
+     * if its request hold had lapsed.
+     */
+    public HoldResult holdForPayment(Booking booking) {
+        Instant expiresAt = booking.getHoldExpiresAt() != null
+                ? booking.getHoldExpiresAt() : holdExpiryFor(BookingStatus.ACCEPTED_AWAITING_PAYMENT);
+        return hold(booking, expiresAt);
+    }
+
+    /**
+     * Makes the booking's slot firm. The booking is already paid for, so a lost slot is only logged.
+     */
+    public void confirm(Booking booking) {
+        HoldResult result = hold(booking, null);
+        if (!result.held()) {
+            log.warn("Confirmed booking {} overlaps booking {} of the same provider.",
+                    booking.getBookingReference(), result.conflict().bookingReference());
+        }
+    }
+
+    public void release(String bookingReference) {
+        Long providerId = providerByReference.remove(bookingReference);
+        if (providerId == null) {
+            return;
+        }
+        ProviderCalendar calendar = calendars.get(providerId);
+        if (calendar != null) {
+            calendar.release(bookingReference);
+        }
+    }
+
+    /**
+     * Frees the booking's slot once the current transaction commits (immediately outside one).
+     */
+    public void releaseAfterCommit(String bookingReference) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(bookingReference);
+                }
+            });
+        } else {
+            release(bookingReference);
+        }
+    }
+
+    // --- Query ---
+
+    /**
+     * Taken slots of the provider overlapping [from, to), in start order.
+     */
+    public List<Slot> slotsBetween(Long providerId, LocalDateTime from, LocalDateTime to) {
+        ProviderCalendar calendar = calendars.get(providerId);
+        return calendar == null ? List.of() : calendar.slotsBetween(from, to, clock.instant());
+    }
+
+    /**
+     * The range a booking of the service at the given date and time would occupy; empty without a date.
+     */
+    public Optional<Slot> slotFor(String bookingReference, OfferedService service, LocalDate date, LocalTime time, Instant holdExpiresAt) {
+        if (date == null) {
+            return Optional.empty();
+        }
+        LocalDateTime start;
+        LocalDateTime end;
+        if (time == null) {
+            start = date.atStartOfDay();
+            end = start.plusDays(1);
+        } else {
+            int minutes = service.getDurationMinutes() != null ? service.getDurationMinutes() : defaultSlotMinutes;
+            start = date.atTime(time);
+            end = start.plusMinutes(minutes);
+        }
+        return Optional.of(new Slot(bookingReference, service.getId(), start, end, holdExpiresAt));
+    }
+
+    // --- Maintenance ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        calendars.clear();
+        providerByReference.clear();
+        Instant now = clock.instant();
+        int placed = 0;
+        int overlapping = 0;
+        for (BookingRepository.CalendarRow row : bookingRepository.findCalendarRows(HOLDING_STATUSES, LocalDate.now(clock))) {
+            OfferedService service = OfferedService.builder().id(row.getServiceId()).durationMinutes(row.getDurationMinutes()).build();
+            Instant expiresAt = switch (row.getStatus()) {
+                case PENDING, ACCEPTED_AWAITING_PAYMENT -> row.getHoldExpiresAt() != null
+                        ? row.getHoldExpiresAt() : holdExpiryFor(row.getStatus());
+                default -> null;
+            };
+            if (expiresAt != null && !expiresAt.isAfter(now)) {
+                continue;
+            }
+            Optional<Slot> slot = slotFor(row.getBookingReference(), service, row.getPreferredDate(), row.getPreferredTime(), expiresAt);
+            if (slot.isPresent()) {
+                if (place(row.getProviderId(), slot.get()) == null) {
+                    placed++;
+                } else {
+                    overlapping++;
+                }
+            }
+        }
+        log.info("Provider availability calendar built: {} slots placed, {} overlapping skipped in {} ms",
+                placed, overlapping, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Drops lapsed holds and slots that ended more than a day ago. Each provider is swept in batches,
+     * releasing its lock between them so bookings for busy providers are not held up.
+     */
+    @Scheduled(fixedDelayString = "${availability.sweep-interval-ms:60000}")
+    public void sweepExpiredHolds() {
+        Instant now = clock.instant();
+        LocalDateTime pastCutoff = LocalDateTime.now(clock).minusDays(1);
+        int removed = 0;
+        for (ProviderCalendar calendar : calendars.values()) {
+            int batch;
+            do {
+                batch = calendar.sweep(now, pastCutoff, sweepBatchSize);
+                removed += batch;
+            } while (batch == sweepBatchSize);
+        }
+        if (removed > 0) {
+            log.info("Availability sweep removed {} expired holds and past slots.", removed);
+        }
+    }
+
+    private HoldResult hold(Booking booking, Instant expiresAt) {
+        Optional<Slot> slot = slotFor(booking.getBookingReference(), booking.getOfferedService(),
+                booking.getPreferredDate(), booking.getPreferredTime(), expiresAt);
+        if (slot.isEmpty()) {
+            return new HoldResult(true, null);
+        }
+        Slot conflict = place(booking.getOfferedService().getProvider().getId(), slot.get());
+        return new HoldResult(conflict == null, conflict);
+    }
+
+    private Slot place(Long providerId, Slot slot) {
+        Slot conflict = calendars.computeIfAbsent(providerId, id -> new ProviderCalendar(reference -> providerByReference.remove(reference, id)))
+                .reserve(slot, clock.instant());
+        if (conflict == null) {
+            providerByReference.put(slot.bookingReference(), providerId);
+        }
+        return conflict;
+    }
+}
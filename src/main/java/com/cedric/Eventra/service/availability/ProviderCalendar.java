@@ -0,0 +1,152 @@
+package com.cedric.Eventra.service.availability;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * One provider's reserved time slots.
+ *
+ * Stored slots never overlap, so ordering them by start also orders them by end: the only slot that can
+ * overlap [start, end) is the one with the greatest start before {@code end}, found with one tree lookup.
+ * Expired holds stay in the tree until a reservation trips over them or the sweeper removes them.
+ * Each calendar has its own lock; reservations for different providers never contend.
+ */
+final class ProviderCalendar {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Consumer<String> onEvicted;
+    private final TreeMap<LocalDateTime, ProviderAvailabilityCalendar.Slot> slotsByStart = new TreeMap<>();
+    private final Map<String, ProviderAvailabilityCalendar.Slot> slotsByReference = new HashMap<>();
+    // Holds in expiry order; entries superseded by a later reserve/confirm are skipped when polled
+    private final PriorityQueue<ProviderAvailabilityCalendar.Slot> holdsByExpiry =
+            new PriorityQueue<>(Comparator.comparing(ProviderAvailabilityCalendar.Slot::holdExpiresAt));
+
+    /**
+     * @param onEvicted told the booking reference of every slot dropped for lapsing or lying in the past
+     */
+    ProviderCalendar(Consumer<String> onEvicted) {
+        this.onEvicted = onEvicted;
+    }
+
+    /**
+     * Places the slot, replacing any slot already held under the same booking reference.
+     * @return the live slot it would overlap (nothing is changed), or null once placed.
+     */
+    ProviderAvailabilityCalendar.Slot reserve(ProviderAvailabilityCalendar.Slot slot, Instant now) {
+        lock.lock();
+        try {
+            ProviderAvailabilityCalendar.Slot previous = remove(slot.bookingReference());
+            ProviderAvailabilityCalendar.Slot conflict = findOverlap(slot.start(), slot.end(), now);
+            if (conflict != null) {
+                if (previous != null) {
+                    add(previous);
+                }
+                return conflict;
+            }
+            add(slot);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean release(String bookingReference) {
+        lock.lock();
+        try {
+            return remove(bookingReference) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Live slots overlapping [from, to), in start order.
+     */
+    List<ProviderAvailabilityCalendar.Slot> slotsBetween(LocalDateTime from, LocalDateTime to, Instant now) {
+        lock.lock();
+        try {
+            LocalDateTime first = slotsByStart.floorKey(from);
+            List<ProviderAvailabilityCalendar.Slot> result = new ArrayList<>();
+            for (ProviderAvailabilityCalendar.Slot slot : slotsByStart.subMap(first != null ? first : from, true, to, false).values()) {
+                if (slot.end().isAfter(from) && !slot.isExpiredAt(now)) {
+                    result.add(slot);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to {@code batchSize} expired holds and slots that ended before {@code pastCutoff}.
+     * @return how many slots were removed; fewer than {@code batchSize} means nothing is left to sweep.
+     */
+    int sweep(Instant now, LocalDateTime pastCutoff, int batchSize) {
+        lock.lock();
+        try {
+            int removed = 0;
+            while (removed < batchSize && !holdsByExpiry.isEmpty() && holdsByExpiry.peek().isExpiredAt(now)) {
+                ProviderAvailabilityCalendar.Slot hold = holdsByExpiry.poll();
+                if (slotsByReference.get(hold.bookingReference()) == hold) {
+                    remove(hold.bookingReference());
+                    onEvicted.accept(hold.bookingReference());
+                    removed++;
+                }
+            }
+            Iterator<ProviderAvailabilityCalendar.Slot> past = slotsByStart.headMap(pastCutoff).values().iterator();
+            while (removed < batchSize && past.hasNext()) {
+                ProviderAvailabilityCalendar.Slot slot = past.next();
+                if (!slot.end().isAfter(pastCutoff)) {
+                    past.remove();
+                    slotsByReference.remove(slot.bookingReference());
+                    onEvicted.accept(slot.bookingReference());
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProviderAvailabilityCalendar.Slot findOverlap(LocalDateTime start, LocalDateTime end, Instant now) {
+        Map.Entry<LocalDateTime, ProviderAvailabilityCalendar.Slot> candidate = slotsByStart.lowerEntry(end);
+        while (candidate != null && candidate.getValue().end().isAfter(start)) {
+            ProviderAvailabilityCalendar.Slot slot = candidate.getValue();
+            if (!slot.isExpiredAt(now)) {
+                return slot;
+            }
+            remove(slot.bookingReference());
+            onEvicted.accept(slot.bookingReference());
+            candidate = slotsByStart.lowerEntry(end);
+        }
+        return null;
+    }
+
+    private void add(ProviderAvailabilityCalendar.Slot slot) {
+        slotsByStart.put(slot.start(), slot);
+        slotsByReference.put(slot.bookingReference(), slot);
+        if (slot.isHold()) {
+            holdsByExpiry.add(slot);
+        }
+    }
+
+    private ProviderAvailabilityCalendar.Slot remove(String bookingReference) {
+        ProviderAvailabilityCalendar.Slot slot = slotsByReference.remove(bookingReference);
+        if (slot != null) {
+            slotsByStart.remove(slot.start());
+        }
+        return slot;
+    }
+}
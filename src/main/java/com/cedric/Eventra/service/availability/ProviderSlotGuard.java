@@ -0,0 +1,130 @@
+package com.cedric.Eventra.service.availability;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The binding double-booking check, run in the transaction that creates or accepts a booking.
+ *
+ * The in-memory calendar is asked first. Then findConflict() locks the provider's user row
+ * (SELECT ... FOR UPDATE) and looks for a stored booking of that provider whose slot overlaps and whose
+ * hold has not lapsed. The lock is held until the transaction ends,
+ * so two instances (or two requests the in-memory calendar did not see as overlapping) taking a slot of the
+ * same provider are serialised, and the second one sees the first one's committed row. The stored answer
+ * wins: a calendar slot the database no longer holds (freed on another instance) is dropped.
+ */
+@Component
+@Slf4j
+public class ProviderSlotGuard {
+
+    private final BookingRepository bookingRepository;
+    private final OfferedServiceRepository offeredServiceRepository;
+    private final UserRepository userRepository;
+    private final ProviderAvailabilityCalendar availabilityCalendar;
+    private final Clock clock;
+
+    @Autowired
+    public ProviderSlotGuard(BookingRepository bookingRepository, OfferedServiceRepository offeredServiceRepository,
+                             UserRepository userRepository, ProviderAvailabilityCalendar availabilityCalendar) {
+        this(bookingRepository, offeredServiceRepository, userRepository, availabilityCalendar, Clock.systemDefaultZone());
+    }
+
+    ProviderSlotGuard(BookingRepository bookingRepository, OfferedServiceRepository offeredServiceRepository,
+                      UserRepository userRepository, ProviderAvailabilityCalendar availabilityCalendar, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.offeredServiceRepository = offeredServiceRepository;
+        this.userRepository = userRepository;
+        this.availabilityCalendar = availabilityCalendar;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes the request hold of a new booking: calendar first, then the stored bookings.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ProviderAvailabilityCalendar.HoldResult holdForRequest(Booking booking) {
+        return hold(booking, availabilityCalendar::holdForRequest);
+    }
+
+    /**
+     * Takes the payment hold of a booking being accepted. While its request hold ({@code requestHoldExpiresAt})
+     * has not lapsed no other booking can have taken the slot, so the stored bookings are only checked after that.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ProviderAvailabilityCalendar.HoldResult holdForPayment(Booking booking, Instant requestHoldExpiresAt) {
+        if (requestHoldExpiresAt != null && requestHoldExpiresAt.isAfter(clock.instant())) {
+            ProviderAvailabilityCalendar.HoldResult hold = availabilityCalendar.holdForPayment(booking);
+            if (hold.held()) {
+                return hold;
+            }
+        }
+        return hold(booking, availabilityCalendar::holdForPayment);
+    }
+
+    /**
+     * Locks the booking's provider and returns the stored booking slot its own slot would overlap, if any.
+     * A booking without a preferred date occupies no slot and never conflicts.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<ProviderAvailabilityCalendar.Slot> findConflict(Booking booking) {
+        OfferedService service = booking.getOfferedService();
+        Optional<ProviderAvailabilityCalendar.Slot> slot = availabilityCalendar.slotFor(booking.getBookingReference(),
+                service, booking.getPreferredDate(), booking.getPreferredTime(), booking.getHoldExpiresAt());
+        if (slot.isEmpty()) {
+            return Optional.empty();
+        }
+        Long providerId = service.getProvider().getId();
+        userRepository.lockById(providerId);
+
+        // A booking of the provider's longest service can start this many days before the slot and still reach it
+        Integer longestMinutes = offeredServiceRepository.findMaxDurationMinutesByProviderId(providerId);
+        long lookbackDays = 1 + (longestMinutes != null ? longestMinutes / (24 * 60) : 0);
+        LocalDate fromDate = slot.get().start().toLocalDate().minusDays(lookbackDays);
+        LocalDate toDate = slot.get().end().toLocalDate();
+
+        for (BookingRepository.CalendarRow row : bookingRepository.findProviderSlotRows(providerId,
+                ProviderAvailabilityCalendar.HOLDING_STATUSES, fromDate, toDate, clock.instant(), booking.getBookingReference())) {
+            OfferedService rowService = OfferedService.builder().id(row.getServiceId()).durationMinutes(row.getDurationMinutes()).build();
+            Optional<ProviderAvailabilityCalendar.Slot> taken = availabilityCalendar.slotFor(row.getBookingReference(), rowService,
+                    row.getPreferredDate(), row.getPreferredTime(), row.getHoldExpiresAt());
+            if (taken.isPresent() && taken.get().start().isBefore(slot.get().end()) && slot.get().start().isBefore(taken.get().end())) {
+                log.debug("Booking {} overlaps stored booking {} of provider {}", booking.getBookingReference(),
+                        row.getBookingReference(), providerId);
+                return taken;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ProviderAvailabilityCalendar.HoldResult hold(Booking booking,
+                                                         Function<Booking, ProviderAvailabilityCalendar.HoldResult> calendarHold) {
+        ProviderAvailabilityCalendar.HoldResult hold = calendarHold.apply(booking);
+        Optional<ProviderAvailabilityCalendar.Slot> stored = findConflict(booking);
+        if (stored.isPresent()) {
+            if (hold.held()) {
+                availabilityCalendar.release(booking.getBookingReference());
+            }
+            return new ProviderAvailabilityCalendar.HoldResult(false, stored.get());
+        }
+        if (!hold.held()) {
+            log.info("Dropping calendar slot of booking {}: no longer held in the database", hold.conflict().bookingReference());
+            availabilityCalendar.release(hold.conflict().bookingReference());
+            calendarHold.apply(booking);
+        }
+        return new ProviderAvailabilityCalendar.HoldResult(true, null);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cedric.Eventra.service.booking;
+
+import com.cedric.Eventra.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in a booking list: the (createdAt, id) of the last row returned and the list's direction.
+ * Keyed on values rather than an offset, so pages stay stable while new bookings arrive.
+ */
+public record BookingPageCursor(LocalDateTime createdAt, Long id, boolean ascending) {
+
+    private static final String VERSION = "b1";
+
+    public String encode() {
+        String raw = VERSION + "|" + createdAt + "|" + id + "|" + (ascending ? "asc" : "desc");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingPageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 4 || !VERSION.equals(parts[0]) || !(parts[3].equals("asc") || parts[3].equals("desc"))) {
+                throw new BadRequestException("Invalid booking list cursor.");
+            }
+            return new BookingPageCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]), parts[3].equals("asc"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid booking list cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.cedric.Eventra.service.booking;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingStatusChangedEvent;
+import com.cedric.Eventra.exception.BookingConflictException;
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import com.cedric.Eventra.service.availability.ProviderSlotGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Applies booking status changes as compare-and-set updates instead of read-check-save.
+ *
+ * A transition is attempted from the status the caller last saw; if another request changed the status
+ * in between, the current row is re-read and the transition is re-checked against both the caller's
+ * allowed source states and the {@link BookingStatus} transition table. So of a customer cancel racing a
+ * payment confirmation exactly one wins, and the loser gets a clean "wrong state" result rather than
+ * silently overwriting the winner. Every lost race means the status moved forward, so a handful of
+ * attempts is enough; running out of them surfaces as a 409.
+ *
+ * Applied transitions also move the booking's slot in the provider's availability calendar, and
+ * transition() publishes a {@link BookingStatusChangedEvent} for each one, so the read model follows every
+ * status change whether or not the caller publishes an event of its own.
+ */
+@Component
+@Slf4j
+public class BookingStateMachine {
+
+    private final BookingRepository bookingRepository;
+    private final ProviderAvailabilityCalendar availabilityCalendar;
+    private final ProviderSlotGuard slotGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxAttempts;
+
+    public BookingStateMachine(BookingRepository bookingRepository,
+                               ProviderAvailabilityCalendar availabilityCalendar,
+                               ProviderSlotGuard slotGuard,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${booking.state-machine.max-attempts:3}") int maxAttempts) {
+        this.bookingRepository = bookingRepository;
+        this.availabilityCalendar = availabilityCalendar;
+        this.slotGuard = slotGuard;
+        this.eventPublisher = eventPublisher;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Moves the booking to {@code target} if its current status is in {@code allowedFrom} and the
+     * table permits the edge. The passed entity is detached afterwards; use {@link TransitionResult#booking()}.
+     */
+    @Transactional
+    public TransitionResult transition(Booking booking, BookingStatus target, Set<BookingStatus> allowedFrom) {
+        Long bookingId = booking.getId();
+        Booking current = booking;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            BookingStatus observed = current.getStatus();
+            Instant observedHoldExpiresAt = current.getHoldExpiresAt();
+            if (!allowedFrom.contains(observed) || !observed.canTransitionTo(target)) {
+                return new TransitionResult(false, observed, current, false);
+            }
+
+            boolean won = bookingRepository.compareAndSetStatus(bookingId, observed, target,
+                    availabilityCalendar.holdExpiryFor(target)) == 1;
+            current = bookingRepository.findCurrentById(bookingId)
+                    .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
+            if (won) {
+                if (!updateCalendar(current, target, observedHoldExpiresAt)) {
+                    // Rolls the acceptance back if the request's hold lapsed and someone else took the slot
+                    throw new BookingConflictException("The requested time slot for booking " + current.getBookingReference()
+                            + " has since been booked by another customer.");
+                }
+                eventPublisher.publishEvent(new BookingStatusChangedEvent(this, current, observed));
+                return new TransitionResult(true, observed, current, false);
+            }
+            log.debug("Booking {} moved from {} to {} concurrently (attempt {}/{} towards {})",
+                    bookingId, observed, current.getStatus(), attempt, maxAttempts, target);
+        }
+
+        throw new BookingConflictException("Booking " + booking.getBookingReference()
+                + " is being updated concurrently. Please try again.");
+    }
+
+    /**
+     * Applies {@code target} to a booking the caller has loaded under a row lock in its own transaction,
+     * so no compare-and-set is needed. Only the managed entity changes: a caller moving many bookings has
+     * them written as one JDBC batch of versioned UPDATEs when it flushes. Nothing changes if the slot was lost.
+     * No event is published; the caller publishes one for the whole batch once it has flushed.
+     */
+    public TransitionResult transitionLocked(Booking booking, BookingStatus target, Set<BookingStatus> allowedFrom) {
+        BookingStatus observed = booking.getStatus();
+        if (!allowedFrom.contains(observed) || !observed.canTransitionTo(target)) {
+            return new TransitionResult(false, observed, booking, false);
+        }
+        Instant observedHoldExpiresAt = booking.getHoldExpiresAt();
+        booking.setHoldExpiresAt(availabilityCalendar.holdExpiryFor(target));
+        if (!updateCalendar(booking, target, observedHoldExpiresAt)) {
+            booking.setHoldExpiresAt(observedHoldExpiresAt);
+            return new TransitionResult(false, observed, booking, true);
+        }
+        booking.setStatus(target);
+        return new TransitionResult(true, observed, booking, false);
+    }
+
+    /**
+     * @return false if the booking's slot could not be held for payment
+     */
+    private boolean updateCalendar(Booking booking, BookingStatus target, Instant previousHoldExpiresAt) {
+        switch (target) {
+            case ACCEPTED_AWAITING_PAYMENT -> {
+                return slotGuard.holdForPayment(booking, previousHoldExpiresAt).held();
+            }
+            case CONFIRMED -> availabilityCalendar.confirm(booking);
+            case REJECTED, CANCELLED, PAYMENT_FAILED, EXPIRED -> availabilityCalendar.releaseAfterCommit(booking.getBookingReference());
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param applied        whether this call performed the transition
+     * @param previousStatus the status the transition was (or would have been) applied from
+     * @param booking        the booking as currently stored
+     * @param slotTaken      true if the transition was refused because another booking holds the slot
+     */
+    public record TransitionResult(boolean applied, BookingStatus previousStatus, Booking booking, boolean slotTaken) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingAcceptedEvent; // Ensure you have this
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+
+@Component // If you want Spring to manage it
+@RequiredArgsConstructor
+@Slf4j
+public class AcceptBookingCommandHandler implements BookingCommandHandler<AcceptBookingCommand> {
+
+    // Dependencies
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+
+    @Override
+    public Class<AcceptBookingCommand> commandType() {
+        return AcceptBookingCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(AcceptBookingCommand command) {
+        String bookingReference = command.bookingReference();
+        User provider = userService.getCurrentLoggedInUser();
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new NotFoundException("Booking not found with reference: " + bookingReference));
+
+        if (!booking.getOfferedService().getProvider().getId().equals(provider.getId())) {
+            return Response.builder()
+                    .status(HttpStatus.FORBIDDEN.value())
+                    .message("You are not authorized to accept this booking.")
+                    .build();
+        }
+
+        BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                booking, BookingStatus.ACCEPTED_AWAITING_PAYMENT, EnumSet.of(BookingStatus.PENDING));
+        if (!transition.applied()) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Booking can only be accepted if it's in PENDING state. Current status: " + transition.booking().getStatus())
+                    .build();
+        }
+        Booking updatedBooking = transition.booking();
+
+        log.info("Booking with reference: {} has been accepted by provider: {}", bookingReference, provider.getEmail());
+
+        eventPublisher.publishEvent(new BookingAcceptedEvent(this, updatedBooking));
+        log.info("Published BookingAcceptedEvent for booking ref {}", updatedBooking.getBookingReference());
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking request accepted by provider. Now awaiting payment from customer.")
+                .booking(entityDtoMapper.toBookingDTO(updatedBooking))
+                .build();
+    }
+}
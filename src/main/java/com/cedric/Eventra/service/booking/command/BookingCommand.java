@@ -1,8 +1,24 @@
-// Package: com.cedric.Eventra.command
 package com.cedric.Eventra.service.booking.command;
 
-import com.cedric.Eventra.dto.Response;
+import java.util.List;
 
+/**
+ * An immutable request to change a booking. Commands carry only their parameters;
+ * the matching BookingCommandHandler does the work, and BookingCommandDispatcher routes them.
+ */
 public interface BookingCommand {
-    Response execute();
-}
\ No newline at end of file
+
+    /**
+     * @return The booking this command targets, used to serialise commands per booking;
+     * null for commands that create a new booking or act on several bookings.
+     */
+    String bookingReference();
+
+    /**
+     * @return Every booking this command targets; the dispatcher serialises on all of them.
+     */
+    default List<String> bookingReferences() {
+        String bookingReference = bookingReference();
+        return bookingReference == null ? List.of() : List.of(bookingReference);
+    }
+}
@@ -0,0 +1,94 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Routes immutable BookingCommands to their stateless handlers.
+ *
+ * Commands for the same booking reference run one at a time, in arrival order: each reference hashes
+ * to one of a fixed set of fair locks, held around the handler's whole transaction so the next command
+ * for that booking sees the committed result. Commands for different bookings run in parallel
+ * (unless they happen to share a stripe). Create commands have no reference yet and are never serialised.
+ * Commands on several bookings take all of their stripes, always in ascending stripe order, so two
+ * overlapping multi-booking commands cannot deadlock each other.
+ */
+@Component
+@Slf4j
+public class BookingCommandDispatcher {
+
+    private final Map<Class<?>, BookingCommandHandler<?>> handlers = new HashMap<>();
+    private final ReentrantLock[] stripes;
+
+    public BookingCommandDispatcher(List<BookingCommandHandler<?>> handlers,
+                                    @Value("${booking.command.lock-stripes:256}") int stripeCount) {
+        for (BookingCommandHandler<?> handler : handlers) {
+            BookingCommandHandler<?> previous = this.handlers.put(handler.commandType(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("Multiple handlers registered for " + handler.commandType().getSimpleName());
+            }
+        }
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    public Response dispatch(BookingCommand command) {
+        BookingCommandHandler<BookingCommand> handler = handlerFor(command);
+        List<String> bookingReferences = command.bookingReferences();
+        if (bookingReferences.isEmpty()) {
+            return handler.handle(command);
+        }
+        if (bookingReferences.size() == 1) {
+            ReentrantLock lock = stripes[stripeIndex(bookingReferences.get(0))];
+            lock.lock();
+            try {
+                return handler.handle(command);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (String bookingReference : bookingReferences) {
+            stripeIndexes.add(stripeIndex(bookingReference));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int index : stripeIndexes) {
+                stripes[index].lock();
+                held.add(stripes[index]);
+            }
+            return handler.handle(command);
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BookingCommandHandler<BookingCommand> handlerFor(BookingCommand command) {
+        BookingCommandHandler<?> handler = handlers.get(command.getClass());
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler registered for " + command.getClass().getSimpleName());
+        }
+        return (BookingCommandHandler<BookingCommand>) handler;
+    }
+
+    private int stripeIndex(String bookingReference) {
+        int hash = bookingReference.hashCode();
+        hash ^= (hash >>> 16); // spread high bits, as HashMap does
+        return Math.floorMod(hash, stripes.length);
+    }
+}
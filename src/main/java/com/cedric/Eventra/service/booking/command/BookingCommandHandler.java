@@ -0,0 +1,14 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.Response;
+
+/**
+ * Stateless executor for one BookingCommand type. Implementations are singleton Spring beans and must
+ * keep all per-request state in local variables so they can serve concurrent requests.
+ */
+public interface BookingCommandHandler<C extends BookingCommand> {
+
+    Class<C> commandType();
+
+    Response handle(C command);
+}
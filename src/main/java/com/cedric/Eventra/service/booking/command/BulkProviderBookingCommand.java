@@ -0,0 +1,29 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.enums.BulkBookingAction;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Applies one provider action to several bookings in a single transaction.
+ * @param bookingReferences Distinct references, in the order results are reported.
+ */
+public record BulkProviderBookingCommand(BulkBookingAction action, List<String> bookingReferences) implements BookingCommand {
+
+    public BulkProviderBookingCommand {
+        if (action == null) {
+            throw new IllegalArgumentException("Action is required for BulkProviderBookingCommand.");
+        }
+        if (bookingReferences == null || bookingReferences.isEmpty()
+                || bookingReferences.stream().anyMatch(reference -> reference == null || reference.isBlank())) {
+            throw new IllegalArgumentException("Booking references are required for BulkProviderBookingCommand.");
+        }
+        bookingReferences = List.copyOf(new LinkedHashSet<>(bookingReferences));
+    }
+
+    @Override
+    public String bookingReference() {
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BulkBookingResultDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.BulkBookingAction;
+import com.cedric.Eventra.enums.BulkBookingOutcome;
+import com.cedric.Eventra.events.BookingsUpdatedByProviderEvent;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accepts, rejects or completes many of a provider's bookings in one transaction: one locking IN query
+ * loads them all, the status changes are flushed as one JDBC batch, and one aggregated event goes out.
+ * Bookings that cannot take the action are reported per item and do not fail the others.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BulkProviderBookingCommandHandler implements BookingCommandHandler<BulkProviderBookingCommand> {
+
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Class<BulkProviderBookingCommand> commandType() {
+        return BulkProviderBookingCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(BulkProviderBookingCommand command) {
+        BulkBookingAction action = command.action();
+        User provider = userService.getCurrentLoggedInUser();
+
+        Map<String, Booking> bookingsByReference = new HashMap<>();
+        for (Booking booking : bookingRepository.findAllForUpdateByBookingReferenceIn(command.bookingReferences())) {
+            bookingsByReference.put(booking.getBookingReference(), booking);
+        }
+
+        List<BulkBookingResultDTO> results = new ArrayList<>(command.bookingReferences().size());
+        List<Booking> updated = new ArrayList<>();
+        for (String bookingReference : command.bookingReferences()) {
+            Booking booking = bookingsByReference.get(bookingReference);
+            if (booking == null) {
+                results.add(result(bookingReference, BulkBookingOutcome.NOT_FOUND, null, "Booking not found."));
+                continue;
+            }
+            if (!booking.getOfferedService().getProvider().getId().equals(provider.getId())) {
+                results.add(result(bookingReference, BulkBookingOutcome.FORBIDDEN, null, "You are not authorized to update this booking."));
+                continue;
+            }
+
+            BookingStateMachine.TransitionResult transition =
+                    bookingStateMachine.transitionLocked(booking, action.targetStatus(), action.allowedFrom());
+            if (transition.applied()) {
+                updated.add(booking);
+                results.add(result(bookingReference, BulkBookingOutcome.APPLIED, booking.getStatus(), null));
+            } else if (transition.slotTaken()) {
+                results.add(result(bookingReference, BulkBookingOutcome.SLOT_TAKEN, booking.getStatus(),
+                        "The requested time slot has since been booked by another customer."));
+            } else {
+                results.add(result(bookingReference, BulkBookingOutcome.INVALID_STATE, booking.getStatus(),
+                        "Booking must be in " + action.allowedFrom() + " to " + action.name().toLowerCase()
+                                + ". Current status: " + booking.getStatus()));
+            }
+        }
+
+        // Writes every changed booking now, batched, so optimistic-lock failures surface here as a 409
+        bookingRepository.flush();
+
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new BookingsUpdatedByProviderEvent(this, action.targetStatus(), updated));
+        }
+        log.info("Provider {} applied {} to {} of {} bookings", provider.getEmail(), action, updated.size(), results.size());
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message(updated.size() + " of " + results.size() + " bookings updated.")
+                .bulkResults(results)
+                .build();
+    }
+
+    private static BulkBookingResultDTO result(String bookingReference, BulkBookingOutcome outcome,
+                                               BookingStatus status, String message) {
+        return BulkBookingResultDTO.builder()
+                .bookingReference(bookingReference)
+                .outcome(outcome)
+                .status(status)
+                .message(message)
+                .build();
+    }
+}
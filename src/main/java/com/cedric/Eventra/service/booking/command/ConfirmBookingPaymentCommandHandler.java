@@ -0,0 +1,69 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingConfirmedEvent; // Ensure this event class exists
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+// UserService might not be needed if the actor isn't strictly checked here, but good for logging
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmBookingPaymentCommandHandler implements BookingCommandHandler<ConfirmBookingPaymentCommand> {
+
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+    // private final UserService userService; // Optional: for logging who confirmed, if needed
+
+    @Override
+    public Class<ConfirmBookingPaymentCommand> commandType() {
+        return ConfirmBookingPaymentCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(ConfirmBookingPaymentCommand command) {
+        String bookingReference = command.bookingReference();
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new NotFoundException("Booking not found with reference: " + bookingReference));
+
+        BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                booking, BookingStatus.CONFIRMED, EnumSet.of(BookingStatus.ACCEPTED_AWAITING_PAYMENT));
+        if (!transition.applied()) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Booking can only be confirmed if it's in ACCEPTED_AWAITING_PAYMENT state. Current status: " + transition.booking().getStatus())
+                    .build();
+        }
+        Booking updatedBooking = transition.booking();
+
+        log.info("Payment confirmed for booking reference: {}. Status set to CONFIRMED.", bookingReference);
+
+        eventPublisher.publishEvent(new BookingConfirmedEvent(this, updatedBooking));
+        log.info("Published BookingConfirmedEvent for booking ref {}", updatedBooking.getBookingReference());
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking payment confirmed. Booking is now CONFIRMED.")
+                .booking(entityDtoMapper.toBookingDTO(updatedBooking))
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingCreatedEvent; // Ensure you have this event class
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.service.BookingCodeGenerator;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import com.cedric.Eventra.service.availability.ProviderSlotGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component; // Make command a Spring bean
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor // If using constructor injection for all final fields
+@Slf4j
+public class CreateBookingCommandHandler implements BookingCommandHandler<CreateBookingCommand> {
+
+    // Dependencies
+    private final UserService userService;
+    private final OfferedServiceRepository offeredServiceRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingCodeGenerator bookingCodeGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+    private final ProviderSlotGuard slotGuard;
+
+    @Override
+    public Class<CreateBookingCommand> commandType() {
+        return CreateBookingCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(CreateBookingCommand command) {
+        BookingDTO bookingDetailsDTO = command.bookingDetails();
+        User customer = userService.getCurrentLoggedInUser();
+
+        if (bookingDetailsDTO.getService() == null || bookingDetailsDTO.getService().getId() == null) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Offered service ID is required.")
+                    .build();
+        }
+
+        OfferedService offeredService = offeredServiceRepository.findById(bookingDetailsDTO.getService().getId())
+                .orElseThrow(() -> new NotFoundException("Offered service not found"));
+
+        if (!offeredService.getAvailable()) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Selected service is currently not available.")
+                    .build();
+        }
+
+        if (offeredService.getProvider().getId().equals(customer.getId())) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Service provider cannot book their own service.")
+                    .build();
+        }
+
+        Booking booking = new Booking();
+        booking.setUser(customer);
+        booking.setOfferedService(offeredService);
+        booking.setRequestName(bookingDetailsDTO.getRequestName());
+        booking.setDescription(bookingDetailsDTO.getDescription());
+        booking.setLocation(bookingDetailsDTO.getLocation());
+        booking.setPreferredDate(bookingDetailsDTO.getPreferredDate());
+        booking.setPreferredTime(bookingDetailsDTO.getPreferredTime());
+        booking.setPrice(offeredService.getPrice() != null ? offeredService.getPrice() : java.math.BigDecimal.ZERO);
+        String newBookingReference = bookingCodeGenerator.generateBookingReference();
+        booking.setBookingReference(newBookingReference);
+        // Status and createdAt are set by @PrePersist in Booking entity
+
+        // Locks the provider until this transaction commits, so no other instance can take an overlapping slot meanwhile
+        ProviderAvailabilityCalendar.HoldResult hold = slotGuard.holdForRequest(booking);
+        if (!hold.held()) {
+            return Response.builder()
+                    .status(HttpStatus.CONFLICT.value())
+                    .message("The provider is already booked from " + hold.conflict().start() + " to " + hold.conflict().end()
+                            + ". Please choose another time.")
+                    .build();
+        }
+
+        Booking savedBooking = bookingRepository.save(booking);
+        log.info("Booking created with reference: {} by user: {}", savedBooking.getBookingReference(), customer.getEmail());
+
+        eventPublisher.publishEvent(new BookingCreatedEvent(this, savedBooking));
+        log.info("Published BookingCreatedEvent for booking ref {}", savedBooking.getBookingReference());
+
+        return Response.builder()
+                .status(HttpStatus.CREATED.value())
+                .message("Booking request submitted successfully. Awaiting provider confirmation.")
+                .booking(entityDtoMapper.toBookingDTO(savedBooking))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingCancelledByCustomerEvent; // Ensure this event class exists
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerCancelBookingCommandHandler implements BookingCommandHandler<CustomerCancelBookingCommand> {
+
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+
+    @Override
+    public Class<CustomerCancelBookingCommand> commandType() {
+        return CustomerCancelBookingCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(CustomerCancelBookingCommand command) {
+        String bookingReference = command.bookingReference();
+        User customer = userService.getCurrentLoggedInUser();
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new NotFoundException("Booking not found with reference: " + bookingReference));
+
+        if (!booking.getUser().getId().equals(customer.getId())) {
+            return Response.builder()
+                    .status(HttpStatus.FORBIDDEN.value())
+                    .message("You are not authorized to cancel this booking.")
+                    .build();
+        }
+
+        BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                booking, BookingStatus.CANCELLED, EnumSet.of(BookingStatus.PENDING, BookingStatus.ACCEPTED_AWAITING_PAYMENT));
+        if (!transition.applied()) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Booking can only be cancelled if it's in PENDING or ACCEPTED_AWAITING_PAYMENT state. Current status: " + transition.booking().getStatus())
+                    .build();
+        }
+        Booking updatedBooking = transition.booking();
+
+        log.info("Booking with reference: {} has been cancelled by customer: {}", bookingReference, customer.getEmail());
+
+        eventPublisher.publishEvent(new BookingCancelledByCustomerEvent(this, updatedBooking));
+        log.info("Published BookingCancelledByCustomerEvent for booking ref {}", updatedBooking.getBookingReference());
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking request cancelled by customer.")
+                .booking(entityDtoMapper.toBookingDTO(updatedBooking))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingCompletedEvent; // Ensure this event class exists
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarkBookingAsCompletedCommandHandler implements BookingCommandHandler<MarkBookingAsCompletedCommand> {
+
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+
+    @Override
+    public Class<MarkBookingAsCompletedCommand> commandType() {
+        return MarkBookingAsCompletedCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(MarkBookingAsCompletedCommand command) {
+        String bookingReference = command.bookingReference();
+        User provider = userService.getCurrentLoggedInUser();
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new NotFoundException("Booking not found with reference: " + bookingReference));
+
+        if (!booking.getOfferedService().getProvider().getId().equals(provider.getId())) {
+            return Response.builder()
+                    .status(HttpStatus.FORBIDDEN.value())
+                    .message("You are not authorized to mark this booking as completed.")
+                    .build();
+        }
+
+        BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                booking, BookingStatus.COMPLETED, EnumSet.of(BookingStatus.CONFIRMED));
+        if (!transition.applied()) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Booking can only be marked as completed if it's in CONFIRMED state. Current status: " + transition.booking().getStatus())
+                    .build();
+        }
+        Booking updatedBooking = transition.booking();
+
+        log.info("Booking with reference: {} has been marked as completed by provider: {}", bookingReference, provider.getEmail());
+
+        eventPublisher.publishEvent(new BookingCompletedEvent(this, updatedBooking));
+        log.info("Published BookingCompletedEvent for booking ref {}", updatedBooking.getBookingReference());
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking request marked as completed.")
+                .booking(entityDtoMapper.toBookingDTO(updatedBooking))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.cedric.Eventra.service.booking.command;
+
+/**
+ * Pays for a booking awaiting payment with a simulated card: the payment row and the resulting
+ * CONFIRMED or PAYMENT_FAILED status are written in the handler's one transaction.
+ *
+ * @param dummyCardNumber ending in 0000 always succeeds, in 9999 always declines; anything else succeeds 90% of the time
+ */
+public record ProcessSimulatedPaymentCommand(String bookingReference, String dummyCardNumber) implements BookingCommand {
+
+    public ProcessSimulatedPaymentCommand {
+        if (bookingReference == null || bookingReference.isBlank()) {
+            throw new IllegalArgumentException("Booking reference is required for ProcessSimulatedPaymentCommand.");
+        }
+        if (dummyCardNumber == null || dummyCardNumber.isBlank()) {
+            throw new IllegalArgumentException("Card number is required for ProcessSimulatedPaymentCommand.");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.Payment;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.PaymentStatus;
+import com.cedric.Eventra.events.BookingConfirmedEvent;
+import com.cedric.Eventra.exception.ResourceNotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.PaymentRepository;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessSimulatedPaymentCommandHandler implements BookingCommandHandler<ProcessSimulatedPaymentCommand> {
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+
+    @Override
+    public Class<ProcessSimulatedPaymentCommand> commandType() {
+        return ProcessSimulatedPaymentCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(ProcessSimulatedPaymentCommand command) {
+        String bookingReference = command.bookingReference();
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with reference: " + bookingReference));
+
+        if (booking.getStatus() != BookingStatus.ACCEPTED_AWAITING_PAYMENT) {
+            return notAwaitingPayment(booking);
+        }
+
+        String failureReason = simulateCardPayment(command.dummyCardNumber());
+        Payment payment = Payment.builder()
+                .user(booking.getUser())
+                .bookingReference(bookingReference)
+                .amount(booking.getPrice())
+                .paymentDate(LocalDateTime.now())
+                .transactionId("SIM-" + UUID.randomUUID().toString().toUpperCase())
+                .build();
+
+        if (failureReason == null) {
+            BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                    booking, BookingStatus.CONFIRMED, EnumSet.of(BookingStatus.ACCEPTED_AWAITING_PAYMENT));
+            if (!transition.applied()) {
+                // e.g. the lifecycle job expired the booking between the check above and the update; nothing is charged
+                log.warn("Booking ref {} left {} before its payment could confirm it.", bookingReference, transition.booking().getStatus());
+                return notAwaitingPayment(transition.booking());
+            }
+            Booking confirmedBooking = transition.booking();
+
+            payment.setPaymentStatus(PaymentStatus.SUCCESS);
+            paymentRepository.save(payment);
+            log.info("Simulated payment successful for booking ref: {}. Transaction ID: {}", bookingReference, payment.getTransactionId());
+
+            eventPublisher.publishEvent(new BookingConfirmedEvent(this, confirmedBooking));
+            log.info("Published BookingConfirmedEvent for booking ref {}", bookingReference);
+
+            return Response.builder()
+                    .status(HttpStatus.OK.value())
+                    .message("Simulated payment successful. Booking confirmed.")
+                    .payment(entityDtoMapper.toPaymentDTO(payment))
+                    .booking(entityDtoMapper.toBookingDTO(confirmedBooking))
+                    .build();
+        }
+
+        payment.setPaymentStatus(PaymentStatus.FAILED);
+        payment.setFailureReason(failureReason);
+        paymentRepository.save(payment);
+        log.warn("Simulated payment FAILED for booking ref: {}. Reason: {}", bookingReference, failureReason);
+
+        BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                booking, BookingStatus.PAYMENT_FAILED, EnumSet.of(BookingStatus.ACCEPTED_AWAITING_PAYMENT));
+        if (!transition.applied()) {
+            log.warn("Booking ref {} left in {} after failed payment.", bookingReference, transition.booking().getStatus());
+        }
+
+        return Response.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message("Simulated payment failed: " + failureReason)
+                .payment(entityDtoMapper.toPaymentDTO(payment))
+                .booking(entityDtoMapper.toBookingDTO(transition.booking()))
+                .build();
+    }
+
+    /**
+     * @return null if the simulated card is charged, otherwise the decline reason
+     */
+    private static String simulateCardPayment(String dummyCardNumber) {
+        if (dummyCardNumber.endsWith("0000")) {
+            return null;
+        }
+        if (dummyCardNumber.endsWith("9999")) {
+            return "Simulated payment decline by bank (test card).";
+        }
+        return Math.random() < 0.9 ? null : "Simulated random payment failure.";
+    }
+
+    private Response notAwaitingPayment(Booking booking) {
+        return Response.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message("Booking is not in the correct state (ACCEPTED_AWAITING_PAYMENT) for payment. Current status: " + booking.getStatus())
+                .booking(entityDtoMapper.toBookingDTO(booking))
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingCancelledByProviderEvent; // Ensure this event class exists
+import com.cedric.Eventra.exception.NotFoundException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderCancelBookingCommandHandler implements BookingCommandHandler<ProviderCancelBookingCommand> {
+
+    private final BookingRepository bookingRepository;
+    private final BookingStateMachine bookingStateMachine;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityDtoMapper entityDtoMapper;
+
+    @Override
+    public Class<ProviderCancelBookingCommand> commandType() {
+        return ProviderCancelBookingCommand.class;
+    }
+
+    @Override
+    @Transactional
+    public Response handle(ProviderCancelBookingCommand command) {
+        String bookingReference = command.bookingReference();
+        String reason = command.reason();
+        User provider = userService.getCurrentLoggedInUser();
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new NotFoundException("Booking not found with reference: " + bookingReference));
+
+        if (!booking.getOfferedService().getProvider().getId().equals(provider.getId())) {
+            return Response.builder()
+                    .status(HttpStatus.FORBIDDEN.value())
+                    .message("You are not authorized to cancel this booking.")
+                    .build();
+        }
+
+        BookingStateMachine.TransitionResult transition = bookingStateMachine.transition(
+                booking, BookingStatus.CANCELLED, EnumSet.of(BookingStatus.PENDING, BookingStatus.ACCEPTED_AWAITING_PAYMENT,
+                        BookingStatus.CONFIRMED, BookingStatus.PAYMENT_FAILED));
+        if (!transition.applied()) {
+            return Response.builder()
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .message("Booking cannot be cancelled by provider if already COMPLETED, REJECTED or CANCELLED. Current status: " + transition.booking().getStatus())
+                    .build();
+        }
+        Booking updatedBooking = transition.booking();
+        log.info("Provider {} cancelling booking ref {} with reason: {}", provider.getEmail(), bookingReference, reason);
+
+        eventPublisher.publishEvent(new BookingCancelledByProviderEvent(this, updatedBooking, reason));
+        log.info("Published BookingCancelledByProviderEvent for booking ref {}", updatedBooking.getBookingReference());
+
+        return Response.builder()
+                .status(HttpStatus.OK.value())
+                .message("Booking request cancelled by provider.")
+                .booking(entityDtoMapper.toBookingDTO(updatedBooking))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.cedric.Eventra.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Eviction shared by the caches that sit in front of rows changed inside transactions.
+ */
+public final class CacheEvictions {
+
+    private CacheEvictions() {
+    }
+
+    /**
+     * Invalidates the key now and, if a transaction is active, again once it has completed: a lookup that
+     * runs between the two still reads the pre-commit row and may re-cache it, and the second eviction
+     * drops that copy.
+     */
+    public static <K> void evictNowAndAfterCompletion(Cache<K, ?> cache, K key) {
+        cache.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(key);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in an inbox: the (lastMessageAt, id) of the last room returned.
+ */
+public record ChatInboxCursor(LocalDateTime lastMessageAt, Long chatRoomId) {
+
+    private static final String VERSION = "i1";
+
+    public String encode() {
+        String raw = VERSION + "|" + lastMessageAt + "|" + chatRoomId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChatInboxCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid inbox cursor.");
+            }
+            return new ChatInboxCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid inbox cursor.", e);
+        }
+    }
+}
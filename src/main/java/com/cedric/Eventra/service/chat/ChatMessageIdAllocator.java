@@ -0,0 +1,96 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.entity.IdSequence;
+import com.cedric.Eventra.repository.ChatMessageRepository;
+import com.cedric.Eventra.repository.IdSequenceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out chat message ids before the messages are written, so a message can be broadcast with its id
+ * while its row is still queued in ChatMessageWriteBehind.
+ *
+ * Ids come from the id_sequences row in blocks of block-size: one short locking transaction per block,
+ * then plain memory. Every node reserves its own blocks, so ids are unique across nodes but only roughly
+ * increasing, and the unused rest of a block is skipped when a node stops. History is ordered by
+ * (timestamp, id), never by id alone.
+ */
+@Component
+@Slf4j
+public class ChatMessageIdAllocator {
+
+    static final String SEQUENCE_NAME = "chat_messages";
+
+    private final IdSequenceRepository idSequenceRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private long next;
+    private long limit;
+
+    @Autowired
+    public ChatMessageIdAllocator(IdSequenceRepository idSequenceRepository,
+                                  ChatMessageRepository chatMessageRepository,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${chat.message-id.block-size:1000}") int blockSize) {
+        this.idSequenceRepository = idSequenceRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Reserved in a transaction of its own: the block stays reserved whatever happens to the caller's work
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public synchronized long nextId() {
+        if (next >= limit) {
+            next = reserveBlock();
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    /**
+     * Moves the sequence forward by one block and returns the first id of the block.
+     */
+    private long reserveBlock() {
+        for (int attempt = 1; ; attempt++) {
+            Long first = transactionTemplate.execute(status -> idSequenceRepository.lockByName(SEQUENCE_NAME)
+                    .map(sequence -> {
+                        long start = sequence.getNextValue();
+                        sequence.setNextValue(start + blockSize);
+                        return start;
+                    })
+                    .orElse(null));
+            if (first != null) {
+                return first;
+            }
+            // First block anywhere: start above the messages already written (ids were IDENTITY before);
+            // the loser of a concurrent insert hits the primary key and locks the winner's row instead
+            try {
+                return transactionTemplate.execute(status -> {
+                    long start = chatMessageRepository.findMaxId() + 1;
+                    entityManager.persist(IdSequence.builder().name(SEQUENCE_NAME).nextValue(start + blockSize).build());
+                    entityManager.flush();
+                    return start;
+                });
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                if (attempt >= 3) {
+                    throw e;
+                }
+                log.debug("Sequence {} was created concurrently by another node", SEQUENCE_NAME);
+            }
+        }
+    }
+}
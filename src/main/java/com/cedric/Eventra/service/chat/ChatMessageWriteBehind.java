@@ -0,0 +1,313 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.entity.ChatMessage;
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.repository.ChatRoomRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes chat messages to chat_messages behind the broadcast.
+ *
+ * A sent message already has its id (ChatMessageIdAllocator) and timestamp, so it is broadcast at once and
+ * queued here. Each room has its own bounded queue, written in order by one flush at a time: up to
+ * batch-size messages per transaction, inserted as one JDBC batch, followed by a single UPDATE making the
+ * newest message of the batch the room's last message (lastMessageAt and the inbox preview columns).
+ *
+ * A room is flushed when it has batch-size messages waiting, and every room at least every max-latency-ms,
+ * which bounds how long a sent message can stay unwritten. A full queue makes the sender flush the room
+ * itself, and if the database is down the sender gets an error instead of the queue growing. On shutdown
+ * every queue is flushed, and messages arriving after that are written as they come. Only a crash of the
+ * JVM can lose messages: those sent in the last max-latency-ms.
+ *
+ * A batch that fails is kept and retried on the next flush, so a database outage delays writes without
+ * losing or reordering them. A batch rejected by a constraint (say, a room deleted meanwhile) is retried
+ * one message at a time and the messages that still fail are logged and dropped.
+ */
+@Component
+@Slf4j
+public class ChatMessageWriteBehind {
+
+    private final EntityManager entityManager;
+    private final ChatRoomRepository chatRoomRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final ScheduledExecutorService flusher;
+    private final Map<Long, RoomQueue> rooms = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    @Autowired
+    public ChatMessageWriteBehind(EntityManager entityManager,
+                                  ChatRoomRepository chatRoomRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${chat.write-behind.batch-size:100}") int batchSize,
+                                  @Value("${chat.write-behind.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${chat.write-behind.max-latency-ms:200}") long maxLatencyMillis,
+                                  @Value("${chat.write-behind.flusher-threads:2}") int flusherThreads) {
+        this(entityManager, chatRoomRepository, transactionManager, batchSize, queueCapacity,
+                Duration.ofMillis(maxLatencyMillis), flusher(flusherThreads));
+    }
+
+    ChatMessageWriteBehind(EntityManager entityManager, ChatRoomRepository chatRoomRepository,
+                           PlatformTransactionManager transactionManager, int batchSize, int queueCapacity,
+                           Duration maxLatency, ScheduledExecutorService flusher) {
+        this.entityManager = entityManager;
+        this.chatRoomRepository = chatRoomRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Never part of a caller's transaction: a flush commits or fails on its own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(this.batchSize, queueCapacity);
+        this.flusher = flusher;
+        long latency = Math.max(1, maxLatency.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushAll, latency, latency, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a message for its room. Returns at once unless the room's queue is full, in which case the
+     * caller flushes the room first.
+     *
+     * @throws IllegalStateException if the queue is full and cannot be written (database unavailable)
+     */
+    public void enqueue(PendingMessage message) {
+        Long roomId = message.chatRoomId();
+        boolean flushed = false;
+        while (true) {
+            RoomQueue queue = rooms.computeIfAbsent(roomId, id -> new RoomQueue());
+            int queued;
+            synchronized (queue) {
+                if (queue.removed) {
+                    // Swept as idle just now; take the room's new queue
+                    continue;
+                }
+                queued = queue.pending.size() < queueCapacity ? queue.pending.size() + 1 : 0;
+                if (queued > 0) {
+                    queue.pending.add(message);
+                }
+            }
+            if (queued > 0) {
+                if (closed) {
+                    flushRoom(roomId);
+                } else if (queued % batchSize == 0) {
+                    requestFlush(roomId);
+                }
+                return;
+            }
+            if (flushed) {
+                throw new IllegalStateException("Chat room " + roomId + " cannot take more messages right now");
+            }
+            // Back-pressure: the sender waits for its room's queue to be written
+            flushRoom(roomId);
+            flushed = true;
+        }
+    }
+
+    /**
+     * Writes everything queued for the room. Called before reading the room's history, so a sender always
+     * reads back what they sent.
+     *
+     * @return the number of messages written
+     */
+    public int flushRoom(Long roomId) {
+        RoomQueue queue = rooms.get(roomId);
+        if (queue == null) {
+            return 0;
+        }
+        queue.flushLock.lock();
+        try {
+            int written = 0;
+            while (true) {
+                List<PendingMessage> batch = new ArrayList<>(queue.failedBatch);
+                queue.failedBatch = List.of();
+                synchronized (queue) {
+                    while (batch.size() < batchSize && !queue.pending.isEmpty()) {
+                        batch.add(queue.pending.poll());
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return written;
+                }
+                int batchWritten = write(roomId, batch);
+                if (batchWritten < 0) {
+                    queue.failedBatch = batch;
+                    return written;
+                }
+                written += batchWritten;
+            }
+        } finally {
+            queue.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes every room and forgets rooms with nothing left to write; runs every max-latency-ms.
+     *
+     * @return the number of messages written
+     */
+    public int flushAll() {
+        int written = 0;
+        for (Long roomId : rooms.keySet()) {
+            written += flushRoom(roomId);
+            RoomQueue queue = rooms.get(roomId);
+            if (queue != null && queue.flushLock.tryLock()) {
+                try {
+                    synchronized (queue) {
+                        if (queue.pending.isEmpty() && queue.failedBatch.isEmpty()) {
+                            queue.removed = true;
+                            rooms.remove(roomId, queue);
+                        }
+                    }
+                } finally {
+                    queue.flushLock.unlock();
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Number of messages sent but not yet written, across all rooms.
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (RoomQueue queue : rooms.values()) {
+            synchronized (queue) {
+                pending += queue.pending.size();
+            }
+            pending += queue.failedBatch.size();
+        }
+        return pending;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        closed = true;
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        int written = flushAll();
+        int left = getPendingCount();
+        if (left > 0) {
+            log.error("Chat write-behind stopped with {} messages unwritten", left);
+        } else {
+            log.info("Chat write-behind flushed {} messages on shutdown", written);
+        }
+    }
+
+    private void requestFlush(Long roomId) {
+        try {
+            flusher.execute(() -> flushRoom(roomId));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the final flush writes it
+        }
+    }
+
+    /**
+     * @return the number of messages written, or -1 if the batch should be retried later
+     */
+    private int write(Long roomId, List<PendingMessage> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(roomId, batch));
+            return batch.size();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Chat batch of {} messages for room {} rejected, writing them one by one: {}",
+                    batch.size(), roomId, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Chat batch of {} messages for room {} not written, will retry: {}", batch.size(), roomId, e.getMessage());
+            return -1;
+        }
+        // Written and dropped messages leave the batch, so a retry only carries what is left
+        int written = 0;
+        for (Iterator<PendingMessage> remaining = batch.iterator(); remaining.hasNext(); ) {
+            PendingMessage message = remaining.next();
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(roomId, List.of(message)));
+                written++;
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping chat message {} from user {} in room {}: {}",
+                        message.id(), message.senderId(), roomId, e.getMessage());
+            } catch (RuntimeException e) {
+                // Not the message's fault after all; keep it and the rest for the next flush
+                log.error("Chat message {} for room {} not written, will retry: {}", message.id(), roomId, e.getMessage());
+                return -1;
+            }
+            remaining.remove();
+        }
+        return written;
+    }
+
+    private void insert(Long roomId, List<PendingMessage> batch) {
+        ChatRoom chatRoom = entityManager.getReference(ChatRoom.class, roomId);
+        PendingMessage last = null;
+        for (PendingMessage message : batch) {
+            // Assigned ids and references, so persist neither selects nor flushes: the inserts go out as one batch
+            entityManager.persist(ChatMessage.builder()
+                    .id(message.id())
+                    .chatRoom(chatRoom)
+                    .sender(entityManager.getReference(User.class, message.senderId()))
+                    .content(message.content())
+                    .timestamp(message.timestamp())
+                    .build());
+            if (last == null || message.timestamp().isAfter(last.timestamp())
+                    || (message.timestamp().isEqual(last.timestamp()) && message.id() > last.id())) {
+                last = message;
+            }
+        }
+        // Flushed with the commit; a constraint violation surfaces as DataIntegrityViolationException
+        chatRoomRepository.advanceLastMessage(roomId, last.timestamp(), last.id(), last.senderId(), preview(last.content()));
+    }
+
+    private static String preview(String content) {
+        return content.length() <= ChatRoom.LAST_MESSAGE_PREVIEW_LENGTH
+                ? content : content.substring(0, ChatRoom.LAST_MESSAGE_PREVIEW_LENGTH);
+    }
+
+    private static ScheduledExecutorService flusher(int threads) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "chat-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    /**
+     * A sent message waiting to be written.
+     */
+    public record PendingMessage(Long id, Long chatRoomId, Long senderId, String content, LocalDateTime timestamp) {
+    }
+
+    private static final class RoomQueue {
+        // Guarded by the queue's monitor
+        private final ArrayDeque<PendingMessage> pending = new ArrayDeque<>();
+        private boolean removed;
+        // Held while writing, so a room's batches are written one at a time and in order
+        private final ReentrantLock flushLock = new ReentrantLock();
+        // Guarded by flushLock (read without it only for getPendingCount)
+        private volatile List<PendingMessage> failedBatch = List.of();
+    }
+}
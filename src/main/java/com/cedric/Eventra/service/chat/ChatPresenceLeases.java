@@ -0,0 +1,108 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.entity.ChatPresenceLease;
+import com.cedric.Eventra.repository.ChatPresenceLeaseRepository;
+import com.cedric.Eventra.service.lifecycle.SchedulerLeaseManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This node's share of chat presence in the database, so a node can tell whether a user who left its own
+ * sessions is still in the room through another node before announcing them offline.
+ *
+ * A (room, user) row is written when the user's first session here enters the room, deleted when the last
+ * one leaves, and all rows of the node are renewed in one UPDATE on every presence sweep. Rows of a node that
+ * died lapse after lease-ttl, which must be well above the sweep interval.
+ */
+@Component
+@Slf4j
+public class ChatPresenceLeases {
+
+    private final ChatPresenceLeaseRepository chatPresenceLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Duration leaseTtl;
+    private final Clock clock;
+
+    // "roomId:userId" pairs this node has a row for
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ChatPresenceLeases(ChatPresenceLeaseRepository chatPresenceLeaseRepository,
+                              PlatformTransactionManager transactionManager,
+                              SchedulerLeaseManager schedulerLeaseManager,
+                              @Value("${chat.presence.lease-ttl:PT60S}") Duration leaseTtl) {
+        this(chatPresenceLeaseRepository, transactionManager, schedulerLeaseManager.getOwner(), leaseTtl,
+                Clock.systemDefaultZone());
+    }
+
+    ChatPresenceLeases(ChatPresenceLeaseRepository chatPresenceLeaseRepository, PlatformTransactionManager transactionManager,
+                       String owner, Duration leaseTtl, Clock clock) {
+        this.chatPresenceLeaseRepository = chatPresenceLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = owner;
+        this.leaseTtl = leaseTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that the user has a session in the room on this node; nothing is written if the row exists.
+     */
+    public void present(Long chatRoomId, Long userId) {
+        if (!held.add(key(chatRoomId, userId))) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> chatPresenceLeaseRepository.save(ChatPresenceLease.builder()
+                    .chatRoomId(chatRoomId).userId(userId).owner(owner)
+                    .leaseUntil(LocalDateTime.now(clock).plus(leaseTtl)).build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Presence lease of user {} in chat room {} already stored", userId, chatRoomId);
+        } catch (RuntimeException e) {
+            held.remove(key(chatRoomId, userId)); // Retried on the next broadcast of the user
+            throw e;
+        }
+    }
+
+    /**
+     * Removes this node's row for the user and reports whether the user is still in the room on another node.
+     */
+    public boolean leftHere(Long chatRoomId, Long userId) {
+        if (held.remove(key(chatRoomId, userId))) {
+            transactionTemplate.executeWithoutResult(status ->
+                    chatPresenceLeaseRepository.deleteLease(chatRoomId, userId, owner));
+        }
+        return chatPresenceLeaseRepository.existsElsewhere(chatRoomId, userId, owner, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Extends this node's rows and drops those of nodes that stopped renewing theirs. If some of this node's
+     * own rows were lost (it stalled past lease-ttl), they are all written again as users are next announced.
+     */
+    public void renew() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Integer renewed = transactionTemplate.execute(status -> {
+            chatPresenceLeaseRepository.deleteLapsed(now);
+            return chatPresenceLeaseRepository.renewAll(owner, now.plus(leaseTtl));
+        });
+        if (renewed != null && renewed < held.size()) {
+            log.warn("{} of {} chat presence leases of this node had lapsed, re-announcing", held.size() - renewed, held.size());
+            held.clear();
+        }
+    }
+
+    private static String key(Long chatRoomId, Long userId) {
+        return chatRoomId + ":" + userId;
+    }
+}
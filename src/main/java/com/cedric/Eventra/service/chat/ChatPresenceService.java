@@ -0,0 +1,272 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.dto.ChatPresenceDTO;
+import com.cedric.Eventra.dto.UserPresenceDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Who is in which chat room right now, and who is typing, kept in memory from the STOMP traffic itself.
+ *
+ * JwtStompAuthChannelInterceptor reports every inbound frame: CONNECT opens a session, SUBSCRIBE to a room's
+ * topics makes the session's user present in the room, UNSUBSCRIBE and DISCONNECT (also sent by Spring when
+ * the socket drops) take it out again, and every other frame, including client heartbeats, counts as a sign
+ * of life. Sessions silent for longer than session-ttl (a half-open connection) are swept, and typing lapses
+ * after typing-ttl unless the client repeats it.
+ *
+ * Changes are not sent as they happen: they mark (room, user) pairs dirty, and every broadcast-interval-ms
+ * one message per dirty room goes to /topic/room.{id}.presence with the users' current state. Repeated
+ * typing frames or reconnects within an interval cost nothing on the wire. A new subscription, and every
+ * sweep, re-announces everyone present in the room, so late subscribers (and, with the relay broker,
+ * clients of other nodes, each of which announces its own sessions) catch up without polling.
+ *
+ * Each node only sees its own sessions, so users present here are recorded in ChatPresenceLeases, and a user
+ * whose last session here left is only announced offline if no other node still holds a lease for them.
+ */
+@Component
+@Slf4j
+public class ChatPresenceService {
+
+    private final Supplier<SimpMessageSendingOperations> messagingTemplate;
+    private final ChatPresenceLeases presenceLeases;
+    private final long sessionTtlMillis;
+    private final long typingTtlMillis;
+    private final Clock clock;
+
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, RoomPresence> rooms = new ConcurrentHashMap<>();
+    // Room id -> users whose state changed since the last broadcast
+    private final Map<Long, Set<Long>> dirty = new ConcurrentHashMap<>();
+
+    // The messaging template is defined by the WebSocket configuration, which itself needs this service
+    // (through the channel interceptor), hence resolved on first use
+    @Autowired
+    public ChatPresenceService(ObjectProvider<SimpMessageSendingOperations> messagingTemplate,
+                               ChatPresenceLeases presenceLeases,
+                               @Value("${chat.presence.session-ttl:PT35S}") Duration sessionTtl,
+                               @Value("${chat.presence.typing-ttl:PT6S}") Duration typingTtl) {
+        this(messagingTemplate::getObject, presenceLeases, sessionTtl, typingTtl, Clock.systemDefaultZone());
+    }
+
+    ChatPresenceService(Supplier<SimpMessageSendingOperations> messagingTemplate, ChatPresenceLeases presenceLeases,
+                        Duration sessionTtl, Duration typingTtl, Clock clock) {
+        this.messagingTemplate = messagingTemplate;
+        this.presenceLeases = presenceLeases;
+        this.sessionTtlMillis = sessionTtl.toMillis();
+        this.typingTtlMillis = typingTtl.toMillis();
+        this.clock = clock;
+    }
+
+    public void connected(String sessionId, Long userId) {
+        sessions.put(sessionId, new SessionPresence(userId, clock.millis()));
+    }
+
+    /**
+     * Any inbound frame of the session, heartbeats included.
+     */
+    public void touched(String sessionId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session != null) {
+            session.lastSeenMillis = clock.millis();
+        }
+    }
+
+    public void subscribed(String sessionId, String subscriptionId, Long chatRoomId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session == null || subscriptionId == null) {
+            return;
+        }
+        session.lastSeenMillis = clock.millis();
+        session.subscriptions.put(subscriptionId, chatRoomId);
+        // compute() rather than computeIfAbsent(): broadcast() removes empty rooms under the same key lock
+        rooms.compute(chatRoomId, (id, room) -> {
+            RoomPresence present = room != null ? room : new RoomPresence();
+            present.viewers.put(sessionId, session.userId);
+            return present;
+        });
+        // Tell the new subscriber who is here (and the others that this user arrived)
+        markRoomDirty(chatRoomId);
+    }
+
+    public void unsubscribed(String sessionId, String subscriptionId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session == null || subscriptionId == null) {
+            return;
+        }
+        Long chatRoomId = session.subscriptions.remove(subscriptionId);
+        // A session usually holds both the room topic and its presence topic; it leaves with the last one
+        if (chatRoomId != null && !session.subscriptions.containsValue(chatRoomId)) {
+            leave(sessionId, session.userId, chatRoomId);
+        }
+    }
+
+    public void disconnected(String sessionId) {
+        SessionPresence session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        for (Long chatRoomId : Set.copyOf(session.subscriptions.values())) {
+            leave(sessionId, session.userId, chatRoomId);
+        }
+    }
+
+    /**
+     * Starts or refreshes (typing = true) or ends the user's typing indicator in the room.
+     * Refreshes of an indicator that is already on change nothing that is broadcast.
+     */
+    public void typing(Long chatRoomId, Long userId, boolean typing) {
+        if (typing) {
+            long now = clock.millis();
+            boolean[] started = new boolean[1];
+            rooms.compute(chatRoomId, (id, room) -> {
+                RoomPresence present = room != null ? room : new RoomPresence();
+                started[0] = present.typing.put(userId, now) == null;
+                return present;
+            });
+            if (started[0]) {
+                markDirty(chatRoomId, userId);
+            }
+        } else {
+            RoomPresence room = rooms.get(chatRoomId);
+            if (room != null && room.typing.remove(userId) != null) {
+                markDirty(chatRoomId, userId);
+            }
+        }
+    }
+
+    /**
+     * Sends one update per room with changes since the last run.
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.broadcast-interval-ms:250}")
+    public void broadcast() {
+        for (Long chatRoomId : dirty.keySet()) {
+            Set<Long> userIds = dirty.remove(chatRoomId);
+            if (userIds == null || userIds.isEmpty()) {
+                continue;
+            }
+            RoomPresence room = rooms.get(chatRoomId);
+            List<UserPresenceDTO> users = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                boolean online = isOnlineAnywhere(chatRoomId, userId, room != null && room.viewers.containsValue(userId));
+                boolean typing = room != null && room.typing.containsKey(userId);
+                users.add(UserPresenceDTO.builder().userId(userId).online(online).typing(typing).build());
+            }
+            try {
+                messagingTemplate.get().convertAndSend("/topic/room." + chatRoomId + ".presence",
+                        ChatPresenceDTO.builder().chatRoomId(chatRoomId).users(users).build());
+            } catch (RuntimeException e) {
+                log.warn("Presence update for chat room {} not sent: {}", chatRoomId, e.getMessage());
+            }
+            rooms.computeIfPresent(chatRoomId, (id, present) -> present.isEmpty() ? null : present);
+        }
+    }
+
+    /**
+     * Drops sessions that stopped sending (heartbeats included), lapses stale typing indicators and
+     * re-announces everyone still present.
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-interval-ms:15000}")
+    public void sweep() {
+        try {
+            presenceLeases.renew();
+        } catch (RuntimeException e) {
+            log.warn("Could not renew chat presence leases: {}", e.getMessage());
+        }
+        long now = clock.millis();
+        sessions.forEach((sessionId, session) -> {
+            if (now - session.lastSeenMillis > sessionTtlMillis) {
+                log.debug("Chat session {} of user {} silent for {} ms, dropping its presence",
+                        sessionId, session.userId, now - session.lastSeenMillis);
+                disconnected(sessionId);
+            }
+        });
+        rooms.forEach((chatRoomId, room) -> {
+            room.typing.forEach((userId, since) -> {
+                if (now - since > typingTtlMillis && room.typing.remove(userId, since)) {
+                    markDirty(chatRoomId, userId);
+                }
+            });
+            markRoomDirty(chatRoomId);
+        });
+    }
+
+    /**
+     * @return whether the user has a live session subscribed to the room on this node
+     */
+    public boolean isOnline(Long chatRoomId, Long userId) {
+        RoomPresence room = rooms.get(chatRoomId);
+        return room != null && room.viewers.containsValue(userId);
+    }
+
+    // Offline only if no other node still has a session of the user in the room
+    private boolean isOnlineAnywhere(Long chatRoomId, Long userId, boolean onlineHere) {
+        try {
+            if (onlineHere) {
+                presenceLeases.present(chatRoomId, userId);
+                return true;
+            }
+            return presenceLeases.leftHere(chatRoomId, userId);
+        } catch (RuntimeException e) {
+            log.warn("Chat presence leases unavailable, using this node's sessions only: {}", e.getMessage());
+            return onlineHere;
+        }
+    }
+
+    private void leave(String sessionId, Long userId, Long chatRoomId) {
+        RoomPresence room = rooms.get(chatRoomId);
+        if (room == null) {
+            return;
+        }
+        room.viewers.remove(sessionId);
+        // Another device of the same user may still be here
+        if (!room.viewers.containsValue(userId)) {
+            room.typing.remove(userId);
+        }
+        markDirty(chatRoomId, userId);
+    }
+
+    private void markRoomDirty(Long chatRoomId) {
+        RoomPresence room = rooms.get(chatRoomId);
+        if (room != null) {
+            room.viewers.values().forEach(userId -> markDirty(chatRoomId, userId));
+        }
+    }
+
+    private void markDirty(Long chatRoomId, Long userId) {
+        dirty.computeIfAbsent(chatRoomId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    private static final class SessionPresence {
+        private final Long userId;
+        private final Map<String, Long> subscriptions = new ConcurrentHashMap<>(); // subscription id -> room id
+        private volatile long lastSeenMillis;
+
+        private SessionPresence(Long userId, long lastSeenMillis) {
+            this.userId = userId;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+    }
+
+    private static final class RoomPresence {
+        private final Map<String, Long> viewers = new ConcurrentHashMap<>(); // session id -> user id
+        private final Map<Long, Long> typing = new ConcurrentHashMap<>(); // user id -> last typing frame (millis)
+
+        private boolean isEmpty() {
+            return viewers.isEmpty() && typing.isEmpty();
+        }
+    }
+}
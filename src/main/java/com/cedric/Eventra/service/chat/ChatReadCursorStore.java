@@ -0,0 +1,68 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.entity.ChatReadCursor;
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.repository.ChatReadCursorRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves participants' read cursors (chat_read_cursors) forward.
+ */
+@Component
+@Slf4j
+public class ChatReadCursorStore {
+
+    private final ChatReadCursorRepository chatReadCursorRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChatReadCursorStore(ChatReadCursorRepository chatReadCursorRepository, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this.chatReadCursorRepository = chatReadCursorRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Marks everything up to and including the message at (readAt, messageId) as read by the user.
+     * Positions behind the current cursor are ignored.
+     */
+    public void markRead(Long chatRoomId, Long userId, LocalDateTime readAt, Long messageId) {
+        for (int attempt = 1; ; attempt++) {
+            Boolean moved = transactionTemplate.execute(status ->
+                    chatReadCursorRepository.advance(chatRoomId, userId, readAt, messageId) == 1
+                            || chatReadCursorRepository.findByChatRoomIdAndUserId(chatRoomId, userId).isPresent());
+            if (Boolean.TRUE.equals(moved)) {
+                return;
+            }
+            // First read in this room: insert the row; the loser of a concurrent insert (another device of
+            // the same user) hits the unique key and advances the winner's row instead
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.persist(ChatReadCursor.builder()
+                            .chatRoom(entityManager.getReference(ChatRoom.class, chatRoomId))
+                            .user(entityManager.getReference(User.class, userId))
+                            .lastReadAt(readAt)
+                            .lastReadMessageId(messageId)
+                            .build());
+                    entityManager.flush();
+                });
+                return;
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                if (attempt >= 2) {
+                    throw e;
+                }
+                log.debug("Read cursor of user {} in chat room {} was created concurrently", userId, chatRoomId);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.repository.ChatRoomRepository;
+import com.cedric.Eventra.service.cache.CacheEvictions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caches the two participant ids of each chat room, so STOMP SUBSCRIBE checks and every message sent
+ * are authorized without a query. Loaded on the first SUBSCRIBE to the room (or first send), invalidated
+ * by ChatRoomMembershipListener when a room is updated or deleted, with the TTL as a safety net.
+ * Rooms that do not exist are not cached.
+ */
+@Component
+@Slf4j
+public class ChatRoomMembershipCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final Cache<Long, Participants> cache;
+
+    public ChatRoomMembershipCache(ChatRoomRepository chatRoomRepository,
+                                   @Value("${chat.membership-cache.ttl:30m}") Duration ttl,
+                                   @Value("${chat.membership-cache.max-size:50000}") long maxSize) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * @return the room's participants, or empty if there is no such room
+     */
+    public Optional<Participants> participantsOf(Long chatRoomId) {
+        return Optional.ofNullable(cache.get(chatRoomId, id -> chatRoomRepository.findParticipantIds(id)
+                .map(ids -> new Participants(ids.getParticipant1Id(), ids.getParticipant2Id()))
+                .orElse(null)));
+    }
+
+    public boolean isParticipant(Long chatRoomId, Long userId) {
+        return participantsOf(chatRoomId).map(participants -> participants.includes(userId)).orElse(false);
+    }
+
+    /**
+     * Drops the room's participants; called from ChatRoomMembershipListener inside the changing transaction.
+     */
+    public void invalidate(Long chatRoomId) {
+        CacheEvictions.evictNowAndAfterCompletion(cache, chatRoomId);
+        log.debug("Invalidated cached participants of chat room {}", chatRoomId);
+    }
+
+    public record Participants(Long participant1Id, Long participant2Id) {
+
+        public boolean includes(Long userId) {
+            return userId != null && (userId.equals(participant1Id) || userId.equals(participant2Id));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.entity.ChatRoom;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that invalidates a room's cached participants when the room row changes or goes away.
+ * Bulk updates (lastMessageAt from ChatMessageWriteBehind) bypass it, which is what we want: they never
+ * change membership. The cache is resolved lazily, as in ProviderSearchIndexListener.
+ */
+public class ChatRoomMembershipListener {
+
+    private final ObjectProvider<ChatRoomMembershipCache> membershipCache;
+
+    public ChatRoomMembershipListener(ObjectProvider<ChatRoomMembershipCache> membershipCache) {
+        this.membershipCache = membershipCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChanged(ChatRoom chatRoom) {
+        if (chatRoom.getId() != null) {
+            membershipCache.ifAvailable(cache -> cache.invalidate(chatRoom.getId()));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.cedric.Eventra.service.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Resolves Australian postcodes to approximate coordinates from the bundled postcode table.
+ *
+ * Postcodes missing from the table fall back to the numerically closest listed postcode in the
+ * same two-digit block (e.g. 2151 -> 2150), since Australian postcodes are allocated roughly by area.
+ */
+@Component
+@Slf4j
+public class PostcodeLocator {
+
+    public record GeoPoint(double latitude, double longitude) {
+    }
+
+    private final NavigableMap<Integer, GeoPoint> pointsByPostcode = new TreeMap<>();
+
+    public PostcodeLocator(@Value("${geo.postcode-table:geo/au-postcodes.csv}") String postcodeTable) throws IOException {
+        ClassPathResource resource = new ClassPathResource(postcodeTable);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                pointsByPostcode.put(Integer.parseInt(columns[0].trim()),
+                        new GeoPoint(Double.parseDouble(columns[1].trim()), Double.parseDouble(columns[2].trim())));
+            }
+        }
+        log.info("Loaded {} postcode locations from {}", pointsByPostcode.size(), postcodeTable);
+    }
+
+    /**
+     * @param postcode A four-digit Australian postcode.
+     * @return The postcode's approximate location, or empty if it is malformed or no nearby postcode is listed.
+     */
+    public Optional<GeoPoint> locate(String postcode) {
+        if (postcode == null || !postcode.trim().matches("\\d{4}")) {
+            return Optional.empty();
+        }
+        int code = Integer.parseInt(postcode.trim());
+        GeoPoint exact = pointsByPostcode.get(code);
+        if (exact != null) {
+            return Optional.of(exact);
+        }
+
+        int block = code / 100;
+        Map.Entry<Integer, GeoPoint> lower = pointsByPostcode.floorEntry(code);
+        Map.Entry<Integer, GeoPoint> higher = pointsByPostcode.ceilingEntry(code);
+        if (lower != null && lower.getKey() / 100 != block) {
+            lower = null;
+        }
+        if (higher != null && higher.getKey() / 100 != block) {
+            higher = null;
+        }
+        if (lower == null && higher == null) {
+            return Optional.empty();
+        }
+        if (lower == null) {
+            return Optional.of(higher.getValue());
+        }
+        if (higher == null) {
+            return Optional.of(lower.getValue());
+        }
+        return Optional.of(code - lower.getKey() <= higher.getKey() - code ? lower.getValue() : higher.getValue());
+    }
+}
@@ -0,0 +1,213 @@
+package com.cedric.Eventra.service.geo;
+
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index of service providers, keyed by the coordinates of their postcode.
+ *
+ * Providers are bucketed into a uniform latitude/longitude grid; a radius query only visits the
+ * cells overlapping the search circle's bounding box and ranks candidates by great-circle distance.
+ * Rebuilt from the database on startup and kept in sync by ProviderSearchIndexListener.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderGeoIndex {
+
+    private static final double CELL_SIZE_DEGREES = 0.25;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private final ServiceProviderProfileRepository serviceProviderProfileRepository;
+    private final PostcodeLocator postcodeLocator;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProviderLocation> providers = new HashMap<>();
+    private final Map<Long, List<ProviderLocation>> cells = new HashMap<>();
+
+    public record NearbyProvider(Long providerId, double distanceKm) {
+    }
+
+    private record ProviderLocation(Long providerId, double latitude, double longitude,
+                                    ServiceCategory category, boolean active) {
+    }
+
+    // --- Maintenance ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int unlocated = 0;
+        lock.writeLock().lock();
+        try {
+            providers.clear();
+            cells.clear();
+            for (ServiceProviderProfileRepository.SearchDocumentRow row : serviceProviderProfileRepository.findSearchDocumentRows()) {
+                if (!put(row.getProviderId(), row.getPostcode(), row.getServiceCategory(), row.getIsActive(), row.getRole())) {
+                    unlocated++;
+                }
+            }
+            log.info("Provider geo index built: {} providers located, {} without a known postcode in {} ms",
+                    providers.size(), unlocated, System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertProvider(Long providerId, String postcode, ServiceCategory category, Boolean isActive, UserRole role) {
+        lock.writeLock().lock();
+        try {
+            remove(providerId);
+            put(providerId, postcode, category, isActive, role);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateProviderStatus(Long providerId, Boolean isActive, UserRole role) {
+        lock.writeLock().lock();
+        try {
+            ProviderLocation existing = remove(providerId);
+            if (existing != null) {
+                add(new ProviderLocation(providerId, existing.latitude(), existing.longitude(),
+                        existing.category(), isActiveProvider(isActive, role)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProvider(Long providerId) {
+        lock.writeLock().lock();
+        try {
+            remove(providerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Query ---
+
+    /**
+     * Active providers within {@code radiusKm} of a point, nearest first.
+     * @param origin Search centre.
+     * @param radiusKm Search radius in kilometres.
+     * @param category Optional category filter; null matches every category.
+     * @param limit Maximum number of providers to return (nearest-k).
+     */
+    public List<NearbyProvider> findNearby(PostcodeLocator.GeoPoint origin, double radiusKm, ServiceCategory category, int limit) {
+        double latitudeSpan = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double cosLatitude = Math.max(Math.cos(Math.toRadians(origin.latitude())), 0.01);
+        double longitudeSpan = Math.min(radiusKm / (KM_PER_DEGREE_LATITUDE * cosLatitude), 180.0);
+
+        int minRow = cellIndex(origin.latitude() - latitudeSpan);
+        int maxRow = cellIndex(origin.latitude() + latitudeSpan);
+        int minColumn = cellIndex(origin.longitude() - longitudeSpan);
+        int maxColumn = cellIndex(origin.longitude() + longitudeSpan);
+
+        // Max-heap on distance holding the k nearest seen so far
+        PriorityQueue<NearbyProvider> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble(NearbyProvider::distanceKm).reversed().thenComparing(NearbyProvider::providerId, Comparator.reverseOrder()));
+
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    List<ProviderLocation> cell = cells.get(cellKey(row, column));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (ProviderLocation location : cell) {
+                        if (!location.active() || (category != null && location.category() != category)) {
+                            continue;
+                        }
+                        double distance = distanceKm(origin.latitude(), origin.longitude(), location.latitude(), location.longitude());
+                        if (distance > radiusKm) {
+                            continue;
+                        }
+                        nearest.offer(new NearbyProvider(location.providerId(), distance));
+                        if (nearest.size() > limit) {
+                            nearest.poll();
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<NearbyProvider> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(NearbyProvider::distanceKm).thenComparing(NearbyProvider::providerId));
+        return result;
+    }
+
+    // Haversine great-circle distance
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // --- Grid helpers (callers hold the write lock) ---
+
+    private boolean put(Long providerId, String postcode, ServiceCategory category, Boolean isActive, UserRole role) {
+        Optional<PostcodeLocator.GeoPoint> point = postcodeLocator.locate(postcode);
+        if (point.isEmpty()) {
+            log.warn("Provider {} left out of proximity search: no location known for postcode '{}'", providerId, postcode);
+            return false;
+        }
+        add(new ProviderLocation(providerId, point.get().latitude(), point.get().longitude(), category, isActiveProvider(isActive, role)));
+        return true;
+    }
+
+    private void add(ProviderLocation location) {
+        providers.put(location.providerId(), location);
+        cells.computeIfAbsent(cellKey(cellIndex(location.latitude()), cellIndex(location.longitude())), key -> new ArrayList<>())
+                .add(location);
+    }
+
+    private ProviderLocation remove(Long providerId) {
+        ProviderLocation existing = providers.remove(providerId);
+        if (existing != null) {
+            long key = cellKey(cellIndex(existing.latitude()), cellIndex(existing.longitude()));
+            List<ProviderLocation> cell = cells.get(key);
+            if (cell != null) {
+                cell.removeIf(location -> location.providerId().equals(providerId));
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        return existing;
+    }
+
+    private static boolean isActiveProvider(Boolean isActive, UserRole role) {
+        return Boolean.TRUE.equals(isActive) && role == UserRole.SERVICE_PROVIDER;
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
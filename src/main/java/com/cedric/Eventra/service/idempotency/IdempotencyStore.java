@@ -0,0 +1,158 @@
+package com.cedric.Eventra.service.idempotency;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.exception.BadRequestException;
+import com.cedric.Eventra.exception.IdempotencyKeyReuseException;
+import com.cedric.Eventra.exception.IdempotentRequestInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+Bounded, time-limited store of responses to non-idempotent requests, keyed by the caller's
+Idempotency-Key header.
+
+The first request with a key runs the action; a retry with the same key and the same request gets the
+stored Response back instead of creating another booking or payment. A retry that arrives while the
+first attempt is still running waits for it (up to in-flight-wait) rather than running concurrently.
+Keys are scoped to the authenticated principal, so two users can never replay each other's responses.
+A retry is recognised by the SHA-256 digest of the operation and the request serialised as canonical JSON
+(properties and map keys sorted); the request itself, card details included, is not kept.
+Only successful and client-error responses are stored; a server error or exception clears the key
+so the client's retry runs the action again.
+The store is per instance: a retry routed to another node is not deduplicated by it.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final ObjectMapper CANONICAL_JSON = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final Cache<String, Entry> cache;
+    private final Duration inFlightWait;
+
+    public IdempotencyStore(@Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.max-size:100000}") long maxSize,
+                            @Value("${idempotency.in-flight-wait:10s}") Duration inFlightWait) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.inFlightWait = inFlightWait;
+    }
+
+    /**
+     * Runs the action once per key, replaying its stored Response for retries.
+     *
+     * @param idempotencyKey The client's Idempotency-Key header; without one the action simply runs.
+     * @param operation      Identifies the endpoint (and path variables) the key was sent to.
+     * @param request        The request body; a retry must carry an equal body.
+     * @param action         The non-idempotent work to perform.
+     * @return The Response of the first successful attempt for this key.
+     */
+    public Response execute(String idempotencyKey, String operation, Object request, Supplier<Response> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        String key = currentPrincipal() + "|" + idempotencyKey;
+        byte[] fingerprint = fingerprint(operation, request);
+
+        while (true) {
+            Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = cache.asMap().putIfAbsent(key, entry);
+            if (existing == null) {
+                return runAndStore(key, entry, action);
+            }
+            if (!MessageDigest.isEqual(existing.fingerprint(), fingerprint)) {
+                throw new IdempotencyKeyReuseException(HEADER + " was already used for a different request.");
+            }
+            Response replayed = await(existing);
+            if (replayed != null) {
+                log.debug("Replaying stored response for {} on {}", idempotencyKey, operation);
+                return replayed;
+            }
+            // The earlier attempt failed and released the key; try to claim it ourselves
+        }
+    }
+
+    private Response runAndStore(String key, Entry entry, Supplier<Response> action) {
+        try {
+            Response response = action.get();
+            if (response.getStatus() >= 500) {
+                cache.asMap().remove(key, entry);
+            }
+            entry.result().complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(key, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for an in-flight attempt; returns null if it did not produce a replayable response.
+     */
+    private Response await(Entry existing) {
+        try {
+            Response response = existing.result().get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+            return response.getStatus() >= 500 ? null : response;
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException("A request with this " + HEADER + " is still being processed. Please retry shortly.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException("Interrupted while waiting for a request with the same " + HEADER + ".");
+        }
+    }
+
+    static byte[] fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0); // Separates the operation from the body
+            digest.update(CANONICAL_JSON.writeValueAsBytes(request));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint the request for " + operation, e);
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    private record Entry(byte[] fingerprint, CompletableFuture<Response> result) {
+    }
+}
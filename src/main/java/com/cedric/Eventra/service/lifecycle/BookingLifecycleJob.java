@@ -0,0 +1,205 @@
+package com.cedric.Eventra.service.lifecycle;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.events.BookingRemindersDueEvent;
+import com.cedric.Eventra.events.BookingsAutoCompletedEvent;
+import com.cedric.Eventra.events.BookingsExpiredEvent;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves bookings along by date, without anyone calling an endpoint:
+ * - CONFIRMED bookings coming up within the reminder lead get one BOOKING_UPCOMING_REMINDER;
+ * - PENDING / ACCEPTED_AWAITING_PAYMENT bookings whose date has passed become EXPIRED and free their slot;
+ * - CONFIRMED bookings past their date plus the grace period become COMPLETED.
+ *
+ * Each phase works in chunks: lock up to chunk-size due ids on the (status, preferred_date) index, apply one
+ * bulk UPDATE, load the chunk with its participants and publish a single batch event in the same transaction,
+ * so the booking outbox records it together with the change. Updated
+ * rows leave the scanned range, so the next chunk is the same query again and memory stays at one chunk.
+ * Only the node holding the lease runs a pass; the lease is renewed between chunks.
+ */
+@Component
+@Slf4j
+public class BookingLifecycleJob {
+
+    static final String LEASE_NAME = "booking-lifecycle";
+
+    private static final Set<BookingStatus> UNSETTLED =
+            EnumSet.of(BookingStatus.PENDING, BookingStatus.ACCEPTED_AWAITING_PAYMENT);
+    private static final Set<BookingStatus> CONFIRMED = EnumSet.of(BookingStatus.CONFIRMED);
+
+    private final BookingRepository bookingRepository;
+    private final SchedulerLeaseManager schedulerLeaseManager;
+    private final ProviderAvailabilityCalendar availabilityCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration leaseTtl;
+    private final int reminderLeadDays;
+    private final int completionGraceDays;
+    private final Clock clock;
+
+    @Autowired
+    public BookingLifecycleJob(BookingRepository bookingRepository,
+                               SchedulerLeaseManager schedulerLeaseManager,
+                               ProviderAvailabilityCalendar availabilityCalendar,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${booking.lifecycle.chunk-size:500}") int chunkSize,
+                               @Value("${booking.lifecycle.lease-ttl:PT10M}") Duration leaseTtl,
+                               @Value("${booking.lifecycle.reminder-lead-days:1}") int reminderLeadDays,
+                               @Value("${booking.lifecycle.completion-grace-days:1}") int completionGraceDays) {
+        this(bookingRepository, schedulerLeaseManager, availabilityCalendar, eventPublisher,
+                transactionManager, chunkSize, leaseTtl, reminderLeadDays, completionGraceDays, Clock.systemDefaultZone());
+    }
+
+    BookingLifecycleJob(BookingRepository bookingRepository, SchedulerLeaseManager schedulerLeaseManager,
+                        ProviderAvailabilityCalendar availabilityCalendar,
+                        ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                        int chunkSize, Duration leaseTtl, int reminderLeadDays, int completionGraceDays, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.schedulerLeaseManager = schedulerLeaseManager;
+        this.availabilityCalendar = availabilityCalendar;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.leaseTtl = leaseTtl;
+        this.reminderLeadDays = Math.max(0, reminderLeadDays);
+        this.completionGraceDays = Math.max(0, completionGraceDays);
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.lifecycle.interval-ms:300000}",
+            initialDelayString = "${booking.lifecycle.initial-delay-ms:60000}")
+    public void runScheduled() {
+        run();
+    }
+
+    /**
+     * One pass over all due bookings, if this node gets the lease. If the lease is lost part way, the pass
+     * stops there: the node that took it over runs the remaining chunks and phases.
+     */
+    public RunSummary run() {
+        if (!schedulerLeaseManager.tryAcquire(LEASE_NAME, leaseTtl)) {
+            log.debug("Booking lifecycle pass skipped, lease held by another node.");
+            return RunSummary.SKIPPED;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            LocalDate today = LocalDate.now(clock);
+            Phase reminded = drain(() -> remindChunk(today));
+            Phase expired = reminded.leaseLost() ? Phase.STOPPED : drain(() -> expireChunk(today));
+            Phase completed = expired.leaseLost() ? Phase.STOPPED : drain(() -> completeChunk(today));
+            boolean leaseLost = completed.leaseLost();
+            if (leaseLost) {
+                log.warn("Booking lifecycle pass stopped, lease lost after {} reminded, {} expired, {} completed in {} ms",
+                        reminded.processed(), expired.processed(), completed.processed(), System.currentTimeMillis() - start);
+            } else {
+                log.info("Booking lifecycle pass: {} reminded, {} expired, {} completed in {} ms",
+                        reminded.processed(), expired.processed(), completed.processed(), System.currentTimeMillis() - start);
+            }
+            return new RunSummary(true, reminded.processed(), expired.processed(), completed.processed(), leaseLost);
+        } finally {
+            schedulerLeaseManager.release(LEASE_NAME);
+        }
+    }
+
+    /**
+     * Repeats a chunk until it comes back short, renewing the lease before each further chunk and stopping
+     * if it could not be renewed.
+     */
+    private Phase drain(IntSupplier chunk) {
+        int total = 0;
+        while (true) {
+            int processed = chunk.getAsInt();
+            total += processed;
+            if (processed < chunkSize) {
+                return new Phase(total, false);
+            }
+            if (!schedulerLeaseManager.tryAcquire(LEASE_NAME, leaseTtl)) {
+                return new Phase(total, true);
+            }
+        }
+    }
+
+    private int remindChunk(LocalDate today) {
+        List<Booking> bookings = transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.lockIdsDueForReminder(BookingStatus.CONFIRMED,
+                    today, today.plusDays(reminderLeadDays + 1L), Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                return List.<Booking>of();
+            }
+            bookingRepository.markReminderSent(ids, LocalDateTime.now(clock));
+            List<Booking> reminded = bookingRepository.findByIdIn(ids);
+            eventPublisher.publishEvent(new BookingRemindersDueEvent(this, reminded));
+            return reminded;
+        });
+        return bookings.size();
+    }
+
+    private int expireChunk(LocalDate today) {
+        List<Booking> bookings = transitionChunk(UNSETTLED, today, BookingStatus.EXPIRED,
+                expired -> new BookingsExpiredEvent(this, expired));
+        bookings.forEach(booking -> availabilityCalendar.release(booking.getBookingReference()));
+        return bookings.size();
+    }
+
+    private int completeChunk(LocalDate today) {
+        return transitionChunk(CONFIRMED, today.minusDays(completionGraceDays), BookingStatus.COMPLETED,
+                completed -> new BookingsAutoCompletedEvent(this, completed)).size();
+    }
+
+    /**
+     * Locks one chunk of bookings in {@code from} booked before {@code before}, moves them to {@code to} and
+     * publishes {@code event} for them before commit.
+     * The rows stay locked until commit, so concurrent status changes wait and then fail their compare-and-set.
+     */
+    private List<Booking> transitionChunk(Set<BookingStatus> from, LocalDate before, BookingStatus to,
+                                          Function<List<Booking>, ApplicationEvent> event) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.lockIdsDueBefore(from, before, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                return List.<Booking>of();
+            }
+            bookingRepository.transitionAll(ids, from, to);
+            List<Booking> bookings = bookingRepository.findByIdIn(ids);
+            eventPublisher.publishEvent(event.apply(bookings));
+            return bookings;
+        });
+    }
+
+    /**
+     * @param ran whether this node held the lease and ran the pass
+     * @param leaseLost whether the pass stopped early because the lease could not be renewed
+     */
+    public record RunSummary(boolean ran, int reminded, int expired, int completed, boolean leaseLost) {
+        static final RunSummary SKIPPED = new RunSummary(false, 0, 0, 0, false);
+    }
+
+    // A phase after the one that lost the lease is STOPPED, so the loss carries through to the summary
+    private record Phase(int processed, boolean leaseLost) {
+        static final Phase STOPPED = new Phase(0, true);
+    }
+}
@@ -0,0 +1,90 @@
+package com.cedric.Eventra.service.lifecycle;
+
+import com.cedric.Eventra.entity.SchedulerLease;
+import com.cedric.Eventra.repository.SchedulerLeaseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database-backed leader lease for scheduled jobs that must run on one node at a time.
+ *
+ * Each node ticks its own scheduler; only the node that wins the lease row does the work. The holder
+ * renews the lease between chunks, and if it dies the lease simply lapses and another node takes over on
+ * its next tick. Lease lengths should be well above the clock skew between nodes.
+ */
+@Component
+@Slf4j
+public class SchedulerLeaseManager {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final String owner;
+
+    @Autowired
+    public SchedulerLeaseManager(SchedulerLeaseRepository schedulerLeaseRepository, EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager) {
+        this(schedulerLeaseRepository, entityManager, transactionManager, Clock.systemDefaultZone(),
+                ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    SchedulerLeaseManager(SchedulerLeaseRepository schedulerLeaseRepository, EntityManager entityManager,
+                          PlatformTransactionManager transactionManager, Clock clock, String owner) {
+        this.schedulerLeaseRepository = schedulerLeaseRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.owner = owner;
+    }
+
+    /**
+     * Takes or renews the lease on {@code name} for {@code ttl}.
+     * @return true if this node now holds the lease
+     */
+    public boolean tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime leaseUntil = now.plus(ttl);
+        Boolean acquired = transactionTemplate.execute(status ->
+                schedulerLeaseRepository.acquire(name, owner, now, leaseUntil) == 1);
+        if (Boolean.TRUE.equals(acquired)) {
+            return true;
+        }
+        if (schedulerLeaseRepository.existsById(name)) {
+            return false;
+        }
+        // First run of this job anywhere: insert the row (persist, never merge over another node's lease);
+        // the loser of a concurrent insert hits the primary key and backs off
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(SchedulerLease.builder().name(name).owner(owner).leaseUntil(leaseUntil).build());
+                entityManager.flush();
+            });
+            return true;
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            log.debug("Lease {} was created concurrently by another node", name);
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status ->
+                schedulerLeaseRepository.release(name, owner, LocalDateTime.now(clock)));
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
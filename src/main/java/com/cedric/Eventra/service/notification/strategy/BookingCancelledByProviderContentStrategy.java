@@ -2,19 +2,11 @@ package com.cedric.Eventra.service.notification.strategy;
 
 import com.cedric.Eventra.entity.Booking;
 import com.cedric.Eventra.entity.User;
-import com.cedric.Eventra.events.BookingCancelledByProviderEvent; // Assuming event carries reason
 import org.springframework.stereotype.Component;
 
 @Component("BOOKING_CANCELLED_BY_PROVIDER_STRATEGY")
 public class BookingCancelledByProviderContentStrategy implements NotificationContentStrategy {
 
-    private String reason; // To hold reason if passed contextually
-
-    public void setContext(BookingCancelledByProviderEvent event) {
-        this.reason = event.getReason();
-    }
-
-
     @Override
     public String generateSubject(Booking booking, User recipient /* customer */) {
         if (booking == null || booking.getOfferedService() == null) return "Booking Cancelled by Provider";
@@ -23,6 +15,11 @@ public class BookingCancelledByProviderContentStrategy implements NotificationCo
 
     @Override
     public String generateBody(Booking booking, User recipient /* customer */) {
+        return generateBody(booking, recipient, null);
+    }
+
+    // The reason travels with the call rather than on this singleton, so concurrent cancellations can't mix them up
+    public String generateBody(Booking booking, User recipient /* customer */, String reason) {
         if (booking == null || booking.getOfferedService() == null || recipient == null) {
             return "A booking you made has been cancelled by the provider. Please log in for details.";
         }
@@ -32,11 +29,9 @@ public class BookingCancelledByProviderContentStrategy implements NotificationCo
                 booking.getOfferedService().getName(),
                 booking.getBookingReference()
         );
-        if (this.reason != null && !this.reason.isEmpty()) {
-            bodyStr += "\nReason: " + this.reason;
+        if (reason != null && !reason.isEmpty()) {
+            bodyStr += "\nReason: " + reason;
         }
-        // Reset reason for next use if this strategy instance is reused (though Spring beans are singletons)
-        this.reason = null;
         return bodyStr;
     }
 }
\ No newline at end of file
@@ -19,7 +19,7 @@ public class BookingCompletedContentStrategy implements NotificationContentStrat
             return "Your booking has been marked as completed. We hope you enjoyed the service!";
         }
         return String.format(
-                "Hello %s,\n\nYour booking for '%s' (Ref: %s) has been marked as completed by the provider.\nWe hope you enjoyed the service! Please consider leaving a review.",
+                "Hello %s,\n\nYour booking for '%s' (Ref: %s) has been marked as completed.\nWe hope you enjoyed the service! Please consider leaving a review.",
                 recipient.getFirstName(),
                 booking.getOfferedService().getName(),
                 booking.getBookingReference()
@@ -0,0 +1,37 @@
+package com.cedric.Eventra.service.notification.strategy;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import org.springframework.stereotype.Component;
+
+@Component("BOOKING_EXPIRED_STRATEGY")
+public class BookingExpiredContentStrategy implements NotificationContentStrategy {
+
+    @Override
+    public String generateSubject(Booking booking, User recipient) {
+        if (booking == null || booking.getOfferedService() == null) return "Booking Expired";
+        return "Booking Expired: " + booking.getOfferedService().getName() + " (Ref: " + booking.getBookingReference() + ")";
+    }
+
+    @Override
+    public String generateBody(Booking booking, User recipient) {
+        if (booking == null || booking.getOfferedService() == null || recipient == null) {
+            return "A booking has expired. Please log in for details.";
+        }
+        if (recipient.getRole() == UserRole.SERVICE_PROVIDER) {
+            return String.format(
+                    "Hello %s,\n\nThe booking request for '%s' (Ref: %s) has expired because its date passed before it was confirmed.",
+                    recipient.getFirstName(),
+                    booking.getOfferedService().getName(),
+                    booking.getBookingReference()
+            );
+        }
+        return String.format(
+                "Hello %s,\n\nYour booking for '%s' (Ref: %s) has expired because its date passed before it was confirmed.\nYou can send a new request for another date at any time.",
+                recipient.getFirstName(),
+                booking.getOfferedService().getName(),
+                booking.getBookingReference()
+        );
+    }
+}
@@ -0,0 +1,44 @@
+package com.cedric.Eventra.service.notification.strategy;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import org.springframework.stereotype.Component;
+
+@Component("BOOKING_UPCOMING_REMINDER_STRATEGY")
+public class BookingUpcomingReminderContentStrategy implements NotificationContentStrategy {
+
+    @Override
+    public String generateSubject(Booking booking, User recipient) {
+        if (booking == null || booking.getOfferedService() == null) return "Upcoming Booking Reminder";
+        return "Reminder: " + booking.getOfferedService().getName() + " on " + booking.getPreferredDate()
+                + " (Ref: " + booking.getBookingReference() + ")";
+    }
+
+    @Override
+    public String generateBody(Booking booking, User recipient) {
+        if (booking == null || booking.getOfferedService() == null || recipient == null) {
+            return "You have an upcoming booking. Please log in for details.";
+        }
+        String when = booking.getPreferredDate() + (booking.getPreferredTime() != null ? " at " + booking.getPreferredTime() : "");
+        if (recipient.getRole() == UserRole.SERVICE_PROVIDER) {
+            User customer = booking.getUser();
+            return String.format(
+                    "Hello %s,\n\nA reminder that '%s' (Ref: %s) for %s is booked for %s.",
+                    recipient.getFirstName(),
+                    booking.getOfferedService().getName(),
+                    booking.getBookingReference(),
+                    customer != null ? customer.getFirstName() + " " + customer.getLastName() : "your customer",
+                    when
+            );
+        }
+        return String.format(
+                "Hello %s,\n\nA reminder that your booking for '%s' (Ref: %s) is on %s.%s",
+                recipient.getFirstName(),
+                booking.getOfferedService().getName(),
+                booking.getBookingReference(),
+                when,
+                booking.getLocation() != null ? "\nLocation: " + booking.getLocation() : ""
+        );
+    }
+}
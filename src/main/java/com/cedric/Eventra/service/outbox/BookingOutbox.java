@@ -0,0 +1,82 @@
+package com.cedric.Eventra.service.outbox;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OutboxEvent;
+import com.cedric.Eventra.enums.OutboxEventType;
+import com.cedric.Eventra.events.*;
+import com.cedric.Eventra.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records booking events in the outbox_events table as they are published.
+ *
+ * The listener joins the publishing transaction, so the outbox row commits or rolls back with the booking
+ * change: a committed change always has its event recorded, and a failed insert fails the change rather
+ * than losing the event. After commit the relay is woken so delivery does not wait for its next poll.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<BookingOutboxRelay> relay;
+
+    @EventListener(classes = {
+            BookingCreatedEvent.class, BookingAcceptedEvent.class, BookingRejectedEvent.class,
+            BookingConfirmedEvent.class, BookingCompletedEvent.class, BookingCancelledByCustomerEvent.class,
+            BookingCancelledByProviderEvent.class, BookingRemindersDueEvent.class, BookingsExpiredEvent.class,
+            BookingsAutoCompletedEvent.class, BookingsUpdatedByProviderEvent.class})
+    @Transactional
+    public void append(ApplicationEvent event) {
+        OutboxEvent row = switch (event) {
+            case BookingCreatedEvent e -> row(OutboxEventType.BOOKING_CREATED, List.of(e.getBooking()), null);
+            case BookingAcceptedEvent e -> row(OutboxEventType.BOOKING_ACCEPTED, List.of(e.getBooking()), null);
+            case BookingRejectedEvent e -> row(OutboxEventType.BOOKING_REJECTED, List.of(e.getBooking()), null);
+            case BookingConfirmedEvent e -> row(OutboxEventType.BOOKING_CONFIRMED, List.of(e.getBooking()), null);
+            case BookingCompletedEvent e -> row(OutboxEventType.BOOKING_COMPLETED, List.of(e.getBooking()), null);
+            case BookingCancelledByCustomerEvent e ->
+                    row(OutboxEventType.BOOKING_CANCELLED_BY_CUSTOMER, List.of(e.getBooking()), null);
+            case BookingCancelledByProviderEvent e ->
+                    row(OutboxEventType.BOOKING_CANCELLED_BY_PROVIDER, List.of(e.getBooking()), e.getReason());
+            case BookingRemindersDueEvent e -> row(OutboxEventType.BOOKING_REMINDERS_DUE, e.getBookings(), null);
+            case BookingsExpiredEvent e -> row(OutboxEventType.BOOKINGS_EXPIRED, e.getBookings(), null);
+            case BookingsAutoCompletedEvent e -> row(OutboxEventType.BOOKINGS_AUTO_COMPLETED, e.getBookings(), null);
+            case BookingsUpdatedByProviderEvent e ->
+                    row(OutboxEventType.BOOKINGS_UPDATED_BY_PROVIDER, e.getBookings(), e.getNewStatus().name());
+            default -> throw new IllegalArgumentException("Not an outbox event: " + event.getClass().getName());
+        };
+        outboxEventRepository.save(row);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.ifAvailable(BookingOutboxRelay::wakeUp);
+            }
+        });
+    }
+
+    private OutboxEvent row(OutboxEventType type, List<Booking> bookings, String detail) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = bookings.stream().map(Booking::getId).toList();
+        return OutboxEvent.builder()
+                .eventType(type)
+                .bookingIds(ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .bookingIdIndex(new HashSet<>(ids))
+                .detail(detail)
+                .availableAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
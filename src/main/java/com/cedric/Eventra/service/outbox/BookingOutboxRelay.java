@@ -0,0 +1,287 @@
+package com.cedric.Eventra.service.outbox;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OutboxEvent;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OutboxEventRepository;
+import com.cedric.Eventra.service.NotificationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers outbox_events rows to NotificationService, off the request thread.
+ *
+ * A single poller claims due rows in batches: one locking query claims up to batch-size rows, and one
+ * query per thousand bookings loads everything the batch mentions with its participants, so delivery
+ * does not go back to the database for the customer, service or provider of each event.
+ * Each row is handed to one of {@code parallelism} worker lanes. A worker writes the notifications and
+ * deletes the row in one transaction; a failed row is retried with a growing backoff and parked
+ * (failedAt set) after max-attempts.
+ *
+ * Ordering: a row is only claimed once every earlier row for its bookings has been delivered or parked (see
+ * OutboxEventRepository#lockDue), on any node. A booking's next event is claimed by the poll after the
+ * previous one is deleted. A parked row is skipped rather than waited for, so one undeliverable event cannot
+ * stall the later events of every booking it names.
+ *
+ * Back-pressure: at most max-in-flight claimed rows are queued or running at once. When the lanes fall
+ * that far behind, the poller stops claiming until they catch up, so a backlog waits in the table rather
+ * than in memory. A claim expires after the claim timeout, so rows held by a node that stops are picked
+ * up again; delivery is at least once.
+ */
+@Component
+@Slf4j
+public class BookingOutboxRelay {
+
+    private static final int BOOKINGS_PER_QUERY = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookingRepository bookingRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final List<? extends Executor> lanes;
+    private final Semaphore inFlight;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+    private final Duration retryBackoff;
+    private final Clock clock;
+
+    // Wake-ups collapse: at most one drain runs and one more waits behind it
+    private final ThreadPoolExecutor poller = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> daemon(runnable, "booking-outbox-poller"),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    @Autowired
+    public BookingOutboxRelay(OutboxEventRepository outboxEventRepository,
+                              BookingRepository bookingRepository,
+                              NotificationService notificationService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${booking.outbox.parallelism:4}") int parallelism,
+                              @Value("${booking.outbox.max-in-flight:500}") int maxInFlight,
+                              @Value("${booking.outbox.batch-size:100}") int batchSize,
+                              @Value("${booking.outbox.max-attempts:10}") int maxAttempts,
+                              @Value("${booking.outbox.claim-timeout:PT5M}") Duration claimTimeout,
+                              @Value("${booking.outbox.retry-backoff:PT30S}") Duration retryBackoff) {
+        this(outboxEventRepository, bookingRepository, notificationService, transactionManager, lanes(parallelism),
+                maxInFlight, batchSize, maxAttempts, claimTimeout, retryBackoff, Clock.systemDefaultZone());
+    }
+
+    BookingOutboxRelay(OutboxEventRepository outboxEventRepository, BookingRepository bookingRepository,
+                       NotificationService notificationService, PlatformTransactionManager transactionManager,
+                       List<? extends Executor> lanes, int maxInFlight, int batchSize, int maxAttempts,
+                       Duration claimTimeout, Duration retryBackoff, Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.bookingRepository = bookingRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lanes = List.copyOf(lanes);
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.claimTimeout = claimTimeout;
+        this.retryBackoff = retryBackoff;
+        this.clock = clock;
+    }
+
+    /**
+     * Catches rows whose wake-up was missed (written by another node, retries coming due, expired claims).
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Schedules a drain on the poller thread; called after each commit that recorded an event.
+     */
+    public void wakeUp() {
+        poller.execute(this::drain);
+    }
+
+    /**
+     * Claims and dispatches batches until the table has nothing due or the lanes are full.
+     *
+     * @return the number of rows handed to the lanes
+     */
+    public int drain() {
+        int total = 0;
+        while (true) {
+            int room = Math.min(batchSize, inFlight.availablePermits());
+            if (room == 0) {
+                log.debug("Booking outbox lanes are full ({} rows in flight), claiming paused", total);
+                break;
+            }
+            Batch batch;
+            try {
+                batch = transactionTemplate.execute(status -> claim(room));
+            } catch (RuntimeException e) {
+                log.error("Booking outbox claim failed, retrying on the next poll: {}", e.getMessage());
+                break;
+            }
+            if (batch == null || batch.events().isEmpty()) {
+                break;
+            }
+            inFlight.acquireUninterruptibly(batch.events().size());
+            for (OutboxEvent event : batch.events()) {
+                dispatch(event, batch.bookings());
+            }
+            total += batch.events().size();
+            if (batch.events().size() < room) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        poller.shutdown();
+        poller.awaitTermination(10, TimeUnit.SECONDS);
+        for (Executor lane : lanes) {
+            if (lane instanceof ExecutorService executorService) {
+                executorService.shutdown();
+            }
+        }
+        for (Executor lane : lanes) {
+            if (lane instanceof ExecutorService executorService
+                    && !executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Booking outbox lane did not finish in time; its claimed rows are retried after the claim timeout");
+            }
+        }
+    }
+
+    /**
+     * Locks a batch of due rows, pushes them out by the claim timeout and loads their bookings.
+     */
+    private Batch claim(int limit) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<OutboxEvent> events = outboxEventRepository.lockDue(now, Limit.of(limit));
+        if (events.isEmpty()) {
+            return Batch.EMPTY;
+        }
+        LocalDateTime claimedUntil = now.plus(claimTimeout);
+        Set<Long> bookingIds = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            // Flushed on commit, as one JDBC batch
+            event.setAvailableAt(claimedUntil);
+            event.setAttempts(event.getAttempts() + 1);
+            bookingIds.addAll(bookingIds(event));
+        }
+        Map<Long, Booking> bookings = new HashMap<>(bookingIds.size() * 2);
+        List<Long> ids = new ArrayList<>(bookingIds);
+        for (int from = 0; from < ids.size(); from += BOOKINGS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BOOKINGS_PER_QUERY));
+            bookingRepository.findByIdIn(chunk).forEach(booking -> bookings.put(booking.getId(), booking));
+        }
+        return new Batch(events, bookings);
+    }
+
+    private void dispatch(OutboxEvent event, Map<Long, Booking> loaded) {
+        List<Long> ids = bookingIds(event);
+        // Bookings deleted since the event was recorded are skipped
+        List<Booking> bookings = ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+        Executor lane = lanes.get(Math.floorMod(ids.isEmpty() ? 0 : ids.get(0).hashCode(), lanes.size()));
+        try {
+            lane.execute(() -> {
+                try {
+                    deliver(event, bookings);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            log.warn("Booking outbox event {} not dispatched, shutting down; it is retried after the claim timeout", event.getId());
+        }
+    }
+
+    private void deliver(OutboxEvent event, List<Booking> bookings) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!bookings.isEmpty()) {
+                    notificationService.notifyBookingEvent(event.getEventType(), bookings, event.getDetail());
+                }
+                outboxEventRepository.acknowledge(event.getId());
+            });
+        } catch (RuntimeException e) {
+            recordFailure(event, e);
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException failure) {
+        String error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        String truncated = error.length() > 1000 ? error.substring(0, 1000) : error;
+        LocalDateTime now = LocalDateTime.now(clock);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (event.getAttempts() >= maxAttempts) {
+                    outboxEventRepository.markFailed(event.getId(), now, truncated);
+                } else {
+                    outboxEventRepository.scheduleRetry(event.getId(),
+                            now.plus(retryBackoff.multipliedBy(event.getAttempts())), truncated);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not record failure of booking outbox event {}; it is retried after the claim timeout: {}",
+                    event.getId(), e.getMessage());
+            return;
+        }
+        if (event.getAttempts() >= maxAttempts) {
+            log.error("Booking outbox event {} ({}) parked after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error);
+        } else {
+            log.warn("Booking outbox event {} ({}) failed on attempt {}, will retry: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error);
+        }
+    }
+
+    private static List<Long> bookingIds(OutboxEvent event) {
+        return Arrays.stream(event.getBookingIds().split(",")).filter(id -> !id.isBlank()).map(Long::valueOf).toList();
+    }
+
+    private static List<ExecutorService> lanes(int parallelism) {
+        List<ExecutorService> lanes = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, parallelism); i++) {
+            String name = "booking-outbox-" + i;
+            lanes.add(Executors.newSingleThreadExecutor(runnable -> daemon(runnable, name)));
+        }
+        return lanes;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private record Batch(List<OutboxEvent> events, Map<Long, Booking> bookings) {
+        static final Batch EMPTY = new Batch(List.of(), Map.of());
+    }
+}
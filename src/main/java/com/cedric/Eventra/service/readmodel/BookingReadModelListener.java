@@ -0,0 +1,61 @@
+package com.cedric.Eventra.service.readmodel;
+
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA entity listener that copies renamed customers, providers and services into their booking read rows.
+ *
+ * Names are captured when the entity event fires and written only after the surrounding transaction
+ * commits, in a transaction of their own (see BookingReadModelProjector#renameUser).
+ * Instantiated by Hibernate through Spring's bean container; the projector is resolved lazily because
+ * it depends on repositories that are only available once the EntityManagerFactory exists.
+ */
+public class BookingReadModelListener {
+
+    private final ObjectProvider<BookingReadModelProjector> projector;
+
+    public BookingReadModelListener(ObjectProvider<BookingReadModelProjector> projector) {
+        this.projector = projector;
+    }
+
+    @PostUpdate
+    public void onUpdated(Object entity) {
+        if (entity instanceof User user) {
+            Long userId = user.getId();
+            String firstName = user.getFirstName();
+            String lastName = user.getLastName();
+            String email = user.getEmail();
+            afterCommit(p -> p.renameUser(userId, firstName, lastName, email));
+        } else if (entity instanceof ServiceProviderProfile profile) {
+            Long providerId = profile.getUserId();
+            String businessName = profile.getServiceName();
+            afterCommit(p -> p.renameProviderBusiness(providerId, businessName));
+        } else if (entity instanceof OfferedService service) {
+            Long serviceId = service.getId();
+            String name = service.getName();
+            afterCommit(p -> p.renameService(serviceId, name));
+        }
+    }
+
+    private void afterCommit(Consumer<BookingReadModelProjector> update) {
+        BookingReadModelProjector target = projector.getIfAvailable();
+        // Outside a transaction there is no commit to wait for; a rebuild picks up names changed that way
+        if (target == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.accept(target);
+            }
+        });
+    }
+}
@@ -0,0 +1,282 @@
+package com.cedric.Eventra.service.readmodel;
+
+import com.cedric.Eventra.dto.BookingReadModelStatusDTO;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.BookingReadModel;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.events.*;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
+import com.cedric.Eventra.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Keeps the booking_read_model table in step with bookings.
+ *
+ * Booking events are applied as they are published, inside the publishing transaction, so a status change
+ * and its read row commit (or roll back) together. Events published outside a transaction are applied
+ * in a transaction of their own.
+ * A row is only overwritten by a booking at least as new as the one it was copied from.
+ *
+ * A periodic catch-up pass projects any booking whose row is missing or behind (bookings that predate
+ * the table, events lost to a crash between commit and publish); rebuild() re-copies every booking.
+ * getStatus() reports the projection lag as the number of such bookings plus the event-to-apply delay.
+ */
+@Component
+@Slf4j
+public class BookingReadModelProjector {
+
+    private final BookingReadModelRepository bookingReadModelRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Clock clock;
+
+    private final AtomicLong lastEventLagMillis = new AtomicLong();
+    private final AtomicLong maxEventLagMillis = new AtomicLong();
+    private final AtomicReference<LocalDateTime> lastCatchUpAt = new AtomicReference<>();
+    private final AtomicReference<LocalDateTime> lastRebuildAt = new AtomicReference<>();
+
+    @Autowired
+    public BookingReadModelProjector(BookingReadModelRepository bookingReadModelRepository,
+                                     BookingRepository bookingRepository,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${booking.read-model.chunk-size:500}") int chunkSize) {
+        this(bookingReadModelRepository, bookingRepository, entityManager, transactionManager, chunkSize,
+                Clock.systemDefaultZone());
+    }
+
+    BookingReadModelProjector(BookingReadModelRepository bookingReadModelRepository, BookingRepository bookingRepository,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              int chunkSize, Clock clock) {
+        this.bookingReadModelRepository = bookingReadModelRepository;
+        this.bookingRepository = bookingRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.clock = clock;
+    }
+
+    // --- Event projection ---
+
+    /**
+     * Single-booking status changes arrive as the state machine's BookingStatusChangedEvent rather than the
+     * handlers' own events (accepted, confirmed, ...), so a transition without a dedicated event is projected too.
+     */
+    @EventListener(classes = {
+            BookingCreatedEvent.class, BookingStatusChangedEvent.class, BookingsExpiredEvent.class,
+            BookingsAutoCompletedEvent.class, BookingsUpdatedByProviderEvent.class})
+    @Transactional
+    public void onBookingEvent(ApplicationEvent event) {
+        List<Booking> bookings = switch (event) {
+            case BookingCreatedEvent e -> List.of(e.getBooking());
+            case BookingStatusChangedEvent e -> List.of(e.getBooking());
+            case BookingsExpiredEvent e -> e.getBookings();
+            case BookingsAutoCompletedEvent e -> e.getBookings();
+            case BookingsUpdatedByProviderEvent e -> e.getBookings();
+            default -> List.of();
+        };
+        // Versions of bookings changed through the entity are only bumped on flush
+        bookingRepository.flush();
+        // Only a new booking is inserted here: an insert racing the catch-up pass would fail the caller's transaction
+        project(bookings, event instanceof BookingCreatedEvent);
+
+        long lag = Math.max(0, clock.millis() - event.getTimestamp());
+        lastEventLagMillis.set(lag);
+        maxEventLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    // --- Renames (called after the user, profile or service change has committed) ---
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void renameUser(Long userId, String firstName, String lastName, String email) {
+        bookingReadModelRepository.renameCustomer(userId, firstName, lastName, email);
+        bookingReadModelRepository.renameProvider(userId, firstName, lastName);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void renameProviderBusiness(Long providerId, String businessName) {
+        bookingReadModelRepository.renameProviderBusiness(providerId, businessName);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void renameService(Long serviceId, String name) {
+        bookingReadModelRepository.renameService(serviceId, name);
+    }
+
+    // --- Catch-up and rebuild ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.read-model.catch-up-interval-ms:300000}",
+            initialDelayString = "${booking.read-model.catch-up-interval-ms:300000}")
+    public void catchUpScheduled() {
+        catchUp();
+    }
+
+    /**
+     * Projects every booking whose read row is missing or older than the booking.
+     *
+     * @return the number of bookings projected
+     */
+    public int catchUp() {
+        int projected = walk(afterId -> {
+            List<Long> ids = bookingReadModelRepository.findStaleBookingIds(afterId, Limit.of(chunkSize));
+            return ids.isEmpty() ? List.of() : sortedById(bookingRepository.findByIdIn(ids));
+        });
+        lastCatchUpAt.set(LocalDateTime.now(clock));
+        if (projected > 0) {
+            log.warn("Booking read model catch-up projected {} stale bookings", projected);
+        }
+        return projected;
+    }
+
+    /**
+     * Re-copies every booking and drops rows whose booking no longer exists.
+     * The table stays readable throughout; rows are overwritten in place, chunk by chunk.
+     *
+     * @return the number of bookings projected
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        int projected = walk(afterId -> bookingRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(chunkSize)));
+        Integer removed = transactionTemplate.execute(status -> bookingReadModelRepository.deleteOrphans());
+        lastRebuildAt.set(LocalDateTime.now(clock));
+        log.info("Booking read model rebuilt: {} bookings projected, {} orphaned rows removed in {} ms",
+                projected, removed, System.currentTimeMillis() - start);
+        return projected;
+    }
+
+    public BookingReadModelStatusDTO getStatus() {
+        return BookingReadModelStatusDTO.builder()
+                .staleBookings(bookingReadModelRepository.countStale())
+                .lastEventLagMillis(lastEventLagMillis.get())
+                .maxEventLagMillis(maxEventLagMillis.get())
+                .lastCatchUpAt(lastCatchUpAt.get())
+                .lastRebuildAt(lastRebuildAt.get())
+                .build();
+    }
+
+    /**
+     * Projects chunks of bookings in id order, each in its own transaction, until a chunk comes back empty.
+     */
+    private int walk(Function<Long, List<Booking>> nextChunk) {
+        int total = 0;
+        long afterId = 0L;
+        while (true) {
+            long from = afterId;
+            List<Booking> chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> {
+                    List<Booking> bookings = nextChunk.apply(from);
+                    project(bookings, true);
+                    return bookings;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another node or a new booking inserted one of these rows first; the next pass picks up anything left
+                log.debug("Booking read model chunk after id {} raced a concurrent insert: {}", from, e.getMessage());
+                break;
+            }
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            total += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        return total;
+    }
+
+    private void project(List<Booking> bookings, boolean insertMissing) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).toList();
+        Map<Long, BookingReadModel> existing = new HashMap<>();
+        bookingReadModelRepository.findAllById(ids).forEach(row -> existing.put(row.getId(), row));
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (Booking booking : bookings) {
+            BookingReadModel row = existing.get(booking.getId());
+            if (row == null && !insertMissing) {
+                continue;
+            }
+            long version = booking.getVersion() != null ? booking.getVersion() : 0L;
+            if (row != null && row.getSourceVersion() > version) {
+                continue;
+            }
+            if (row == null) {
+                row = BookingReadModel.builder().id(booking.getId()).build();
+                copy(booking, version, row, now);
+                // persist, not save: the id is assigned, so save() would merge and select each new row first
+                entityManager.persist(row);
+            } else {
+                // Loaded in this transaction, so the changes are flushed on commit
+                copy(booking, version, row, now);
+            }
+        }
+    }
+
+    private static void copy(Booking booking, long version, BookingReadModel row, LocalDateTime now) {
+        row.setSourceVersion(version);
+        row.setBookingReference(booking.getBookingReference());
+        row.setRequestName(booking.getRequestName());
+        row.setDescription(booking.getDescription());
+        row.setLocation(booking.getLocation());
+        row.setPreferredDate(booking.getPreferredDate());
+        row.setPreferredTime(booking.getPreferredTime());
+        row.setStatus(booking.getStatus());
+        row.setPrice(booking.getPrice());
+        row.setCreatedAt(booking.getCreatedAt());
+
+        User customer = booking.getUser();
+        row.setCustomerId(customer.getId());
+        row.setCustomerFirstName(customer.getFirstName());
+        row.setCustomerLastName(customer.getLastName());
+        row.setCustomerEmail(customer.getEmail());
+
+        OfferedService service = booking.getOfferedService();
+        row.setServiceId(service.getId());
+        row.setServiceName(service.getName());
+
+        User provider = service.getProvider();
+        row.setProviderId(provider.getId());
+        row.setProviderFirstName(provider.getFirstName());
+        row.setProviderLastName(provider.getLastName());
+        ServiceProviderProfile profile = provider.getServiceProviderProfile();
+        row.setProviderBusinessName(profile != null ? profile.getServiceName() : null);
+
+        row.setProjectedAt(now);
+    }
+
+    private static List<Booking> sortedById(List<Booking> bookings) {
+        List<Booking> sorted = new ArrayList<>(bookings);
+        sorted.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return sorted;
+    }
+}
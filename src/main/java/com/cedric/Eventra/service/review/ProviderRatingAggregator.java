@@ -0,0 +1,99 @@
+package com.cedric.Eventra.service.review;
+
+import com.cedric.Eventra.repository.ReviewRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository.RatingAggregate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains the running rating aggregates on ServiceProviderProfile (count, sum, per-star histogram,
+ * average). Review writes apply O(1) deltas in a single UPDATE instead of re-reading every review.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderRatingAggregator {
+
+    private final ServiceProviderProfileRepository serviceProviderProfileRepository;
+    private final ReviewRepository reviewRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewAdded(Long providerId, Float rating) {
+        applyDelta(providerId, 1, rating, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewUpdated(Long providerId, Float oldRating, Float newRating) {
+        if (Objects.equals(oldRating, newRating)) {
+            return;
+        }
+        applyDelta(providerId, 0, newRating, oldRating);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewRemoved(Long providerId, Float rating) {
+        applyDelta(providerId, -1, null, rating);
+    }
+
+    /**
+     * Recomputes one provider's aggregates from the reviews table and overwrites the stored values.
+     * The profile row is locked first, so concurrent deltas wait and are applied on top of the result.
+     * @return true if the stored aggregates had drifted and were repaired
+     */
+    @Transactional
+    public boolean reconcile(Long providerId) {
+        if (serviceProviderProfileRepository.lockForRatingUpdate(providerId).isEmpty()) {
+            return false;
+        }
+        List<RatingAggregate> actual = reviewRepository.computeRatingAggregates(providerId);
+        RatingAggregate aggregate = actual.isEmpty() ? null : actual.get(0);
+
+        long reviewCount = aggregate != null ? aggregate.getReviewCount() : 0L;
+        double ratingSum = aggregate != null ? aggregate.getRatingSum() : 0.0;
+        Float averageRating = reviewCount > 0 ? (float) (ratingSum / reviewCount) : 0.0f;
+
+        serviceProviderProfileRepository.overwriteRatingAggregates(providerId, averageRating, reviewCount, ratingSum,
+                aggregate != null ? aggregate.getOneStarCount() : 0L,
+                aggregate != null ? aggregate.getTwoStarCount() : 0L,
+                aggregate != null ? aggregate.getThreeStarCount() : 0L,
+                aggregate != null ? aggregate.getFourStarCount() : 0L,
+                aggregate != null ? aggregate.getFiveStarCount() : 0L);
+        return true;
+    }
+
+    /**
+     * Whole-star bucket for a rating: rounded half-up and clamped to 1..5.
+     * Must stay in line with the CASE buckets in ReviewRepository.computeRatingAggregates.
+     */
+    public static int starBucket(float rating) {
+        return Math.max(1, Math.min(5, Math.round(rating)));
+    }
+
+    private void applyDelta(Long providerId, long countDelta, Float addedRating, Float removedRating) {
+        long[] starDeltas = new long[6]; // index 1..5
+        double sumDelta = 0.0;
+        if (addedRating != null) {
+            sumDelta += addedRating;
+            starDeltas[starBucket(addedRating)]++;
+        }
+        if (removedRating != null) {
+            sumDelta -= removedRating;
+            starDeltas[starBucket(removedRating)]--;
+        }
+
+        int updated = serviceProviderProfileRepository.applyRatingDelta(providerId, countDelta, sumDelta,
+                starDeltas[1], starDeltas[2], starDeltas[3], starDeltas[4], starDeltas[5]);
+        if (updated == 0) {
+            log.warn("Attempted to update rating aggregates for non-existent provider profile ID: {}", providerId);
+        } else {
+            log.debug("Applied rating delta to provider {}: count {}, sum {}", providerId, countDelta, sumDelta);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.cedric.Eventra.service.review;
+
+import com.cedric.Eventra.repository.ReviewRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository.RatingAggregate;
+import com.cedric.Eventra.service.lifecycle.SchedulerLeaseManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Periodically compares each provider's stored rating aggregates with the reviews table and repairs
+ * any drift (e.g. from manual data fixes or writes that bypassed ReviewServiceImpl).
+ * Detection is a read-only pass, page by page, comparing each page of stored aggregates with the
+ * actual aggregates of just those providers; only drifted providers are locked and rewritten.
+ * Every node ticks the cron, but only the node holding the lease runs a pass; the lease is renewed
+ * between pages and the pass stops if it is lost.
+ */
+@Component
+@Slf4j
+public class ProviderRatingReconciliationJob {
+
+    static final String LEASE_NAME = "rating-reconciliation";
+
+    private static final int PAGE_SIZE = 500;
+    private static final double SUM_TOLERANCE = 0.0001;
+
+    private final ServiceProviderProfileRepository serviceProviderProfileRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProviderRatingAggregator providerRatingAggregator;
+    private final SchedulerLeaseManager schedulerLeaseManager;
+    private final Duration leaseTtl;
+
+    public ProviderRatingReconciliationJob(ServiceProviderProfileRepository serviceProviderProfileRepository,
+                                           ReviewRepository reviewRepository,
+                                           ProviderRatingAggregator providerRatingAggregator,
+                                           SchedulerLeaseManager schedulerLeaseManager,
+                                           @Value("${rating.reconciliation.lease-ttl:PT10M}") Duration leaseTtl) {
+        this.serviceProviderProfileRepository = serviceProviderProfileRepository;
+        this.reviewRepository = reviewRepository;
+        this.providerRatingAggregator = providerRatingAggregator;
+        this.schedulerLeaseManager = schedulerLeaseManager;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @Scheduled(cron = "${rating.reconciliation.cron:0 15 * * * *}")
+    public void reconcileAll() {
+        if (!schedulerLeaseManager.tryAcquire(LEASE_NAME, leaseTtl)) {
+            log.debug("Rating reconciliation skipped, lease held by another node.");
+            return;
+        }
+        try {
+            reconcile();
+        } finally {
+            schedulerLeaseManager.release(LEASE_NAME);
+        }
+    }
+
+    private void reconcile() {
+        int checked = 0;
+        int repaired = 0;
+        long lastProviderId = 0L;
+        List<RatingAggregate> page;
+        do {
+            page = serviceProviderProfileRepository.findStoredRatingAggregates(lastProviderId, PageRequest.of(0, PAGE_SIZE));
+            Map<Long, RatingAggregate> actualByProvider = actualAggregatesFor(page);
+            for (RatingAggregate stored : page) {
+                checked++;
+                if (hasDrifted(stored, actualByProvider.get(stored.getProviderId()))
+                        && providerRatingAggregator.reconcile(stored.getProviderId())) {
+                    repaired++;
+                    log.warn("Repaired drifted rating aggregates for provider ID {}", stored.getProviderId());
+                }
+                lastProviderId = stored.getProviderId();
+            }
+            if (page.size() == PAGE_SIZE && !schedulerLeaseManager.tryAcquire(LEASE_NAME, leaseTtl)) {
+                log.warn("Rating reconciliation stopped, lease lost after {} providers checked, {} repaired.",
+                        checked, repaired);
+                return;
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        log.info("Rating reconciliation finished: {} providers checked, {} repaired.", checked, repaired);
+    }
+
+    /**
+     * Reads the actual aggregates of one page's providers right after their stored values, so reviews
+     * written during a long pass are not compared against a snapshot taken at its start.
+     */
+    private Map<Long, RatingAggregate> actualAggregatesFor(List<RatingAggregate> page) {
+        Map<Long, RatingAggregate> actualByProvider = new HashMap<>();
+        if (page.isEmpty()) {
+            return actualByProvider;
+        }
+        List<Long> providerIds = page.stream().map(RatingAggregate::getProviderId).toList();
+        for (RatingAggregate actual : reviewRepository.computeRatingAggregatesFor(providerIds)) {
+            actualByProvider.put(actual.getProviderId(), actual);
+        }
+        return actualByProvider;
+    }
+
+    private boolean hasDrifted(RatingAggregate stored, RatingAggregate actual) {
+        if (actual == null) {
+            return stored.getReviewCount() != 0 || Math.abs(stored.getRatingSum()) > SUM_TOLERANCE;
+        }
+        return !Objects.equals(stored.getReviewCount(), actual.getReviewCount())
+                || Math.abs(stored.getRatingSum() - actual.getRatingSum()) > SUM_TOLERANCE
+                || !Objects.equals(stored.getOneStarCount(), actual.getOneStarCount())
+                || !Objects.equals(stored.getTwoStarCount(), actual.getTwoStarCount())
+                || !Objects.equals(stored.getThreeStarCount(), actual.getThreeStarCount())
+                || !Objects.equals(stored.getFourStarCount(), actual.getFourStarCount())
+                || !Objects.equals(stored.getFiveStarCount(), actual.getFiveStarCount());
+    }
+}
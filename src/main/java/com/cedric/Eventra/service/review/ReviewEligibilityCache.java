@@ -0,0 +1,48 @@
+package com.cedric.Eventra.service.review;
+
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caches that a reviewer has a COMPLETED booking with a provider.
+ * Only positive answers are kept: COMPLETED is terminal, so they never go stale, whereas a negative one
+ * would turn wrong as soon as a booking completes on any node. Negative answers go to the indexed
+ * existence query every time.
+ */
+@Component
+public class ReviewEligibilityCache {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<EligibilityKey, Boolean> cache;
+
+    public ReviewEligibilityCache(BookingRepository bookingRepository,
+                                  @Value("${review.eligibility-cache.ttl:30m}") Duration ttl,
+                                  @Value("${review.eligibility-cache.max-size:50000}") long maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public boolean isEligible(Long reviewerId, Long providerId) {
+        EligibilityKey key = new EligibilityKey(reviewerId, providerId);
+        if (cache.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean eligible = bookingRepository.existsByUserAndProviderAndStatus(reviewerId, providerId, BookingStatus.COMPLETED);
+        if (eligible) {
+            cache.put(key, Boolean.TRUE);
+        }
+        return eligible;
+    }
+
+    private record EligibilityKey(Long reviewerId, Long providerId) {
+    }
+}
@@ -0,0 +1,467 @@
+package com.cedric.Eventra.service.search;
+
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over service providers, replacing LIKE '%term%' scans.
+ *
+ * Each provider is one document built from its profile (service name, category, location, postcode)
+ * and its offered services (name, description). Terms map to weighted postings; a sorted term
+ * dictionary gives prefix matches and a trigram index gives typo-tolerant matches.
+ * Every query token must match (exact, prefix or fuzzy) for a provider to be returned.
+ *
+ * The index is rebuilt from the database on startup and kept in sync by ProviderSearchIndexListener.
+ * Updates arriving while a rebuild reads the database are applied as usual and also recorded; once the
+ * rebuilt index is swapped in they are replayed on top of it, so a change committed after its rows were
+ * read is not lost. Every update sets absolute state, so replaying one the snapshot already saw is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderSearchIndex {
+
+    // Field weights
+    private static final float SERVICE_NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float OFFERED_SERVICE_NAME_WEIGHT = 2.0f;
+    private static final float LOCATION_WEIGHT = 1.5f;
+    private static final float POSTCODE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Match-type multipliers
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float FUZZY_MATCH = 0.6f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_TOKEN_LENGTH = 4;
+
+    private final ServiceProviderProfileRepository serviceProviderProfileRepository;
+    private final OfferedServiceRepository offeredServiceRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProviderDocument> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    // Non-null while a rebuild is reading the database; guarded by the write lock
+    private List<Runnable> updatesDuringRebuild;
+
+    public record SearchResult(List<Long> providerIds, long totalResults) {
+    }
+
+    // --- Maintenance ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            updatesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, ProviderDocument> rebuilt;
+        try {
+            rebuilt = readDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = null; // The current index, updates included, stays in place
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            termsByTrigram.clear();
+            for (ProviderDocument document : rebuilt.values()) {
+                documents.put(document.providerId, document);
+                indexTerms(document);
+            }
+            List<Runnable> replay = updatesDuringRebuild;
+            updatesDuringRebuild = null;
+            replay.forEach(Runnable::run);
+            log.info("Provider search index built: {} providers, {} terms, {} concurrent updates replayed in {} ms",
+                    rebuilt.size(), postings.size(), replay.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, ProviderDocument> readDocuments() {
+        Map<Long, ProviderDocument> rebuilt = new HashMap<>();
+        for (ServiceProviderProfileRepository.SearchDocumentRow row : serviceProviderProfileRepository.findSearchDocumentRows()) {
+            ProviderDocument document = new ProviderDocument(row.getProviderId());
+            document.active = isActiveProvider(row.getIsActive(), row.getRole());
+            document.serviceName = row.getServiceName();
+            document.category = row.getServiceCategory();
+            document.location = row.getLocation();
+            document.postcode = row.getPostcode();
+            rebuilt.put(row.getProviderId(), document);
+        }
+        for (OfferedServiceRepository.SearchDocumentRow row : offeredServiceRepository.findSearchDocumentRows()) {
+            ProviderDocument document = rebuilt.get(row.getProviderId());
+            if (document != null) {
+                document.services.put(row.getServiceId(), new ServiceText(row.getName(), row.getDescription()));
+            }
+        }
+        return rebuilt;
+    }
+
+    public void upsertProfile(Long providerId, String serviceName, ServiceCategory category, String location,
+                              String postcode, Boolean isActive, UserRole role) {
+        update(() -> {
+            ProviderDocument document = documents.computeIfAbsent(providerId, ProviderDocument::new);
+            unindexTerms(document);
+            document.serviceName = serviceName;
+            document.category = category;
+            document.location = location;
+            document.postcode = postcode;
+            document.active = isActiveProvider(isActive, role);
+            indexTerms(document);
+        });
+    }
+
+    public void upsertService(Long providerId, Long serviceId, String name, String description) {
+        update(() -> {
+            ProviderDocument document = documents.computeIfAbsent(providerId, ProviderDocument::new);
+            unindexTerms(document);
+            document.services.put(serviceId, new ServiceText(name, description));
+            indexTerms(document);
+        });
+    }
+
+    public void removeService(Long providerId, Long serviceId) {
+        update(() -> {
+            ProviderDocument document = documents.get(providerId);
+            if (document != null && document.services.containsKey(serviceId)) {
+                unindexTerms(document);
+                document.services.remove(serviceId);
+                indexTerms(document);
+            }
+        });
+    }
+
+    public void updateProviderStatus(Long providerId, Boolean isActive, UserRole role) {
+        update(() -> {
+            ProviderDocument document = documents.get(providerId);
+            if (document != null) {
+                document.active = isActiveProvider(isActive, role);
+            }
+        });
+    }
+
+    public void removeProvider(Long providerId) {
+        update(() -> {
+            ProviderDocument document = documents.remove(providerId);
+            if (document != null) {
+                unindexTerms(document);
+            }
+        });
+    }
+
+    // Applies the update now and, during a rebuild, again once the rebuilt index replaces this one
+    private void update(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Query ---
+
+    /**
+     * Ranked search over active providers.
+     * @param query Free text; every token must match a term exactly, as a prefix, or within a small edit distance.
+     * @param page Zero-based page number.
+     * @param size Page size.
+     * @return Provider user IDs for the requested page, best match first, plus the total match count.
+     */
+    public SearchResult search(String query, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND semantics: keep providers matching every token, summing their scores
+                    Map<Long, Float> smaller = scores.size() <= tokenScores.size() ? scores : tokenScores;
+                    Map<Long, Float> larger = smaller == scores ? tokenScores : scores;
+                    Map<Long, Float> combined = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : smaller.entrySet()) {
+                        Float otherScore = larger.get(entry.getKey());
+                        if (otherScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + otherScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+
+            // Only the first (page + 1) * size matches are ranked: a min-heap keeps the best of them seen so far
+            Comparator<Map.Entry<Long, Float>> bestFirst =
+                    Map.Entry.<Long, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+            int wanted = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+            PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(bestFirst.reversed());
+            long total = 0;
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                ProviderDocument document = documents.get(entry.getKey());
+                if (document == null || !document.active) {
+                    continue;
+                }
+                total++;
+                if (best.size() < wanted) {
+                    best.offer(entry);
+                } else if (wanted > 0 && bestFirst.compare(entry, best.peek()) < 0) {
+                    best.poll();
+                    best.offer(entry);
+                }
+            }
+
+            List<Map.Entry<Long, Float>> ranked = new ArrayList<>(best);
+            ranked.sort(bestFirst);
+            int from = Math.min(page * size, ranked.size());
+            List<Long> providerIds = new ArrayList<>(ranked.size() - from);
+            for (Map.Entry<Long, Float> entry : ranked.subList(from, ranked.size())) {
+                providerIds.add(entry.getKey());
+            }
+            return new SearchResult(providerIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The returned map may be a posting list itself and must not be modified
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> exact = postings.get(token);
+        NavigableMap<String, Map<Long, Float>> longer = postings.subMap(token, false, token + Character.MAX_VALUE, false);
+        if (exact != null && longer.isEmpty()) {
+            return exact; // Scores as they are (EXACT_MATCH is 1): no copy of a possibly long posting list
+        }
+
+        Map<Long, Float> tokenScores = new HashMap<>();
+        if (exact != null) {
+            mergeMax(tokenScores, exact, EXACT_MATCH);
+        }
+
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Float>> entry : longer.entrySet()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            mergeMax(tokenScores, entry.getValue(), PREFIX_MATCH);
+        }
+
+        // Typo tolerance only when the token matched nothing exactly or as a prefix
+        if (tokenScores.isEmpty() && token.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            for (String candidate : fuzzyCandidates(token, maxEdits)) {
+                int distance = boundedEditDistance(token, candidate, maxEdits);
+                if (distance <= maxEdits) {
+                    mergeMax(tokenScores, postings.get(candidate), FUZZY_MATCH / Math.max(1, distance));
+                }
+            }
+        }
+        return tokenScores;
+    }
+
+    private Set<String> fuzzyCandidates(String token, int maxEdits) {
+        List<String> grams = trigrams(token);
+        // q-gram lemma: within k edits, at least |grams| - 3k trigrams are shared
+        int required = Math.max(1, grams.size() - 3 * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> terms = termsByTrigram.get(gram);
+            if (terms != null) {
+                for (String term : terms) {
+                    if (Math.abs(term.length() - token.length()) <= maxEdits) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= required) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private static void mergeMax(Map<Long, Float> target, Map<Long, Float> postingList, float multiplier) {
+        for (Map.Entry<Long, Float> posting : postingList.entrySet()) {
+            target.merge(posting.getKey(), posting.getValue() * multiplier, Math::max);
+        }
+    }
+
+    // --- Indexing helpers (callers hold the write lock) ---
+
+    private void indexTerms(ProviderDocument document) {
+        document.indexedTerms = document.termWeights();
+        for (Map.Entry<String, Float> entry : document.indexedTerms.entrySet()) {
+            Map<Long, Float> postingList = postings.get(entry.getKey());
+            if (postingList == null) {
+                postingList = new HashMap<>();
+                postings.put(entry.getKey(), postingList);
+                for (String gram : trigrams(entry.getKey())) {
+                    termsByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+            postingList.put(document.providerId, entry.getValue());
+        }
+    }
+
+    private void unindexTerms(ProviderDocument document) {
+        for (String term : document.indexedTerms.keySet()) {
+            Map<Long, Float> postingList = postings.get(term);
+            if (postingList == null) {
+                continue;
+            }
+            postingList.remove(document.providerId);
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+                for (String gram : trigrams(term)) {
+                    Set<String> terms = termsByTrigram.get(gram);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            termsByTrigram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+        document.indexedTerms = Map.of();
+    }
+
+    private static boolean isActiveProvider(Boolean isActive, UserRole role) {
+        return Boolean.TRUE.equals(isActive) && role == UserRole.SERVICE_PROVIDER;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Levenshtein distance with early exit once every cell in a row exceeds maxEdits
+    private static int boundedEditDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private record ServiceText(String name, String description) {
+    }
+
+    private static final class ProviderDocument {
+        private final Long providerId;
+        private boolean active;
+        private String serviceName;
+        private ServiceCategory category;
+        private String location;
+        private String postcode;
+        private final Map<Long, ServiceText> services = new HashMap<>();
+        private Map<String, Float> indexedTerms = Map.of();
+
+        private ProviderDocument(Long providerId) {
+            this.providerId = providerId;
+        }
+
+        // Highest field weight per term across the whole document
+        private Map<String, Float> termWeights() {
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, serviceName, SERVICE_NAME_WEIGHT);
+            addField(weights, category != null ? category.name() : null, CATEGORY_WEIGHT);
+            addField(weights, location, LOCATION_WEIGHT);
+            addField(weights, postcode, POSTCODE_WEIGHT);
+            services.values().stream()
+                    .sorted(Comparator.comparing(ServiceText::name, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .forEach(service -> {
+                        addField(weights, service.name(), OFFERED_SERVICE_NAME_WEIGHT);
+                        addField(weights, service.description(), DESCRIPTION_WEIGHT);
+                    });
+            return weights;
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float weight) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, weight, Math::max);
+            }
+        }
+    }
+}
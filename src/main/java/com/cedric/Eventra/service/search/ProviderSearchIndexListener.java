@@ -0,0 +1,106 @@
+package com.cedric.Eventra.service.search;
+
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.service.geo.ProviderGeoIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA entity listener that keeps the ProviderSearchIndex and ProviderGeoIndex in sync with provider,
+ * offered service and user changes.
+ *
+ * Field values are captured when the entity event fires and applied to the index only after the
+ * surrounding transaction commits, so rolled-back changes never become searchable.
+ * Instantiated by Hibernate through Spring's bean container; the indexes are resolved lazily because
+ * they depend on repositories that are only available once the EntityManagerFactory exists.
+ */
+public class ProviderSearchIndexListener {
+
+    private final ObjectProvider<ProviderSearchIndex> searchIndex;
+    private final ObjectProvider<ProviderGeoIndex> geoIndex;
+
+    public ProviderSearchIndexListener(ObjectProvider<ProviderSearchIndex> searchIndex,
+                                       ObjectProvider<ProviderGeoIndex> geoIndex) {
+        this.searchIndex = searchIndex;
+        this.geoIndex = geoIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        if (entity instanceof ServiceProviderProfile profile) {
+            Long providerId = profile.getUserId();
+            String serviceName = profile.getServiceName();
+            ServiceCategory category = profile.getServiceCategory();
+            String location = profile.getLocation();
+            String postcode = profile.getPostcode();
+            User user = profile.getUser();
+            Boolean isActive = user != null ? user.getIsActive() : null;
+            UserRole role = user != null ? user.getRole() : null;
+            afterCommit(searchIndex, index -> index.upsertProfile(providerId, serviceName, category, location, postcode, isActive, role));
+            afterCommit(geoIndex, index -> index.upsertProvider(providerId, postcode, category, isActive, role));
+        } else if (entity instanceof OfferedService service) {
+            if (service.getProvider() == null) {
+                return;
+            }
+            Long providerId = service.getProvider().getId();
+            Long serviceId = service.getId();
+            String name = service.getName();
+            String description = service.getDescription();
+            afterCommit(searchIndex, index -> index.upsertService(providerId, serviceId, name, description));
+        } else if (entity instanceof User user) {
+            Long userId = user.getId();
+            Boolean isActive = user.getIsActive();
+            UserRole role = user.getRole();
+            afterCommit(searchIndex, index -> index.updateProviderStatus(userId, isActive, role));
+            afterCommit(geoIndex, index -> index.updateProviderStatus(userId, isActive, role));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        if (entity instanceof ServiceProviderProfile profile) {
+            Long providerId = profile.getUserId();
+            afterCommit(searchIndex, index -> index.removeProvider(providerId));
+            afterCommit(geoIndex, index -> index.removeProvider(providerId));
+        } else if (entity instanceof OfferedService service) {
+            if (service.getProvider() == null) {
+                return;
+            }
+            Long providerId = service.getProvider().getId();
+            Long serviceId = service.getId();
+            afterCommit(searchIndex, index -> index.removeService(providerId, serviceId));
+        } else if (entity instanceof User user) {
+            Long userId = user.getId();
+            afterCommit(searchIndex, index -> index.removeProvider(userId));
+            afterCommit(geoIndex, index -> index.removeProvider(userId));
+        }
+    }
+
+    private static <T> void afterCommit(ObjectProvider<T> indexProvider, Consumer<T> update) {
+        T index = indexProvider.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.accept(index);
+                }
+            });
+        } else {
+            update.accept(index);
+        }
+    }
+}
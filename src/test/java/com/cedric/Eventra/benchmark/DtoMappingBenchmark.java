@@ -0,0 +1,165 @@
+package com.cedric.Eventra.benchmark;
+
+import com.cedric.Eventra.config.ModelMapperConfig;
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.ChatMessageDTO;
+import com.cedric.Eventra.dto.NotificationDTO;
+import com.cedric.Eventra.dto.OfferedServiceDTO;
+import com.cedric.Eventra.dto.UserDTO;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.ChatMessage;
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.Notification;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.NotificationType;
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping cost on the hot read paths: the reflective ModelMapper (as configured in
+ * ModelMapperConfig) against the explicit EntityDtoMapper, for the same entity graphs.
+ * main() runs with the GC profiler so allocation rate (gc.alloc.rate.norm, bytes/op) is reported alongside throughput.
+ * Run the main method from the IDE, or after mvn test-compile:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main DtoMappingBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+	private static final int BOOKING_PAGE_SIZE = 50;
+
+	private ModelMapper modelMapper;
+	private EntityDtoMapper entityDtoMapper;
+
+	private User provider;
+	private OfferedService offeredService;
+	private List<Booking> bookings;
+	private Notification notification;
+	private ChatMessage chatMessage;
+
+	@Setup
+	public void setup() {
+		modelMapper = new ModelMapperConfig().modelMapper();
+		entityDtoMapper = new EntityDtoMapper();
+
+		provider = User.builder().id(2L).email("provider1@eventra.com").password("hash").firstName("Pat").lastName("Lee")
+				.phoneNumber("0400000000").role(UserRole.SERVICE_PROVIDER).isActive(true).build();
+		provider.setServiceProviderProfile(ServiceProviderProfile.builder().userId(2L).user(provider)
+				.serviceName("Lee Photography").ABN("12345678901").location("Sydney, NSW").postcode("2000")
+				.serviceCategory(ServiceCategory.PHOTOGRAPHER).averageRating(4.6f).build());
+		User customer = User.builder().id(1L).email("customer1@eventra.com").password("hash").firstName("Cam").lastName("Ng")
+				.phoneNumber("0411111111").role(UserRole.CUSTOMER).isActive(true).build();
+		offeredService = OfferedService.builder().id(5L).name("Wedding package").description("Full day coverage")
+				.price(new BigDecimal("1500.00")).available(true).provider(provider).location("Sydney").build();
+
+		bookings = new ArrayList<>(BOOKING_PAGE_SIZE);
+		for (long i = 0; i < BOOKING_PAGE_SIZE; i++) {
+			bookings.add(Booking.builder().id(i).requestName("Request " + i).description("Details").location("Sydney")
+					.preferredDate(LocalDate.of(2025, 6, 1)).preferredTime(LocalTime.NOON).user(customer)
+					.offeredService(offeredService).bookingReference("REF" + i).price(new BigDecimal("1500.00"))
+					.status(BookingStatus.PENDING).createdAt(LocalDateTime.of(2025, 5, 1, 9, 0)).build());
+		}
+
+		notification = Notification.builder().id(11L).subject("Booking confirmed").recipientUser(customer).body("Your booking is confirmed")
+				.bookingReference("REF1").notificationType(NotificationType.values()[0]).createdAt(LocalDateTime.of(2025, 5, 1, 9, 0)).build();
+		ChatRoom chatRoom = ChatRoom.builder().id(13L).participant1(customer).participant2(provider).build();
+		chatMessage = ChatMessage.builder().id(14L).chatRoom(chatRoom).sender(customer).content("Hi there")
+				.timestamp(LocalDateTime.of(2025, 5, 1, 9, 5)).build();
+	}
+
+	@Benchmark
+	public List<BookingDTO> modelMapper_bookingPage() {
+		return modelMapper.map(bookings, new TypeToken<List<BookingDTO>>(){}.getType());
+	}
+
+	@Benchmark
+	public List<BookingDTO> explicit_bookingPage() {
+		return entityDtoMapper.toBookingDTOs(bookings);
+	}
+
+	@Benchmark
+	public UserDTO modelMapper_provider() {
+		return modelMapper.map(provider, UserDTO.class);
+	}
+
+	@Benchmark
+	public UserDTO explicit_provider() {
+		return entityDtoMapper.toUserDTO(provider);
+	}
+
+	@Benchmark
+	public OfferedServiceDTO modelMapper_offeredService() {
+		return modelMapper.map(offeredService, OfferedServiceDTO.class);
+	}
+
+	@Benchmark
+	public OfferedServiceDTO explicit_offeredService() {
+		return entityDtoMapper.toOfferedServiceDTO(offeredService);
+	}
+
+	@Benchmark
+	public NotificationDTO modelMapper_notification() {
+		return modelMapper.map(notification, NotificationDTO.class);
+	}
+
+	@Benchmark
+	public NotificationDTO explicit_notification() {
+		return entityDtoMapper.toNotificationDTO(notification);
+	}
+
+	@Benchmark
+	public ChatMessageDTO modelMapper_chatMessage() {
+		// ChatServiceImpl previously built the DTO by hand and mapped only the sender reflectively
+		ChatMessageDTO dto = new ChatMessageDTO();
+		dto.setId(chatMessage.getId());
+		dto.setChatRoomId(chatMessage.getChatRoom().getId());
+		dto.setSender(modelMapper.map(chatMessage.getSender(), UserDTO.class));
+		dto.setContent(chatMessage.getContent());
+		dto.setTimestamp(chatMessage.getTimestamp());
+		return dto;
+	}
+
+	@Benchmark
+	public ChatMessageDTO explicit_chatMessage() {
+		return entityDtoMapper.toChatMessageDTO(chatMessage);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DtoMappingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,85 @@
+package com.cedric.Eventra.benchmark;
+
+import com.cedric.Eventra.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in AuthFilter: the old path (three parser builds and signature checks)
+ * against the shared parser with and without the verified-claims cache.
+ * Run the main method from the IDE, or after mvn test-compile:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main JwtAuthBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+	private static final String SECRET = "EventHub12EventHub12EventHub12EventHub12";
+	private static final String EMAIL = "customer1@eventra.com";
+
+	private SecretKey key;
+	private JwtUtils cachedJwtUtils;
+	private JwtParser sharedParser;
+	private String token;
+
+	@Setup
+	public void setup() {
+		key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+		cachedJwtUtils = new JwtUtils(SECRET, Duration.ofMinutes(10), 10_000);
+		sharedParser = Jwts.parser().verifyWith(key).build();
+		token = cachedJwtUtils.generateToken(EMAIL);
+	}
+
+	@Benchmark
+	public boolean before_threeParsesPerRequest() {
+		// AuthFilter: getUsernameFromToken, then isTokenValid -> getUsernameFromToken + isTokenExpired
+		String email = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+		String username = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+		Date expiration = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getExpiration();
+		return email.equals(username) && !expiration.before(new Date());
+	}
+
+	@Benchmark
+	public boolean after_singleParseSharedParser() {
+		// Cache miss path: one signature check with the shared parser
+		Claims claims = sharedParser.parseSignedClaims(token).getPayload();
+		return EMAIL.equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
+	}
+
+	@Benchmark
+	public boolean after_cachedClaims() {
+		Claims claims = cachedJwtUtils.getVerifiedClaims(token);
+		return EMAIL.equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtAuthBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,145 @@
+package com.cedric.Eventra.benchmark;
+
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.service.search.ProviderSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provider search latency at 100k providers, one query shape per run: broad single words (long posting
+ * lists), multi-word AND, a suburb, a postcode, a prefix and a misspelling. Sample mode reports the
+ * wall-clock distribution per call, including p0.99, which should stay under 10 ms.
+ * Run the main method from the IDE, or after mvn test-compile:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main ProviderSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProviderSearchBenchmark {
+
+	private static final int PROVIDERS = 100_000;
+	private static final String[] WORDS = {"wedding", "catering", "photography", "florist", "music", "band", "dj", "venue",
+			"hire", "cakes", "makeup", "hair", "bridal", "party", "corporate", "events", "lighting", "sound", "marquee", "coffee"};
+	private static final String[] SUBURBS = {"sydney", "parramatta", "bondi", "manly", "newtown", "penrith", "cronulla",
+			"chatswood", "hornsby", "liverpool"};
+
+	@Param({"wedding", "wedding photography", "corporate events sydney", "florist newtown", "2150", "mus", "photgraphy"})
+	private String query;
+
+	private ProviderSearchIndex index;
+	private int page;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		List<ServiceProviderProfileRepository.SearchDocumentRow> profiles = new ArrayList<>(PROVIDERS);
+		List<OfferedServiceRepository.SearchDocumentRow> services = new ArrayList<>(PROVIDERS);
+		for (long id = 1; id <= PROVIDERS; id++) {
+			profiles.add(new ProfileRow(id, word(random) + " " + word(random) + " co" + id,
+					ServiceCategory.values()[random.nextInt(ServiceCategory.values().length)],
+					SUBURBS[random.nextInt(SUBURBS.length)], String.valueOf(2000 + random.nextInt(1000))));
+			services.add(new ServiceRow(id, id, word(random) + " package", word(random) + " and " + word(random)));
+		}
+		ServiceProviderProfileRepository serviceProviderProfileRepository = mock(ServiceProviderProfileRepository.class);
+		OfferedServiceRepository offeredServiceRepository = mock(OfferedServiceRepository.class);
+		when(serviceProviderProfileRepository.findSearchDocumentRows()).thenReturn(profiles);
+		when(offeredServiceRepository.findSearchDocumentRows()).thenReturn(services);
+		index = new ProviderSearchIndex(serviceProviderProfileRepository, offeredServiceRepository);
+		index.rebuild();
+	}
+
+	@Benchmark
+	public ProviderSearchIndex.SearchResult search() {
+		// First three pages, as a user paging through results would request them
+		page = (page + 1) % 3;
+		return index.search(query, page, 20);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(ProviderSearchBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+
+	private record ProfileRow(Long providerId, String serviceName, ServiceCategory category, String location,
+							  String postcode) implements ServiceProviderProfileRepository.SearchDocumentRow {
+
+		public Long getProviderId() {
+			return providerId;
+		}
+
+		public String getServiceName() {
+			return serviceName;
+		}
+
+		public ServiceCategory getServiceCategory() {
+			return category;
+		}
+
+		public String getLocation() {
+			return location;
+		}
+
+		public String getPostcode() {
+			return postcode;
+		}
+
+		public Boolean getIsActive() {
+			return true;
+		}
+
+		public UserRole getRole() {
+			return UserRole.SERVICE_PROVIDER;
+		}
+	}
+
+	private record ServiceRow(Long providerId, Long serviceId, String name, String description)
+			implements OfferedServiceRepository.SearchDocumentRow {
+
+		public Long getProviderId() {
+			return providerId;
+		}
+
+		public Long getServiceId() {
+			return serviceId;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package com.cedric.Eventra.config;
+
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.security.AuthUser;
+import com.cedric.Eventra.security.JwtStompAuthChannelInterceptor;
+import com.cedric.Eventra.security.JwtUtils;
+import com.cedric.Eventra.service.chat.ChatPresenceService;
+import com.cedric.Eventra.service.chat.ChatRoomMembershipCache;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.TransportConnector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Starts WebSocketConfig in small web contexts ("nodes") and checks both broker modes: in relay mode two
+ * nodes share an embedded ActiveMQ STOMP broker, and a message sent on one reaches a session on the other.
+ */
+class WebSocketConfigBrokerTest {
+
+	private final List<AnnotationConfigWebApplicationContext> nodes = new ArrayList<>();
+	private BrokerService broker;
+
+	@AfterEach
+	void stop() throws Exception {
+		nodes.forEach(AnnotationConfigWebApplicationContext::close);
+		if (broker != null) {
+			broker.stop();
+			broker.waitUntilStopped();
+		}
+	}
+
+	@Test
+	void relayModeFansOutAcrossNodesThroughTheSharedBroker() throws Exception {
+		broker = new BrokerService();
+		broker.setBrokerName("chat-relay-test");
+		broker.setPersistent(false);
+		broker.setUseJmx(false);
+		TransportConnector connector = broker.addConnector("stomp://localhost:0");
+		broker.start();
+		broker.waitUntilStarted();
+		int port = connector.getConnectUri().getPort();
+
+		AnnotationConfigWebApplicationContext nodeA = node(Map.of("chat.broker.mode", "relay", "chat.broker.relay.port", port));
+		AnnotationConfigWebApplicationContext nodeB = node(Map.of("chat.broker.mode", "relay", "chat.broker.relay.port", port));
+		awaitTrue(() -> nodeA.getBean(StompBrokerRelayMessageHandler.class).isBrokerAvailable()
+				&& nodeB.getBean(StompBrokerRelayMessageHandler.class).isBrokerAvailable(), "relays connected");
+
+		// A client session on node B subscribes to a room
+		List<Message<?>> toClient = new CopyOnWriteArrayList<>();
+		nodeB.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(toClient::add);
+		MessageChannel inboundB = nodeB.getBean("clientInboundChannel", MessageChannel.class);
+		inboundB.send(frame(StompCommand.CONNECT, accessor -> accessor.setAcceptVersion("1.2")));
+		awaitTrue(() -> received(toClient, StompCommand.CONNECTED) != null, "CONNECTED");
+		inboundB.send(frame(StompCommand.SUBSCRIBE, accessor -> {
+			accessor.setSubscriptionId("sub-0");
+			accessor.setDestination("/topic/room.42");
+			accessor.setReceipt("subscribed");
+			accessor.setUser(new UsernamePasswordAuthenticationToken(
+					AuthUser.builder().user(User.builder().id(7L).email("alice@eventra.com").build()).build(), null, List.of()));
+		}));
+		awaitTrue(() -> received(toClient, StompCommand.RECEIPT) != null, "RECEIPT");
+
+		// ChatMessageController on node A broadcasts to the room
+		nodeA.getBean(SimpMessagingTemplate.class).convertAndSend("/topic/room.42", "hello from A");
+
+		awaitTrue(() -> received(toClient, StompCommand.MESSAGE) != null, "MESSAGE on node B");
+		Message<?> message = received(toClient, StompCommand.MESSAGE);
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(message);
+		assertEquals("session-1", headers.getSessionId());
+		assertEquals("/topic/room.42", headers.getDestination());
+		assertArrayEquals("hello from A".getBytes(StandardCharsets.UTF_8), (byte[]) message.getPayload());
+	}
+
+	@Test
+	void simpleModeAppliesChannelPoolsSendLimitsAndHeartbeats() {
+		AnnotationConfigWebApplicationContext node = node(Map.of(
+				"chat.broker.mode", "simple",
+				"chat.broker.heartbeat-ms", 5000,
+				"chat.websocket.inbound.core-pool-size", 3,
+				"chat.websocket.inbound.max-pool-size", 6,
+				"chat.websocket.inbound.queue-capacity", 50,
+				"chat.websocket.outbound.core-pool-size", 4,
+				"chat.websocket.outbound.max-pool-size", 7,
+				"chat.websocket.send-buffer-size-limit", 1024,
+				"chat.websocket.send-time-limit-ms", 2000));
+
+		ThreadPoolTaskExecutor inbound = node.getBean("clientInboundChannelExecutor", ThreadPoolTaskExecutor.class);
+		assertEquals(3, inbound.getCorePoolSize());
+		assertEquals(6, inbound.getMaxPoolSize());
+		assertEquals(50, inbound.getQueueCapacity());
+		ThreadPoolTaskExecutor outbound = node.getBean("clientOutboundChannelExecutor", ThreadPoolTaskExecutor.class);
+		assertEquals(4, outbound.getCorePoolSize());
+		assertEquals(7, outbound.getMaxPoolSize());
+
+		SubProtocolWebSocketHandler webSocketHandler = node.getBean(SubProtocolWebSocketHandler.class);
+		assertEquals(1024, webSocketHandler.getSendBufferSizeLimit());
+		assertEquals(2000, webSocketHandler.getSendTimeLimit());
+
+		SimpleBrokerMessageHandler simpleBroker = node.getBean(SimpleBrokerMessageHandler.class);
+		assertArrayEquals(new long[]{5000, 5000}, simpleBroker.getHeartbeatValue());
+		assertTrue(simpleBroker.isRunning());
+	}
+
+	private AnnotationConfigWebApplicationContext node(Map<String, Object> properties) {
+		AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", new HashMap<>(properties)));
+		context.register(Interceptor.class, WebSocketConfig.class);
+		context.refresh();
+		nodes.add(context);
+		return context;
+	}
+
+	private static Message<byte[]> frame(StompCommand command, Consumer<StompHeaderAccessor> headers) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		accessor.setSessionId("session-1");
+		accessor.setSessionAttributes(new HashMap<>());
+		headers.accept(accessor);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private static Message<?> received(List<Message<?>> messages, StompCommand command) {
+		return messages.stream().filter(message -> command.equals(StompHeaderAccessor.wrap(message).getCommand()))
+				.findFirst().orElse(null);
+	}
+
+	private static void awaitTrue(BooleanSupplier condition, String what) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Timed out waiting for " + what);
+			}
+			Thread.sleep(20);
+		}
+	}
+
+	// The real interceptor; CONNECT frames without an Authorization header pass through unauthenticated,
+	// and user 7 may subscribe to room 42
+	static class Interceptor {
+		@Bean
+		JwtStompAuthChannelInterceptor jwtStompAuthChannelInterceptor() {
+			ChatRoomMembershipCache membershipCache = mock(ChatRoomMembershipCache.class);
+			when(membershipCache.isParticipant(42L, 7L)).thenReturn(true);
+			return new JwtStompAuthChannelInterceptor(mock(JwtUtils.class), mock(UserDetailsService.class), membershipCache,
+				mock(ChatPresenceService.class));
+		}
+	}
+}
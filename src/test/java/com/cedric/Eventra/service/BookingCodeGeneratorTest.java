@@ -0,0 +1,161 @@
+package com.cedric.Eventra.service;
+
+import com.cedric.Eventra.repository.IdSequenceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingCodeGeneratorTest {
+
+	private static final int THREADS = 8;
+	private static final int REFERENCES_PER_THREAD = 250_000;
+
+	@Autowired
+	private IdSequenceRepository idSequenceRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2030-03-14T10:00:00Z"));
+
+	@AfterEach
+	void deleteAll() {
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void generatesNoDuplicatesAcrossThreads() throws Exception {
+		BookingCodeGenerator generator = generator(0);
+		Set<String> references = ConcurrentHashMap.newKeySet(THREADS * REFERENCES_PER_THREAD);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					int duplicates = 0;
+					for (int i = 0; i < REFERENCES_PER_THREAD; i++) {
+						if (!references.add(generator.generateBookingReference())) {
+							duplicates++;
+						}
+					}
+					return duplicates;
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> result : results) {
+				assertEquals(0, result.get(2, TimeUnit.MINUTES));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(THREADS * REFERENCES_PER_THREAD, references.size());
+	}
+
+	@Test
+	void referencesUseTheBookingAlphabetAndNodePrefix() {
+		String a = generator(0).generateBookingReference();
+		String b = generator(1).generateBookingReference();
+
+		assertTrue(a.matches("[A-Z1-9]{10}"), a);
+		assertTrue(b.matches("[A-Z1-9]{10}"), b);
+		assertEquals('A', a.charAt(0));
+		assertEquals('B', b.charAt(0));
+		assertNotEquals(a, b);
+	}
+
+	@Test
+	void restartedNodeContinuesAboveWhatItIssued() {
+		Set<String> references = new HashSet<>();
+		BookingCodeGenerator before = generator(0);
+		for (int i = 0; i < 1000; i++) {
+			references.add(before.generateBookingReference());
+		}
+
+		BookingCodeGenerator restarted = generator(0);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(references.add(restarted.generateBookingReference()), "reissued after restart");
+		}
+	}
+
+	@Test
+	void nodeRefusesWhileItsClockIsBehindTheMark() {
+		Set<String> references = new HashSet<>();
+		BookingCodeGenerator before = generator(0);
+		references.add(before.generateBookingReference());
+
+		clock.advance(Duration.ofMinutes(-5));
+		BookingCodeGenerator restarted = generator(0);
+		assertThrows(IllegalStateException.class, restarted::generateBookingReference);
+
+		clock.advance(Duration.ofMinutes(5));
+		assertTrue(references.add(restarted.generateBookingReference()));
+	}
+
+	private BookingCodeGenerator generator(int nodeId) {
+		return new BookingCodeGenerator(null, idSequenceRepository, entityManager, transactionManager, nodeId, false,
+				Duration.ofSeconds(10), clock);
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private volatile Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.cedric.Eventra.service;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.BookingReadModel;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.notification.strategy.BookingConfirmedContentStrategy;
+import com.cedric.Eventra.service.readmodel.BookingReadModelProjector;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the number of SQL statements each booking read issues, so an eager association
+ * slipping out of the fetch plan shows up as a failing count rather than a slow endpoint.
+ */
+@DataJpaTest
+class BookingFetchPlanQueryCountTest {
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private BookingReadModelRepository bookingReadModelRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private ServiceProviderProfileRepository serviceProviderProfileRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final UserService userService = mock(UserService.class);
+	private BookingServiceImpl bookingService;
+	private ReportServiceImpl reportService;
+	private Statistics statistics;
+	private User customer;
+	private User provider;
+	private final List<Booking> bookings = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		bookingService = new BookingServiceImpl(bookingRepository, bookingReadModelRepository, userService,
+				offeredServiceRepository, new EntityDtoMapper(), mock(BookingCodeGenerator.class),
+				mock(ApplicationEventPublisher.class));
+		BookingReadModelProjector projector = new BookingReadModelProjector(bookingReadModelRepository,
+				bookingRepository, entityManager, transactionManager, 500);
+		reportService = new ReportServiceImpl(userService, bookingReadModelRepository, serviceProviderProfileRepository,
+				projector);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// Three customers booking four services of two providers, so any per-row select multiplies
+		List<User> customers = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			customers.add(userRepository.save(user("customer" + i + "@eventra.com", UserRole.CUSTOMER)));
+		}
+		customer = customers.get(0);
+		List<OfferedService> services = new ArrayList<>();
+		for (int p = 0; p < 2; p++) {
+			User providerUser = userRepository.save(user("provider" + p + "@eventra.com", UserRole.SERVICE_PROVIDER));
+			serviceProviderProfileRepository.save(ServiceProviderProfile.builder().user(providerUser)
+					.serviceName("Provider " + p).location("Sydney").postcode("2000").build());
+			for (int s = 0; s < 2; s++) {
+				services.add(offeredServiceRepository.save(OfferedService.builder().name("Service " + p + s)
+						.price(BigDecimal.TEN).available(true).provider(providerUser).build()));
+			}
+		}
+		provider = services.get(0).getProvider();
+		for (int i = 0; i < 24; i++) {
+			bookings.add(bookingRepository.save(Booking.builder().bookingReference("REF" + i)
+					.user(customers.get(i % customers.size())).offeredService(services.get(i % services.size()))
+					.price(BigDecimal.TEN).status(i % 2 == 0 ? BookingStatus.CONFIRMED : BookingStatus.COMPLETED).build()));
+		}
+		entityManager.flush();
+		entityManager.clear();
+		projector.rebuild();
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void customerBookingListIsOneStatement() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(customer);
+
+		Response response = countingStatements(1, () ->
+				bookingService.getMyBookingAsCustomer(null, null, null, null, null, 100));
+
+		assertEquals(8, response.getBookings().size());
+		assertNotNull(response.getBookings().get(0).getService().getProvider().getServiceProviderProfile());
+	}
+
+	@Test
+	void providerBookingListIsOneStatement() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(provider);
+
+		Response response = countingStatements(1, () ->
+				bookingService.getMyBookingAsProvider(null, null, null, null, null, null, 100));
+
+		assertEquals(12, response.getBookings().size());
+	}
+
+	@Test
+	void bookingDetailIsOneStatement() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(customer);
+
+		Response response = countingStatements(1, () -> bookingService.getBookingByReference("REF3"));
+
+		assertEquals(HttpStatus.OK.value(), response.getStatus());
+	}
+
+	@Test
+	void notificationReloadCarriesEverythingTheContentStrategiesRead() {
+		BookingConfirmedContentStrategy strategy = new BookingConfirmedContentStrategy();
+
+		String body = countingStatements(1, () -> {
+			Booking booking = bookingRepository.findCurrentById(bookings.get(5).getId()).orElseThrow();
+			User recipient = booking.getOfferedService().getProvider();
+			return strategy.generateSubject(booking, recipient) + strategy.generateBody(booking, recipient);
+		});
+
+		assertNotNull(body);
+	}
+
+	@Test
+	void customerBookingHistoryIsOneStatement() {
+		List<BookingReadModel> history = countingStatements(1, () -> bookingReadModelRepository.findByCustomerId(customer.getId()));
+
+		assertEquals(8, history.size());
+	}
+
+	@Test
+	void providerDashboardIsProfilePlusOneAggregateStatement() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(provider);
+
+		Response response = countingStatements(2, () -> reportService.getMyProviderDashboardSummary());
+
+		assertEquals(12, response.getDashboardSummary().getTotalBookingsLifetime());
+	}
+
+	private <T> T countingStatements(long expected, Supplier<T> call) {
+		entityManager.clear();
+		statistics.clear();
+		T result = call.get();
+		assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements issued");
+		return result;
+	}
+}
@@ -0,0 +1,191 @@
+package com.cedric.Eventra.service;
+
+import com.cedric.Eventra.dto.BookingDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.exception.BadRequestException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.readmodel.BookingReadModelProjector;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class BookingServiceImplPagingTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 1, 9, 0);
+	private static final BookingStatus[] STATUSES = {BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.COMPLETED};
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private BookingReadModelRepository bookingReadModelRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final UserService userService = mock(UserService.class);
+	private BookingServiceImpl bookingService;
+	private BookingReadModelProjector projector;
+	private User customer;
+	private User provider;
+	private OfferedService catering;
+	private OfferedService photography;
+	private final List<Booking> created = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		bookingService = new BookingServiceImpl(bookingRepository, bookingReadModelRepository, userService,
+				offeredServiceRepository, new EntityDtoMapper(), mock(BookingCodeGenerator.class),
+				mock(ApplicationEventPublisher.class));
+		projector = new BookingReadModelProjector(bookingReadModelRepository, bookingRepository, entityManager,
+				transactionManager, 500);
+
+		customer = userRepository.save(user("customer@eventra.com", UserRole.CUSTOMER));
+		provider = userRepository.save(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+		User otherProvider = userRepository.save(user("other@eventra.com", UserRole.SERVICE_PROVIDER));
+		catering = offeredServiceRepository.save(service("Catering", provider));
+		photography = offeredServiceRepository.save(service("Photography", provider));
+		OfferedService otherService = offeredServiceRepository.save(service("Florist", otherProvider));
+
+		// 45 bookings over 23 days; pairs share a creation time so the id tie-break is exercised
+		for (int i = 0; i < 45; i++) {
+			OfferedService service = i % 5 == 4 ? otherService : (i % 2 == 0 ? catering : photography);
+			created.add(booking("REF" + i, service, STATUSES[i % STATUSES.length], BASE.plusDays(i / 2)));
+		}
+		entityManager.flush();
+		entityManager.clear();
+		// Lists read the read model; these bookings were saved without events, so project them as a catch-up would
+		projector.catchUp();
+	}
+
+	@Test
+	void customerPagesWalkEveryBookingOnceInCreationOrder() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(customer);
+		List<Long> expected = created.stream()
+				.sorted(Comparator.comparing(Booking::getCreatedAt).thenComparing(Booking::getId).reversed())
+				.map(Booking::getId)
+				.toList();
+
+		List<Long> walked = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			Response page = bookingService.getMyBookingAsCustomer(null, null, null, null, cursor, 7);
+			assertEquals(HttpStatus.OK.value(), page.getStatus());
+			page.getBookings().forEach(booking -> walked.add(booking.getId()));
+			if (pages == 1) {
+				// A booking created mid-walk sorts before the cursor and must not shift later pages
+				booking("NEW", catering, BookingStatus.PENDING, BASE.plusDays(60));
+				entityManager.flush();
+				entityManager.clear();
+				projector.catchUp();
+			}
+			cursor = page.getNextCursor();
+			assertEquals(cursor != null, page.getHasMore());
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(expected, walked);
+		assertEquals(7, pages);
+	}
+
+	@Test
+	void ascendingOrderAndFiltersAreAppliedInTheQuery() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(customer);
+
+		Response page = bookingService.getMyBookingAsCustomer(List.of(BookingStatus.CONFIRMED, BookingStatus.COMPLETED),
+				LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 6), "asc", null, 100);
+
+		List<BookingDTO> bookings = page.getBookings();
+		assertFalse(bookings.isEmpty());
+		assertFalse(page.getHasMore());
+		assertNull(page.getNextCursor());
+		for (int i = 0; i < bookings.size(); i++) {
+			BookingDTO booking = bookings.get(i);
+			assertTrue(booking.getStatus() != BookingStatus.PENDING);
+			assertFalse(booking.getCreatedAt().toLocalDate().isBefore(LocalDate.of(2025, 6, 3)));
+			assertFalse(booking.getCreatedAt().toLocalDate().isAfter(LocalDate.of(2025, 6, 6)));
+			if (i > 0) {
+				assertFalse(booking.getCreatedAt().isBefore(bookings.get(i - 1).getCreatedAt()));
+			}
+		}
+		long expected = created.stream()
+				.filter(b -> b.getStatus() != BookingStatus.PENDING)
+				.filter(b -> !b.getCreatedAt().toLocalDate().isBefore(LocalDate.of(2025, 6, 3))
+						&& !b.getCreatedAt().toLocalDate().isAfter(LocalDate.of(2025, 6, 6)))
+				.count();
+		assertEquals(expected, bookings.size());
+	}
+
+	@Test
+	void providerSeesOnlyTheirServicesAndCursorMustMatchTheOrder() {
+		when(userService.getCurrentLoggedInUser()).thenReturn(provider);
+
+		Response all = bookingService.getMyBookingAsProvider(null, null, null, null, null, null, 100);
+		assertEquals(36, all.getBookings().size());
+
+		Response photos = bookingService.getMyBookingAsProvider(photography.getId(), null, null, null, null, null, 5);
+		assertTrue(photos.getBookings().stream().allMatch(b -> b.getService().getId().equals(photography.getId())));
+		assertTrue(photos.getHasMore());
+
+		assertThrows(BadRequestException.class, () ->
+				bookingService.getMyBookingAsProvider(photography.getId(), null, null, null, "asc", photos.getNextCursor(), 5));
+		assertThrows(BadRequestException.class, () ->
+				bookingService.getMyBookingAsProvider(null, null, null, null, null, "not-a-cursor", 5));
+
+		Long foreignService = created.get(4).getOfferedService().getId();
+		assertEquals(HttpStatus.FORBIDDEN.value(),
+				bookingService.getMyBookingAsProvider(foreignService, null, null, null, null, null, 5).getStatus());
+	}
+
+	private Booking booking(String reference, OfferedService service, BookingStatus status, LocalDateTime createdAt) {
+		Booking booking = bookingRepository.save(Booking.builder().bookingReference(reference).user(customer)
+				.offeredService(service).price(BigDecimal.TEN).status(status).build());
+		// createdAt is stamped by @PrePersist; backdate it for a deterministic order
+		entityManager.createQuery("UPDATE Booking b SET b.createdAt = :createdAt WHERE b.id = :id")
+				.setParameter("createdAt", createdAt)
+				.setParameter("id", booking.getId())
+				.executeUpdate();
+		booking.setCreatedAt(createdAt);
+		return booking;
+	}
+
+	private static OfferedService service(String name, User provider) {
+		return OfferedService.builder().name(name).price(BigDecimal.TEN).available(true).provider(provider).build();
+	}
+}
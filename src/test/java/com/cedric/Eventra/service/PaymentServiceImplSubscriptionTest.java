@@ -0,0 +1,51 @@
+package com.cedric.Eventra.service;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.dto.SimulatedPaymentRequestDTO;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.PaymentRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.security.PrincipalCache;
+import com.cedric.Eventra.service.booking.command.BookingCommandDispatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class PaymentServiceImplSubscriptionTest {
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void providerActivatedThroughAnotherNodeIsNotChargedAgain() {
+		User provider = userRepository.saveAndFlush(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+		// This node's cached principal still has the provider from before the payment on the other node
+		User cachedPrincipal = user("provider@eventra.com", UserRole.SERVICE_PROVIDER);
+		cachedPrincipal.setId(provider.getId());
+		cachedPrincipal.setIsActive(false);
+		UserService userService = mock(UserService.class);
+		when(userService.getCurrentLoggedInUser()).thenReturn(cachedPrincipal);
+		PaymentServiceImpl paymentService = new PaymentServiceImpl(paymentRepository, mock(NotificationService.class),
+				new EntityDtoMapper(), userService, userRepository, new PrincipalCache(Duration.ofMinutes(5), 100),
+				mock(BookingCommandDispatcher.class));
+
+		SimulatedPaymentRequestDTO request = new SimulatedPaymentRequestDTO();
+		request.setDummyCardNumber("4111111111110000");
+		Response response = paymentService.processSimulatedSubscriptionFee(request);
+
+		assertEquals(400, response.getStatus());
+		assertEquals(0, paymentRepository.count());
+	}
+}
@@ -0,0 +1,147 @@
+package com.cedric.Eventra.service.availability;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ProviderAvailabilityCalendarTest {
+
+	private static final LocalDate DAY = LocalDate.of(2030, 3, 14);
+
+	private final MutableClock clock = new MutableClock(DAY.minusDays(7).atStartOfDay().toInstant(ZoneOffset.UTC));
+	private ProviderAvailabilityCalendar calendar;
+
+	@BeforeEach
+	void setUp() {
+		calendar = new ProviderAvailabilityCalendar(mock(BookingRepository.class),
+				Duration.ofHours(48), Duration.ofHours(24), 60, 2, clock);
+	}
+
+	@Test
+	void burstOfOverlappingRequestsNeverOversubscribesAProvider() throws Exception {
+		int providers = 4;
+		int requestsPerProvider = 2_000;
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		List<Future<?>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < providers * requestsPerProvider; i++) {
+				long providerId = i % providers;
+				String reference = "REF" + i;
+				results.add(pool.submit(() -> {
+					// 60-minute slots starting on any quarter hour between 08:00 and 17:45
+					LocalTime time = LocalTime.of(8, 0).plusMinutes(15L * ThreadLocalRandom.current().nextInt(40));
+					calendar.holdForRequest(booking(reference, providerId, DAY, time, 60));
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		for (long providerId = 0; providerId < providers; providerId++) {
+			List<ProviderAvailabilityCalendar.Slot> slots = new ArrayList<>(
+					calendar.slotsBetween(providerId, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()));
+			slots.sort(Comparator.comparing(ProviderAvailabilityCalendar.Slot::start));
+			assertFalse(slots.isEmpty());
+			assertTrue(slots.size() <= 10, "at most ten one-hour slots fit between 08:00 and 18:45");
+			for (int i = 1; i < slots.size(); i++) {
+				assertFalse(slots.get(i).start().isBefore(slots.get(i - 1).end()),
+						"provider " + providerId + " double-booked: " + slots.get(i - 1) + " / " + slots.get(i));
+			}
+		}
+	}
+
+	@Test
+	void lapsedRequestHoldFreesTheSlotAndIsSwept() {
+		assertTrue(calendar.holdForRequest(booking("A", 1L, DAY, LocalTime.of(10, 0), 90)).held());
+		ProviderAvailabilityCalendar.HoldResult overlapping = calendar.holdForRequest(booking("B", 1L, DAY, LocalTime.of(11, 0), 60));
+		assertFalse(overlapping.held());
+		assertEquals("A", overlapping.conflict().bookingReference());
+
+		clock.advance(Duration.ofHours(49));
+		assertTrue(calendar.holdForRequest(booking("B", 1L, DAY, LocalTime.of(11, 0), 60)).held());
+
+		clock.advance(Duration.ofHours(49));
+		calendar.sweepExpiredHolds();
+		assertTrue(calendar.slotsBetween(1L, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()).isEmpty());
+	}
+
+	@Test
+	void confirmedSlotNeverLapsesAndReleasedSlotCanBeRebooked() {
+		Booking paid = booking("A", 1L, DAY, LocalTime.of(9, 0), 60);
+		calendar.holdForRequest(paid);
+		calendar.holdForPayment(paid);
+		calendar.confirm(paid);
+
+		clock.advance(Duration.ofDays(5));
+		calendar.sweepExpiredHolds();
+		assertFalse(calendar.holdForRequest(booking("B", 1L, DAY, LocalTime.of(9, 30), 60)).held());
+
+		calendar.release("A");
+		assertTrue(calendar.holdForRequest(booking("B", 1L, DAY, LocalTime.of(9, 30), 60)).held());
+		// Back-to-back slots do not overlap; a date-only request takes the whole day
+		assertTrue(calendar.holdForRequest(booking("C", 1L, DAY, LocalTime.of(10, 30), 60)).held());
+		assertFalse(calendar.holdForRequest(booking("D", 1L, DAY, null, 60)).held());
+		assertTrue(calendar.holdForRequest(booking("D", 1L, DAY.plusDays(1), null, 60)).held());
+	}
+
+	private static Booking booking(String reference, Long providerId, LocalDate date, LocalTime time, int durationMinutes) {
+		User provider = User.builder().id(providerId).build();
+		OfferedService service = OfferedService.builder().id(providerId * 10).provider(provider).durationMinutes(durationMinutes).build();
+		return Booking.builder().bookingReference(reference).offeredService(service).preferredDate(date).preferredTime(time).build();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private volatile Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
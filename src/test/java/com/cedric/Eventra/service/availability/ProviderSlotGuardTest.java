@@ -0,0 +1,101 @@
+package com.cedric.Eventra.service.availability;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class ProviderSlotGuardTest {
+
+	private static final LocalDate DAY = LocalDate.now().plusDays(30);
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+
+	private User customer;
+	private OfferedService service;
+
+	@BeforeEach
+	void setUp() {
+		customer = userRepository.save(user("customer@eventra.com", UserRole.CUSTOMER));
+		User provider = userRepository.save(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+		service = offeredServiceRepository.save(OfferedService.builder().name("Catering").price(BigDecimal.TEN)
+				.available(true).durationMinutes(60).provider(provider).build());
+	}
+
+	@Test
+	void secondInstanceCannotTakeASlotItsOwnCalendarHasNotSeen() {
+		ProviderSlotGuard nodeA = guard(calendar());
+		ProviderSlotGuard nodeB = guard(calendar());
+
+		Booking first = booking("EVT-A", LocalTime.of(10, 0));
+		assertTrue(nodeA.holdForRequest(first).held());
+		bookingRepository.saveAndFlush(first);
+
+		ProviderAvailabilityCalendar.HoldResult second = nodeB.holdForRequest(booking("EVT-B", LocalTime.of(10, 30)));
+		assertFalse(second.held(), "node B's calendar is empty, the stored booking must still win");
+		assertEquals("EVT-A", second.conflict().bookingReference());
+		assertTrue(nodeB.holdForRequest(booking("EVT-C", LocalTime.of(11, 0))).held(), "adjacent slot is free");
+	}
+
+	@Test
+	void lapsedStoredHoldDoesNotBlockTheSlot() {
+		Booking lapsed = booking("EVT-LAPSED", LocalTime.of(10, 0));
+		lapsed.setHoldExpiresAt(Instant.now().minusSeconds(60));
+		bookingRepository.saveAndFlush(lapsed);
+
+		assertTrue(guard(calendar()).holdForRequest(booking("EVT-NEW", LocalTime.of(10, 0))).held());
+	}
+
+	@Test
+	void calendarSlotFreedOnAnotherInstanceIsDropped() {
+		ProviderAvailabilityCalendar calendar = calendar();
+		Booking cancelled = booking("EVT-CANCELLED", LocalTime.of(10, 0));
+		assertTrue(calendar.holdForRequest(cancelled).held());
+		// Cancelled through another instance, whose calendar released it; this one still has the slot
+		cancelled.setStatus(BookingStatus.CANCELLED);
+		cancelled.setHoldExpiresAt(null);
+		bookingRepository.saveAndFlush(cancelled);
+
+		assertTrue(guard(calendar).holdForRequest(booking("EVT-NEW", LocalTime.of(10, 0))).held());
+		assertEquals("EVT-NEW", calendar.slotsBetween(service.getProvider().getId(), DAY.atStartOfDay(),
+				DAY.plusDays(1).atStartOfDay()).get(0).bookingReference());
+	}
+
+	private ProviderAvailabilityCalendar calendar() {
+		return new ProviderAvailabilityCalendar(bookingRepository, Duration.ofHours(48), Duration.ofHours(24), 60, 500);
+	}
+
+	private ProviderSlotGuard guard(ProviderAvailabilityCalendar calendar) {
+		return new ProviderSlotGuard(bookingRepository, offeredServiceRepository, userRepository, calendar);
+	}
+
+	private Booking booking(String reference, LocalTime time) {
+		return Booking.builder().bookingReference(reference).user(customer).offeredService(service)
+				.price(BigDecimal.TEN).status(BookingStatus.PENDING).preferredDate(DAY).preferredTime(time).build();
+	}
+}
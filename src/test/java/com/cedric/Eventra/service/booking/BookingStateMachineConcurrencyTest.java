@@ -0,0 +1,160 @@
+package com.cedric.Eventra.service.booking;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import com.cedric.Eventra.service.availability.ProviderSlotGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races status transitions against each other in real, concurrently committing transactions
+ * (no dispatcher lock in front), so only the compare-and-set update stands between them.
+ */
+@DataJpaTest
+@Import({BookingStateMachine.class, ProviderAvailabilityCalendar.class, ProviderSlotGuard.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingStateMachineConcurrencyTest {
+
+	private static final int BOOKINGS = 200;
+	private static final int THREADS = 8;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private BookingStateMachine stateMachine;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate tx;
+	private List<String> references;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		deleteAllRows(jdbcTemplate);
+		references = tx.execute(status -> {
+			User customer = userRepository.save(user("customer@eventra.com", UserRole.CUSTOMER));
+			User provider = userRepository.save(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+			OfferedService service = offeredServiceRepository.save(OfferedService.builder()
+					.name("Catering").price(BigDecimal.TEN).available(true).provider(provider).build());
+
+			List<String> created = new ArrayList<>();
+			for (int i = 0; i < BOOKINGS; i++) {
+				Booking booking = bookingRepository.save(Booking.builder().bookingReference("REF" + i)
+						.user(customer).offeredService(service).price(BigDecimal.TEN)
+						.status(BookingStatus.ACCEPTED_AWAITING_PAYMENT).build());
+				created.add(booking.getBookingReference());
+			}
+			return created;
+		});
+	}
+
+	@Test
+	void customerCancelRacingPaymentConfirmationHasExactlyOneWinner() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<Boolean>> cancels = new ArrayList<>();
+		List<Future<Boolean>> confirms = new ArrayList<>();
+		try {
+			for (String reference : references) {
+				// Both sides read the booking as ACCEPTED_AWAITING_PAYMENT before either writes
+				CyclicBarrier bothRead = new CyclicBarrier(2);
+				cancels.add(pool.submit(() -> transitionAfterRead(reference, bothRead, BookingStatus.CANCELLED,
+						EnumSet.of(BookingStatus.PENDING, BookingStatus.ACCEPTED_AWAITING_PAYMENT))));
+				confirms.add(pool.submit(() -> transitionAfterRead(reference, bothRead, BookingStatus.CONFIRMED,
+						EnumSet.of(BookingStatus.ACCEPTED_AWAITING_PAYMENT))));
+			}
+
+			for (int i = 0; i < references.size(); i++) {
+				boolean cancelled = cancels.get(i).get(60, TimeUnit.SECONDS);
+				boolean confirmed = confirms.get(i).get(60, TimeUnit.SECONDS);
+				String reference = references.get(i);
+				assertNotEquals(cancelled, confirmed, reference + ": exactly one transition must win");
+
+				Booking stored = bookingRepository.findByBookingReference(reference).orElseThrow();
+				assertEquals(cancelled ? BookingStatus.CANCELLED : BookingStatus.CONFIRMED, stored.getStatus(), reference);
+				assertEquals(1L, stored.getVersion(), reference + ": one committed status change");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void staleEntitySaveAfterTransitionIsRejected() {
+		Booking stale = bookingRepository.findByBookingReference(references.get(0)).orElseThrow();
+
+		BookingStateMachine.TransitionResult result = tx.execute(status ->
+				stateMachine.transition(stale, BookingStatus.CONFIRMED, EnumSet.of(BookingStatus.ACCEPTED_AWAITING_PAYMENT)));
+		assertTrue(result.applied());
+
+		stale.setDescription("edited from an old copy");
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> tx.executeWithoutResult(status -> bookingRepository.save(stale)));
+		assertEquals(BookingStatus.CONFIRMED, bookingRepository.findByBookingReference(references.get(0)).orElseThrow().getStatus());
+	}
+
+	@Test
+	void transitionOutsideTheTableIsRefusedWithoutWriting() {
+		Booking booking = bookingRepository.findByBookingReference(references.get(0)).orElseThrow();
+
+		BookingStateMachine.TransitionResult result = tx.execute(status ->
+				stateMachine.transition(booking, BookingStatus.COMPLETED, EnumSet.allOf(BookingStatus.class)));
+
+		assertFalse(result.applied());
+		Booking stored = bookingRepository.findByBookingReference(references.get(0)).orElseThrow();
+		assertEquals(BookingStatus.ACCEPTED_AWAITING_PAYMENT, stored.getStatus());
+		assertEquals(0L, stored.getVersion());
+	}
+
+	private boolean transitionAfterRead(String reference, CyclicBarrier bothRead, BookingStatus target,
+										EnumSet<BookingStatus> allowedFrom) {
+		return tx.execute(status -> {
+			Booking booking = bookingRepository.findByBookingReference(reference).orElseThrow();
+			try {
+				bothRead.await(30, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			return stateMachine.transition(booking, target, allowedFrom).applied();
+		});
+	}
+}
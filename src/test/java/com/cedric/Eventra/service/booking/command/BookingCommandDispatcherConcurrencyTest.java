@@ -0,0 +1,247 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.PaymentStatus;
+import com.cedric.Eventra.events.BookingCancelledByProviderEvent;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.PaymentRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import com.cedric.Eventra.service.availability.ProviderSlotGuard;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the real handlers through the dispatcher from many threads at once, with repositories mocked
+ * over an in-memory booking table, to show that concurrent commands never see each other's parameters.
+ */
+class BookingCommandDispatcherConcurrencyTest {
+
+	private static final int THREADS = 16;
+	private static final int BOOKINGS = 2_000;
+
+	private final Map<String, Booking> bookings = new ConcurrentHashMap<>();
+	private final Map<Long, String> referencesById = new ConcurrentHashMap<>();
+	private final Queue<ApplicationEvent> publishedEvents = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<User> currentUser = new ThreadLocal<>();
+	private BookingCommandDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() {
+		BookingRepository bookingRepository = mock(BookingRepository.class);
+		PaymentRepository paymentRepository = mock(PaymentRepository.class);
+		UserService userService = mock(UserService.class);
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+		EntityDtoMapper entityDtoMapper = new EntityDtoMapper();
+
+		// Like separate persistence contexts: each load gets its own copy of the row
+		when(bookingRepository.findByBookingReference(anyString())).thenAnswer(invocation ->
+				Optional.ofNullable(bookings.get(invocation.<String>getArgument(0))).map(BookingCommandDispatcherConcurrencyTest::copyOf));
+		when(bookingRepository.findCurrentById(anyLong())).thenAnswer(invocation ->
+				Optional.ofNullable(bookings.get(referencesById.get(invocation.<Long>getArgument(0)))).map(BookingCommandDispatcherConcurrencyTest::copyOf));
+		// UPDATE ... WHERE id = ? AND status = ?, atomic per row
+		when(bookingRepository.compareAndSetStatus(anyLong(), any(BookingStatus.class), any(BookingStatus.class), any())).thenAnswer(invocation -> {
+			BookingStatus from = invocation.getArgument(1);
+			BookingStatus to = invocation.getArgument(2);
+			LockSupport.parkNanos(200_000); // widen the read-then-write window between concurrent commands
+			AtomicInteger updated = new AtomicInteger();
+			bookings.computeIfPresent(referencesById.get(invocation.<Long>getArgument(0)), (reference, row) -> {
+				if (row.getStatus() != from) {
+					return row;
+				}
+				updated.set(1);
+				Booking next = copyOf(row);
+				next.setStatus(to);
+				return next;
+			});
+			return updated.get();
+		});
+		when(userService.getCurrentLoggedInUser()).thenAnswer(invocation -> currentUser.get());
+		doAnswer(invocation -> publishedEvents.add(invocation.getArgument(0)))
+				.when(eventPublisher).publishEvent(any(ApplicationEvent.class));
+
+		ProviderAvailabilityCalendar calendar = new ProviderAvailabilityCalendar(bookingRepository, Duration.ofHours(48), Duration.ofHours(24), 60, 500);
+		ProviderSlotGuard slotGuard = mock(ProviderSlotGuard.class);
+		when(slotGuard.holdForPayment(any(Booking.class), any())).thenAnswer(invocation -> calendar.holdForPayment(invocation.getArgument(0)));
+		BookingStateMachine stateMachine = new BookingStateMachine(bookingRepository, calendar, slotGuard, eventPublisher, 3);
+
+		dispatcher = new BookingCommandDispatcher(List.of(
+				new AcceptBookingCommandHandler(bookingRepository, stateMachine, userService, eventPublisher, entityDtoMapper),
+				new ConfirmBookingPaymentCommandHandler(bookingRepository, stateMachine, eventPublisher, entityDtoMapper),
+				new CustomerCancelBookingCommandHandler(bookingRepository, stateMachine, userService, eventPublisher, entityDtoMapper),
+				new ProviderCancelBookingCommandHandler(bookingRepository, stateMachine, userService, eventPublisher, entityDtoMapper),
+				new ProcessSimulatedPaymentCommandHandler(bookingRepository, paymentRepository, stateMachine, eventPublisher, entityDtoMapper)
+		), 64);
+
+		for (long i = 0; i < BOOKINGS; i++) {
+			User customer = User.builder().id(i).email("customer" + i + "@eventra.com").build();
+			User provider = User.builder().id(100_000 + i).email("provider" + i + "@eventra.com").build();
+			OfferedService service = OfferedService.builder().id(i).name("Service " + i).provider(provider).build();
+			String reference = "REF" + i;
+			referencesById.put(i, reference);
+			bookings.put(reference, Booking.builder().id(i).bookingReference(reference).user(customer)
+					.offeredService(service).price(BigDecimal.TEN).status(BookingStatus.PENDING).build());
+		}
+	}
+
+	@Test
+	void concurrentCommandsOnDifferentBookingsNeverCrossContaminate() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<String>>> results = new ArrayList<>();
+		try {
+			for (Booking booking : bookings.values()) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return runLifecycle(booking);
+				}));
+			}
+			start.countDown();
+
+			List<String> failures = new ArrayList<>();
+			for (Future<List<String>> result : results) {
+				failures.addAll(result.get(60, TimeUnit.SECONDS));
+			}
+			assertTrue(failures.isEmpty(), () -> failures.size() + " mismatches, e.g. " + failures.subList(0, Math.min(5, failures.size())));
+		} finally {
+			pool.shutdownNow();
+		}
+
+		for (Booking booking : bookings.values()) {
+			assertEquals(BookingStatus.CANCELLED, booking.getStatus(), booking.getBookingReference());
+		}
+		List<BookingCancelledByProviderEvent> providerCancellations = publishedEvents.stream()
+				.filter(BookingCancelledByProviderEvent.class::isInstance)
+				.map(BookingCancelledByProviderEvent.class::cast)
+				.toList();
+		assertEquals(BOOKINGS / 2, providerCancellations.size());
+		for (BookingCancelledByProviderEvent event : providerCancellations) {
+			assertEquals("reason for " + event.getBooking().getBookingReference(), event.getReason());
+		}
+	}
+
+	@Test
+	void concurrentCommandsOnTheSameBookingRunOneAtATime() throws Exception {
+		int contenders = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		Map<String, AtomicInteger> accepted = new ConcurrentHashMap<>();
+		List<Future<?>> results = new ArrayList<>();
+		try {
+			for (Booking booking : bookings.values()) {
+				User provider = booking.getOfferedService().getProvider();
+				for (int c = 0; c < contenders; c++) {
+					results.add(pool.submit(() -> {
+						start.await();
+						currentUser.set(provider);
+						Response response = dispatcher.dispatch(new AcceptBookingCommand(booking.getBookingReference()));
+						if (response.getStatus() == HttpStatus.OK.value()) {
+							accepted.computeIfAbsent(booking.getBookingReference(), ref -> new AtomicInteger()).incrementAndGet();
+						}
+						return null;
+					}));
+				}
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(BOOKINGS, accepted.size());
+		accepted.forEach((reference, count) -> assertEquals(1, count.get(), reference + " was accepted more than once"));
+	}
+
+	@Test
+	void declinedPaymentMovesTheBookingToPaymentFailedThroughTheDispatcher() {
+		Booking booking = bookings.get("REF1");
+		currentUser.set(booking.getOfferedService().getProvider());
+		dispatcher.dispatch(new AcceptBookingCommand("REF1"));
+		currentUser.remove();
+
+		Response response = dispatcher.dispatch(new ProcessSimulatedPaymentCommand("REF1", "4111111111119999"));
+
+		assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+		assertEquals(BookingStatus.PAYMENT_FAILED, response.getBooking().getStatus());
+		assertEquals(BookingStatus.PAYMENT_FAILED, bookings.get("REF1").getStatus());
+		assertEquals(PaymentStatus.FAILED, response.getPayment().getPaymentStatus());
+	}
+
+	private static Booking copyOf(Booking booking) {
+		return Booking.builder().id(booking.getId()).bookingReference(booking.getBookingReference()).user(booking.getUser())
+				.offeredService(booking.getOfferedService()).price(booking.getPrice()).status(booking.getStatus()).build();
+	}
+
+	// Even bookings: accept, pay (half through the payment command), provider cancel. Odd bookings: accept, customer cancel.
+	private List<String> runLifecycle(Booking booking) {
+		String reference = booking.getBookingReference();
+		User customer = booking.getUser();
+		User provider = booking.getOfferedService().getProvider();
+		List<String> failures = new ArrayList<>();
+
+		currentUser.set(provider);
+		expect(failures, reference, BookingStatus.ACCEPTED_AWAITING_PAYMENT, dispatcher.dispatch(new AcceptBookingCommand(reference)));
+		if (booking.getId() % 2 == 0) {
+			currentUser.remove();
+			BookingCommand payment = booking.getId() % 4 == 0
+					? new ProcessSimulatedPaymentCommand(reference, "4111111111110000")
+					: new ConfirmBookingPaymentCommand(reference);
+			expect(failures, reference, BookingStatus.CONFIRMED, dispatcher.dispatch(payment));
+			currentUser.set(provider);
+			expect(failures, reference, BookingStatus.CANCELLED,
+					dispatcher.dispatch(new ProviderCancelBookingCommand(reference, "reason for " + reference)));
+		} else {
+			currentUser.set(customer);
+			expect(failures, reference, BookingStatus.CANCELLED, dispatcher.dispatch(new CustomerCancelBookingCommand(reference)));
+		}
+		currentUser.remove();
+		return failures;
+	}
+
+	private static void expect(List<String> failures, String reference, BookingStatus status, Response response) {
+		if (response.getStatus() != HttpStatus.OK.value()
+				|| response.getBooking() == null
+				|| !reference.equals(response.getBooking().getBookingReference())
+				|| response.getBooking().getStatus() != status) {
+			failures.add(reference + " -> " + response.getStatus() + " " + response.getMessage()
+					+ (response.getBooking() != null ? " " + response.getBooking().getBookingReference() + "/" + response.getBooking().getStatus() : ""));
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.cedric.Eventra.service.booking.command;
+
+import com.cedric.Eventra.dto.BulkBookingResultDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.BulkBookingAction;
+import com.cedric.Eventra.enums.BulkBookingOutcome;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.events.BookingsUpdatedByProviderEvent;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import com.cedric.Eventra.service.availability.ProviderSlotGuard;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class BulkProviderBookingCommandHandlerTest {
+
+	private static final LocalDate DAY = LocalDate.now().plusDays(30);
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final UserService userService = mock(UserService.class);
+	private final List<Object> events = new ArrayList<>();
+	private ProviderAvailabilityCalendar calendar;
+	private BulkProviderBookingCommandHandler handler;
+	private User provider;
+	private final List<String> pending = new ArrayList<>();
+	private String confirmed;
+	private String foreign;
+	private String contested;
+
+	@BeforeEach
+	void setUp() {
+		calendar = new ProviderAvailabilityCalendar(bookingRepository, Duration.ofHours(48), Duration.ofHours(24), 60, 500);
+		handler = new BulkProviderBookingCommandHandler(bookingRepository, new BookingStateMachine(bookingRepository, calendar,
+				new ProviderSlotGuard(bookingRepository, offeredServiceRepository, userRepository, calendar), events::add, 3),
+				userService, events::add);
+
+		User customer = userRepository.save(user("customer@eventra.com", UserRole.CUSTOMER));
+		provider = userRepository.save(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+		User otherProvider = userRepository.save(user("other@eventra.com", UserRole.SERVICE_PROVIDER));
+		OfferedService service = offeredServiceRepository.save(service(provider));
+		OfferedService otherService = offeredServiceRepository.save(service(otherProvider));
+
+		// One-hour slots at distinct times, so the pending requests do not compete with each other
+		for (int i = 0; i < 30; i++) {
+			pending.add(save(customer, service, BookingStatus.PENDING, DAY.plusDays(i), LocalTime.of(10, 0)).getBookingReference());
+		}
+		confirmed = save(customer, service, BookingStatus.CONFIRMED, DAY, LocalTime.of(15, 0)).getBookingReference();
+		foreign = save(customer, otherService, BookingStatus.PENDING, DAY, LocalTime.of(10, 0)).getBookingReference();
+		// Its request hold lapsed and another customer has since taken the slot
+		Booking lapsed = save(customer, service, BookingStatus.PENDING, DAY.minusDays(1), LocalTime.of(9, 0));
+		lapsed.setHoldExpiresAt(Instant.now().minusSeconds(60));
+		contested = lapsed.getBookingReference();
+		Booking rival = save(customer, service, BookingStatus.PENDING, DAY.minusDays(1), LocalTime.of(9, 30));
+		assertTrue(calendar.holdForRequest(rival).held());
+		entityManager.flush();
+		entityManager.clear();
+		when(userService.getCurrentLoggedInUser()).thenReturn(provider);
+	}
+
+	@Test
+	void acceptsManyInOneLoadAndOneUpdateBatchWithPerItemOutcomes() {
+		List<String> references = new ArrayList<>(pending);
+		references.addAll(List.of(confirmed, foreign, "EVT-MISSING", contested, pending.get(0)));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Response response = handler.handle(new BulkProviderBookingCommand(BulkBookingAction.ACCEPT, references));
+
+		// One locking IN select and one batched UPDATE statement for all 30 changed rows, whose request holds are live.
+		// Only the contested booking's lapsed hold is checked against the stored bookings (ProviderSlotGuard)
+		assertEquals(6, statistics.getPrepareStatementCount());
+		assertEquals(HttpStatus.OK.value(), response.getStatus());
+		List<BulkBookingResultDTO> results = response.getBulkResults();
+		assertEquals(34, results.size(), "duplicate references are reported once");
+		for (int i = 0; i < 30; i++) {
+			assertEquals(BulkBookingOutcome.APPLIED, results.get(i).getOutcome());
+			assertEquals(BookingStatus.ACCEPTED_AWAITING_PAYMENT, results.get(i).getStatus());
+		}
+		assertEquals(BulkBookingOutcome.INVALID_STATE, results.get(30).getOutcome());
+		assertEquals(BulkBookingOutcome.FORBIDDEN, results.get(31).getOutcome());
+		assertEquals(BulkBookingOutcome.NOT_FOUND, results.get(32).getOutcome());
+		assertEquals(BulkBookingOutcome.SLOT_TAKEN, results.get(33).getOutcome());
+
+		entityManager.clear();
+		for (String reference : pending) {
+			assertEquals(BookingStatus.ACCEPTED_AWAITING_PAYMENT, bookingRepository.findByBookingReference(reference).orElseThrow().getStatus());
+		}
+		assertEquals(BookingStatus.PENDING, bookingRepository.findByBookingReference(foreign).orElseThrow().getStatus());
+		assertEquals(BookingStatus.PENDING, bookingRepository.findByBookingReference(contested).orElseThrow().getStatus());
+
+		assertEquals(1, events.size(), "one aggregated event");
+		BookingsUpdatedByProviderEvent event = (BookingsUpdatedByProviderEvent) events.get(0);
+		assertEquals(BookingStatus.ACCEPTED_AWAITING_PAYMENT, event.getNewStatus());
+		assertEquals(30, event.getBookings().size());
+	}
+
+	@Test
+	void completeOnlyMovesConfirmedBookings() {
+		Response response = handler.handle(new BulkProviderBookingCommand(BulkBookingAction.COMPLETE,
+				List.of(confirmed, pending.get(0))));
+
+		assertEquals(BulkBookingOutcome.APPLIED, response.getBulkResults().get(0).getOutcome());
+		assertEquals(BookingStatus.COMPLETED, response.getBulkResults().get(0).getStatus());
+		assertEquals(BulkBookingOutcome.INVALID_STATE, response.getBulkResults().get(1).getOutcome());
+		assertEquals(BookingStatus.PENDING, response.getBulkResults().get(1).getStatus());
+	}
+
+	private Booking save(User customer, OfferedService service, BookingStatus status, LocalDate date, LocalTime time) {
+		return bookingRepository.save(Booking.builder().bookingReference("EVT-" + status + "-" + date + "-" + time + "-" + service.getId())
+				.user(customer).offeredService(service).price(BigDecimal.TEN).status(status)
+				.preferredDate(date).preferredTime(time).holdExpiresAt(calendar.holdExpiryFor(status)).build());
+	}
+
+	private static OfferedService service(User provider) {
+		return OfferedService.builder().name("Catering").price(BigDecimal.TEN).available(true)
+				.durationMinutes(60).provider(provider).build();
+	}
+}
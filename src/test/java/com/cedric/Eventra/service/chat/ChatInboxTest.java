@@ -0,0 +1,224 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.dto.ChatInboxEntryDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.ChatMessageRepository;
+import com.cedric.Eventra.repository.ChatReadCursorRepository;
+import com.cedric.Eventra.repository.ChatRoomRepository;
+import com.cedric.Eventra.repository.IdSequenceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.ChatServiceImpl;
+import com.cedric.Eventra.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writes messages through the write-behind (which fills the rooms' last-message columns) and reads the
+ * inbox back through ChatServiceImpl, counting the statements it takes.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatInboxTest {
+
+	@Autowired
+	private ChatMessageRepository chatMessageRepository;
+	@Autowired
+	private ChatRoomRepository chatRoomRepository;
+	@Autowired
+	private ChatReadCursorRepository chatReadCursorRepository;
+	@Autowired
+	private IdSequenceRepository idSequenceRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate tx;
+	private UserService userService;
+	private ChatMessageWriteBehind writeBehind;
+	private ChatMessageIdAllocator ids;
+	private ChatServiceImpl chatService;
+	private User alice;
+	private User bob;
+	private User carol;
+	private ChatRoom withBob;
+	private ChatRoom withCarol;
+	private ChatRoom bobAndCarol;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		tx.executeWithoutResult(status -> {
+			alice = userRepository.save(user("alice@eventra.com", "Alice", UserRole.CUSTOMER));
+			bob = userRepository.save(user("bob@eventra.com", "Bob", UserRole.CUSTOMER));
+			carol = userRepository.save(user("carol@eventra.com", "Carol", UserRole.CUSTOMER));
+			withBob = chatRoomRepository.save(room(alice, bob));
+			withCarol = chatRoomRepository.save(room(carol, alice));
+			bobAndCarol = chatRoomRepository.save(room(bob, carol));
+		});
+		userService = mock(UserService.class);
+		when(userService.getCurrentLoggedInUser()).thenReturn(alice);
+		writeBehind = new ChatMessageWriteBehind(entityManager, chatRoomRepository, transactionManager, 100, 100,
+				Duration.ofHours(1), new ScheduledThreadPoolExecutor(1));
+		ids = new ChatMessageIdAllocator(idSequenceRepository, chatMessageRepository, entityManager, transactionManager, 100);
+		chatService = new ChatServiceImpl(chatRoomRepository, chatMessageRepository, userRepository, userService,
+				bookingRepository, new EntityDtoMapper(), ids, writeBehind,
+				new ChatRoomMembershipCache(chatRoomRepository, Duration.ofMinutes(30), 100),
+				new ChatReadCursorStore(chatReadCursorRepository, entityManager, transactionManager));
+	}
+
+	@AfterEach
+	void deleteAll() throws InterruptedException {
+		writeBehind.shutdown();
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void inboxListsLastMessagesAndUnreadCountsInOneQuery() {
+		LocalDateTime sentAt = LocalDateTime.of(2026, 5, 1, 9, 0);
+		Long bobFirst = send(withBob, bob, "Are you free on the 14th?", sentAt);
+		send(withBob, alice, "Let me check", sentAt.plusMinutes(1));
+		send(withBob, bob, "Thanks!", sentAt.plusMinutes(2));
+		send(withBob, bob, "x".repeat(300), sentAt.plusMinutes(3));
+		send(withCarol, carol, "Invoice attached", sentAt.plusMinutes(10));
+		send(bobAndCarol, bob, "Not Alice's business", sentAt.plusMinutes(20));
+		writeBehind.flushAll();
+
+		// Alice has read Bob's first message only
+		assertEquals(200, chatService.markChatRoomRead(withBob.getId(), bobFirst).getStatus());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Response inbox = tx.execute(status -> chatService.getMyInbox(null, null));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		List<ChatInboxEntryDTO> entries = inbox.getInbox();
+		assertEquals(2, entries.size());
+		ChatInboxEntryDTO carolRoom = entries.get(0);
+		assertEquals(withCarol.getId(), carolRoom.getChatRoomId());
+		assertEquals(carol.getId(), carolRoom.getOtherParticipantId());
+		assertEquals("Carol", carolRoom.getOtherParticipantFirstName());
+		assertEquals("Invoice attached", carolRoom.getLastMessagePreview());
+		assertEquals(1, carolRoom.getUnreadCount());
+
+		ChatInboxEntryDTO bobRoom = entries.get(1);
+		assertEquals(bob.getId(), bobRoom.getOtherParticipantId());
+		assertEquals(bob.getId(), bobRoom.getLastMessageSenderId());
+		assertEquals(sentAt.plusMinutes(3), bobRoom.getLastMessageAt());
+		assertEquals(200, bobRoom.getLastMessagePreview().length());
+		// Two of Bob's messages after the cursor; Alice's own message never counts
+		assertEquals(2, bobRoom.getUnreadCount());
+		assertFalse(inbox.getHasMore());
+	}
+
+	@Test
+	void readCursorsOnlyMoveForwardAndPagesFollowTheCursor() {
+		LocalDateTime sentAt = LocalDateTime.of(2026, 5, 1, 9, 0);
+		Long first = send(withBob, bob, "one", sentAt);
+		send(withBob, bob, "two", sentAt.plusMinutes(1));
+		send(withCarol, carol, "three", sentAt.plusMinutes(2));
+
+		// Marking the whole room read flushes its queued messages first
+		chatService.markChatRoomRead(withBob.getId(), null);
+		chatService.markChatRoomRead(withBob.getId(), first);
+		// The inbox reflects other rooms once their writes are through (at most max-latency-ms)
+		writeBehind.flushAll();
+
+		Response firstPage = tx.execute(status -> chatService.getMyInbox(null, 1));
+		assertEquals(1, firstPage.getInbox().size());
+		assertEquals(withCarol.getId(), firstPage.getInbox().get(0).getChatRoomId());
+		assertTrue(firstPage.getHasMore());
+
+		Response secondPage = tx.execute(status -> chatService.getMyInbox(firstPage.getNextCursor(), 1));
+		assertEquals(1, secondPage.getInbox().size());
+		assertEquals(withBob.getId(), secondPage.getInbox().get(0).getChatRoomId());
+		assertEquals(0, secondPage.getInbox().get(0).getUnreadCount());
+		assertFalse(secondPage.getHasMore());
+		assertNull(secondPage.getNextCursor());
+		assertEquals(1, chatReadCursorRepository.count());
+	}
+
+	@Test
+	void pagesMergeRoomsFromBothParticipantSides() {
+		// Alice is participant 1 in three rooms and participant 2 in three more, with activity interleaved
+		List<ChatRoom> rooms = new ArrayList<>(List.of(withBob, withCarol));
+		tx.executeWithoutResult(status -> {
+			for (int i = 0; i < 4; i++) {
+				User other = userRepository.save(user("user" + i + "@eventra.com", "User" + i, UserRole.CUSTOMER));
+				rooms.add(chatRoomRepository.save(i % 2 == 0 ? room(alice, other) : room(other, alice)));
+			}
+		});
+		LocalDateTime sentAt = LocalDateTime.of(2026, 5, 1, 9, 0);
+		for (int i = 0; i < rooms.size(); i++) {
+			ChatRoom room = rooms.get(i);
+			User other = room.getParticipant1().getId().equals(alice.getId()) ? room.getParticipant2() : room.getParticipant1();
+			send(room, other, "message " + i, sentAt.plusMinutes(i));
+		}
+		writeBehind.flushAll();
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			String pageCursor = cursor;
+			Response page = tx.execute(status -> chatService.getMyInbox(pageCursor, 2));
+			page.getInbox().forEach(entry -> seen.add(entry.getChatRoomId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		List<Long> newestFirst = new ArrayList<>(rooms.stream().map(ChatRoom::getId).toList());
+		Collections.reverse(newestFirst);
+		assertEquals(newestFirst, seen);
+	}
+
+	private Long send(ChatRoom room, User sender, String content, LocalDateTime sentAt) {
+		Long id = ids.nextId();
+		writeBehind.enqueue(new ChatMessageWriteBehind.PendingMessage(id, room.getId(), sender.getId(), content, sentAt));
+		return id;
+	}
+
+	private static ChatRoom room(User participant1, User participant2) {
+		return ChatRoom.builder().participant1(participant1).participant2(participant2)
+				.lastMessageAt(LocalDateTime.of(2026, 1, 1, 0, 0)).build();
+	}
+}
@@ -0,0 +1,276 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.dto.ChatMessageDTO;
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.dto.SendMessageRequestDTO;
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.exception.BadRequestException;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.ChatMessageRepository;
+import com.cedric.Eventra.repository.ChatReadCursorRepository;
+import com.cedric.Eventra.repository.ChatRoomRepository;
+import com.cedric.Eventra.repository.IdSequenceRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.ChatServiceImpl;
+import com.cedric.Eventra.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Queues messages and writes them in committed transactions. Size-triggered flushes are held back by the
+ * test's flusher so each step can be checked; the max-latency tick runs for real only where it is tested.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatMessageWriteBehindTest {
+
+	@Autowired
+	private ChatMessageRepository chatMessageRepository;
+	@Autowired
+	private ChatRoomRepository chatRoomRepository;
+	@Autowired
+	private IdSequenceRepository idSequenceRepository;
+	@Autowired
+	private ChatReadCursorRepository chatReadCursorRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate tx;
+	private final List<Runnable> held = new ArrayList<>();
+	private final List<ChatMessageWriteBehind> started = new ArrayList<>();
+	private User alice;
+	private User bob;
+	private ChatRoom roomA;
+	private ChatRoom roomB;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		tx.executeWithoutResult(status -> {
+			alice = userRepository.save(user("alice@eventra.com", UserRole.CUSTOMER));
+			bob = userRepository.save(user("bob@eventra.com", UserRole.CUSTOMER));
+			roomA = chatRoomRepository.save(ChatRoom.builder().participant1(alice).participant2(bob).build());
+			roomB = chatRoomRepository.save(ChatRoom.builder().participant1(bob).participant2(alice).build());
+		});
+	}
+
+	@AfterEach
+	void deleteAll() throws InterruptedException {
+		for (ChatMessageWriteBehind writeBehind : started) {
+			writeBehind.shutdown();
+		}
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void queuedMessagesAreWrittenInBatchesWithOneRoomUpdatePerBatch() {
+		ChatMessageWriteBehind writeBehind = writeBehind(10, 100, Duration.ofHours(1));
+		ChatMessageIdAllocator ids = allocator(100);
+		LocalDateTime sentAt = LocalDateTime.of(2026, 5, 1, 12, 0);
+		for (int i = 0; i < 25; i++) {
+			writeBehind.enqueue(message(ids.nextId(), roomA, alice, sentAt.plusSeconds(i)));
+		}
+		writeBehind.enqueue(message(ids.nextId(), roomB, bob, sentAt));
+		assertEquals(0, chatMessageRepository.count());
+		assertEquals(26, writeBehind.getPendingCount());
+		assertEquals(2, held.size(), "a flush is requested for every full batch");
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		assertEquals(25, writeBehind.flushRoom(roomA.getId()));
+
+		// Three transactions, each one batched INSERT statement and one UPDATE of the room
+		assertEquals(25, statistics.getEntityInsertCount());
+		assertEquals(3, statistics.getTransactionCount());
+		assertEquals(6, statistics.getPrepareStatementCount());
+		assertEquals(sentAt.plusSeconds(24), chatRoomRepository.findById(roomA.getId()).orElseThrow().getLastMessageAt());
+
+		held.forEach(Runnable::run);
+		assertEquals(25, chatMessageRepository.count());
+		assertEquals(1, writeBehind.flushAll());
+		assertEquals(0, writeBehind.getPendingCount());
+		assertEquals(sentAt, chatRoomRepository.findById(roomB.getId()).orElseThrow().getLastMessageAt());
+	}
+
+	@Test
+	void idBlocksStartAboveExistingMessagesAndNeverOverlapAcrossNodes() {
+		ChatMessageWriteBehind writeBehind = writeBehind(10, 100, Duration.ofHours(1));
+		writeBehind.enqueue(message(41L, roomA, alice, LocalDateTime.now()));
+		writeBehind.flushAll();
+
+		ChatMessageIdAllocator nodeA = allocator(5);
+		ChatMessageIdAllocator nodeB = allocator(5);
+		assertEquals(42, nodeA.nextId());
+		assertEquals(47, nodeB.nextId());
+		for (int i = 0; i < 4; i++) {
+			nodeA.nextId();
+		}
+		assertEquals(52, nodeA.nextId());
+		assertEquals(48, nodeB.nextId());
+	}
+
+	@Test
+	void fullQueuesMakeTheSenderFlushAndShutdownWritesTheRest() throws InterruptedException {
+		ChatMessageWriteBehind writeBehind = writeBehind(10, 10, Duration.ofHours(1));
+		ChatMessageIdAllocator ids = allocator(100);
+		for (int i = 0; i < 25; i++) {
+			writeBehind.enqueue(message(ids.nextId(), roomA, alice, LocalDateTime.now()));
+		}
+		assertEquals(20, chatMessageRepository.count());
+
+		writeBehind.shutdown();
+		assertEquals(25, chatMessageRepository.count());
+
+		// Late messages (e.g. still arriving while the WebSocket sessions close) are written as they come
+		writeBehind.enqueue(message(ids.nextId(), roomA, alice, LocalDateTime.now()));
+		assertEquals(26, chatMessageRepository.count());
+	}
+
+	@Test
+	void rejectedMessagesAreDroppedWithoutHoldingBackTheRoom() {
+		ChatMessageWriteBehind writeBehind = writeBehind(10, 100, Duration.ofHours(1));
+		ChatMessageIdAllocator ids = allocator(100);
+		writeBehind.enqueue(message(ids.nextId(), roomA, alice, LocalDateTime.now()));
+		writeBehind.enqueue(new ChatMessageWriteBehind.PendingMessage(ids.nextId(), roomA.getId(), -1L, "ghost", LocalDateTime.now()));
+		writeBehind.enqueue(message(ids.nextId(), roomA, bob, LocalDateTime.now()));
+
+		assertEquals(2, writeBehind.flushRoom(roomA.getId()));
+		assertEquals(2, chatMessageRepository.count());
+		assertEquals(0, writeBehind.getPendingCount());
+	}
+
+	@Test
+	void messagesAreWrittenWithinTheMaxLatency() throws InterruptedException {
+		ChatMessageWriteBehind writeBehind = new ChatMessageWriteBehind(entityManager, chatRoomRepository,
+				transactionManager, 100, 100, Duration.ofMillis(50), new ScheduledThreadPoolExecutor(1));
+		started.add(writeBehind);
+		writeBehind.enqueue(message(allocator(100).nextId(), roomA, alice, LocalDateTime.now()));
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (chatMessageRepository.count() == 0) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Message not written by the max-latency flush");
+			}
+			Thread.sleep(20);
+		}
+		assertEquals(0, writeBehind.getPendingCount());
+	}
+
+	@Test
+	void sentMessagesAreReturnedBeforeTheyAreWrittenAndReadBackByTheSender() {
+		UserService userService = mock(UserService.class);
+		when(userService.getCurrentLoggedInUser()).thenReturn(alice);
+		ChatMessageWriteBehind writeBehind = writeBehind(10, 100, Duration.ofHours(1));
+		ChatServiceImpl chatService = new ChatServiceImpl(chatRoomRepository, chatMessageRepository, userRepository,
+				userService, bookingRepository, new EntityDtoMapper(), allocator(100), writeBehind,
+				new ChatRoomMembershipCache(chatRoomRepository, Duration.ofMinutes(30), 100),
+				new ChatReadCursorStore(chatReadCursorRepository, entityManager, transactionManager));
+
+		SendMessageRequestDTO request = new SendMessageRequestDTO();
+		request.setChatRoomId(roomA.getId());
+		request.setContent("Is the 14th still free?");
+		ChatMessageDTO sent = chatService.saveAndPrepareMessage(request, alice);
+		assertEquals(1, sent.getId());
+		assertEquals(alice.getId(), sent.getSender().getId());
+		assertEquals(0, chatMessageRepository.count());
+
+		Response history = tx.execute(status -> chatService.getChatMessagesForRoom(roomA.getId(), null, null, null));
+		assertEquals(1, history.getChatMessages().size());
+		assertEquals(sent.getId(), history.getChatMessages().get(0).getId());
+		assertEquals("Is the 14th still free?", history.getChatMessages().get(0).getContent());
+		assertTrue(chatRoomRepository.findById(roomA.getId()).orElseThrow().getLastMessageAt() != null);
+	}
+
+	@Test
+	void aCursorStillQueuedOnAnotherNodeGetsTheNewestPage() {
+		UserService userService = mock(UserService.class);
+		when(userService.getCurrentLoggedInUser()).thenReturn(bob);
+		ChatMessageWriteBehind writeBehind = writeBehind(10, 100, Duration.ofHours(1));
+		ChatServiceImpl chatService = new ChatServiceImpl(chatRoomRepository, chatMessageRepository, userRepository,
+				userService, bookingRepository, new EntityDtoMapper(), allocator(100), writeBehind,
+				new ChatRoomMembershipCache(chatRoomRepository, Duration.ofMinutes(30), 100),
+				new ChatReadCursorStore(chatReadCursorRepository, entityManager, transactionManager));
+		ChatMessageIdAllocator ids = allocator(100);
+		LocalDateTime sentAt = LocalDateTime.of(2026, 5, 1, 12, 0);
+		writeBehind.enqueue(message(ids.nextId(), roomA, alice, sentAt));
+		writeBehind.enqueue(message(ids.nextId(), roomA, alice, sentAt.plusSeconds(1)));
+		writeBehind.enqueue(message(ids.nextId(), roomB, alice, sentAt));
+		writeBehind.flushAll();
+
+		// Broadcast by another node and still in its queue, so this node's flushRoom cannot write it
+		ChatMessageWriteBehind otherNode = writeBehind(10, 100, Duration.ofHours(1));
+		Long unwritten = ids.nextId();
+		otherNode.enqueue(message(unwritten, roomA, alice, sentAt.plusSeconds(2)));
+
+		for (Response history : List.of(
+				tx.execute(status -> chatService.getChatMessagesForRoom(roomA.getId(), null, unwritten, null)),
+				tx.execute(status -> chatService.getChatMessagesForRoom(roomA.getId(), unwritten, null, null)))) {
+			assertEquals(200, history.getStatus());
+			assertEquals(List.of(1L, 2L), history.getChatMessages().stream().map(ChatMessageDTO::getId).toList());
+		}
+
+		// A message from another room is still not a valid cursor
+		assertThrows(BadRequestException.class,
+				() -> tx.execute(status -> chatService.getChatMessagesForRoom(roomA.getId(), null, 3L, null)));
+	}
+
+	private ChatMessageWriteBehind writeBehind(int batchSize, int queueCapacity, Duration maxLatency) {
+		ChatMessageWriteBehind writeBehind = new ChatMessageWriteBehind(entityManager, chatRoomRepository,
+				transactionManager, batchSize, queueCapacity, maxLatency, new ScheduledThreadPoolExecutor(1) {
+			@Override
+			public void execute(Runnable command) {
+				held.add(command);
+			}
+		});
+		started.add(writeBehind);
+		return writeBehind;
+	}
+
+	private ChatMessageIdAllocator allocator(int blockSize) {
+		return new ChatMessageIdAllocator(idSequenceRepository, chatMessageRepository, entityManager, transactionManager, blockSize);
+	}
+
+	private static ChatMessageWriteBehind.PendingMessage message(Long id, ChatRoom room, User sender, LocalDateTime sentAt) {
+		return new ChatMessageWriteBehind.PendingMessage(id, room.getId(), sender.getId(), "message " + id, sentAt);
+	}
+}
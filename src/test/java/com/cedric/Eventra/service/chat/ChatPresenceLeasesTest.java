@@ -0,0 +1,149 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.dto.ChatPresenceDTO;
+import com.cedric.Eventra.dto.UserPresenceDTO;
+import com.cedric.Eventra.repository.ChatPresenceLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two presence services with their own sessions, as on two nodes, sharing the lease table.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatPresenceLeasesTest {
+
+	private static final long ROOM = 42L;
+	private static final long USER = 7L;
+	private static final String TOPIC = "/topic/room.42.presence";
+
+	@Autowired
+	private ChatPresenceLeaseRepository chatPresenceLeaseRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2030-03-14T10:00:00Z"));
+
+	@AfterEach
+	void deleteAll() {
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void userLeavingOneNodeStaysOnlineWhileAnotherNodeHasThem() {
+		SimpMessageSendingOperations templateA = mock(SimpMessageSendingOperations.class);
+		SimpMessageSendingOperations templateB = mock(SimpMessageSendingOperations.class);
+		ChatPresenceService nodeA = node("node-a", templateA);
+		ChatPresenceService nodeB = node("node-b", templateB);
+
+		// Two devices of the same user, one connected to each node
+		nodeA.connected("a1", USER);
+		nodeA.subscribed("a1", "sub", ROOM);
+		nodeB.connected("b1", USER);
+		nodeB.subscribed("b1", "sub", ROOM);
+		nodeA.broadcast();
+		nodeB.broadcast();
+		clearInvocations(templateA, templateB);
+
+		nodeA.disconnected("a1");
+		nodeA.broadcast();
+		assertTrue(lastUpdate(templateA).isOnline(), "still in the room through node B");
+
+		nodeB.disconnected("b1");
+		nodeB.broadcast();
+		assertFalse(lastUpdate(templateB).isOnline());
+		assertEquals(0, chatPresenceLeaseRepository.count());
+	}
+
+	@Test
+	void leasesOfADeadNodeLapse() {
+		SimpMessageSendingOperations templateA = mock(SimpMessageSendingOperations.class);
+		ChatPresenceService nodeA = node("node-a", templateA);
+		ChatPresenceService deadNode = node("node-b", mock(SimpMessageSendingOperations.class));
+
+		nodeA.connected("a1", USER);
+		nodeA.subscribed("a1", "sub", ROOM);
+		deadNode.connected("b1", USER);
+		deadNode.subscribed("b1", "sub", ROOM);
+		nodeA.broadcast();
+		deadNode.broadcast();
+
+		// node B stops renewing; node A keeps sweeping
+		clock.advance(Duration.ofSeconds(50));
+		nodeA.touched("a1");
+		nodeA.sweep();
+		clock.advance(Duration.ofSeconds(20));
+		nodeA.broadcast();
+		clearInvocations(templateA);
+
+		nodeA.disconnected("a1");
+		nodeA.broadcast();
+		assertFalse(lastUpdate(templateA).isOnline());
+	}
+
+	private ChatPresenceService node(String owner, SimpMessageSendingOperations messagingTemplate) {
+		ChatPresenceLeases leases = new ChatPresenceLeases(chatPresenceLeaseRepository, transactionManager, owner,
+				Duration.ofSeconds(60), clock);
+		return new ChatPresenceService(() -> messagingTemplate, leases, Duration.ofSeconds(35), Duration.ofSeconds(6), clock);
+	}
+
+	private static UserPresenceDTO lastUpdate(SimpMessageSendingOperations messagingTemplate) {
+		ArgumentCaptor<ChatPresenceDTO> update = ArgumentCaptor.forClass(ChatPresenceDTO.class);
+		verify(messagingTemplate).convertAndSend(eq(TOPIC), update.capture());
+		assertEquals(1, update.getValue().getUsers().size());
+		return update.getValue().getUsers().get(0);
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private volatile Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.dto.ChatPresenceDTO;
+import com.cedric.Eventra.dto.UserPresenceDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ChatPresenceServiceTest {
+
+	private static final long ROOM = 42L;
+	private static final String TOPIC = "/topic/room.42.presence";
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2030-03-14T10:00:00Z"));
+	private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+	private ChatPresenceService presence;
+
+	@BeforeEach
+	void setUp() {
+		presence = new ChatPresenceService(() -> messagingTemplate, mock(ChatPresenceLeases.class), Duration.ofSeconds(35), Duration.ofSeconds(6), clock);
+		presence.connected("s1", 1L);
+		presence.connected("s2", 2L);
+		presence.subscribed("s1", "sub-1", ROOM);
+		presence.subscribed("s2", "sub-2", ROOM);
+	}
+
+	@Test
+	void typingFramesAreCoalescedIntoOneBroadcastPerInterval() {
+		presence.broadcast();
+		Map<Long, UserPresenceDTO> joined = lastUpdate();
+		assertTrue(joined.get(1L).isOnline());
+		assertTrue(joined.get(2L).isOnline());
+		clearInvocations(messagingTemplate);
+
+		for (int i = 0; i < 20; i++) {
+			presence.typing(ROOM, 1L, true);
+		}
+		presence.typing(ROOM, 2L, true);
+		presence.broadcast();
+
+		Map<Long, UserPresenceDTO> typing = lastUpdate(); // Verifies a single send
+		assertTrue(typing.get(1L).isTyping());
+		assertTrue(typing.get(2L).isTyping());
+		clearInvocations(messagingTemplate);
+
+		// Keep-alive typing frames change nothing, so nothing goes out
+		presence.typing(ROOM, 1L, true);
+		presence.broadcast();
+		verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+	}
+
+	@Test
+	void silentSessionsAndStaleTypingAreSweptOffline() {
+		presence.typing(ROOM, 2L, true);
+		presence.broadcast();
+		clearInvocations(messagingTemplate);
+
+		// Past the typing TTL, both sessions still within theirs
+		clock.advance(Duration.ofSeconds(10));
+		presence.touched("s2");
+		presence.sweep();
+		presence.broadcast();
+		Map<Long, UserPresenceDTO> lapsed = lastUpdate();
+		assertFalse(lapsed.get(2L).isTyping());
+		assertTrue(lapsed.get(1L).isOnline());
+		clearInvocations(messagingTemplate);
+
+		// s1 has sent nothing (not even heartbeats) for 40 s, s2 kept beating
+		clock.advance(Duration.ofSeconds(30));
+		presence.touched("s2");
+		presence.sweep();
+		presence.broadcast();
+		Map<Long, UserPresenceDTO> swept = lastUpdate();
+		assertFalse(swept.get(1L).isOnline());
+		assertTrue(swept.get(2L).isOnline());
+		assertFalse(presence.isOnline(ROOM, 1L));
+	}
+
+	@Test
+	void userLeavesWithTheLastSubscriptionOrOnDisconnect() {
+		presence.subscribed("s1", "sub-1-presence", ROOM);
+		presence.typing(ROOM, 1L, true);
+		presence.broadcast();
+		clearInvocations(messagingTemplate);
+
+		presence.unsubscribed("s1", "sub-1-presence");
+		presence.broadcast();
+		verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+		assertTrue(presence.isOnline(ROOM, 1L));
+
+		presence.disconnected("s1");
+		presence.broadcast();
+		Map<Long, UserPresenceDTO> left = lastUpdate();
+		assertEquals(1, left.size());
+		assertFalse(left.get(1L).isOnline());
+		assertFalse(left.get(1L).isTyping());
+		assertFalse(presence.isOnline(ROOM, 1L));
+	}
+
+	private Map<Long, UserPresenceDTO> lastUpdate() {
+		ArgumentCaptor<ChatPresenceDTO> update = ArgumentCaptor.forClass(ChatPresenceDTO.class);
+		verify(messagingTemplate).convertAndSend(eq(TOPIC), update.capture());
+		assertEquals(ROOM, update.getValue().getChatRoomId());
+		return update.getValue().getUsers().stream()
+				.collect(Collectors.toMap(UserPresenceDTO::getUserId, Function.identity()));
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private volatile Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
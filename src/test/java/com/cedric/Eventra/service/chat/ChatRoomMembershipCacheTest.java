@@ -0,0 +1,171 @@
+package com.cedric.Eventra.service.chat;
+
+import com.cedric.Eventra.entity.ChatRoom;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.ChatRoomRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.security.AuthUser;
+import com.cedric.Eventra.security.JwtStompAuthChannelInterceptor;
+import com.cedric.Eventra.security.JwtUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Principal;
+import java.util.List;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the cache as a bean, so room changes reach it through the real entity listener, and checks STOMP
+ * SUBSCRIBE and SEND frames against it through the real channel interceptor.
+ */
+@DataJpaTest
+@Import(ChatRoomMembershipCache.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatRoomMembershipCacheTest {
+
+	@Autowired
+	private ChatRoomMembershipCache membershipCache;
+	@Autowired
+	private ChatRoomRepository chatRoomRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate tx;
+	private JwtStompAuthChannelInterceptor interceptor;
+	private User alice;
+	private User bob;
+	private User carol;
+	private ChatRoom room;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		interceptor = new JwtStompAuthChannelInterceptor(mock(JwtUtils.class), mock(UserDetailsService.class), membershipCache,
+				mock(ChatPresenceService.class));
+		tx.executeWithoutResult(status -> {
+			alice = userRepository.save(user("alice@eventra.com", UserRole.CUSTOMER));
+			bob = userRepository.save(user("bob@eventra.com", UserRole.CUSTOMER));
+			carol = userRepository.save(user("carol@eventra.com", UserRole.CUSTOMER));
+			room = chatRoomRepository.save(ChatRoom.builder().participant1(alice).participant2(bob).build());
+		});
+	}
+
+	@AfterEach
+	void deleteAll() {
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void participantsAreLoadedOnceAndReloadedAfterTheRoomChanges() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		assertTrue(membershipCache.isParticipant(room.getId(), alice.getId()));
+		assertTrue(membershipCache.isParticipant(room.getId(), bob.getId()));
+		assertFalse(membershipCache.isParticipant(room.getId(), carol.getId()));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		// Unknown rooms are looked up every time rather than remembered as empty
+		assertTrue(membershipCache.participantsOf(-1L).isEmpty());
+
+		tx.executeWithoutResult(status -> {
+			ChatRoom changed = chatRoomRepository.findById(room.getId()).orElseThrow();
+			changed.setParticipant2(userRepository.findById(carol.getId()).orElseThrow());
+		});
+		assertTrue(membershipCache.isParticipant(room.getId(), carol.getId()));
+		assertFalse(membershipCache.isParticipant(room.getId(), bob.getId()));
+
+		tx.executeWithoutResult(status -> chatRoomRepository.deleteById(room.getId()));
+		assertFalse(membershipCache.isParticipant(room.getId(), alice.getId()));
+	}
+
+	@Test
+	void onlyParticipantsMaySubscribeToARoomsTopics() {
+		Message<?> own = subscribe("/topic/room." + room.getId(), alice);
+		assertSame(own, interceptor.preSend(own, mock(MessageChannel.class)));
+		Message<?> presence = subscribe("/topic/room." + room.getId() + ".presence", bob);
+		assertSame(presence, interceptor.preSend(presence, mock(MessageChannel.class)));
+		Message<?> errors = subscribe("/user/queue/errors", carol);
+		assertSame(errors, interceptor.preSend(errors, mock(MessageChannel.class)));
+
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(subscribe("/topic/room." + room.getId(), carol), mock(MessageChannel.class)));
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(subscribe("/topic/room." + room.getId(), null), mock(MessageChannel.class)));
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(subscribe("/topic/simp-user-registry", alice), mock(MessageChannel.class)));
+	}
+
+	@Test
+	void clientsMaySendOnlyToApplicationDestinations() {
+		Message<?> chat = send("/app/chat.send", alice);
+		assertSame(chat, interceptor.preSend(chat, mock(MessageChannel.class)));
+
+		// Straight to the broker, bypassing the participant checks of the @MessageMapping handlers
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(send("/topic/room." + room.getId(), carol), mock(MessageChannel.class)));
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(send("/topic/room." + room.getId() + ".presence", alice), mock(MessageChannel.class)));
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(send("/user/" + bob.getEmail() + "/queue/errors", alice), mock(MessageChannel.class)));
+		assertThrows(MessageDeliveryException.class,
+				() -> interceptor.preSend(send("/app/chat.send", null), mock(MessageChannel.class)));
+	}
+
+	private static Message<byte[]> subscribe(String destination, User user) {
+		return frame(StompCommand.SUBSCRIBE, destination, user);
+	}
+
+	private static Message<byte[]> send(String destination, User user) {
+		return frame(StompCommand.SEND, destination, user);
+	}
+
+	private static Message<byte[]> frame(StompCommand command, String destination, User user) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		accessor.setSessionId("session-1");
+		if (command == StompCommand.SUBSCRIBE) {
+			accessor.setSubscriptionId("sub-0");
+		}
+		accessor.setDestination(destination);
+		if (user != null) {
+			Principal principal = new UsernamePasswordAuthenticationToken(AuthUser.builder().user(user).build(), null, List.of());
+			accessor.setUser(principal);
+		}
+		accessor.setLeaveMutable(true);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+}
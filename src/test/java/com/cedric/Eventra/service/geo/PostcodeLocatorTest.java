@@ -0,0 +1,57 @@
+package com.cedric.Eventra.service.geo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostcodeLocatorTest {
+
+	private static final PostcodeLocator.GeoPoint SYDNEY = new PostcodeLocator.GeoPoint(-33.8688, 151.2093);
+
+	private static PostcodeLocator locator;
+
+	@BeforeAll
+	static void loadTable() throws IOException {
+		locator = new PostcodeLocator("geo/au-postcodes.csv");
+	}
+
+	@Test
+	void listedPostcodesResolveExactly() {
+		assertEquals(Optional.of(SYDNEY), locator.locate("2000"));
+		assertEquals(Optional.of(SYDNEY), locator.locate(" 2000 "));
+		assertEquals(Optional.of(new PostcodeLocator.GeoPoint(-12.4634, 130.8456)), locator.locate("0800"));
+	}
+
+	@Test
+	void unlistedPostcodesTakeTheNearestListedOneInTheirBlock() {
+		assertEquals(Optional.of(SYDNEY), locator.locate("2001"), "2000 is closer than 2007");
+		assertEquals(locator.locate("2007"), locator.locate("2005"));
+		// No postcodes are allocated in 49xx; neither 48xx nor 50xx may stand in for them
+		assertTrue(locator.locate("4950").isEmpty());
+	}
+
+	@Test
+	void malformedPostcodesResolveToNothing() {
+		assertTrue(locator.locate(null).isEmpty());
+		assertTrue(locator.locate("").isEmpty());
+		assertTrue(locator.locate("200").isEmpty());
+		assertTrue(locator.locate("20000").isEmpty());
+		assertTrue(locator.locate("2O00").isEmpty());
+	}
+
+	@Test
+	void everyNswAndActPostcodeResolvesWithinTheState() {
+		// DataInitializer gives providers postcodes across the whole 2000-2999 range
+		for (int code = 2000; code <= 2999; code++) {
+			Optional<PostcodeLocator.GeoPoint> point = locator.locate(String.valueOf(code));
+			assertTrue(point.isPresent(), "postcode " + code + " unresolved");
+			assertTrue(point.get().latitude() < -28.0 && point.get().latitude() > -37.6
+					&& point.get().longitude() > 140.9 && point.get().longitude() < 153.7, code + " outside NSW/ACT: " + point.get());
+		}
+	}
+}
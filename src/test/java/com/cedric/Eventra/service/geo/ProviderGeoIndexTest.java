@@ -0,0 +1,125 @@
+package com.cedric.Eventra.service.geo;
+
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProviderGeoIndexTest {
+
+	private static final PostcodeLocator.GeoPoint SYDNEY = new PostcodeLocator.GeoPoint(-33.8688, 151.2093);
+
+	private static PostcodeLocator locator;
+
+	private final ServiceProviderProfileRepository serviceProviderProfileRepository = mock(ServiceProviderProfileRepository.class);
+	private ProviderGeoIndex index;
+
+	@BeforeAll
+	static void loadTable() throws IOException {
+		locator = new PostcodeLocator("geo/au-postcodes.csv");
+	}
+
+	@BeforeEach
+	void setUp() {
+		when(serviceProviderProfileRepository.findSearchDocumentRows()).thenReturn(List.of(
+				row(1L, "2000", ServiceCategory.CATERING, true, UserRole.SERVICE_PROVIDER),      // Sydney
+				row(2L, "2060", ServiceCategory.CATERING, true, UserRole.SERVICE_PROVIDER),      // North Sydney, ~4 km
+				row(3L, "2150", ServiceCategory.PHOTOGRAPHER, true, UserRole.SERVICE_PROVIDER),  // Parramatta, ~20 km
+				row(4L, "2300", ServiceCategory.CATERING, true, UserRole.SERVICE_PROVIDER),      // Newcastle, ~120 km
+				row(5L, "2010", ServiceCategory.CATERING, false, UserRole.SERVICE_PROVIDER),     // inactive
+				row(6L, "2011", ServiceCategory.CATERING, true, UserRole.CUSTOMER),              // not a provider
+				row(7L, "4950", ServiceCategory.CATERING, true, UserRole.SERVICE_PROVIDER),      // unallocated block
+				row(8L, null, ServiceCategory.CATERING, true, UserRole.SERVICE_PROVIDER)));
+		index = new ProviderGeoIndex(serviceProviderProfileRepository, locator);
+		index.rebuild();
+	}
+
+	@Test
+	void activeProvidersWithinTheRadiusComeNearestFirst() {
+		assertEquals(List.of(1L, 2L, 3L), ids(index.findNearby(SYDNEY, 30, null, 10)));
+		assertEquals(List.of(1L, 2L), ids(index.findNearby(SYDNEY, 30, null, 2)));
+		assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.findNearby(SYDNEY, 200, null, 10)));
+
+		List<ProviderGeoIndex.NearbyProvider> nearby = index.findNearby(SYDNEY, 30, null, 10);
+		assertEquals(0.0, nearby.get(0).distanceKm(), 0.01);
+		assertTrue(nearby.get(2).distanceKm() > 15 && nearby.get(2).distanceKm() < 25, "Parramatta: " + nearby.get(2));
+	}
+
+	@Test
+	void categoryFilterApplies() {
+		assertEquals(List.of(3L), ids(index.findNearby(SYDNEY, 200, ServiceCategory.PHOTOGRAPHER, 10)));
+		assertEquals(List.of(1L, 2L, 4L), ids(index.findNearby(SYDNEY, 200, ServiceCategory.CATERING, 10)));
+	}
+
+	@Test
+	void upsertsMoveProvidersAndRemovalsDropThem() {
+		index.upsertProvider(4L, "2022", ServiceCategory.CATERING, true, UserRole.SERVICE_PROVIDER); // Newcastle -> Bondi Junction
+		assertEquals(List.of(1L, 2L, 4L, 3L), ids(index.findNearby(SYDNEY, 30, null, 10)));
+
+		index.updateProviderStatus(1L, false, UserRole.SERVICE_PROVIDER);
+		index.removeProvider(2L);
+		assertEquals(List.of(4L, 3L), ids(index.findNearby(SYDNEY, 30, null, 10)));
+
+		index.updateProviderStatus(1L, true, UserRole.SERVICE_PROVIDER);
+		index.upsertProvider(3L, "not a postcode", ServiceCategory.PHOTOGRAPHER, true, UserRole.SERVICE_PROVIDER);
+		assertEquals(List.of(1L, 4L), ids(index.findNearby(SYDNEY, 30, null, 10)));
+	}
+
+	private static List<Long> ids(List<ProviderGeoIndex.NearbyProvider> nearby) {
+		return nearby.stream().map(ProviderGeoIndex.NearbyProvider::providerId).toList();
+	}
+
+	private static ServiceProviderProfileRepository.SearchDocumentRow row(Long providerId, String postcode, ServiceCategory category,
+																		  Boolean isActive, UserRole role) {
+		return new Row(providerId, postcode, category, isActive, role);
+	}
+
+	private record Row(Long providerId, String postcode, ServiceCategory serviceCategory, Boolean isActive, UserRole role)
+			implements ServiceProviderProfileRepository.SearchDocumentRow {
+
+		@Override
+		public Long getProviderId() {
+			return providerId;
+		}
+
+		@Override
+		public String getServiceName() {
+			return "Provider " + providerId;
+		}
+
+		@Override
+		public ServiceCategory getServiceCategory() {
+			return serviceCategory;
+		}
+
+		@Override
+		public String getLocation() {
+			return null;
+		}
+
+		@Override
+		public String getPostcode() {
+			return postcode;
+		}
+
+		@Override
+		public Boolean getIsActive() {
+			return isActive;
+		}
+
+		@Override
+		public UserRole getRole() {
+			return role;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.cedric.Eventra.service.idempotency;
+
+import com.cedric.Eventra.dto.Response;
+import com.cedric.Eventra.dto.SimulatedPaymentRequestDTO;
+import com.cedric.Eventra.exception.IdempotencyKeyReuseException;
+import com.cedric.Eventra.exception.IdempotentRequestInProgressException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+	private final IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(5), 1000, Duration.ofSeconds(5));
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void concurrentRetriesRunTheActionOnceAndReplayItsResponse() throws Exception {
+		int clients = 16;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		try {
+			List<Future<Response>> results = new ArrayList<>();
+			for (int i = 0; i < clients; i++) {
+				results.add(pool.submit(() -> {
+					authenticate("customer@eventra.com");
+					start.await();
+					return store.execute("key-1", "POST /api/bookings", payment("4111111111111111"), this::slowCreate);
+				}));
+			}
+			start.countDown();
+
+			Response first = results.get(0).get();
+			for (Future<Response> result : results) {
+				assertSame(first, result.get());
+			}
+			assertEquals(1, executions.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void keyIsScopedToThePrincipalAndBoundToTheRequest() {
+		authenticate("customer@eventra.com");
+		store.execute("key-1", "POST /api/bookings", payment("4111111111111111"), this::slowCreate);
+
+		assertThrows(IdempotencyKeyReuseException.class, () ->
+				store.execute("key-1", "POST /api/bookings", payment("5555555555554444"), this::slowCreate));
+		assertEquals(1, executions.get());
+
+		authenticate("someone-else@eventra.com");
+		store.execute("key-1", "POST /api/bookings", payment("4111111111111111"), this::slowCreate);
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void requestsWithCollidingHashCodesAreStillDifferentRequests() {
+		authenticate("customer@eventra.com");
+		// "Aa" and "BB" have the same String.hashCode(), so the two DTOs have equal hashCode() values
+		assertEquals(payment("Aa").hashCode(), payment("BB").hashCode());
+		store.execute("key-1", "POST /api/bookings", payment("Aa"), this::slowCreate);
+
+		assertThrows(IdempotencyKeyReuseException.class, () ->
+				store.execute("key-1", "POST /api/bookings", payment("BB"), this::slowCreate));
+		assertThrows(IdempotencyKeyReuseException.class, () ->
+				store.execute("key-1", "POST /api/payments", payment("Aa"), this::slowCreate));
+		store.execute("key-1", "POST /api/bookings", payment("Aa"), this::slowCreate);
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void retryGivesUpWaitingForASlowFirstAttempt() throws Exception {
+		IdempotencyStore impatient = new IdempotencyStore(Duration.ofMinutes(5), 1000, Duration.ofMillis(50));
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<Response> first = pool.submit(() -> {
+				authenticate("customer@eventra.com");
+				return impatient.execute("key-1", "POST /api/bookings", payment("4111111111111111"), () -> {
+					running.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return slowCreate();
+				});
+			});
+			running.await();
+
+			authenticate("customer@eventra.com");
+			assertThrows(IdempotentRequestInProgressException.class, () ->
+					impatient.execute("key-1", "POST /api/bookings", payment("4111111111111111"), this::slowCreate));
+			release.countDown();
+			assertSame(first.get(), impatient.execute("key-1", "POST /api/bookings", payment("4111111111111111"), this::slowCreate));
+			assertEquals(1, executions.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void failedAttemptReleasesTheKeyForTheRetry() {
+		authenticate("customer@eventra.com");
+
+		assertThrows(IllegalStateException.class, () ->
+				store.execute("key-1", "POST /api/bookings", payment("4111111111111111"), () -> {
+					throw new IllegalStateException("database unavailable");
+				}));
+		store.execute("key-1", "POST /api/bookings", payment("4111111111111111"),
+				() -> Response.builder().status(500).build());
+		Response retried = store.execute("key-1", "POST /api/bookings", payment("4111111111111111"), this::slowCreate);
+
+		assertEquals(200, retried.getStatus());
+		assertEquals(1, executions.get());
+	}
+
+	private Response slowCreate() {
+		executions.incrementAndGet();
+		try {
+			Thread.sleep(50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return Response.builder().status(200).message("Booking created").build();
+	}
+
+	private static SimulatedPaymentRequestDTO payment(String cardNumber) {
+		SimulatedPaymentRequestDTO request = new SimulatedPaymentRequestDTO();
+		request.setDummyCardNumber(cardNumber);
+		request.setDummyExpiryDate("12/30");
+		request.setDummyCvv("123");
+		return request;
+	}
+
+	private static void authenticate(String email) {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(email, null, List.of()));
+	}
+}
@@ -0,0 +1,222 @@
+package com.cedric.Eventra.service.lifecycle;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.events.BookingRemindersDueEvent;
+import com.cedric.Eventra.events.BookingsAutoCompletedEvent;
+import com.cedric.Eventra.events.BookingsExpiredEvent;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.BookingSpecifications;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.SchedulerLeaseRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingLifecycleJobTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2030, 3, 14);
+	private static final Instant NOW = TODAY.atTime(10, 0).toInstant(ZoneOffset.UTC);
+	private static final int CHUNK = 500;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private SchedulerLeaseRepository schedulerLeaseRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	void setUp() {
+		deleteAll();
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			User customer = userRepository.save(user("customer@eventra.com", UserRole.CUSTOMER));
+			User provider = userRepository.save(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+			OfferedService service = offeredServiceRepository.save(OfferedService.builder()
+					.name("Catering").price(BigDecimal.TEN).available(true).provider(provider).build());
+
+			List<Booking> bookings = new ArrayList<>();
+			add(bookings, 1100, BookingStatus.PENDING, TODAY.minusDays(1), customer, service);                // expire
+			add(bookings, 30, BookingStatus.ACCEPTED_AWAITING_PAYMENT, TODAY.minusDays(3), customer, service); // expire
+			add(bookings, 20, BookingStatus.PENDING, TODAY, customer, service);                                // still open today
+			add(bookings, 40, BookingStatus.CONFIRMED, TODAY.minusDays(2), customer, service);                 // complete
+			add(bookings, 10, BookingStatus.CONFIRMED, TODAY.minusDays(1), customer, service);                 // within grace
+			add(bookings, 25, BookingStatus.CONFIRMED, TODAY.plusDays(1), customer, service);                  // remind
+			add(bookings, 5, BookingStatus.CONFIRMED, TODAY.plusDays(5), customer, service);                   // too early
+			bookingRepository.saveAll(bookings);
+		});
+	}
+
+	@AfterEach
+	void deleteAll() {
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void passDrainsDueBookingsInChunksAndIsIdempotent() {
+		BookingLifecycleJob job = job(leaseManager("node-a", NOW));
+
+		BookingLifecycleJob.RunSummary summary = job.run();
+
+		assertEquals(new BookingLifecycleJob.RunSummary(true, 25, 1130, 40, false), summary);
+		assertEquals(1130, countIn(BookingStatus.EXPIRED));
+		assertEquals(40, countIn(BookingStatus.COMPLETED));
+		assertEquals(20, countIn(BookingStatus.PENDING));
+		assertEquals(40, countIn(BookingStatus.CONFIRMED));
+		assertEquals(List.of(500, 500, 130), batchSizes(BookingsExpiredEvent.class));
+		assertEquals(List.of(40), batchSizes(BookingsAutoCompletedEvent.class));
+		assertEquals(List.of(25), batchSizes(BookingRemindersDueEvent.class));
+
+		events.clear();
+		assertEquals(new BookingLifecycleJob.RunSummary(true, 0, 0, 0, false), job.run());
+		assertTrue(events.isEmpty(), "reminders and transitions are not repeated");
+	}
+
+	@Test
+	void onlyTheLeaseHolderRuns() {
+		SchedulerLeaseManager nodeA = leaseManager("node-a", NOW);
+		SchedulerLeaseManager nodeB = leaseManager("node-b", NOW.plusSeconds(60));
+
+		assertTrue(nodeA.tryAcquire(BookingLifecycleJob.LEASE_NAME, Duration.ofMinutes(10)));
+		assertFalse(nodeB.tryAcquire(BookingLifecycleJob.LEASE_NAME, Duration.ofMinutes(10)));
+		assertFalse(job(nodeB).run().ran());
+		assertEquals(0, countIn(BookingStatus.EXPIRED));
+
+		// A node that died holding the lease is taken over once the lease lapses
+		SchedulerLeaseManager nodeBLater = leaseManager("node-b", NOW.plusSeconds(11 * 60));
+		assertTrue(nodeBLater.tryAcquire(BookingLifecycleJob.LEASE_NAME, Duration.ofMinutes(10)));
+		assertFalse(leaseManager("node-a", NOW.plusSeconds(12 * 60)).tryAcquire(BookingLifecycleJob.LEASE_NAME, Duration.ofMinutes(10)));
+
+		nodeBLater.release(BookingLifecycleJob.LEASE_NAME);
+		assertTrue(job(leaseManager("node-a", NOW.plusSeconds(12 * 60))).run().ran());
+	}
+
+	@Test
+	void passStopsAtTheChunkWhereTheLeaseWasLost() {
+		SchedulerLeaseManager leaseManager = mock(SchedulerLeaseManager.class);
+		// Taken for the pass, then lost at the renewal after the first expiry chunk
+		when(leaseManager.tryAcquire(eq(BookingLifecycleJob.LEASE_NAME), any())).thenReturn(true, false);
+
+		assertEquals(new BookingLifecycleJob.RunSummary(true, 25, CHUNK, 0, true), job(leaseManager).run());
+		assertEquals(CHUNK, countIn(BookingStatus.EXPIRED));
+		assertEquals(0, countIn(BookingStatus.COMPLETED), "later phases are left to the new lease holder");
+		assertTrue(batchSizes(BookingsAutoCompletedEvent.class).isEmpty());
+		verify(leaseManager).release(BookingLifecycleJob.LEASE_NAME);
+	}
+
+	@Test
+	void nodesTickingTogetherNeverProcessABookingTwice() throws Exception {
+		List<BookingLifecycleJob> nodes = List.of(
+				job(leaseManager("node-a", NOW)), job(leaseManager("node-b", NOW)), job(leaseManager("node-c", NOW)));
+		ExecutorService pool = Executors.newFixedThreadPool(nodes.size());
+		List<BookingLifecycleJob.RunSummary> summaries = new ArrayList<>();
+		try {
+			List<Future<BookingLifecycleJob.RunSummary>> futures = new ArrayList<>();
+			for (BookingLifecycleJob node : nodes) {
+				futures.add(pool.submit(node::run));
+			}
+			for (Future<BookingLifecycleJob.RunSummary> future : futures) {
+				summaries.add(future.get(60, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(1130, summaries.stream().mapToInt(BookingLifecycleJob.RunSummary::expired).sum());
+		assertEquals(25, summaries.stream().mapToInt(BookingLifecycleJob.RunSummary::reminded).sum());
+		Set<Long> expiredIds = new HashSet<>();
+		for (Object event : events) {
+			if (event instanceof BookingsExpiredEvent expired) {
+				expired.getBookings().forEach(booking -> assertTrue(expiredIds.add(booking.getId()), "expired twice: " + booking.getId()));
+			}
+		}
+		assertEquals(1130, expiredIds.size());
+	}
+
+	private BookingLifecycleJob job(SchedulerLeaseManager leaseManager) {
+		ProviderAvailabilityCalendar calendar = new ProviderAvailabilityCalendar(bookingRepository,
+				Duration.ofHours(48), Duration.ofHours(24), 60, 500);
+		ApplicationEventPublisher publisher = events::add;
+		return new BookingLifecycleJob(bookingRepository, leaseManager, calendar,
+				publisher, transactionManager, CHUNK, Duration.ofMinutes(10), 1, 1, Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	private SchedulerLeaseManager leaseManager(String owner, Instant now) {
+		return new SchedulerLeaseManager(schedulerLeaseRepository, entityManager, transactionManager,
+				Clock.fixed(now, ZoneOffset.UTC), owner);
+	}
+
+	private long countIn(BookingStatus status) {
+		return bookingRepository.count(BookingSpecifications.statusIn(List.of(status)));
+	}
+
+	private List<Integer> batchSizes(Class<?> type) {
+		List<Integer> sizes = new ArrayList<>();
+		for (Object event : events) {
+			if (event instanceof BookingsExpiredEvent e && type == BookingsExpiredEvent.class) sizes.add(e.getBookings().size());
+			if (event instanceof BookingsAutoCompletedEvent e && type == BookingsAutoCompletedEvent.class) sizes.add(e.getBookings().size());
+			if (event instanceof BookingRemindersDueEvent e && type == BookingRemindersDueEvent.class) sizes.add(e.getBookings().size());
+		}
+		return sizes;
+	}
+
+	private static void add(List<Booking> bookings, int count, BookingStatus status, LocalDate date, User customer, OfferedService service) {
+		for (int i = 0; i < count; i++) {
+			bookings.add(Booking.builder().bookingReference(status + "-" + date + "-" + i).user(customer)
+					.offeredService(service).price(BigDecimal.TEN).status(status).preferredDate(date).build());
+		}
+	}
+}
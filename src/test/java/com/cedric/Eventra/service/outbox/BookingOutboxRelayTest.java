@@ -0,0 +1,275 @@
+package com.cedric.Eventra.service.outbox;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.Notification;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.OutboxEvent;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.NotificationType;
+import com.cedric.Eventra.enums.OutboxEventType;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.events.BookingCreatedEvent;
+import com.cedric.Eventra.events.BookingsExpiredEvent;
+import com.cedric.Eventra.mapper.EntityDtoMapper;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.NotificationRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.OutboxEventRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.NotificationService;
+import com.cedric.Eventra.service.NotificationServiceImpl;
+import com.cedric.Eventra.service.UserService;
+import com.cedric.Eventra.service.notification.strategy.BookingExpiredContentStrategy;
+import com.cedric.Eventra.service.notification.strategy.NewBookingRequestContentStrategy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Writes outbox rows through the real listener in committed transactions, then drains them with lanes
+ * the test controls: inline for delivery and retries, held back for claims and back-pressure.
+ */
+@DataJpaTest
+@Import(BookingOutbox.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingOutboxRelayTest {
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+	@Autowired
+	private NotificationRepository notificationRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private ServiceProviderProfileRepository serviceProviderProfileRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate tx;
+	private NotificationService notificationService;
+	private final List<Runnable> held = new ArrayList<>();
+	private User customer;
+	private OfferedService service;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		notificationService = spy(new NotificationServiceImpl(notificationRepository, mock(UserService.class),
+				new EntityDtoMapper(), Map.of(
+				"NEW_BOOKING_REQUEST_STRATEGY", new NewBookingRequestContentStrategy(),
+				"BOOKING_EXPIRED_STRATEGY", new BookingExpiredContentStrategy())));
+		tx.executeWithoutResult(status -> {
+			customer = userRepository.save(user("customer@eventra.com", UserRole.CUSTOMER));
+			User provider = userRepository.save(user("provider@eventra.com", UserRole.SERVICE_PROVIDER));
+			serviceProviderProfileRepository.save(ServiceProviderProfile.builder().user(provider)
+					.serviceName("Ben's Kitchen").location("Sydney").postcode("2000").build());
+			service = offeredServiceRepository.save(OfferedService.builder().name("Catering")
+					.price(BigDecimal.TEN).available(true).provider(provider).build());
+		});
+	}
+
+	@AfterEach
+	void deleteAll() {
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void eventsCommitWithTheBookingAndAreDeliveredFromOneLoad() {
+		tx.executeWithoutResult(status -> {
+			Booking booking = bookingRepository.save(booking("REF1"));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+		});
+		tx.executeWithoutResult(status -> {
+			List<Booking> bookings = bookingRepository.saveAll(List.of(booking("REF2"), booking("REF3")));
+			eventPublisher.publishEvent(new BookingsExpiredEvent(this, bookings));
+		});
+		// A rolled-back change records nothing
+		tx.executeWithoutResult(status -> {
+			Booking booking = bookingRepository.save(booking("REF4"));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+			status.setRollbackOnly();
+		});
+		assertEquals(2, outboxEventRepository.count());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		assertEquals(2, relay(Runnable::run, 10, 3, Duration.ZERO).drain());
+
+		// The customers, services and providers came with the one booking load, nothing was fetched per event
+		assertEquals(0, statistics.getEntityFetchCount());
+		assertEquals(0, outboxEventRepository.count());
+		List<Notification> notifications = notificationRepository.findAll();
+		assertEquals(1, notifications.stream().filter(n -> n.getNotificationType() == NotificationType.NEW_BOOKING_REQUEST).count());
+		assertEquals(4, notifications.stream().filter(n -> n.getNotificationType() == NotificationType.BOOKING_EXPIRED).count());
+	}
+
+	@Test
+	void failedDeliveriesAreRetriedAndParkedAfterMaxAttempts() {
+		tx.executeWithoutResult(status -> {
+			Booking booking = bookingRepository.save(booking("REF1"));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+		});
+		doThrow(new IllegalStateException("mail relay down")).doCallRealMethod()
+				.when(notificationService).notifyBookingEvent(any(), any(), any());
+		BookingOutboxRelay relay = relay(Runnable::run, 10, 2, Duration.ZERO);
+
+		relay.drain();
+		OutboxEvent retrying = outboxEventRepository.findAll().get(0);
+		assertEquals(1, retrying.getAttempts());
+		assertTrue(retrying.getLastError().contains("mail relay down"));
+		assertEquals(0, notificationRepository.count());
+
+		relay.drain();
+		assertEquals(0, outboxEventRepository.count());
+		assertEquals(1, notificationRepository.count());
+
+		tx.executeWithoutResult(status -> {
+			Booking booking = bookingRepository.save(booking("REF2"));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+		});
+		doThrow(new IllegalStateException("mail relay down")).when(notificationService).notifyBookingEvent(any(), any(), any());
+		relay.drain();
+		relay.drain();
+		assertEquals(0, relay.drain(), "parked rows are not claimed again");
+		OutboxEvent parked = outboxEventRepository.findAll().get(0);
+		assertEquals(2, parked.getAttempts());
+		assertNotNull(parked.getFailedAt());
+		assertEquals(OutboxEventType.BOOKING_CREATED, parked.getEventType());
+	}
+
+	@Test
+	void claimedRowsAreNotReclaimedAndFullLanesPauseClaiming() {
+		tx.executeWithoutResult(status -> {
+			for (int i = 0; i < 3; i++) {
+				Booking booking = bookingRepository.save(booking("REF" + i));
+				eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+			}
+		});
+		// One row may be in flight: the poller claims one and then waits for the lane
+		BookingOutboxRelay relay = relay(held::add, 1, 3, Duration.ZERO);
+		assertEquals(1, relay.drain());
+		assertEquals(0, relay.drain());
+		assertEquals(3, outboxEventRepository.count());
+
+		runHeld();
+		assertEquals(2, outboxEventRepository.count());
+
+		// With room for all, the two left are claimed once; a second poller finds nothing due
+		BookingOutboxRelay roomy = relay(held::add, 10, 3, Duration.ZERO);
+		assertEquals(2, roomy.drain());
+		assertEquals(0, roomy.drain());
+		runHeld();
+		assertEquals(0, outboxEventRepository.count());
+		assertEquals(3, notificationRepository.count());
+	}
+
+	@Test
+	void laterEventsOfABookingWaitForItsEarlierOnes() {
+		List<Booking> bookings = new ArrayList<>();
+		tx.executeWithoutResult(status -> {
+			bookings.addAll(bookingRepository.saveAll(List.of(booking("REF1"), booking("REF2"))));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, bookings.get(0)));
+		});
+		// Mentions the first booking too, so it queues behind its creation
+		tx.executeWithoutResult(status -> eventPublisher.publishEvent(new BookingsExpiredEvent(this, bookings)));
+		tx.executeWithoutResult(status -> eventPublisher.publishEvent(new BookingCreatedEvent(this, bookings.get(1))));
+		doThrow(new IllegalStateException("mail relay down")).doCallRealMethod()
+				.when(notificationService).notifyBookingEvent(any(), any(), any());
+		BookingOutboxRelay relay = relay(Runnable::run, 10, 3, Duration.ZERO);
+
+		// The first creation fails and waits for its retry; the batch event is held back by it
+		assertEquals(1, relay.drain());
+		assertEquals(3, outboxEventRepository.count());
+		assertEquals(0, notificationRepository.count());
+
+		assertEquals(1, relay.drain());
+		assertEquals(1, notificationRepository.count());
+		assertEquals(1, relay.drain(), "the batch event is next; the second creation still waits behind it");
+		assertEquals(1, relay.drain());
+		assertEquals(0, outboxEventRepository.count());
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event_bookings", Integer.class));
+	}
+
+	@Test
+	void parkedRowsDoNotHoldBackLaterEventsOfTheirBookings() {
+		List<Booking> bookings = new ArrayList<>();
+		tx.executeWithoutResult(status -> {
+			bookings.add(bookingRepository.save(booking("REF1")));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, bookings.get(0)));
+		});
+		tx.executeWithoutResult(status -> eventPublisher.publishEvent(new BookingsExpiredEvent(this, bookings)));
+		doThrow(new IllegalStateException("mail relay down")).doCallRealMethod()
+				.when(notificationService).notifyBookingEvent(any(), any(), any());
+		BookingOutboxRelay relay = relay(Runnable::run, 10, 1, Duration.ZERO);
+
+		// The creation is parked on its only attempt; the expiry behind it is delivered anyway
+		assertEquals(1, relay.drain());
+		assertEquals(1, relay.drain());
+		assertEquals(1, outboxEventRepository.count());
+		assertEquals(1, outboxEventRepository.countByFailedAtIsNotNull());
+		assertEquals(2, notificationRepository.count());
+	}
+
+	private BookingOutboxRelay relay(Executor lane, int maxInFlight, int maxAttempts, Duration retryBackoff) {
+		return new BookingOutboxRelay(outboxEventRepository, bookingRepository, notificationService, transactionManager,
+				List.of(lane), maxInFlight, 100, maxAttempts, Duration.ofMinutes(5), retryBackoff, Clock.systemDefaultZone());
+	}
+
+	private void runHeld() {
+		List<Runnable> tasks = new ArrayList<>(held);
+		held.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+	// Loads the participants in the caller's transaction, as CreateBookingCommandHandler does
+	private Booking booking(String reference) {
+		return Booking.builder().bookingReference(reference)
+				.user(userRepository.findById(customer.getId()).orElseThrow())
+				.offeredService(offeredServiceRepository.findById(service.getId()).orElseThrow())
+				.price(BigDecimal.TEN).status(BookingStatus.PENDING).build();
+	}
+}
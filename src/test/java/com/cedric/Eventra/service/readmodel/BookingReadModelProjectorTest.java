@@ -0,0 +1,189 @@
+package com.cedric.Eventra.service.readmodel;
+
+import com.cedric.Eventra.entity.Booking;
+import com.cedric.Eventra.entity.BookingReadModel;
+import com.cedric.Eventra.entity.OfferedService;
+import com.cedric.Eventra.entity.ServiceProviderProfile;
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.events.BookingCreatedEvent;
+import com.cedric.Eventra.events.BookingStatusChangedEvent;
+import com.cedric.Eventra.events.BookingsExpiredEvent;
+import com.cedric.Eventra.repository.BookingReadModelRepository;
+import com.cedric.Eventra.repository.BookingRepository;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.repository.UserRepository;
+import com.cedric.Eventra.service.availability.ProviderAvailabilityCalendar;
+import com.cedric.Eventra.service.availability.ProviderSlotGuard;
+import com.cedric.Eventra.service.booking.BookingStateMachine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.cedric.Eventra.support.TestFixtures.deleteAllRows;
+import static com.cedric.Eventra.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the projector as a bean so the events reach it through the real listener wiring; every step
+ * commits, so joining the publisher's transaction, rolling back with it and running without one are exercised.
+ */
+@DataJpaTest
+@Import({BookingReadModelProjector.class, BookingStateMachine.class, ProviderAvailabilityCalendar.class, ProviderSlotGuard.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingReadModelProjectorTest {
+
+	@Autowired
+	private BookingReadModelProjector projector;
+	@Autowired
+	private BookingReadModelRepository bookingReadModelRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private OfferedServiceRepository offeredServiceRepository;
+	@Autowired
+	private ServiceProviderProfileRepository serviceProviderProfileRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	@Autowired
+	private BookingStateMachine stateMachine;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate tx;
+	private User customer;
+	private User provider;
+	private OfferedService service;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		tx.executeWithoutResult(status -> {
+			customer = userRepository.save(user("customer@eventra.com", "Ava", UserRole.CUSTOMER));
+			provider = userRepository.save(user("provider@eventra.com", "Ben", UserRole.SERVICE_PROVIDER));
+			serviceProviderProfileRepository.save(ServiceProviderProfile.builder().user(provider)
+					.serviceName("Ben's Kitchen").location("Sydney").postcode("2000").build());
+			service = offeredServiceRepository.save(OfferedService.builder().name("Catering")
+					.price(BigDecimal.TEN).available(true).provider(provider).build());
+		});
+	}
+
+	@AfterEach
+	void deleteAll() {
+		deleteAllRows(jdbcTemplate);
+	}
+
+	@Test
+	void eventsAreProjectedWithTheirTransactionAndNeverRegress() {
+		Long id = tx.execute(status -> {
+			Booking booking = bookingRepository.save(booking("REF1"));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+			return booking.getId();
+		});
+		BookingReadModel created = bookingReadModelRepository.findById(id).orElseThrow();
+		assertEquals(BookingStatus.PENDING, created.getStatus());
+		assertEquals("Ava", created.getCustomerFirstName());
+		assertEquals("Catering", created.getServiceName());
+		assertEquals("Ben's Kitchen", created.getProviderBusinessName());
+
+		Booking stale = bookingRepository.findById(id).orElseThrow();
+		tx.executeWithoutResult(status -> {
+			Booking booking = bookingRepository.findCurrentById(id).orElseThrow();
+			booking.setStatus(BookingStatus.ACCEPTED_AWAITING_PAYMENT);
+			eventPublisher.publishEvent(new BookingStatusChangedEvent(this, booking, BookingStatus.PENDING));
+		});
+		assertEquals(BookingStatus.ACCEPTED_AWAITING_PAYMENT, bookingReadModelRepository.findById(id).orElseThrow().getStatus());
+
+		// An event carrying an older copy of the booking, published outside any transaction, is ignored
+		eventPublisher.publishEvent(new BookingsExpiredEvent(this, List.of(stale)));
+		assertEquals(BookingStatus.ACCEPTED_AWAITING_PAYMENT, bookingReadModelRepository.findById(id).orElseThrow().getStatus());
+
+		// A rolled-back change leaves no trace in the read model
+		tx.executeWithoutResult(status -> {
+			Booking booking = bookingRepository.save(booking("REF2"));
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+			status.setRollbackOnly();
+		});
+		assertEquals(1, bookingReadModelRepository.count());
+		assertEquals(0, projector.getStatus().getStaleBookings());
+	}
+
+	@Test
+	void everyStateMachineTransitionReachesTheReadModel() {
+		Long id = tx.execute(status -> {
+			Booking booking = booking("REF1");
+			booking.setStatus(BookingStatus.ACCEPTED_AWAITING_PAYMENT);
+			booking = bookingRepository.save(booking);
+			eventPublisher.publishEvent(new BookingCreatedEvent(this, booking));
+			return booking.getId();
+		});
+
+		// PAYMENT_FAILED has no dedicated event; the state machine's own event carries it
+		BookingStateMachine.TransitionResult result = tx.execute(status -> stateMachine.transition(
+				bookingRepository.findCurrentById(id).orElseThrow(), BookingStatus.PAYMENT_FAILED,
+				EnumSet.of(BookingStatus.ACCEPTED_AWAITING_PAYMENT)));
+
+		assertTrue(result.applied());
+		BookingReadModel row = bookingReadModelRepository.findById(id).orElseThrow();
+		assertEquals(BookingStatus.PAYMENT_FAILED, row.getStatus());
+		assertEquals(result.booking().getVersion(), row.getSourceVersion());
+		assertEquals(0, projector.getStatus().getStaleBookings());
+	}
+
+	@Test
+	void catchUpRebuildAndRenamesRepairTheReadModel() {
+		// Bookings written without events (e.g. before the read model existed) show up as lag
+		List<Long> ids = tx.execute(status -> bookingRepository.saveAll(List.of(booking("REF1"), booking("REF2"), booking("REF3")))
+				.stream().map(Booking::getId).toList());
+		assertEquals(3, projector.getStatus().getStaleBookings());
+
+		assertEquals(3, projector.catchUp());
+		assertEquals(0, projector.getStatus().getStaleBookings());
+		assertEquals(0, projector.catchUp());
+
+		tx.executeWithoutResult(status -> {
+			User renamed = userRepository.findById(customer.getId()).orElseThrow();
+			renamed.setFirstName("Avery");
+			OfferedService service = offeredServiceRepository.findById(this.service.getId()).orElseThrow();
+			service.setName("Event Catering");
+		});
+		BookingReadModel row = bookingReadModelRepository.findById(ids.get(0)).orElseThrow();
+		assertEquals("Avery", row.getCustomerFirstName());
+		assertEquals("Event Catering", row.getServiceName());
+
+		tx.executeWithoutResult(status -> bookingRepository.deleteAllByIdInBatch(List.of(ids.get(2))));
+		assertEquals(2, projector.rebuild());
+		assertEquals(2, bookingReadModelRepository.count());
+		assertFalse(bookingReadModelRepository.existsById(ids.get(2)));
+		assertTrue(projector.getStatus().getLastRebuildAt() != null);
+	}
+
+	// Loads the participants in the caller's transaction, as CreateBookingCommandHandler does
+	private Booking booking(String reference) {
+		return Booking.builder().bookingReference(reference)
+				.user(userRepository.findById(customer.getId()).orElseThrow())
+				.offeredService(offeredServiceRepository.findById(service.getId()).orElseThrow())
+				.price(BigDecimal.TEN).status(BookingStatus.PENDING).build();
+	}
+}
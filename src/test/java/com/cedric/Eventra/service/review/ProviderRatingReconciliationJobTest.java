@@ -0,0 +1,98 @@
+package com.cedric.Eventra.service.review;
+
+import com.cedric.Eventra.repository.ReviewRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository.RatingAggregate;
+import com.cedric.Eventra.service.lifecycle.SchedulerLeaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProviderRatingReconciliationJobTest {
+
+	private final ServiceProviderProfileRepository serviceProviderProfileRepository = mock(ServiceProviderProfileRepository.class);
+	private final ReviewRepository reviewRepository = mock(ReviewRepository.class);
+	private final ProviderRatingAggregator providerRatingAggregator = mock(ProviderRatingAggregator.class);
+	private final SchedulerLeaseManager schedulerLeaseManager = mock(SchedulerLeaseManager.class);
+	private ProviderRatingReconciliationJob job;
+
+	@BeforeEach
+	void setUp() {
+		job = new ProviderRatingReconciliationJob(serviceProviderProfileRepository, reviewRepository,
+				providerRatingAggregator, schedulerLeaseManager, Duration.ofMinutes(10));
+		// 500 providers without reviews, then one whose stored count has drifted
+		List<RatingAggregate> firstPage = LongStream.rangeClosed(1, 500).mapToObj(id -> aggregate(id, 0L)).toList();
+		List<RatingAggregate> secondPage = List.of(aggregate(501L, 3L));
+		when(serviceProviderProfileRepository.findStoredRatingAggregates(eq(0L), any(Pageable.class))).thenReturn(firstPage);
+		when(serviceProviderProfileRepository.findStoredRatingAggregates(eq(500L), any(Pageable.class))).thenReturn(secondPage);
+		when(providerRatingAggregator.reconcile(anyLong())).thenReturn(true);
+	}
+
+	@Test
+	void onlyTheLeaseHolderReconciles() {
+		when(schedulerLeaseManager.tryAcquire(eq(ProviderRatingReconciliationJob.LEASE_NAME), any())).thenReturn(false);
+
+		job.reconcileAll();
+
+		verifyNoInteractions(reviewRepository, serviceProviderProfileRepository, providerRatingAggregator);
+		verify(schedulerLeaseManager, never()).release(any());
+	}
+
+	@Test
+	void leaseIsRenewedBetweenPagesAndReleasedAtTheEnd() {
+		when(schedulerLeaseManager.tryAcquire(eq(ProviderRatingReconciliationJob.LEASE_NAME), any())).thenReturn(true);
+
+		job.reconcileAll();
+
+		verify(schedulerLeaseManager, times(2)).tryAcquire(eq(ProviderRatingReconciliationJob.LEASE_NAME), any());
+		verify(providerRatingAggregator).reconcile(501L);
+		verify(schedulerLeaseManager).release(ProviderRatingReconciliationJob.LEASE_NAME);
+	}
+
+	@Test
+	void actualAggregatesAreReadPerPageForThatPageOnly() {
+		when(schedulerLeaseManager.tryAcquire(eq(ProviderRatingReconciliationJob.LEASE_NAME), any())).thenReturn(true);
+		// 501's stored count matches the reviews table, so nothing has drifted
+		List<RatingAggregate> actual = List.of(aggregate(501L, 3L));
+		when(reviewRepository.computeRatingAggregatesFor(List.of(501L))).thenReturn(actual);
+
+		job.reconcileAll();
+
+		verify(reviewRepository).computeRatingAggregatesFor(LongStream.rangeClosed(1, 500).boxed().toList());
+		verify(reviewRepository).computeRatingAggregatesFor(List.of(501L));
+		verify(providerRatingAggregator, never()).reconcile(anyLong());
+	}
+
+	@Test
+	void passStopsWhenTheLeaseIsLost() {
+		when(schedulerLeaseManager.tryAcquire(eq(ProviderRatingReconciliationJob.LEASE_NAME), any())).thenReturn(true, false);
+
+		job.reconcileAll();
+
+		verify(serviceProviderProfileRepository, never()).findStoredRatingAggregates(eq(500L), any(Pageable.class));
+		verify(providerRatingAggregator, never()).reconcile(anyLong());
+		verify(schedulerLeaseManager).release(ProviderRatingReconciliationJob.LEASE_NAME);
+	}
+
+	private static RatingAggregate aggregate(long providerId, long reviewCount) {
+		RatingAggregate aggregate = mock(RatingAggregate.class);
+		when(aggregate.getProviderId()).thenReturn(providerId);
+		when(aggregate.getReviewCount()).thenReturn(reviewCount);
+		when(aggregate.getRatingSum()).thenReturn(0.0);
+		return aggregate;
+	}
+}
@@ -0,0 +1,38 @@
+package com.cedric.Eventra.service.review;
+
+import com.cedric.Eventra.enums.BookingStatus;
+import com.cedric.Eventra.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReviewEligibilityCacheTest {
+
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final ReviewEligibilityCache cache = new ReviewEligibilityCache(bookingRepository, Duration.ofMinutes(30), 100);
+
+	@Test
+	void refusalIsNotCachedSoACompletionOnAnotherNodeIsSeenAtOnce() {
+		when(bookingRepository.existsByUserAndProviderAndStatus(1L, 2L, BookingStatus.COMPLETED)).thenReturn(false, true);
+
+		assertFalse(cache.isEligible(1L, 2L));
+		// The booking was completed elsewhere; nothing here was told
+		assertTrue(cache.isEligible(1L, 2L));
+	}
+
+	@Test
+	void eligibilityIsCached() {
+		when(bookingRepository.existsByUserAndProviderAndStatus(1L, 2L, BookingStatus.COMPLETED)).thenReturn(true);
+
+		assertTrue(cache.isEligible(1L, 2L));
+		assertTrue(cache.isEligible(1L, 2L));
+		verify(bookingRepository, times(1)).existsByUserAndProviderAndStatus(1L, 2L, BookingStatus.COMPLETED);
+	}
+}
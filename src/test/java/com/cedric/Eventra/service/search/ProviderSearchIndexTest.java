@@ -0,0 +1,162 @@
+package com.cedric.Eventra.service.search;
+
+import com.cedric.Eventra.enums.ServiceCategory;
+import com.cedric.Eventra.enums.UserRole;
+import com.cedric.Eventra.repository.OfferedServiceRepository;
+import com.cedric.Eventra.repository.ServiceProviderProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProviderSearchIndexTest {
+
+	private final ServiceProviderProfileRepository serviceProviderProfileRepository = mock(ServiceProviderProfileRepository.class);
+	private final OfferedServiceRepository offeredServiceRepository = mock(OfferedServiceRepository.class);
+	private ProviderSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		when(serviceProviderProfileRepository.findSearchDocumentRows()).thenReturn(List.of(
+				profile(1L, "Harbour Photography", ServiceCategory.PHOTOGRAPHER, "Manly", "2095"),
+				profile(2L, "Golden Plates", ServiceCategory.CATERING, "Parramatta", "2150"),
+				profile(3L, "Bondi Bites", ServiceCategory.CATERING, "Bondi", "2026"),
+				profile(4L, "Closed Kitchen", ServiceCategory.CATERING, "Bondi", "2026")));
+		when(offeredServiceRepository.findSearchDocumentRows()).thenReturn(List.of(
+				service(2L, 20L, "Wedding catering", "Canapes and plated dinners"),
+				service(3L, 30L, "Beach picnic", "Photography-friendly grazing boards"),
+				service(4L, 40L, "Catering", "Buffets")));
+		index = new ProviderSearchIndex(serviceProviderProfileRepository, offeredServiceRepository);
+		index.rebuild();
+		index.updateProviderStatus(4L, false, UserRole.SERVICE_PROVIDER);
+	}
+
+	@Test
+	void everyTokenMustMatchExactlyAsAPrefixOrWithinAFewEdits() {
+		assertEquals(List.of(1L, 3L), search("photography"));
+		assertEquals(List.of(1L, 3L), search("photo"), "prefix");
+		assertEquals(List.of(1L, 3L), search("photgraphy"), "one edit, matched through shared trigrams");
+		assertEquals(List.of(2L), search("wedding parramatta"));
+		assertEquals(List.of(), search("wedding bondi"));
+		assertEquals(List.of(), search("xyzzy"));
+		assertEquals(List.of(), search("  "));
+	}
+
+	@Test
+	void strongerFieldsAndExactMatchesRankFirst() {
+		// Provider 1 has it in its service name (weight 3), provider 3 only in a description (weight 1)
+		assertEquals(List.of(1L, 3L), search("photography"));
+		// Both match the category exactly; provider 2 also has it as an offered service name
+		assertEquals(List.of(2L, 3L), search("catering"));
+
+		ProviderSearchIndex.SearchResult firstPage = index.search("catering", 0, 1);
+		assertEquals(List.of(2L), firstPage.providerIds());
+		assertEquals(2, firstPage.totalResults());
+		assertEquals(List.of(3L), index.search("catering", 1, 1).providerIds());
+	}
+
+	@Test
+	void upsertsAndRemovalsAreSearchableImmediately() {
+		index.upsertProfile(5L, "Sunset Strings", ServiceCategory.MUSICIAN, "Cronulla", "2230", true, UserRole.SERVICE_PROVIDER);
+		index.upsertService(5L, 50L, "String quartet", "Ceremony music");
+		assertEquals(List.of(5L), search("quartet cronulla"));
+
+		index.upsertProfile(5L, "Sunset Strings", ServiceCategory.MUSICIAN, "Wollongong", "2500", true, UserRole.SERVICE_PROVIDER);
+		assertEquals(List.of(), search("cronulla"), "old field values are unindexed");
+		assertEquals(List.of(5L), search("wollongong"));
+
+		index.removeService(5L, 50L);
+		assertEquals(List.of(), search("quartet"));
+		index.updateProviderStatus(3L, false, UserRole.SERVICE_PROVIDER);
+		index.removeProvider(2L);
+		assertEquals(List.of(), search("catering"));
+		index.updateProviderStatus(4L, true, UserRole.SERVICE_PROVIDER);
+		assertEquals(List.of(4L), search("catering"));
+	}
+
+	@Test
+	void updatesCommittedWhileTheRebuildReadsTheDatabaseAreKept() {
+		// The listener applies these after the profile rows were read but before the rebuilt index is swapped in
+		when(offeredServiceRepository.findSearchDocumentRows()).thenAnswer(invocation -> {
+			index.upsertProfile(1L, "Harbour Photography", ServiceCategory.PHOTOGRAPHER, "Mosman", "2088", true, UserRole.SERVICE_PROVIDER);
+			index.upsertProfile(6L, "New Florals", ServiceCategory.FLORIST, "Newtown", "2042", true, UserRole.SERVICE_PROVIDER);
+			index.removeProvider(3L);
+			return List.of(service(2L, 20L, "Wedding catering", "Canapes and plated dinners"));
+		});
+
+		index.rebuild();
+
+		assertEquals(List.of(1L), search("mosman"));
+		assertEquals(List.of(), search("manly"));
+		assertEquals(List.of(6L), search("florals"));
+		// Provider 4 was only deactivated in memory (in setUp); its stored row is active
+		assertEquals(List.of(2L, 4L), search("catering"));
+
+		// No longer recording: a later rebuild sees only what the database returns
+		index.upsertProfile(7L, "Late Addition", ServiceCategory.FLORIST, "Newtown", "2042", true, UserRole.SERVICE_PROVIDER);
+		when(offeredServiceRepository.findSearchDocumentRows()).thenReturn(List.of());
+		index.rebuild();
+		assertEquals(List.of(), search("late"));
+	}
+
+	private List<Long> search(String query) {
+		return index.search(query, 0, 20).providerIds();
+	}
+
+	private static ServiceProviderProfileRepository.SearchDocumentRow profile(Long providerId, String serviceName,
+																			  ServiceCategory category, String location, String postcode) {
+		return new ServiceProviderProfileRepository.SearchDocumentRow() {
+			public Long getProviderId() {
+				return providerId;
+			}
+
+			public String getServiceName() {
+				return serviceName;
+			}
+
+			public ServiceCategory getServiceCategory() {
+				return category;
+			}
+
+			public String getLocation() {
+				return location;
+			}
+
+			public String getPostcode() {
+				return postcode;
+			}
+
+			public Boolean getIsActive() {
+				return true;
+			}
+
+			public UserRole getRole() {
+				return UserRole.SERVICE_PROVIDER;
+			}
+		};
+	}
+
+	private static OfferedServiceRepository.SearchDocumentRow service(Long providerId, Long serviceId, String name, String description) {
+		return new OfferedServiceRepository.SearchDocumentRow() {
+			public Long getProviderId() {
+				return providerId;
+			}
+
+			public Long getServiceId() {
+				return serviceId;
+			}
+
+			public String getName() {
+				return name;
+			}
+
+			public String getDescription() {
+				return description;
+			}
+		};
+	}
+}
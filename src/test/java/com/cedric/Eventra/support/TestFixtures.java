@@ -0,0 +1,43 @@
+package com.cedric.Eventra.support;
+
+import com.cedric.Eventra.entity.User;
+import com.cedric.Eventra.enums.UserRole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Entities and database housekeeping shared by the repository-backed tests.
+ */
+public final class TestFixtures {
+
+	private TestFixtures() {
+	}
+
+	public static User user(String email, UserRole role) {
+		return user(email, "Test", role);
+	}
+
+	public static User user(String email, String firstName, UserRole role) {
+		return User.builder().email(email).password("secret").firstName(firstName).lastName("User")
+				.phoneNumber("0400000000").role(role).isActive(true).build();
+	}
+
+	/**
+	 * Empties every table of the embedded H2 database. Tests that commit rows call this so the database shared
+	 * by the cached test context is left empty for the next test, whatever order the foreign keys need.
+	 */
+	public static void deleteAllRows(JdbcTemplate jdbcTemplate) {
+		List<String> tables = jdbcTemplate.queryForList(
+				"SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'",
+				String.class);
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		try {
+			for (String table : tables) {
+				jdbcTemplate.execute("DELETE FROM " + table);
+			}
+		} finally {
+			jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+		}
+	}
+}